@@ -18,6 +18,7 @@ package org.finos.legend.depot.store.artifacts.purge.services;
 import org.finos.legend.depot.artifacts.repository.domain.ArtifactType;
 import org.finos.legend.depot.domain.api.MetadataEventResponse;
 import org.finos.legend.depot.domain.project.ProjectData;
+import org.finos.legend.depot.services.api.entities.ManageEntitiesService;
 import org.finos.legend.depot.services.api.projects.ManageProjectsService;
 import org.finos.legend.depot.store.artifacts.api.ProjectArtifactsHandler;
 import org.finos.legend.depot.store.artifacts.purge.api.ArtifactsPurgeService;
@@ -49,12 +50,14 @@ public class ArtifactsPurgeServiceImpl implements ArtifactsPurgeService
     private static final String PURGE_OLDEST = "purge_old";
 
     private final ManageProjectsService projects;
+    private final ManageEntitiesService entities;
 
 
     @Inject
-    public ArtifactsPurgeServiceImpl(ManageProjectsService projects)
+    public ArtifactsPurgeServiceImpl(ManageProjectsService projects, ManageEntitiesService entities)
     {
         this.projects = projects;
+        this.entities = entities;
     }
 
 
@@ -99,7 +102,10 @@ public class ArtifactsPurgeServiceImpl implements ArtifactsPurgeService
             ProjectData project = getProject(groupId, artifactId);
             project.removeVersion(versionId);
             PrometheusMetricsFactory.getInstance().incrementCount(VERSION_PURGE_COUNTER);
-            return projects.createOrUpdate(project);
+            ProjectData updated = projects.createOrUpdate(project);
+            //the purged version may have been the latest release, whose entities carried the flag
+            entities.markLatestVersion(groupId, artifactId, project.getLatestVersionAsString());
+            return updated;
         });
     }
 
@@ -18,6 +18,7 @@ package org.finos.legend.depot.store.artifacts.services;
 import org.finos.legend.depot.artifacts.repository.api.ArtifactRepository;
 import org.finos.legend.depot.artifacts.repository.domain.ArtifactType;
 import org.finos.legend.depot.domain.api.MetadataEventResponse;
+import org.finos.legend.depot.domain.entity.StoredEntity;
 import org.finos.legend.depot.domain.project.ProjectData;
 import org.finos.legend.depot.services.api.entities.ManageEntitiesService;
 import org.finos.legend.depot.services.api.projects.ManageProjectsService;
@@ -45,7 +46,11 @@ import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.util.Collections;
 import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import static org.finos.legend.depot.domain.version.VersionValidator.MASTER_SNAPSHOT;
 import static org.mockito.Mockito.mock;
@@ -63,7 +68,7 @@ public class TestArtifactsPurgeService extends TestStoreMongo
     protected UpdateFileGenerations fileGenerationsStore = new FileGenerationsMongo(mongoProvider);
 
     protected ManageEntitiesService entitiesService = new EntitiesServiceImpl(entitiesStore, projectsService);
-    protected ArtifactsPurgeService purgeService = new ArtifactsPurgeServiceImpl(projectsService);
+    protected ArtifactsPurgeService purgeService = new ArtifactsPurgeServiceImpl(projectsService, entitiesService);
 
 
 
@@ -168,4 +173,25 @@ public class TestArtifactsPurgeService extends TestStoreMongo
         Assert.assertFalse(projectsStore.find(TEST_GROUP_ID,TEST_ARTIFACT_ID).get().getVersions().contains(versionId));
     }
 
+    @Test
+    public void purgingLatestVersionMarksThePreviousRelease()
+    {
+        entitiesStore.markLatestVersion(TEST_GROUP_ID, TEST_ARTIFACT_ID, "2.3.0");
+        Assert.assertEquals(Collections.singleton("2.3.0"), latestVersions());
+
+        purgeService.delete(TEST_GROUP_ID, TEST_ARTIFACT_ID, "2.3.0");
+        Assert.assertEquals(Collections.singleton("2.2.0"), latestVersions());
+
+        purgeService.deleteOldestProjectVersions(TEST_GROUP_ID, TEST_ARTIFACT_ID, 0);
+        Assert.assertTrue(latestVersions().isEmpty());
+    }
+
+    private Set<String> latestVersions()
+    {
+        try (Stream<StoredEntity> latest = entitiesStore.streamLatestEntitySummaries(TEST_GROUP_ID, TEST_ARTIFACT_ID))
+        {
+            return latest.map(StoredEntity::getVersionId).filter(versionId -> !MASTER_SNAPSHOT.equals(versionId)).collect(Collectors.toSet());
+        }
+    }
+
 }
@@ -26,6 +26,7 @@ import org.finos.legend.depot.store.artifacts.api.entities.VersionedEntityArtifa
 import org.finos.legend.depot.store.artifacts.api.generation.file.FileGenerationsArtifactsHandler;
 import org.finos.legend.depot.store.artifacts.api.generation.file.FileGenerationsArtifactsProvider;
 import org.finos.legend.depot.store.artifacts.services.ArtifactHandlerFactory;
+import org.finos.legend.depot.store.artifacts.services.RefreshExecutor;
 import org.finos.legend.depot.store.artifacts.services.entities.EntitiesHandlerImpl;
 import org.finos.legend.depot.store.artifacts.services.entities.EntityProvider;
 import org.finos.legend.depot.store.artifacts.services.entities.VersionedEntitiesHandlerImpl;
@@ -48,6 +49,10 @@ public class ArtifactsModule extends PrivateModule
         bind(VersionedEntitiesArtifactsHandler.class).to(VersionedEntitiesHandlerImpl.class);
         bind(FileGenerationsArtifactsHandler.class).to(FileGenerationHandlerImpl.class);
 
+        //the handlers write through the pipeline writers of the one executor the refresh service runs on
+        bind(RefreshExecutor.class).in(Singleton.class);
+        expose(RefreshExecutor.class);
+
         expose(EntitiesArtifactsHandler.class);
         expose(VersionedEntitiesArtifactsHandler.class);
         expose(FileGenerationsArtifactsHandler.class);
@@ -50,6 +50,8 @@ public class ArtifactsRefreshModule extends PrivateModule
         bind(ManageRefreshStatusService.class).to(MongoRefreshStatus.class);
         bind(RefreshStatusService.class).to(MongoRefreshStatus.class);
 
+        //one instance owns the refresh thread pool, which is shut down with the server
+        bind(ArtifactsRefreshServiceImpl.class).in(Singleton.class);
         bind(ArtifactsRefreshService.class).to(ArtifactsRefreshServiceImpl.class);
         bind(NotificationEventHandler.class).to(ArtifactRefreshEventHandler.class);
 
@@ -68,6 +70,8 @@ public class ArtifactsRefreshModule extends PrivateModule
     {
         metricsHandler.registerCounter(ArtifactsRefreshServiceImpl.VERSION_REFRESH_COUNTER, ArtifactsRefreshServiceImpl.TOTAL_NUMBER_OF_VERSIONS_REFRESH);
         metricsHandler.registerHistogram(ArtifactsRefreshServiceImpl.VERSION_REFRESH_DURATION, ArtifactsRefreshServiceImpl.VERSION_REFRESH_DURATION_HELP);
+        metricsHandler.registerGauge(ArtifactsRefreshServiceImpl.REFRESH_TASKS_ACTIVE, ArtifactsRefreshServiceImpl.REFRESH_TASKS_ACTIVE_HELP);
+        metricsHandler.registerGauge(ArtifactsRefreshServiceImpl.REFRESH_TASKS_QUEUED, ArtifactsRefreshServiceImpl.REFRESH_TASKS_QUEUED_HELP);
         return true;
     }
 
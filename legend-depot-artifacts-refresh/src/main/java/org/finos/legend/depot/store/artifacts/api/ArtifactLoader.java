@@ -19,6 +19,7 @@ import org.finos.legend.depot.artifacts.repository.domain.ArtifactType;
 
 import java.io.File;
 import java.util.List;
+import java.util.function.Consumer;
 import java.util.stream.Stream;
 
 public interface ArtifactLoader<T>
@@ -34,4 +35,14 @@ public interface ArtifactLoader<T>
 
     List<T> loadArtifactsForType(Stream<File> files);
 
+    default int loadArtifacts(List<File> files, int batchSize, Consumer<List<T>> batchConsumer)
+    {
+        List<T> artifacts = loadArtifacts(files);
+        for (int start = 0; start < artifacts.size(); start += batchSize)
+        {
+            batchConsumer.accept(artifacts.subList(start, Math.min(start + batchSize, artifacts.size())));
+        }
+        return artifacts.size();
+    }
+
 }
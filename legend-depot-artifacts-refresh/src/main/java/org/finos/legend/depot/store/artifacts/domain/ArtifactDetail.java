@@ -24,6 +24,8 @@ public class ArtifactDetail implements HasIdentifier
 {
     private String checkSum;
     private String path;
+    private long size;
+    private long lastModified;
 
     public ArtifactDetail()
     {
@@ -35,6 +37,13 @@ public class ArtifactDetail implements HasIdentifier
         this.checkSum = checkSum;
     }
 
+    public ArtifactDetail(String path, String checkSum, long size, long lastModified)
+    {
+        this(path, checkSum);
+        this.size = size;
+        this.lastModified = lastModified;
+    }
+
     public String getCheckSum()
     {
         return checkSum;
@@ -57,6 +66,28 @@ public class ArtifactDetail implements HasIdentifier
         return this;
     }
 
+    public long getSize()
+    {
+        return size;
+    }
+
+    public ArtifactDetail setSize(long size)
+    {
+        this.size = size;
+        return this;
+    }
+
+    public long getLastModified()
+    {
+        return lastModified;
+    }
+
+    public ArtifactDetail setLastModified(long lastModified)
+    {
+        this.lastModified = lastModified;
+        return this;
+    }
+
     @Override
     @JsonIgnore
     public String getId()
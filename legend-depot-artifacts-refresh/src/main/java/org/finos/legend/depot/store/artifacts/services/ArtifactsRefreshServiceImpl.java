@@ -15,10 +15,10 @@
 
 package org.finos.legend.depot.store.artifacts.services;
 
-import org.apache.commons.codec.digest.DigestUtils;
+import io.dropwizard.lifecycle.Managed;
 import org.apache.maven.model.Model;
-import org.eclipse.collections.impl.parallel.ParallelIterate;
 import org.finos.legend.depot.artifacts.repository.api.ArtifactRepositoryException;
+import org.finos.legend.depot.artifacts.repository.api.ArtifactRepositoryProviderConfiguration;
 import org.finos.legend.depot.artifacts.repository.domain.ArtifactDependency;
 import org.finos.legend.depot.artifacts.repository.domain.ArtifactType;
 import org.finos.legend.depot.artifacts.repository.services.RepositoryServices;
@@ -46,7 +46,6 @@ import org.slf4j.Logger;
 
 import javax.inject.Inject;
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.IOException;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
@@ -63,7 +62,7 @@ import java.util.stream.Collectors;
 
 import static org.finos.legend.depot.domain.version.VersionValidator.MASTER_SNAPSHOT;
 
-public class ArtifactsRefreshServiceImpl implements ArtifactsRefreshService
+public class ArtifactsRefreshServiceImpl implements ArtifactsRefreshService, Managed
 {
 
     private static final String ALL = "all";
@@ -83,6 +82,10 @@ public class ArtifactsRefreshServiceImpl implements ArtifactsRefreshService
     public static final String VERSION_REFRESH_DURATION = "versionRefresh_duration";
     public static final String VERSION_REFRESH_DURATION_HELP = "version refresh duration";
     public static final String TOTAL_NUMBER_OF_VERSIONS_REFRESH = "total number of versions refresh";
+    public static final String REFRESH_TASKS_ACTIVE = "refreshTasks_active";
+    public static final String REFRESH_TASKS_ACTIVE_HELP = "refresh tasks currently executing";
+    public static final String REFRESH_TASKS_QUEUED = "refreshTasks_queued";
+    public static final String REFRESH_TASKS_QUEUED_HELP = "refresh tasks waiting for an executor thread";
 
     private final ManageProjectsService projects;
     private final ManageRefreshStatusService store;
@@ -90,10 +93,21 @@ public class ArtifactsRefreshServiceImpl implements ArtifactsRefreshService
     private final UpdateArtifacts artifacts;
     private final Queue workQueue;
     private final List<String> projectProperties;
+    private final RefreshExecutor refreshExecutor;
 
 
-    @Inject
     public ArtifactsRefreshServiceImpl(ManageProjectsService projects, ManageRefreshStatusService store, RepositoryServices repositoryServices, UpdateArtifacts artifacts, Queue refreshWorkQueue, IncludeProjectPropertiesConfiguration includePropertyConfig)
+    {
+        this(projects, store, repositoryServices, artifacts, refreshWorkQueue, includePropertyConfig, ArtifactRepositoryProviderConfiguration.voidConfiguration());
+    }
+
+    public ArtifactsRefreshServiceImpl(ManageProjectsService projects, ManageRefreshStatusService store, RepositoryServices repositoryServices, UpdateArtifacts artifacts, Queue refreshWorkQueue, IncludeProjectPropertiesConfiguration includePropertyConfig, ArtifactRepositoryProviderConfiguration repositoryConfiguration)
+    {
+        this(projects, store, repositoryServices, artifacts, refreshWorkQueue, includePropertyConfig, new RefreshExecutor(repositoryConfiguration));
+    }
+
+    @Inject
+    public ArtifactsRefreshServiceImpl(ManageProjectsService projects, ManageRefreshStatusService store, RepositoryServices repositoryServices, UpdateArtifacts artifacts, Queue refreshWorkQueue, IncludeProjectPropertiesConfiguration includePropertyConfig, RefreshExecutor refreshExecutor)
     {
         this.projects = projects;
         this.store = store;
@@ -101,6 +115,7 @@ public class ArtifactsRefreshServiceImpl implements ArtifactsRefreshService
         this.artifacts = artifacts;
         this.workQueue = refreshWorkQueue;
         this.projectProperties = includePropertyConfig.getProperties();
+        this.refreshExecutor = refreshExecutor;
 
         try
         {
@@ -198,7 +213,7 @@ public class ArtifactsRefreshServiceImpl implements ArtifactsRefreshService
                     result.addMessage(String.format("Executing :[%s-%s-%s]",ALL,ALL,ALL));
                     result.addMessage(String.format("Parent event :[%s], full/transitive :[%s/%s]",parentEvent,fullUpdate,transitive));
                     LOGGER.info("Executing {},{}{}{}",REFRESH_ALL_VERSIONS_FOR_ALL_PROJECTS,ALL, ALL, ALL);
-                    ParallelIterate.forEach(getProjects(),project -> result.combine(refreshAllVersionsForProject(project,fullUpdate,transitive,parentEvent)));
+                    result.combine(refreshExecutor.forEach(getProjects(), project -> refreshAllVersionsForProject(project, fullUpdate, transitive, parentEvent)));
                     return result;
                 }
         );
@@ -214,7 +229,14 @@ public class ArtifactsRefreshServiceImpl implements ArtifactsRefreshService
                     result.addMessage(String.format("Executing :[%s-%s-%s]",ALL,ALL,ALL));
                     result.addMessage(String.format("Parent event :[%s], full/transitive :[%s/%s]",parentEvent,fullUpdate,transitive));
                     LOGGER.info("Executing {},{}{}{}",REFRESH_MASTER_SNAPSHOT_FOR_ALL_PROJECTS,ALL, ALL, MASTER_SNAPSHOT);
-                    ParallelIterate.forEach(getProjects(), project -> result.addMessage(queueWorkToRefreshProjectVersion(project, MASTER_SNAPSHOT, fullUpdate,transitive, parentEvent)));
+                    result.combine(refreshExecutor.forEach(getProjects(), project ->
+                    {
+                        if (!refreshExecutor.awaitQueueCapacity(workQueue::size))
+                        {
+                            return new MetadataEventResponse().addError(queueFullMessage(project, MASTER_SNAPSHOT));
+                        }
+                        return new MetadataEventResponse().addMessage(queueWorkToRefreshProjectVersion(project, MASTER_SNAPSHOT, fullUpdate, transitive, parentEvent));
+                    }));
                     return result;
                 }
         );
@@ -243,6 +265,22 @@ public class ArtifactsRefreshServiceImpl implements ArtifactsRefreshService
         return parentEventId != null ? parentEventId : groupId + SEPARATOR + artifactId + SEPARATOR + versionId;
     }
 
+    private static String queueFullMessage(ProjectData project, String versions)
+    {
+        return String.format("work queue is full, refresh of %s-%s %s not queued", project.getGroupId(), project.getArtifactId(), versions);
+    }
+
+    @Override
+    public void start()
+    {
+    }
+
+    @Override
+    public void stop()
+    {
+        refreshExecutor.shutdown();
+    }
+
     private String queueWorkToRefreshProjectVersion(ProjectData projectData, String versionId, boolean fullUpdate,boolean transitive, String parentEvent)
     {
         return this.workQueue.push(new MetadataNotification(projectData.getProjectId(),projectData.getGroupId(),projectData.getArtifactId(),versionId,fullUpdate,transitive,parentEvent));
@@ -274,7 +312,12 @@ public class ArtifactsRefreshServiceImpl implements ArtifactsRefreshService
                 try
                 {
                     List<VersionId> versionsInRepo = this.repositoryServices.findVersions(groupId, artifactId);
-                    if (versionsInRepo.isEmpty() || !versionsInRepo.contains(VersionId.parseVersionId(versionId)))
+                    if (!containsVersion(versionsInRepo, versionId))
+                    {
+                        //version ranges can be cached, the version may have been published since
+                        versionsInRepo = this.repositoryServices.findLatestVersions(groupId, artifactId);
+                    }
+                    if (!containsVersion(versionsInRepo, versionId))
                     {
                         response.addError(String.format("Version %s does not exists for %s-%s", versionId, groupId, artifactId));
                         return response;
@@ -290,6 +333,11 @@ public class ArtifactsRefreshServiceImpl implements ArtifactsRefreshService
     }
 
 
+    private boolean containsVersion(List<VersionId> versions, String versionId)
+    {
+        return !versions.isEmpty() && versions.contains(VersionId.parseVersionId(versionId));
+    }
+
     private MetadataEventResponse refreshVersionForProject(ProjectData project, String versionId, boolean fullUpdate,boolean transitive,String parentEventId)
     {
         return executeWithTrace(REFRESH_PROJECT_VERSION_ARTIFACTS, project.getGroupId(), project.getArtifactId(), versionId, parentEventId, () ->
@@ -449,7 +497,7 @@ public class ArtifactsRefreshServiceImpl implements ArtifactsRefreshService
             List<VersionId> repoVersions;
             try
             {
-                repoVersions = this.repositoryServices.findVersions(project.getGroupId(), project.getArtifactId());
+                repoVersions = refreshExecutor.withRepositoryPermit(() -> this.repositoryServices.findVersions(project.getGroupId(), project.getArtifactId()));
             }
             catch (ArtifactRepositoryException e)
             {
@@ -471,6 +519,11 @@ public class ArtifactsRefreshServiceImpl implements ArtifactsRefreshService
                 String versionInfoMessage = String.format("%s found [%s] versions to update: %s", projectArtifacts, candidateVersions.size(), candidateVersions);
                 getLOGGER().info(versionInfoMessage);
                 response.addMessage(versionInfoMessage);
+                if (!candidateVersions.isEmpty() && !refreshExecutor.awaitQueueCapacity(workQueue::size))
+                {
+                    response.addError(queueFullMessage(project, candidateVersions.toString()));
+                    return response;
+                }
                 candidateVersions.forEach(v -> response.addMessage(queueWorkToRefreshProjectVersion(project, v.toVersionIdString(), fullUpdate, transitive, parentEventId)));
                 LOGGER.info("Finished processing all versions {}{}", project.getGroupId(), project.getArtifactId());
             }
@@ -488,30 +541,41 @@ public class ArtifactsRefreshServiceImpl implements ArtifactsRefreshService
     private List<File> findArtifactFiles(ArtifactType type, ProjectData project, String versionId, boolean includeUnchangedFiles)
     {
         List<File> filesFromRepo = this.repositoryServices.findFiles(type, project.getGroupId(), project.getArtifactId(), versionId);
-        return filesFromRepo.stream().filter(file -> includeUnchangedFiles || artifactFileHasChangedOrNotBeenProcessed(file)).collect(Collectors.toList());
+        if (includeUnchangedFiles || filesFromRepo.isEmpty())
+        {
+            return filesFromRepo;
+        }
+        Map<String, ArtifactDetail> processedFiles = this.artifacts.find(filesFromRepo.stream().map(File::getPath).collect(Collectors.toList()))
+                .stream().collect(Collectors.toMap(ArtifactDetail::getPath, detail -> detail, (first, second) -> first));
+        return filesFromRepo.stream().filter(file -> artifactFileHasChangedOrNotBeenProcessed(file, processedFiles.get(file.getPath()))).collect(Collectors.toList());
     }
 
-    private boolean artifactFileHasChangedOrNotBeenProcessed(File file)
+    boolean artifactFileHasChangedOrNotBeenProcessed(File file, ArtifactDetail artifactDetails)
     {
         String filePath = file.getPath();
-        Optional<ArtifactDetail> artifactDetails = this.artifacts.find(filePath);
+        long size = file.length();
+        long lastModified = file.lastModified();
+        if (artifactDetails != null && artifactDetails.getSize() == size && artifactDetails.getLastModified() == lastModified)
+        {
+            return false;
+        }
         try
         {
-            String fileCheckSum = DigestUtils.sha256Hex(new FileInputStream(filePath));
-            if (!artifactDetails.isPresent() || !MessageDigest.isEqual(fileCheckSum.getBytes(), artifactDetails.get().getCheckSum().getBytes()))
+            String fileCheckSum = FileChecksum.sha256Hex(file.toPath());
+            boolean changed = artifactDetails == null || !MessageDigest.isEqual(fileCheckSum.getBytes(), artifactDetails.getCheckSum().getBytes());
+            if (changed)
             {
                 LOGGER.info("loading artifacts from updated file: {}", filePath);
                 LOGGER.info("file check sum: {}", fileCheckSum);
-                this.artifacts.createOrUpdate(new ArtifactDetail(filePath, fileCheckSum));
-                return true;
             }
+            this.artifacts.createOrUpdate(new ArtifactDetail(filePath, fileCheckSum, size, lastModified));
+            return changed;
         }
         catch (IOException e)
         {
             LOGGER.error(e.getMessage());
             return true;
         }
-        return false;
     }
 
     @Override
@@ -0,0 +1,266 @@
+//  Copyright 2021 Goldman Sachs
+//
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//       http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+//
+
+package org.finos.legend.depot.store.artifacts.services;
+
+import org.finos.legend.depot.artifacts.repository.api.ArtifactRepositoryProviderConfiguration;
+import org.finos.legend.depot.domain.api.MetadataEventResponse;
+import org.finos.legend.depot.tracing.services.prometheus.PrometheusMetricsFactory;
+import org.slf4j.Logger;
+
+import javax.inject.Inject;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+import static org.finos.legend.depot.store.artifacts.services.ArtifactsRefreshServiceImpl.REFRESH_TASKS_ACTIVE;
+import static org.finos.legend.depot.store.artifacts.services.ArtifactsRefreshServiceImpl.REFRESH_TASKS_QUEUED;
+
+/**
+ * Fans bulk refresh work out over a bounded pool. Submissions beyond the task queue capacity run on the
+ * submitting thread, repository calls are capped by a semaphore, and callers can wait for the work queue
+ * to drain below a threshold before pushing more events onto it; work that cannot be queued in time is failed.
+ * It also owns the bounded pools of {@link RefreshPipeline} writer threads and entity parser threads, one of each per
+ * refresh thread, which are shared with the artifact handlers and providers.
+ */
+public class RefreshExecutor
+{
+    private static final Logger LOGGER = org.slf4j.LoggerFactory.getLogger(RefreshExecutor.class);
+    private static final long QUEUE_POLL_INTERVAL_IN_MILLIS = 1000L;
+    private static final long MAX_QUEUE_WAIT_IN_MILLIS = 5 * 60 * 1000L;
+    private static final long SHUTDOWN_WAIT_IN_SECONDS = 30L;
+
+    private final ThreadPoolExecutor executor;
+    private final ThreadPoolExecutor pipelineWriters;
+    private final ThreadPoolExecutor entityParsers;
+    private final Semaphore repositoryPermits;
+    private final long maxQueuedEvents;
+    private final long maxQueueWaitInMillis;
+    private final AtomicInteger active = new AtomicInteger();
+
+    @Inject
+    public RefreshExecutor(ArtifactRepositoryProviderConfiguration configuration)
+    {
+        this(configuration.getRefreshParallelism(), configuration.getMaxConcurrentRepositoryRequests(), configuration.getMaxQueuedRefreshEvents());
+    }
+
+    RefreshExecutor(int parallelism, int maxConcurrentRepositoryRequests, long maxQueuedEvents)
+    {
+        this(parallelism, maxConcurrentRepositoryRequests, maxQueuedEvents, MAX_QUEUE_WAIT_IN_MILLIS);
+    }
+
+    RefreshExecutor(int parallelism, int maxConcurrentRepositoryRequests, long maxQueuedEvents, long maxQueueWaitInMillis)
+    {
+        int threads = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        this.executor = new ThreadPoolExecutor(threads, threads, 60L, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(threads * 4), new RefreshThreadFactory("refresh-executor-"), RefreshExecutor::runOnCaller);
+        this.executor.allowCoreThreadTimeOut(true);
+        //never queues: a pipeline that finds no idle writer writes its batches itself
+        this.pipelineWriters = new ThreadPoolExecutor(0, threads, 60L, TimeUnit.SECONDS, new SynchronousQueue<>(), new RefreshThreadFactory("refresh-pipeline-writer-"));
+        //same shape for entity parsing: a loader that finds no idle parser parses the entity itself
+        this.entityParsers = new ThreadPoolExecutor(0, threads, 60L, TimeUnit.SECONDS, new SynchronousQueue<>(), new RefreshThreadFactory("refresh-entity-parser-"), (task, pool) -> task.run());
+        this.repositoryPermits = new Semaphore(maxConcurrentRepositoryRequests > 0 ? maxConcurrentRepositoryRequests : Integer.MAX_VALUE, true);
+        this.maxQueuedEvents = maxQueuedEvents;
+        this.maxQueueWaitInMillis = maxQueueWaitInMillis;
+    }
+
+    <T> MetadataEventResponse forEach(Collection<T> items, Function<T, MetadataEventResponse> task)
+    {
+        List<CompletableFuture<MetadataEventResponse>> futures = new ArrayList<>(items.size());
+        items.forEach(item ->
+        {
+            try
+            {
+                futures.add(CompletableFuture.supplyAsync(() -> track(() -> task.apply(item)), executor));
+            }
+            catch (RejectedExecutionException e)
+            {
+                futures.add(CompletableFuture.failedFuture(e));
+            }
+        });
+
+        MetadataEventResponse result = new MetadataEventResponse();
+        futures.forEach(future ->
+        {
+            try
+            {
+                result.combine(future.join());
+            }
+            catch (CompletionException e)
+            {
+                String message = String.format("Refresh task failed: %s", e.getCause() != null ? e.getCause().getMessage() : e.getMessage());
+                LOGGER.error(message, e);
+                result.addError(message);
+            }
+        });
+        return result;
+    }
+
+    <T, E extends Exception> T withRepositoryPermit(RepositoryCall<T, E> repositoryCall) throws E
+    {
+        repositoryPermits.acquireUninterruptibly();
+        try
+        {
+            return repositoryCall.get();
+        }
+        finally
+        {
+            repositoryPermits.release();
+        }
+    }
+
+    /**
+     * @return false when the work queue did not drain below the threshold in time, in which case the caller must not queue more work
+     */
+    boolean awaitQueueCapacity(LongSupplier queueSize)
+    {
+        if (maxQueuedEvents <= 0)
+        {
+            return true;
+        }
+        long waitingSince = System.currentTimeMillis();
+        while (queueSize.getAsLong() >= maxQueuedEvents)
+        {
+            if (System.currentTimeMillis() - waitingSince > maxQueueWaitInMillis)
+            {
+                LOGGER.warn("Work queue still above [{}] events after {} ms, failing refresh", maxQueuedEvents, maxQueueWaitInMillis);
+                return false;
+            }
+            try
+            {
+                Thread.sleep(Math.min(QUEUE_POLL_INTERVAL_IN_MILLIS, Math.max(1L, maxQueueWaitInMillis)));
+            }
+            catch (InterruptedException e)
+            {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public ExecutorService getPipelineWriters()
+    {
+        return pipelineWriters;
+    }
+
+    public ExecutorService getEntityParsers()
+    {
+        return entityParsers;
+    }
+
+    void shutdown()
+    {
+        shutdown(executor, "Refresh tasks");
+        shutdown(pipelineWriters, "Refresh pipeline writers");
+        shutdown(entityParsers, "Refresh entity parsers");
+    }
+
+    private static void shutdown(ThreadPoolExecutor pool, String label)
+    {
+        pool.shutdown();
+        try
+        {
+            if (!pool.awaitTermination(SHUTDOWN_WAIT_IN_SECONDS, TimeUnit.SECONDS))
+            {
+                LOGGER.warn("{} still running after {}s, interrupting them", label, SHUTDOWN_WAIT_IN_SECONDS);
+                pool.shutdownNow();
+            }
+        }
+        catch (InterruptedException e)
+        {
+            pool.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void runOnCaller(Runnable task, ThreadPoolExecutor pool)
+    {
+        //unlike CallerRunsPolicy, work submitted after shutdown fails rather than being silently dropped and never completing
+        if (pool.isShutdown())
+        {
+            throw new RejectedExecutionException("refresh executor has been shut down");
+        }
+        task.run();
+    }
+
+    int getActiveCount()
+    {
+        return active.get();
+    }
+
+    int getQueuedCount()
+    {
+        return executor.getQueue().size();
+    }
+
+    private <R> R track(Supplier<R> work)
+    {
+        updateGauges(active.incrementAndGet());
+        try
+        {
+            return work.get();
+        }
+        finally
+        {
+            updateGauges(active.decrementAndGet());
+        }
+    }
+
+    private void updateGauges(int activeTasks)
+    {
+        PrometheusMetricsFactory.getInstance().setGauge(REFRESH_TASKS_ACTIVE, activeTasks);
+        PrometheusMetricsFactory.getInstance().setGauge(REFRESH_TASKS_QUEUED, executor.getQueue().size());
+    }
+
+    @FunctionalInterface
+    interface RepositoryCall<T, E extends Exception>
+    {
+        T get() throws E;
+    }
+
+    private static class RefreshThreadFactory implements ThreadFactory
+    {
+        private final String namePrefix;
+        private final AtomicInteger count = new AtomicInteger();
+
+        private RefreshThreadFactory(String namePrefix)
+        {
+            this.namePrefix = namePrefix;
+        }
+
+        @Override
+        public Thread newThread(Runnable runnable)
+        {
+            Thread thread = new Thread(runnable, namePrefix + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
@@ -0,0 +1,188 @@
+//  Copyright 2021 Goldman Sachs
+//
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//       http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+//
+
+package org.finos.legend.depot.store.artifacts.services;
+
+import org.finos.legend.depot.domain.api.MetadataEventResponse;
+import org.slf4j.Logger;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Two stage refresh pipeline: the calling thread reads, parses and transforms batches while a writer thread stores
+ * the previous ones. Batches are handed over through a bounded queue, so a slow store blocks the reader and at most
+ * {@code capacity + 2} batches are held in memory at any time. Writer threads come from the pool passed in, normally
+ * the {@link RefreshExecutor} writers; without a pool, or when none of its threads is free, batches are written on the
+ * calling thread as they are read.
+ */
+public final class RefreshPipeline<T>
+{
+    public static final int DEFAULT_CAPACITY = 2;
+    private static final Logger LOGGER = org.slf4j.LoggerFactory.getLogger(RefreshPipeline.class);
+
+    private final List<T> endOfBatches = new ArrayList<>();
+    private final BlockingQueue<List<T>> batches;
+    private final Function<List<T>, MetadataEventResponse> writer;
+    private final AtomicReference<RuntimeException> writeFailure = new AtomicReference<>();
+
+    private RefreshPipeline(int capacity, Function<List<T>, MetadataEventResponse> writer)
+    {
+        this.batches = new ArrayBlockingQueue<>(Math.max(capacity, 1));
+        this.writer = writer;
+    }
+
+    public static <T> MetadataEventResponse run(ExecutorService writerPool, Consumer<Consumer<List<T>>> reader, Function<List<T>, MetadataEventResponse> writer)
+    {
+        return run(writerPool, DEFAULT_CAPACITY, reader, writer);
+    }
+
+    static <T> MetadataEventResponse run(ExecutorService writerPool, int capacity, Consumer<Consumer<List<T>>> reader, Function<List<T>, MetadataEventResponse> writer)
+    {
+        return new RefreshPipeline<>(capacity, writer).execute(writerPool, reader);
+    }
+
+    private MetadataEventResponse execute(ExecutorService writerPool, Consumer<Consumer<List<T>>> reader)
+    {
+        Future<MetadataEventResponse> written;
+        try
+        {
+            written = writerPool != null ? writerPool.submit(this::write) : null;
+        }
+        catch (RejectedExecutionException e)
+        {
+            written = null;
+        }
+        if (written == null)
+        {
+            return executeOnCaller(reader);
+        }
+        RuntimeException readFailure = null;
+        try
+        {
+            reader.accept(this::handOver);
+        }
+        catch (RuntimeException e)
+        {
+            readFailure = e;
+        }
+        try
+        {
+            enqueue(endOfBatches);
+        }
+        catch (IllegalStateException e)
+        {
+            written.cancel(true);
+            throw e;
+        }
+        MetadataEventResponse response = awaitWriter(written);
+        if (writeFailure.get() != null)
+        {
+            throw writeFailure.get();
+        }
+        if (readFailure != null)
+        {
+            throw readFailure;
+        }
+        return response;
+    }
+
+    private MetadataEventResponse executeOnCaller(Consumer<Consumer<List<T>>> reader)
+    {
+        MetadataEventResponse response = new MetadataEventResponse();
+        reader.accept(batch ->
+        {
+            if (!batch.isEmpty())
+            {
+                response.combine(writer.apply(batch));
+            }
+        });
+        return response;
+    }
+
+    private void handOver(List<T> batch)
+    {
+        if (writeFailure.get() != null)
+        {
+            throw new IllegalStateException("refresh writer failed, stopped reading", writeFailure.get());
+        }
+        if (!batch.isEmpty())
+        {
+            enqueue(batch);
+        }
+    }
+
+    private void enqueue(List<T> batch)
+    {
+        try
+        {
+            batches.put(batch);
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("interrupted handing batch over to refresh writer", e);
+        }
+    }
+
+    private MetadataEventResponse write() throws InterruptedException
+    {
+        MetadataEventResponse response = new MetadataEventResponse();
+        List<T> batch;
+        while ((batch = batches.take()) != endOfBatches)
+        {
+            //after a failure keep draining so the reader is never left blocked on a full queue
+            if (writeFailure.get() == null)
+            {
+                try
+                {
+                    response.combine(writer.apply(batch));
+                }
+                catch (RuntimeException e)
+                {
+                    LOGGER.error("error writing refresh batch of [{}] items: {}", batch.size(), e.getMessage());
+                    writeFailure.set(e);
+                }
+            }
+        }
+        return response;
+    }
+
+    private MetadataEventResponse awaitWriter(Future<MetadataEventResponse> written)
+    {
+        try
+        {
+            return written.get();
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("interrupted waiting for refresh writer", e);
+        }
+        catch (ExecutionException e)
+        {
+            throw new IllegalStateException("refresh writer failed", e.getCause());
+        }
+    }
+}
@@ -17,30 +17,44 @@ package org.finos.legend.depot.store.artifacts.services.entities;
 
 import org.finos.legend.depot.artifacts.repository.domain.ArtifactType;
 import org.finos.legend.depot.domain.api.MetadataEventResponse;
+import org.finos.legend.depot.domain.entity.EntityContentHash;
 import org.finos.legend.depot.domain.entity.StoredEntity;
 import org.finos.legend.depot.domain.project.ProjectData;
 import org.finos.legend.depot.domain.version.VersionValidator;
 import org.finos.legend.depot.services.api.entities.ManageEntitiesService;
 import org.finos.legend.depot.store.artifacts.api.entities.EntityArtifactsProvider;
+import org.finos.legend.depot.store.artifacts.services.RefreshExecutor;
+import org.finos.legend.depot.store.artifacts.services.RefreshPipeline;
 import org.finos.legend.sdlc.domain.model.entity.Entity;
+import org.finos.legend.sdlc.domain.model.version.VersionId;
 import org.slf4j.Logger;
 
 import java.io.File;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
 
 
 public abstract class AbstractEntityRefreshHandlerImpl
 {
     private static final Logger LOGGER = org.slf4j.LoggerFactory.getLogger(AbstractEntityRefreshHandlerImpl.class);
+    protected static final int DEFAULT_STORE_BATCH_SIZE = 1000;
 
     private final EntityArtifactsProvider entitiesProvider;
     private final ManageEntitiesService entitiesApi;
+    private final ExecutorService pipelineWriters;
+    private final int storeBatchSize;
 
 
-    protected AbstractEntityRefreshHandlerImpl(ManageEntitiesService entitiesService, EntityArtifactsProvider artifactProvider)
+    protected AbstractEntityRefreshHandlerImpl(ManageEntitiesService entitiesService, EntityArtifactsProvider artifactProvider, RefreshExecutor refreshExecutor, Integer storeBatchSize)
     {
         this.entitiesApi = entitiesService;
         this.entitiesProvider = artifactProvider;
+        this.pipelineWriters = refreshExecutor != null ? refreshExecutor.getPipelineWriters() : null;
+        this.storeBatchSize = storeBatchSize != null && storeBatchSize > 0 ? storeBatchSize : DEFAULT_STORE_BATCH_SIZE;
     }
 
     protected Logger getLOGGER()
@@ -77,30 +91,30 @@ public abstract class AbstractEntityRefreshHandlerImpl
         try
         {
             String gavCoordinates = getGAVCoordinates(project, versionId);
-            List<Entity> entityList = getEntities(files);
-            if (entityList != null && !entityList.isEmpty())
+            if (versionId.equals(VersionValidator.MASTER_SNAPSHOT))
             {
-                String message = String.format("[%s]: found [%s] %s for [%s] ", project.getProjectId(), entityList.size(), this.entitiesProvider.getType(), gavCoordinates);
-                getLOGGER().info(message);
-                response.addMessage(message);
-                List<StoredEntity> storedEntities = transformVersionedEntities(project, versionId, entityList);
-                if (versionId.equals(VersionValidator.MASTER_SNAPSHOT))
-                {
-                    MetadataEventResponse deleteResponse = getEntitiesApi().delete(project.getGroupId(), project.getArtifactId(),versionId,this.entitiesProvider.getType().equals(ArtifactType.VERSIONED_ENTITIES));
-                    message = String.format("removed [%s] %s [%s-%s]",storedEntities.size(),this.entitiesProvider.getType(),gavCoordinates,versionId);
-                    getLOGGER().info(message);
-                    response.addMessage(message);
-                    response.combine(deleteResponse);
-                }
-                response.combine(getEntitiesApi().createOrUpdate(storedEntities));
+                response.combine(refreshSnapshotArtifacts(project, versionId, files, gavCoordinates));
             }
             else
             {
-                String message = String.format("[%s]: found 0 %s for [%s] ", project.getProjectId(), this.entitiesProvider.getType(), gavCoordinates);
+                AtomicInteger found = new AtomicInteger();
+                response.combine(RefreshPipeline.<StoredEntity>run(pipelineWriters,
+                        batchWriter -> found.set(this.entitiesProvider.loadArtifacts(files, storeBatchSize, entityList -> batchWriter.accept(transformVersionedEntities(project, versionId, entityList)))),
+                        storedEntities -> getEntitiesApi().createOrUpdate(storedEntities)));
+                String message = String.format("[%s]: found [%s] %s for [%s] ", project.getProjectId(), found.get(), this.entitiesProvider.getType(), gavCoordinates);
                 getLOGGER().info(message);
                 response.addMessage(message);
+                if (!response.hasErrors())
+                {
+                    //released versions never change once stored, so whole version reads can be served from a single pre-serialised snapshot
+                    response.combine(getEntitiesApi().createSnapshot(project.getGroupId(), project.getArtifactId(), versionId, this.entitiesProvider.getType().equals(ArtifactType.VERSIONED_ENTITIES)));
+                }
+                if (!response.hasErrors() && isLatestVersion(project, versionId))
+                {
+                    //classifier queries over released versions only read the entities flagged as their project's latest release
+                    response.combine(getEntitiesApi().markLatestVersion(project.getGroupId(), project.getArtifactId(), versionId));
+                }
             }
-
         }
         catch (Exception e)
         {
@@ -111,10 +125,44 @@ public abstract class AbstractEntityRefreshHandlerImpl
         return response;
     }
 
-    private List<Entity> getEntities(List<File> files)
+    private boolean isLatestVersion(ProjectData project, String versionId)
     {
-        return entitiesProvider.loadArtifacts(files);
+        VersionId version = VersionId.parseVersionId(versionId);
+        return project.getVersionIds().stream().allMatch(existing -> existing.compareTo(version) <= 0);
     }
 
-
+    private MetadataEventResponse refreshSnapshotArtifacts(ProjectData project, String versionId, List<File> files, String gavCoordinates)
+    {
+        //snapshots are diffed against what is stored, so unchanged entities are not rewritten and readers never see the project empty
+        boolean versioned = this.entitiesProvider.getType().equals(ArtifactType.VERSIONED_ENTITIES);
+        Map<String, String> existing = new HashMap<>(getEntitiesApi().getContentHashes(project.getGroupId(), project.getArtifactId(), versionId, versioned));
+        AtomicInteger found = new AtomicInteger();
+        AtomicInteger changed = new AtomicInteger();
+        MetadataEventResponse response = RefreshPipeline.<StoredEntity>run(pipelineWriters,
+                batchWriter -> found.set(this.entitiesProvider.loadArtifacts(files, storeBatchSize, entityList ->
+                {
+                    List<StoredEntity> changedEntities = transformVersionedEntities(project, versionId, entityList).stream()
+                            .filter(storedEntity -> !EntityContentHash.of(storedEntity.getEntity()).equals(existing.remove(storedEntity.getEntity().getPath())))
+                            .collect(Collectors.toList());
+                    changed.addAndGet(changedEntities.size());
+                    batchWriter.accept(changedEntities);
+                })),
+                storedEntities -> getEntitiesApi().createOrUpdate(storedEntities));
+        //stale entities are only removed once every batch was read (a read failure throws above) and stored without errors;
+        //an artifact read with no entities in it empties the project, no artifact resolved at all leaves it untouched
+        boolean removeStale = !existing.isEmpty() && !response.hasErrors() && files.stream().anyMatch(this.entitiesProvider::matchesArtifactType);
+        if (removeStale)
+        {
+            response.combine(getEntitiesApi().delete(project.getGroupId(), project.getArtifactId(), versionId, versioned, existing.keySet()));
+        }
+        String message = String.format("[%s]: found [%s] %s for [%s], [%s] unchanged, [%s] added or updated, [%s] removed", project.getProjectId(), found.get(), this.entitiesProvider.getType(), gavCoordinates,
+                found.get() - changed.get(), changed.get(), removeStale ? existing.size() : 0);
+        getLOGGER().info(message);
+        response.addMessage(message);
+        if (!response.hasErrors())
+        {
+            response.combine(getEntitiesApi().updateVersionEtag(project.getGroupId(), project.getArtifactId(), versionId, versioned));
+        }
+        return response;
+    }
 }
@@ -23,9 +23,11 @@ import org.finos.legend.depot.domain.version.VersionValidator;
 import org.finos.legend.depot.services.api.entities.ManageEntitiesService;
 import org.finos.legend.depot.store.artifacts.api.entities.EntitiesArtifactsHandler;
 import org.finos.legend.depot.store.artifacts.api.entities.EntityArtifactsProvider;
+import org.finos.legend.depot.store.artifacts.services.RefreshExecutor;
 import org.finos.legend.sdlc.domain.model.entity.Entity;
 
 import javax.inject.Inject;
+import javax.inject.Named;
 import java.io.File;
 import java.util.ArrayList;
 import java.util.List;
@@ -33,9 +35,14 @@ import java.util.List;
 public class EntitiesHandlerImpl extends AbstractEntityRefreshHandlerImpl implements EntitiesArtifactsHandler
 {
     @Inject
+    public EntitiesHandlerImpl(ManageEntitiesService entitiesService, EntityArtifactsProvider artifactProvider, RefreshExecutor refreshExecutor, @Named("bulkWriteBatchSize") Integer storeBatchSize)
+    {
+        super(entitiesService, artifactProvider, refreshExecutor, storeBatchSize);
+    }
+
     public EntitiesHandlerImpl(ManageEntitiesService entitiesService, EntityArtifactsProvider artifactProvider)
     {
-        super(entitiesService, artifactProvider);
+        this(entitiesService, artifactProvider, null, DEFAULT_STORE_BATCH_SIZE);
     }
 
     @Override
@@ -18,25 +18,59 @@ package org.finos.legend.depot.store.artifacts.services.entities;
 import org.finos.legend.depot.artifacts.repository.domain.ArtifactType;
 import org.finos.legend.depot.store.artifacts.ArtifactLoadingException;
 import org.finos.legend.depot.store.artifacts.api.entities.EntityArtifactsProvider;
+import org.finos.legend.depot.store.artifacts.services.RefreshExecutor;
 import org.finos.legend.sdlc.domain.model.entity.Entity;
 import org.finos.legend.sdlc.serialization.EntityLoader;
+import org.finos.legend.sdlc.serialization.EntitySerializer;
+import org.finos.legend.sdlc.serialization.EntitySerializers;
 
 import javax.inject.Inject;
 import javax.inject.Singleton;
 import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
 
 
 @Singleton
 public class EntityProvider implements EntityArtifactsProvider
 {
+    private static final int DEFAULT_BATCH_SIZE = 1000;
+    private static final String ENTITIES_DIRECTORY = "entities/";
+    private static final Map<String, EntitySerializer> SERIALIZERS_BY_EXTENSION = serializersByExtension();
+
+    private final ExecutorService parsers;
+
     @Inject
+    public EntityProvider(RefreshExecutor refreshExecutor)
+    {
+        this.parsers = refreshExecutor.getEntityParsers();
+    }
+
     public EntityProvider()
     {
-        super();
+        this.parsers = null;
+    }
+
+    private static Map<String, EntitySerializer> serializersByExtension()
+    {
+        //the default json serializer wins over any other serializer claiming the same extension
+        Map<String, EntitySerializer> serializers = new HashMap<>();
+        EntitySerializer defaultSerializer = EntitySerializers.getDefaultJsonSerializer();
+        serializers.put(defaultSerializer.getDefaultFileExtension(), defaultSerializer);
+        EntitySerializers.getAvailableSerializers().forEach(serializer -> serializers.putIfAbsent(serializer.getDefaultFileExtension(), serializer));
+        return serializers;
     }
 
     @Override
@@ -49,19 +83,90 @@ public class EntityProvider implements EntityArtifactsProvider
     public List<Entity> loadArtifactsForType(Stream<File> files)
     {
         List<Entity> entities = new ArrayList<>();
-        files.forEach(f ->
+        files.forEach(f -> loadEntities(f, DEFAULT_BATCH_SIZE, entities::addAll));
+        return entities;
+    }
+
+    @Override
+    public int loadArtifacts(List<File> files, int batchSize, Consumer<List<Entity>> batchConsumer)
+    {
+        return files.stream().filter(this::matchesArtifactType).mapToInt(f -> loadEntities(f, batchSize, batchConsumer)).sum();
+    }
+
+    private int loadEntities(File file, int batchSize, Consumer<List<Entity>> batchConsumer)
+    {
+        if (!file.isFile())
         {
-            try (EntityLoader loader = EntityLoader.newEntityLoader(f))
-            {
-                List<Entity> loadedEntities = loader.getAllEntities().collect(Collectors.toList());
-                entities.addAll(loadedEntities);
-            }
-            catch (Exception e)
+            return loadEntitiesWithEntityLoader(file, batchConsumer);
+        }
+        //zip entries are read straight from the archive and parsed on the refresh parsers, one batch at a time
+        try (ZipFile jar = new ZipFile(file))
+        {
+            List<ZipEntry> entityFiles = jar.stream().filter(this::isEntityFile).collect(Collectors.toList());
+            for (int start = 0; start < entityFiles.size(); start += batchSize)
             {
-                throw new ArtifactLoadingException(e.getMessage());
+                batchConsumer.accept(readEntities(jar, entityFiles.subList(start, Math.min(start + batchSize, entityFiles.size()))));
             }
-        });
-        return entities;
+            return entityFiles.size();
+        }
+        catch (IOException e)
+        {
+            throw new ArtifactLoadingException(e.getMessage());
+        }
+    }
+
+    private int loadEntitiesWithEntityLoader(File file, Consumer<List<Entity>> batchConsumer)
+    {
+        try (EntityLoader loader = EntityLoader.newEntityLoader(file))
+        {
+            List<Entity> loadedEntities = loader.getAllEntities().collect(Collectors.toList());
+            batchConsumer.accept(loadedEntities);
+            return loadedEntities.size();
+        }
+        catch (Exception e)
+        {
+            throw new ArtifactLoadingException(e.getMessage());
+        }
+    }
+
+    private List<Entity> readEntities(ZipFile jar, List<ZipEntry> entries)
+    {
+        if (parsers == null)
+        {
+            return entries.stream().map(entry -> readEntity(jar, entry)).collect(Collectors.toList());
+        }
+        List<CompletableFuture<Entity>> parsed = entries.stream().map(entry -> CompletableFuture.supplyAsync(() -> readEntity(jar, entry), parsers)).collect(Collectors.toList());
+        try
+        {
+            return parsed.stream().map(CompletableFuture::join).collect(Collectors.toList());
+        }
+        catch (CompletionException e)
+        {
+            throw e.getCause() instanceof ArtifactLoadingException ? (ArtifactLoadingException) e.getCause() : new ArtifactLoadingException(e.getMessage());
+        }
+    }
+
+    private boolean isEntityFile(ZipEntry entry)
+    {
+        return !entry.isDirectory() && entry.getName().startsWith(ENTITIES_DIRECTORY) && serializerFor(entry) != null;
+    }
+
+    private static EntitySerializer serializerFor(ZipEntry entry)
+    {
+        int extensionStart = entry.getName().lastIndexOf('.');
+        return extensionStart < 0 ? null : SERIALIZERS_BY_EXTENSION.get(entry.getName().substring(extensionStart + 1));
+    }
+
+    private Entity readEntity(ZipFile jar, ZipEntry entry)
+    {
+        try (InputStream stream = jar.getInputStream(entry))
+        {
+            return serializerFor(entry).deserialize(stream);
+        }
+        catch (IOException e)
+        {
+            throw new ArtifactLoadingException(String.format("Error reading entity from file %s: %s", entry.getName(), e.getMessage()));
+        }
     }
 
     @Override
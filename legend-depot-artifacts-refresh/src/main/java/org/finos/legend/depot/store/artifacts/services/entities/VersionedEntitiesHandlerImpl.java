@@ -22,18 +22,25 @@ import org.finos.legend.depot.services.api.entities.ManageEntitiesService;
 import org.finos.legend.depot.store.artifacts.api.entities.EntityArtifactsProvider;
 import org.finos.legend.depot.store.artifacts.api.entities.VersionedEntitiesArtifactsHandler;
 import org.finos.legend.depot.store.artifacts.api.entities.VersionedEntityArtifactsProvider;
+import org.finos.legend.depot.store.artifacts.services.RefreshExecutor;
 import org.finos.legend.sdlc.domain.model.entity.Entity;
 
 import javax.inject.Inject;
+import javax.inject.Named;
 import java.util.ArrayList;
 import java.util.List;
 
 public class VersionedEntitiesHandlerImpl extends EntitiesHandlerImpl implements VersionedEntitiesArtifactsHandler
 {
     @Inject
+    public VersionedEntitiesHandlerImpl(ManageEntitiesService entitiesService, VersionedEntityArtifactsProvider artifactProvider, RefreshExecutor refreshExecutor, @Named("bulkWriteBatchSize") Integer storeBatchSize)
+    {
+        super(entitiesService, (EntityArtifactsProvider) artifactProvider, refreshExecutor, storeBatchSize);
+    }
+
     public VersionedEntitiesHandlerImpl(ManageEntitiesService entitiesService, VersionedEntityArtifactsProvider artifactProvider)
     {
-        super(entitiesService, (EntityArtifactsProvider) artifactProvider);
+        this(entitiesService, artifactProvider, null, DEFAULT_STORE_BATCH_SIZE);
     }
 
     @Override
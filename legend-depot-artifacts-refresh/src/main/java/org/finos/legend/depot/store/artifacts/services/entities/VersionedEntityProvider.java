@@ -17,6 +17,7 @@ package org.finos.legend.depot.store.artifacts.services.entities;
 
 import org.finos.legend.depot.artifacts.repository.domain.ArtifactType;
 import org.finos.legend.depot.store.artifacts.api.entities.VersionedEntityArtifactsProvider;
+import org.finos.legend.depot.store.artifacts.services.RefreshExecutor;
 
 import javax.inject.Inject;
 import javax.inject.Singleton;
@@ -29,6 +30,11 @@ public class VersionedEntityProvider extends EntityProvider implements Versioned
     private static final String SEPARATOR = "-";
 
     @Inject
+    public VersionedEntityProvider(RefreshExecutor refreshExecutor)
+    {
+        super(refreshExecutor);
+    }
+
     public VersionedEntityProvider()
     {
         super();
@@ -23,22 +23,26 @@ import org.finos.legend.depot.domain.generation.file.StoredFileGeneration;
 import org.finos.legend.depot.domain.project.ProjectData;
 import org.finos.legend.depot.services.api.generation.file.ManageFileGenerationsService;
 import org.finos.legend.depot.store.artifacts.ArtifactLoadingException;
+import org.finos.legend.depot.store.artifacts.api.entities.EntityArtifactsProvider;
 import org.finos.legend.depot.store.artifacts.api.generation.file.FileGenerationsArtifactsHandler;
 import org.finos.legend.depot.store.artifacts.api.generation.file.FileGenerationsArtifactsProvider;
+import org.finos.legend.depot.store.artifacts.services.RefreshExecutor;
+import org.finos.legend.depot.store.artifacts.services.RefreshPipeline;
+import org.finos.legend.depot.store.artifacts.services.entities.EntityProvider;
 import org.finos.legend.sdlc.domain.model.entity.Entity;
-import org.finos.legend.sdlc.serialization.EntityLoader;
 import org.slf4j.Logger;
 
 import javax.inject.Inject;
+import javax.inject.Named;
 import java.io.File;
+import java.util.ArrayList;
 import java.util.Collections;
-import java.util.List;
-import java.util.Optional;
-import java.util.stream.Collectors;
 import java.util.HashMap;
-import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
-import java.util.Set;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.finos.legend.depot.domain.generation.file.FileGeneration.GENERATION_CONFIGURATION;
 
@@ -51,20 +55,32 @@ public class FileGenerationHandlerImpl implements FileGenerationsArtifactsHandle
     public static final String PURE_PACKAGE_SEPARATOR = "::";
     public static final String UNDERSCORE = "_";
     public static final String BLANK = "";
+    private static final int DEFAULT_STORE_BATCH_SIZE = 1000;
     private static final Logger LOGGER = org.slf4j.LoggerFactory.getLogger(FileGenerationHandlerImpl.class);
     protected final ManageFileGenerationsService generations;
     private final FileGenerationsArtifactsProvider provider;
     private final ArtifactRepository repository;
+    private final EntityArtifactsProvider entitiesProvider;
+    private final ExecutorService pipelineWriters;
+    private final int storeBatchSize;
 
 
     @Inject
-    public FileGenerationHandlerImpl(ArtifactRepository repository, FileGenerationsArtifactsProvider provider, ManageFileGenerationsService generations)
+    public FileGenerationHandlerImpl(ArtifactRepository repository, FileGenerationsArtifactsProvider provider, ManageFileGenerationsService generations, EntityArtifactsProvider entitiesProvider,
+                                     RefreshExecutor refreshExecutor, @Named("bulkWriteBatchSize") Integer storeBatchSize)
     {
         this.repository = repository;
         this.provider = provider;
         this.generations = generations;
+        this.entitiesProvider = entitiesProvider;
+        this.pipelineWriters = refreshExecutor != null ? refreshExecutor.getPipelineWriters() : null;
+        this.storeBatchSize = storeBatchSize != null && storeBatchSize > 0 ? storeBatchSize : DEFAULT_STORE_BATCH_SIZE;
     }
 
+    public FileGenerationHandlerImpl(ArtifactRepository repository, FileGenerationsArtifactsProvider provider, ManageFileGenerationsService generations)
+    {
+        this(repository, provider, generations, new EntityProvider(), null, DEFAULT_STORE_BATCH_SIZE);
+    }
 
 
     public MetadataEventResponse refreshProjectVersionArtifacts(ProjectData project, String versionId, List<File> files)
@@ -72,45 +88,22 @@ public class FileGenerationHandlerImpl implements FileGenerationsArtifactsHandle
         MetadataEventResponse response = new MetadataEventResponse();
         try
         {
-            List<Entity> projectEntities = getAllNonVersionedEntities(project.getGroupId(), project.getArtifactId(), versionId);
-            List<Entity> fileGenerationEntities = filterEntitiesByFileGenerationEntities(projectEntities);
-            List<FileGeneration> generatedFiles = provider.loadArtifacts(files);
-
-            // handle files generated by FileGeneration Element
-            HashSet<FileGeneration> processedGeneratedFiles = new HashSet<>();
-            fileGenerationEntities.forEach(entity ->
-            {
-                String generationPath = (String) entity.getContent().get(GENERATION_OUTPUT_PATH);
-                String elementPath = PATH + (generationPath != null ? generationPath : entity.getPath().replace(PURE_PACKAGE_SEPARATOR, UNDERSCORE));
-                String codeSchemaGenerationType = (String) entity.getContent().get(TYPE);
-
-                generatedFiles.stream().filter(gen -> gen.getPath().startsWith(elementPath)).forEach(gen ->
-                {
-                    FileGeneration generation = new FileGeneration(gen.getPath().replace(elementPath, BLANK), gen.getContent());
-                    generations.createOrUpdate(new StoredFileGeneration(project.getGroupId(), project.getArtifactId(), versionId, entity.getPath(), codeSchemaGenerationType, generation));
-                    processedGeneratedFiles.add(gen);
-                });
-            });
-
-            // handle remaining files
-            Map<String, Entity> entityMap = buildEntitiesByElementPathMap(projectEntities);
-            Set<String> entityPaths = entityMap.keySet();
-            generatedFiles.forEach(generatedFile ->
-            {
-                if (!processedGeneratedFiles.contains(generatedFile))
-                {
-                    Optional<String> entityPath = entityPaths.stream().filter(s -> generatedFile.getPath().startsWith(PATH + s)).findFirst();
-                    if (!entityPath.isPresent())
+            GenerationElements elements = getGenerationElements(project.getGroupId(), project.getArtifactId(), versionId);
+            AtomicInteger processedGeneratedFiles = new AtomicInteger();
+            response.combine(RefreshPipeline.<StoredFileGeneration>run(pipelineWriters,
+                    batchWriter -> provider.loadArtifacts(files, storeBatchSize, generatedFiles ->
                     {
-                        throw new ArtifactLoadingException("Can't find element path for generated file with path: '" + generatedFile.getPath() + "'");
-                    }
-                    String elementPath = entityMap.get(entityPath.get()).getPath();
-                    FileGeneration generation = new FileGeneration(generatedFile.getPath(), generatedFile.getContent());
-                    generations.createOrUpdate(new StoredFileGeneration(project.getGroupId(), project.getArtifactId(), versionId, elementPath, null, generation));
-                    processedGeneratedFiles.add(generatedFile);
-                }
-            });
-            String message = String.format("[%s]: processed [%s] generations for [%s-%s-%s] ", project.getProjectId(),processedGeneratedFiles.size(), project.getGroupId(), project.getArtifactId(), versionId);
+                        List<StoredFileGeneration> storedGenerations = new ArrayList<>();
+                        generatedFiles.forEach(generatedFile -> storedGenerations.addAll(toStoredGenerations(project, versionId, elements, generatedFile)));
+                        processedGeneratedFiles.addAndGet(generatedFiles.size());
+                        batchWriter.accept(storedGenerations);
+                    }),
+                    storedGenerations ->
+                    {
+                        storedGenerations.forEach(generations::createOrUpdate);
+                        return new MetadataEventResponse();
+                    }));
+            String message = String.format("[%s]: processed [%s] generations for [%s-%s-%s] ", project.getProjectId(),processedGeneratedFiles.get(), project.getGroupId(), project.getArtifactId(), versionId);
             LOGGER.info(message);
             response.addMessage(message);
         }
@@ -123,23 +116,56 @@ public class FileGenerationHandlerImpl implements FileGenerationsArtifactsHandle
         return response;
     }
 
-    private Map<String, Entity> buildEntitiesByElementPathMap(List<Entity> entities)
+    private List<StoredFileGeneration> toStoredGenerations(ProjectData project, String versionId, GenerationElements elements, FileGeneration generatedFile)
     {
-        Map<String, Entity> entityMap = new HashMap<>();
-        entities.forEach(entity -> entityMap.put(entity.getPath().replace(PURE_PACKAGE_SEPARATOR, PATH), entity));
-        return entityMap;
-    }
+        // handle files generated by FileGeneration Element
+        List<StoredFileGeneration> storedGenerations = new ArrayList<>();
+        elements.fileGenerationEntities.forEach(entity ->
+        {
+            String generationPath = (String) entity.getContent().get(GENERATION_OUTPUT_PATH);
+            String elementPath = PATH + (generationPath != null ? generationPath : entity.getPath().replace(PURE_PACKAGE_SEPARATOR, UNDERSCORE));
+            if (generatedFile.getPath().startsWith(elementPath))
+            {
+                String codeSchemaGenerationType = (String) entity.getContent().get(TYPE);
+                FileGeneration generation = new FileGeneration(generatedFile.getPath().replace(elementPath, BLANK), generatedFile.getContent());
+                storedGenerations.add(new StoredFileGeneration(project.getGroupId(), project.getArtifactId(), versionId, entity.getPath(), codeSchemaGenerationType, generation));
+            }
+        });
+        if (!storedGenerations.isEmpty())
+        {
+            return storedGenerations;
+        }
 
+        // handle remaining files
+        Optional<String> entityPath = elements.elementPaths.keySet().stream().filter(s -> generatedFile.getPath().startsWith(PATH + s)).findFirst();
+        if (!entityPath.isPresent())
+        {
+            throw new ArtifactLoadingException("Can't find element path for generated file with path: '" + generatedFile.getPath() + "'");
+        }
+        FileGeneration generation = new FileGeneration(generatedFile.getPath(), generatedFile.getContent());
+        return Collections.singletonList(new StoredFileGeneration(project.getGroupId(), project.getArtifactId(), versionId, elements.elementPaths.get(entityPath.get()), null, generation));
+    }
 
-    private List<Entity> getAllNonVersionedEntities(String groupId, String artifactId, String versionId)
+    private GenerationElements getGenerationElements(String groupId, String artifactId, String versionId)
     {
+        //only the element paths and the generation specifications are kept, not the whole model
+        GenerationElements elements = new GenerationElements();
         List<File> files = repository.findFiles(ArtifactType.ENTITIES, groupId, artifactId, versionId);
-        return files.stream().findFirst().map(file -> EntityLoader.newEntityLoader(file).getAllEntities().collect(Collectors.toList())).orElse(Collections.emptyList());
+        files.stream().findFirst().ifPresent(file -> entitiesProvider.loadArtifacts(Collections.singletonList(file), storeBatchSize, entities -> entities.forEach(entity ->
+        {
+            elements.elementPaths.put(entity.getPath().replace(PURE_PACKAGE_SEPARATOR, PATH), entity.getPath());
+            if (entity.getClassifierPath().equalsIgnoreCase(GENERATION_CONFIGURATION))
+            {
+                elements.fileGenerationEntities.add(entity);
+            }
+        })));
+        return elements;
     }
 
-    private List<Entity> filterEntitiesByFileGenerationEntities(List<Entity> entities)
+    private static class GenerationElements
     {
-        return entities.stream().filter(en -> en.getClassifierPath().equalsIgnoreCase(GENERATION_CONFIGURATION)).collect(Collectors.toList());
+        private final Map<String, String> elementPaths = new HashMap<>();
+        private final List<Entity> fileGenerationEntities = new ArrayList<>();
     }
 
     @Override
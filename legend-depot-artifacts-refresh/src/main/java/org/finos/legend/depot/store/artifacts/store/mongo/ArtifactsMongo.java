@@ -27,6 +27,7 @@ import org.finos.legend.depot.store.mongo.BaseMongo;
 
 import javax.inject.Inject;
 import javax.inject.Named;
+import java.util.List;
 import java.util.Optional;
 
 public class ArtifactsMongo extends BaseMongo<ArtifactDetail> implements UpdateArtifacts
@@ -69,4 +70,10 @@ public class ArtifactsMongo extends BaseMongo<ArtifactDetail> implements UpdateA
     {
         return findOne(Filters.eq(PATH, path));
     }
+
+    @Override
+    public List<ArtifactDetail> find(List<String> paths)
+    {
+        return find(Filters.in(PATH, paths));
+    }
 }
@@ -17,6 +17,7 @@ package org.finos.legend.depot.store.artifacts.store.mongo.api;
 
 import org.finos.legend.depot.store.artifacts.domain.ArtifactDetail;
 
+import java.util.List;
 import java.util.Optional;
 
 public interface UpdateArtifacts
@@ -25,5 +26,7 @@ public interface UpdateArtifacts
 
     Optional<ArtifactDetail> find(String path);
 
+    List<ArtifactDetail> find(List<String> paths);
+
     boolean createIndexesIfAbsent();
 }
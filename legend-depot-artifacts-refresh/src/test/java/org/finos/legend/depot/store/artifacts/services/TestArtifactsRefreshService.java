@@ -22,6 +22,7 @@ import org.finos.legend.depot.artifacts.repository.maven.impl.TestMavenArtifacts
 import org.finos.legend.depot.artifacts.repository.services.RepositoryServices;
 import org.finos.legend.depot.domain.api.MetadataEventResponse;
 import org.finos.legend.depot.domain.api.status.MetadataEventStatus;
+import org.finos.legend.depot.domain.entity.EntityDefinition;
 import org.finos.legend.depot.domain.entity.StoredEntity;
 import org.finos.legend.depot.domain.project.IncludeProjectPropertiesConfiguration;
 import org.finos.legend.depot.domain.project.ProjectData;
@@ -38,6 +39,7 @@ import org.finos.legend.depot.store.artifacts.api.ArtifactsRefreshService;
 import org.finos.legend.depot.store.artifacts.api.entities.EntityArtifactsProvider;
 import org.finos.legend.depot.store.artifacts.api.generation.file.FileGenerationsArtifactsProvider;
 import org.finos.legend.depot.store.artifacts.api.status.ManageRefreshStatusService;
+import org.finos.legend.depot.store.artifacts.domain.ArtifactDetail;
 import org.finos.legend.depot.store.artifacts.domain.status.RefreshStatus;
 import org.finos.legend.depot.store.artifacts.services.entities.EntitiesHandlerImpl;
 import org.finos.legend.depot.store.artifacts.services.entities.EntityProvider;
@@ -62,12 +64,20 @@ import org.finos.legend.sdlc.domain.model.version.VersionId;
 import org.junit.After;
 import org.junit.Assert;
 import org.junit.Before;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.mockito.Mockito;
 
 import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.function.Consumer;
 
 import static org.finos.legend.depot.domain.version.VersionValidator.MASTER_SNAPSHOT;
 import static org.finos.legend.depot.store.artifacts.services.TestArtifactsRefreshServiceExceptionEscenarios.PARENT_EVENT_ID;
@@ -100,6 +110,9 @@ public class TestArtifactsRefreshService extends TestStoreMongo
     protected ArtifactsRefreshService artifactsRefreshService = new ArtifactsRefreshServiceImpl(projectsService, refreshStatusStore, repositoryServices, artifacts, queue, new IncludeProjectPropertiesConfiguration(properties));
     protected NotificationEventHandler eventHandler = new ArtifactRefreshEventHandler(projectsService,artifactsRefreshService);
 
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
     protected NotificationsQueueManager notificationsQueueManager = new NotificationsQueueManager(projectsService,new NotificationsMongo(mongoProvider),queue,eventHandler);
 
 
@@ -351,6 +364,82 @@ public class TestArtifactsRefreshService extends TestStoreMongo
     }
 
 
+    @Test
+    public void snapshotRefreshOnlyWritesChangedEntities()
+    {
+        ProjectData projectData = projectsStore.find(TEST_GROUP_ID, TEST_ARTIFACT_ID).get();
+        List<File> files = repository.findFiles(ArtifactType.ENTITIES, projectData.getGroupId(), projectData.getArtifactId(), MASTER_SNAPSHOT);
+        EntitiesHandlerImpl handler = new EntitiesHandlerImpl(entitiesService, entitiesProvider);
+        Assert.assertFalse(handler.refreshProjectRevisionArtifacts(projectData, files).hasErrors());
+        int stored = entitiesStore.getAllEntities(TEST_GROUP_ID, TEST_ARTIFACT_ID, MASTER_SNAPSHOT).size();
+        Assert.assertTrue(stored > 0);
+        String etag = entitiesStore.getVersionEtag(TEST_GROUP_ID, TEST_ARTIFACT_ID, MASTER_SNAPSHOT, false).get();
+
+        entitiesStore.createOrUpdate(Collections.singletonList(new StoredEntity(TEST_GROUP_ID, TEST_ARTIFACT_ID, MASTER_SNAPSHOT, false, new EntityDefinition("examples::metadata::Stale", "meta::pure::metamodel::type::Class", new HashMap<>()))));
+        Assert.assertEquals(stored + 1, entitiesStore.getAllEntities(TEST_GROUP_ID, TEST_ARTIFACT_ID, MASTER_SNAPSHOT).size());
+
+        MetadataEventResponse response = handler.refreshProjectRevisionArtifacts(projectData, files);
+        Assert.assertFalse(response.hasErrors());
+        Assert.assertTrue(response.getMessages().stream().anyMatch(message -> message.endsWith(String.format("[%s] unchanged, [0] added or updated, [1] removed", stored))));
+        Assert.assertEquals(stored, entitiesStore.getAllEntities(TEST_GROUP_ID, TEST_ARTIFACT_ID, MASTER_SNAPSHOT).size());
+        Assert.assertFalse(entitiesStore.getEntity(TEST_GROUP_ID, TEST_ARTIFACT_ID, MASTER_SNAPSHOT, "examples::metadata::Stale").isPresent());
+        Assert.assertEquals(etag, entitiesStore.getVersionEtag(TEST_GROUP_ID, TEST_ARTIFACT_ID, MASTER_SNAPSHOT, false).get());
+    }
+
+    @Test
+    public void failedSnapshotRefreshesKeepStoredEntities()
+    {
+        ProjectData projectData = projectsStore.find(TEST_GROUP_ID, TEST_ARTIFACT_ID).get();
+        List<File> files = repository.findFiles(ArtifactType.ENTITIES, projectData.getGroupId(), projectData.getArtifactId(), MASTER_SNAPSHOT);
+        Assert.assertFalse(new EntitiesHandlerImpl(entitiesService, entitiesProvider).refreshProjectRevisionArtifacts(projectData, files).hasErrors());
+        int stored = entitiesStore.getAllEntities(TEST_GROUP_ID, TEST_ARTIFACT_ID, MASTER_SNAPSHOT).size();
+
+        EntityArtifactsProvider failingReader = Mockito.mock(EntityArtifactsProvider.class);
+        Mockito.when(failingReader.getType()).thenReturn(ArtifactType.ENTITIES);
+        Mockito.when(failingReader.loadArtifacts(Mockito.anyList(), Mockito.anyInt(), Mockito.any())).thenAnswer(invocation ->
+        {
+            Consumer<List<Entity>> batches = invocation.getArgument(2);
+            batches.accept(Collections.singletonList(entitiesProvider.loadArtifacts(files).get(0)));
+            throw new IllegalStateException("corrupt jar");
+        });
+        MetadataEventResponse readFailure = new EntitiesHandlerImpl(entitiesService, failingReader).refreshProjectRevisionArtifacts(projectData, files);
+        Assert.assertTrue(readFailure.hasErrors());
+        Assert.assertEquals(stored, entitiesStore.getAllEntities(TEST_GROUP_ID, TEST_ARTIFACT_ID, MASTER_SNAPSHOT).size());
+
+        //one entity to add back, so the refresh has something to write
+        entitiesService.delete(TEST_GROUP_ID, TEST_ARTIFACT_ID, MASTER_SNAPSHOT, false, Collections.singleton(entitiesProvider.loadArtifacts(files).get(0).getPath()));
+        entitiesStore.createOrUpdate(Collections.singletonList(new StoredEntity(TEST_GROUP_ID, TEST_ARTIFACT_ID, MASTER_SNAPSHOT, false, new EntityDefinition("examples::metadata::Stale", "meta::pure::metamodel::type::Class", new HashMap<>()))));
+        ManageEntitiesService failingWriter = Mockito.spy(entitiesService);
+        Mockito.doReturn(new MetadataEventResponse().addError("store down")).when(failingWriter).createOrUpdate(Mockito.anyList());
+        MetadataEventResponse writeFailure = new EntitiesHandlerImpl(failingWriter, entitiesProvider).refreshProjectRevisionArtifacts(projectData, files);
+        Assert.assertTrue(writeFailure.hasErrors());
+        Assert.assertTrue(entitiesStore.getEntity(TEST_GROUP_ID, TEST_ARTIFACT_ID, MASTER_SNAPSHOT, "examples::metadata::Stale").isPresent());
+    }
+
+    @Test
+    public void snapshotsReadWithNoEntitiesAreEmptied()
+    {
+        ProjectData projectData = projectsStore.find(TEST_GROUP_ID, TEST_ARTIFACT_ID).get();
+        List<File> files = repository.findFiles(ArtifactType.ENTITIES, projectData.getGroupId(), projectData.getArtifactId(), MASTER_SNAPSHOT);
+        Assert.assertFalse(new EntitiesHandlerImpl(entitiesService, entitiesProvider).refreshProjectRevisionArtifacts(projectData, files).hasErrors());
+        int stored = entitiesStore.getAllEntities(TEST_GROUP_ID, TEST_ARTIFACT_ID, MASTER_SNAPSHOT).size();
+        Assert.assertTrue(stored > 0);
+
+        EntityArtifactsProvider emptyArtifacts = Mockito.mock(EntityArtifactsProvider.class);
+        Mockito.when(emptyArtifacts.getType()).thenReturn(ArtifactType.ENTITIES);
+        Mockito.when(emptyArtifacts.matchesArtifactType(Mockito.any())).thenReturn(true);
+        EntitiesHandlerImpl handler = new EntitiesHandlerImpl(entitiesService, emptyArtifacts);
+
+        //nothing resolved: nothing to compare against, stored entities are kept
+        Assert.assertFalse(handler.refreshProjectRevisionArtifacts(projectData, Collections.emptyList()).hasErrors());
+        Assert.assertEquals(stored, entitiesStore.getAllEntities(TEST_GROUP_ID, TEST_ARTIFACT_ID, MASTER_SNAPSHOT).size());
+
+        MetadataEventResponse response = handler.refreshProjectRevisionArtifacts(projectData, files);
+        Assert.assertFalse(response.hasErrors());
+        Assert.assertTrue(response.getMessages().stream().anyMatch(message -> message.endsWith(String.format("[0] unchanged, [0] added or updated, [%s] removed", stored))));
+        Assert.assertTrue(entitiesStore.getAllEntities(TEST_GROUP_ID, TEST_ARTIFACT_ID, MASTER_SNAPSHOT).isEmpty());
+    }
+
     @Test
     public void canRefreshProjectMasterVersionWithAllDependenciesTransitively()
     {
@@ -514,4 +603,32 @@ public class TestArtifactsRefreshService extends TestStoreMongo
         Assert.assertEquals(response.getStatus(),MetadataEventStatus.FAILED);
     }
 
+    @Test
+    public void unchangedFilesAreNotHashedAgain() throws IOException
+    {
+        ArtifactsRefreshServiceImpl refreshService = (ArtifactsRefreshServiceImpl) artifactsRefreshService;
+        File file = temporaryFolder.newFile("test-entities-1.0.0.jar");
+        Files.write(file.toPath(), "entities".getBytes(StandardCharsets.UTF_8));
+        String checksum = FileChecksum.sha256Hex(file.toPath());
+        Assert.assertEquals("2cc497857559ff85cfec0fd662a131fd6acb805edfa1afa992271366808691f3", checksum);
+
+        //size and modification time match what was processed: the stored (deliberately wrong) checksum is trusted, nothing is hashed or written
+        ArtifactDetail processed = new ArtifactDetail(file.getPath(), "not-hashed", file.length(), file.lastModified());
+        Assert.assertFalse(refreshService.artifactFileHasChangedOrNotBeenProcessed(file, processed));
+        Assert.assertFalse(artifacts.find(file.getPath()).isPresent());
+
+        //same content touched later: hashed again, unchanged, new modification time recorded
+        Assert.assertTrue(file.setLastModified(file.lastModified() + 10000L));
+        Assert.assertFalse(refreshService.artifactFileHasChangedOrNotBeenProcessed(file, new ArtifactDetail(file.getPath(), checksum, file.length(), file.lastModified() - 10000L)));
+        ArtifactDetail rehashed = artifacts.find(file.getPath()).get();
+        Assert.assertEquals(checksum, rehashed.getCheckSum());
+        Assert.assertEquals(file.lastModified(), rehashed.getLastModified());
+
+        //different size: hashed and reported as changed
+        Files.write(file.toPath(), "more entities".getBytes(StandardCharsets.UTF_8));
+        Assert.assertTrue(file.setLastModified(rehashed.getLastModified()));
+        Assert.assertTrue(refreshService.artifactFileHasChangedOrNotBeenProcessed(file, rehashed));
+        Assert.assertEquals(FileChecksum.sha256Hex(file.toPath()), artifacts.find(file.getPath()).get().getCheckSum());
+        Assert.assertNotEquals(checksum, artifacts.find(file.getPath()).get().getCheckSum());
+    }
 }
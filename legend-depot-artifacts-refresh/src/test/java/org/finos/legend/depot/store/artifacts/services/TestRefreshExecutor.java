@@ -0,0 +1,119 @@
+//  Copyright 2021 Goldman Sachs
+//
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//       http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+//
+
+package org.finos.legend.depot.store.artifacts.services;
+
+import org.finos.legend.depot.domain.api.MetadataEventResponse;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+public class TestRefreshExecutor
+{
+
+    @Test
+    public void aggregatesAllTaskResponses()
+    {
+        RefreshExecutor executor = new RefreshExecutor(4, 2, 0);
+        List<Integer> items = IntStream.range(0, 500).boxed().collect(Collectors.toList());
+
+        MetadataEventResponse response = executor.forEach(items, i -> i % 100 == 0 ? new MetadataEventResponse().addError("error " + i) : new MetadataEventResponse().addMessage("message " + i));
+
+        Assert.assertEquals(495, response.getMessages().size());
+        Assert.assertEquals(5, response.getErrors().size());
+        Assert.assertEquals("message 1", response.getMessages().get(0));
+        Assert.assertEquals(0, executor.getActiveCount());
+        Assert.assertEquals(0, executor.getQueuedCount());
+    }
+
+    @Test
+    public void failedTasksAreReportedAsErrors()
+    {
+        RefreshExecutor executor = new RefreshExecutor(2, 2, 0);
+        MetadataEventResponse response = executor.forEach(IntStream.range(0, 10).boxed().collect(Collectors.toList()), i ->
+        {
+            if (i == 3)
+            {
+                throw new IllegalStateException("boom");
+            }
+            return new MetadataEventResponse().addMessage("ok");
+        });
+
+        Assert.assertEquals(9, response.getMessages().size());
+        Assert.assertEquals(1, response.getErrors().size());
+        Assert.assertTrue(response.getErrors().get(0).contains("boom"));
+    }
+
+    @Test
+    public void repositoryCallsAreBounded()
+    {
+        RefreshExecutor executor = new RefreshExecutor(8, 2, 0);
+        AtomicInteger concurrent = new AtomicInteger();
+        AtomicInteger maxConcurrent = new AtomicInteger();
+
+        executor.forEach(IntStream.range(0, 64).boxed().collect(Collectors.toList()), i -> executor.withRepositoryPermit(() ->
+        {
+            maxConcurrent.accumulateAndGet(concurrent.incrementAndGet(), Math::max);
+            try
+            {
+                Thread.sleep(5);
+            }
+            catch (InterruptedException e)
+            {
+                Thread.currentThread().interrupt();
+            }
+            concurrent.decrementAndGet();
+            return new MetadataEventResponse();
+        }));
+
+        Assert.assertTrue(maxConcurrent.get() <= 2);
+    }
+
+    @Test
+    public void waitsForQueueToDrain()
+    {
+        RefreshExecutor executor = new RefreshExecutor(1, 1, 10);
+        AtomicLong queueSize = new AtomicLong(12);
+
+        executor.awaitQueueCapacity(queueSize::getAndDecrement);
+
+        Assert.assertEquals(8, queueSize.get());
+    }
+
+    @Test
+    public void failsWhenQueueDoesNotDrain()
+    {
+        RefreshExecutor executor = new RefreshExecutor(1, 1, 10, 50);
+        Assert.assertFalse(executor.awaitQueueCapacity(() -> 12));
+        Assert.assertTrue(executor.awaitQueueCapacity(() -> 9));
+    }
+
+    @Test
+    public void failsTasksAfterShutdown()
+    {
+        RefreshExecutor executor = new RefreshExecutor(1, 1, 0);
+        executor.shutdown();
+
+        MetadataEventResponse response = executor.forEach(Arrays.asList(1, 2), item -> new MetadataEventResponse().addMessage("ran " + item));
+        Assert.assertEquals(2, response.getErrors().size());
+        Assert.assertTrue(response.getMessages().isEmpty());
+    }
+}
@@ -0,0 +1,172 @@
+//  Copyright 2021 Goldman Sachs
+//
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//       http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+//
+
+package org.finos.legend.depot.store.artifacts.services;
+
+import org.finos.legend.depot.domain.api.MetadataEventResponse;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+public class TestRefreshPipeline
+{
+    private final ExecutorService writers = Executors.newCachedThreadPool();
+
+    @After
+    public void tearDown()
+    {
+        writers.shutdownNow();
+    }
+
+    @Test
+    public void writesAllBatchesInOrder()
+    {
+        List<Integer> written = Collections.synchronizedList(new ArrayList<>());
+        MetadataEventResponse response = RefreshPipeline.<Integer>run(writers, RefreshPipeline.DEFAULT_CAPACITY, writer -> IntStream.range(0, 10).forEach(i -> writer.accept(Arrays.asList(i * 2, i * 2 + 1))),
+                batch ->
+                {
+                    written.addAll(batch);
+                    return new MetadataEventResponse().addMessage("wrote " + batch.size());
+                });
+
+        Assert.assertEquals(IntStream.range(0, 20).boxed().collect(Collectors.toList()), written);
+        Assert.assertEquals(10, response.getMessages().size());
+        Assert.assertFalse(response.hasErrors());
+    }
+
+    @Test
+    public void readerIsBlockedWhenWriterFallsBehind() throws InterruptedException
+    {
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch handingOverThird = new CountDownLatch(1);
+        AtomicInteger read = new AtomicInteger();
+        Thread pipeline = new Thread(() -> RefreshPipeline.<Integer>run(writers, 1, writer -> IntStream.range(0, 10).forEach(i ->
+                {
+                    if (i == 2)
+                    {
+                        handingOverThird.countDown();
+                    }
+                    writer.accept(Collections.singletonList(i));
+                    read.incrementAndGet();
+                }),
+                batch ->
+                {
+                    try
+                    {
+                        release.await();
+                    }
+                    catch (InterruptedException e)
+                    {
+                        Thread.currentThread().interrupt();
+                    }
+                    return new MetadataEventResponse();
+                }));
+        pipeline.start();
+        Assert.assertTrue(handingOverThird.await(5, TimeUnit.SECONDS));
+        awaitParked(pipeline);
+        //one batch being written, one queued, the third hand over waits for room
+        Assert.assertEquals(2, read.get());
+        release.countDown();
+        pipeline.join();
+        Assert.assertEquals(10, read.get());
+    }
+
+    private static void awaitParked(Thread thread)
+    {
+        long deadline = System.currentTimeMillis() + 5000L;
+        while (thread.getState() != Thread.State.WAITING && System.currentTimeMillis() < deadline)
+        {
+            Thread.onSpinWait();
+        }
+        Assert.assertEquals(Thread.State.WAITING, thread.getState());
+    }
+
+    @Test
+    public void batchesAreWrittenOnTheCallerWithoutAFreeWriter()
+    {
+        ExecutorService shutDown = new ThreadPoolExecutor(0, 1, 1L, TimeUnit.SECONDS, new SynchronousQueue<>());
+        shutDown.shutdown();
+        List<String> writingThreads = Collections.synchronizedList(new ArrayList<>());
+        MetadataEventResponse response = RefreshPipeline.<Integer>run(shutDown, 1, writer -> IntStream.range(0, 5).forEach(i -> writer.accept(Collections.singletonList(i))),
+                batch ->
+                {
+                    writingThreads.add(Thread.currentThread().getName());
+                    return new MetadataEventResponse().addMessage("wrote " + batch.get(0));
+                });
+        Assert.assertEquals(5, response.getMessages().size());
+        Assert.assertEquals(Collections.nCopies(5, Thread.currentThread().getName()), writingThreads);
+    }
+
+    @Test
+    public void writeFailuresStopTheReader()
+    {
+        AtomicInteger read = new AtomicInteger();
+        try
+        {
+            RefreshPipeline.<Integer>run(writers, 1, writer -> IntStream.range(0, 1000).forEach(i ->
+            {
+                writer.accept(Collections.singletonList(i));
+                read.incrementAndGet();
+            }), batch ->
+            {
+                throw new IllegalStateException("store down");
+            });
+            Assert.fail();
+        }
+        catch (IllegalStateException e)
+        {
+            Assert.assertEquals("store down", e.getMessage());
+        }
+        Assert.assertTrue(read.get() < 1000);
+    }
+
+    @Test
+    public void readFailuresAreRaisedAfterPendingWrites()
+    {
+        List<Integer> written = Collections.synchronizedList(new ArrayList<>());
+        try
+        {
+            RefreshPipeline.<Integer>run(writers, RefreshPipeline.DEFAULT_CAPACITY, writer ->
+            {
+                writer.accept(Collections.singletonList(1));
+                throw new IllegalArgumentException("corrupt jar");
+            }, batch ->
+            {
+                written.addAll(batch);
+                return new MetadataEventResponse();
+            });
+            Assert.fail();
+        }
+        catch (IllegalArgumentException e)
+        {
+            Assert.assertEquals("corrupt jar", e.getMessage());
+        }
+        Assert.assertEquals(Collections.singletonList(1), written);
+    }
+}
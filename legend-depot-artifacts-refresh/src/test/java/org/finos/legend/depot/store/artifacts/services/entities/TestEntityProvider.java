@@ -17,17 +17,21 @@ package org.finos.legend.depot.store.artifacts.services.entities;
 
 import org.apache.maven.model.Model;
 import org.finos.legend.depot.artifacts.repository.api.ArtifactRepository;
+import org.finos.legend.depot.artifacts.repository.api.ArtifactRepositoryProviderConfiguration;
 import org.finos.legend.depot.artifacts.repository.domain.ArtifactDependency;
 import org.finos.legend.depot.artifacts.repository.domain.ArtifactType;
 import org.finos.legend.depot.artifacts.repository.maven.impl.TestMavenArtifactsRepository;
 import org.finos.legend.depot.store.artifacts.api.entities.EntityArtifactsProvider;
+import org.finos.legend.depot.store.artifacts.services.RefreshExecutor;
 import org.finos.legend.sdlc.domain.model.entity.Entity;
 import org.junit.Assert;
 import org.junit.Test;
 
 import java.io.File;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Set;
+import java.util.stream.Collectors;
 
 public class TestEntityProvider
 {
@@ -61,6 +65,29 @@ public class TestEntityProvider
 
     }
 
+    @Test
+    public void canLoadEntitiesInBatches()
+    {
+        List<List<Entity>> batches = new ArrayList<>();
+        int found = artifactProvider.loadArtifacts(getFiles(TEST_GROUP_ID, "test", "2.0.0"), 2, batches::add);
+        Assert.assertEquals(9, found);
+        Assert.assertEquals(5, batches.size());
+        Assert.assertTrue(batches.stream().allMatch(batch -> batch.size() <= 2));
+        Set<String> paths = batches.stream().flatMap(List::stream).map(Entity::getPath).collect(Collectors.toSet());
+        Assert.assertEquals(artifactProvider.loadArtifacts(getFiles(TEST_GROUP_ID, "test", "2.0.0")).stream().map(Entity::getPath).collect(Collectors.toSet()), paths);
+    }
+
+    @Test
+    public void canParseEntitiesOnRefreshParsers()
+    {
+        EntityArtifactsProvider parallelProvider = new EntityProvider(new RefreshExecutor(ArtifactRepositoryProviderConfiguration.voidConfiguration()));
+        List<List<Entity>> batches = new ArrayList<>();
+        int found = parallelProvider.loadArtifacts(getFiles(TEST_GROUP_ID, "test", "2.0.0"), 2, batches::add);
+        Assert.assertEquals(9, found);
+        Assert.assertEquals(5, batches.size());
+        Assert.assertEquals(artifactProvider.loadArtifacts(getFiles(TEST_GROUP_ID, "test", "2.0.0")).stream().map(Entity::getPath).collect(Collectors.toList()),
+                batches.stream().flatMap(List::stream).map(Entity::getPath).collect(Collectors.toList()));
+    }
 
     @Test
     public void canResolveDependencies()
@@ -21,6 +21,8 @@ import org.finos.legend.depot.store.mongo.TestStoreMongo;
 import org.junit.Assert;
 import org.junit.Test;
 
+import java.util.Arrays;
+import java.util.List;
 import java.util.Optional;
 
 public class TestArtifactMongo extends TestStoreMongo
@@ -65,4 +67,18 @@ public class TestArtifactMongo extends TestStoreMongo
         Assert.assertEquals("laalalala", artifact1.get().getCheckSum());
 
     }
+
+    @Test
+    public void canFindArtifactsInformationForManyFiles()
+    {
+        UpdateArtifacts artifacts = new ArtifactsMongo(this.mongoProvider);
+        artifacts.createOrUpdate(new ArtifactDetail(FILE_PATH, "lala", 10L, 1000L));
+        artifacts.createOrUpdate(new ArtifactDetail("path/to/other.jar", "lolo"));
+
+        List<ArtifactDetail> found = artifacts.find(Arrays.asList(FILE_PATH, "path/to/missing.jar"));
+        Assert.assertEquals(1, found.size());
+        Assert.assertEquals(10L, found.get(0).getSize());
+        Assert.assertEquals(1000L, found.get(0).getLastModified());
+        Assert.assertEquals(2, artifacts.find(Arrays.asList(FILE_PATH, "path/to/other.jar")).size());
+    }
 }
@@ -36,6 +36,11 @@ public interface ArtifactRepository
 
     List<VersionId> findVersions(String group, String artifact) throws ArtifactRepositoryException;
 
+    default void evictCachedVersions(String group, String artifact)
+    {
+        //no caching by default
+    }
+
     List<File> findFiles(ArtifactType type, String group, String artifact, String version);
 
     List<File> findDependenciesFiles(ArtifactType type, String group, String artifact, String version);
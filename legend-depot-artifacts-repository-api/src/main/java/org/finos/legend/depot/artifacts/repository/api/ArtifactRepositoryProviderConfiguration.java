@@ -33,6 +33,15 @@ public abstract class ArtifactRepositoryProviderConfiguration
     @JsonProperty
     long fixVersionsMismatchIntervalInMillis = 1 * ONE_HOUR;
 
+    @JsonProperty
+    int refreshParallelism = Runtime.getRuntime().availableProcessors();
+
+    @JsonProperty
+    int maxConcurrentRepositoryRequests = 8;
+
+    @JsonProperty
+    long maxQueuedRefreshEvents = 10000L;
+
     protected ArtifactRepositoryProviderConfiguration(String name)
     {
         this.name = name;
@@ -74,6 +83,21 @@ public abstract class ArtifactRepositoryProviderConfiguration
         return fixVersionsMismatchIntervalInMillis;
     }
 
+    public int getRefreshParallelism()
+    {
+        return refreshParallelism;
+    }
+
+    public int getMaxConcurrentRepositoryRequests()
+    {
+        return maxConcurrentRepositoryRequests;
+    }
+
+    public long getMaxQueuedRefreshEvents()
+    {
+        return maxQueuedRefreshEvents;
+    }
+
     public abstract ArtifactRepository initialiseArtifactRepositoryProvider();
 
 
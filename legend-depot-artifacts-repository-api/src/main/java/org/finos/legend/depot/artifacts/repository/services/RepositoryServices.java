@@ -103,6 +103,12 @@ public class RepositoryServices
         return this.repository.findVersions(groupId,artifactId);
     }
 
+    public List<VersionId> findLatestVersions(String groupId, String artifactId) throws ArtifactRepositoryException
+    {
+        this.repository.evictCachedVersions(groupId, artifactId);
+        return this.repository.findVersions(groupId, artifactId);
+    }
+
     public Set<ArtifactDependency> findDependencies(String groupId, String artifactId, String versionId)
     {
         return this.repository.findDependencies(groupId, artifactId, versionId);
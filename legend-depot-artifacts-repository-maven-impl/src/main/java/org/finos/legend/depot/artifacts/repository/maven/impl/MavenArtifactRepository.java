@@ -34,8 +34,6 @@ import org.finos.legend.sdlc.domain.model.version.VersionId;
 import org.jboss.shrinkwrap.resolver.api.NoResolvedResultException;
 import org.jboss.shrinkwrap.resolver.api.ResolutionException;
 import org.jboss.shrinkwrap.resolver.api.VersionResolutionException;
-import org.jboss.shrinkwrap.resolver.api.maven.Maven;
-import org.jboss.shrinkwrap.resolver.api.maven.MavenResolverSystem;
 import org.jboss.shrinkwrap.resolver.api.maven.MavenVersionRangeResult;
 import org.jboss.shrinkwrap.resolver.api.maven.PackagingType;
 import org.jboss.shrinkwrap.resolver.api.maven.coordinate.MavenCoordinate;
@@ -43,13 +41,21 @@ import org.slf4j.Logger;
 
 import java.io.File;
 import java.io.FileInputStream;
+import java.io.IOException;
 import java.io.InputStream;
+import java.net.MalformedURLException;
 import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -67,9 +73,30 @@ public class MavenArtifactRepository implements ArtifactRepository
     public static final String VERSION_ID = "versionId";
     private static final String ALL_VERSIONS_SCOPE = ":[0.0,)";
     public static final String SEPARATOR = "-";
+    private static final String DEFAULT_REPOSITORY_NAME = "maven";
+    private static final String RESOLVE_POM = "pom";
+    private static final String RESOLVE_FILES = "files";
+    private static final String RESOLVE_VERSIONS = "versions";
+    private static final int DEFAULT_POM_CACHE_SIZE = 10000;
+    private static final int DEFAULT_VERSIONS_CACHE_SIZE = 10000;
+    private static final int VERIFIED_FILES_CACHE_SIZE = 10000;
+    private static final Map<String, String> CHECKSUM_ALGORITHMS = new LinkedHashMap<>();
+
+    static
+    {
+        CHECKSUM_ALGORITHMS.put(".sha1", "SHA-1");
+        CHECKSUM_ALGORITHMS.put(".md5", "MD5");
+    }
+
+    private static final long DEFAULT_VERSIONS_CACHE_TTL = 30 * 1000L;
     private final MavenXpp3Reader mavenReader = new MavenXpp3Reader();
     private final String settingsLocation;
     private String localRepository;
+    private final Map<String, Model> releasePOMs;
+    private final Map<String, CachedVersions> versions;
+    private final long versionsCacheTtl;
+    private final MavenResolverPool resolverPool;
+    private final Map<String, String> verifiedLocalFiles = boundedCache(VERIFIED_FILES_CACHE_SIZE);
 
 
     public MavenArtifactRepository(ArtifactRepositoryProviderConfiguration configuration)
@@ -77,12 +104,22 @@ public class MavenArtifactRepository implements ArtifactRepository
         if (configuration == null)
         {
             this.settingsLocation = null;
+            this.releasePOMs = boundedCache(DEFAULT_POM_CACHE_SIZE);
+            this.versions = boundedCache(DEFAULT_VERSIONS_CACHE_SIZE);
+            this.versionsCacheTtl = DEFAULT_VERSIONS_CACHE_TTL;
+            this.resolverPool = MavenResolverPool.forSettings(null, DEFAULT_REPOSITORY_NAME, 1, MavenResolverPool.DEFAULT_MAX_USES, MavenResolverPool.DEFAULT_MAX_AGE_IN_MILLIS);
             return;
         }
         if (configuration instanceof MavenArtifactRepositoryConfiguration)
         {
-            this.settingsLocation = ((MavenArtifactRepositoryConfiguration)configuration).getSettingsLocation();
+            MavenArtifactRepositoryConfiguration mavenConfiguration = (MavenArtifactRepositoryConfiguration)configuration;
+            this.settingsLocation = mavenConfiguration.getSettingsLocation();
+            this.releasePOMs = boundedCache(mavenConfiguration.getPomCacheSize());
+            this.versions = boundedCache(mavenConfiguration.getVersionsCacheSize());
+            this.versionsCacheTtl = mavenConfiguration.getVersionsCacheTtlInMillis();
             loadSettings(this.settingsLocation);
+            this.resolverPool = MavenResolverPool.forSettings(this.settingsLocation, mavenConfiguration.getName(), mavenConfiguration.getMaxConcurrentRepositoryRequests(),
+                    mavenConfiguration.getResolverSessionMaxUses(), mavenConfiguration.getResolverSessionMaxAgeInMillis());
         }
         else
         {
@@ -91,12 +128,16 @@ public class MavenArtifactRepository implements ArtifactRepository
     }
 
 
-    private MavenResolverSystem getResolver()
+    private static <V> Map<String, V> boundedCache(int maximumSize)
     {
-        return Maven.configureResolver()
-                .withMavenCentralRepo(false)
-                .withClassPathResolution(false)
-                .fromFile(settingsLocation);
+        return Collections.synchronizedMap(new LinkedHashMap<String, V>(16, 0.75f, true)
+        {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, V> eldest)
+            {
+                return size() > maximumSize;
+            }
+        });
     }
 
     private void loadSettings(String settingsFile)
@@ -148,7 +189,7 @@ public class MavenArtifactRepository implements ArtifactRepository
         {
             modulesWithArtifacts.forEach(artifactModule ->
             {
-                File[] artifactFiles = resolveArtifactFilesFromRepository(group, artifactModule, version);
+                File[] artifactFiles = resolveArtifactFiles(group, artifactModule, version);
                 foundFiles.addAll(Arrays.asList(artifactFiles));
             });
         }
@@ -166,7 +207,7 @@ public class MavenArtifactRepository implements ArtifactRepository
     {
         List<File> files = new ArrayList<>();
         findDependenciesByArtifactType(type, group, artifact, version).forEach(dep ->
-                files.addAll(Arrays.asList(resolveArtifactFilesFromRepository(group, dep.getArtifactId(), dep.getVersion()))));
+                files.addAll(Arrays.asList(resolveArtifactFiles(group, dep.getArtifactId(), dep.getVersion()))));
         return files;
     }
 
@@ -240,11 +281,37 @@ public class MavenArtifactRepository implements ArtifactRepository
 
 
     public Model getPOM(String group, String artifact, String version)
+    {
+        //released poms never change, they are parsed once; snapshots are always read again
+        if (!VersionValidator.isValidReleaseVersion(version))
+        {
+            return Optional.ofNullable(readPOM(group, artifact, version)).orElseGet(Model::new);
+        }
+        String coordinates = gavCoordinates(group, artifact, version);
+        Model model = releasePOMs.get(coordinates);
+        if (model == null)
+        {
+            model = readPOM(group, artifact, version);
+            if (model == null)
+            {
+                return new Model();
+            }
+            releasePOMs.put(coordinates, model);
+        }
+        return model.clone();
+    }
+
+    private Model readPOM(String group, String artifact, String version)
     {
         URL[] pom = null;
         try
         {
-            pom = resolvePOMFromRepository(group, artifact, version);
+            Optional<File> localPom = findReleaseInLocalRepository(group, artifact, version, PackagingType.POM.getId());
+            pom = localPom.isPresent() ? new URL[]{localPom.get().toURI().toURL()} : resolvePOMFromRepository(group, artifact, version);
+        }
+        catch (MalformedURLException e)
+        {
+            LOGGER.error("invalid local pom location for {}: {}", gavCoordinates(group, artifact, version), e.getMessage());
         }
         catch (ResolutionException re)
         { // this will download the pom but wont be able to resolveArtifacts it(workaround)
@@ -253,8 +320,7 @@ public class MavenArtifactRepository implements ArtifactRepository
         String pomFileLocation;
         if (pom == null || pom.length == 0)
         {
-            pomFileLocation = localRepository + File.separator + group.replace(".", File.separator) +
-                    File.separator + artifact + File.separator + version + File.separator + artifact + "-" + version + "." + PackagingType.POM.getId();
+            pomFileLocation = localRepositoryPath(group, artifact, version, PackagingType.POM.getId()).getPath();
         }
         else
         {
@@ -269,28 +335,124 @@ public class MavenArtifactRepository implements ArtifactRepository
         {
             LOGGER.error("could not read {}", pomFileLocation);
             LOGGER.error(e.getMessage());
-            return new Model();
+            return null;
+        }
+    }
+
+    private File[] resolveArtifactFiles(String group, String artifact, String version)
+    {
+        Optional<File> localJar = findReleaseInLocalRepository(group, artifact, version, PackagingType.JAR.getId());
+        return localJar.map(file -> new File[]{file}).orElseGet(() -> resolveArtifactFilesFromRepository(group, artifact, version));
+    }
+
+    private File localRepositoryPath(String group, String artifact, String version, String extension)
+    {
+        return new File(localRepository + File.separator + group.replace(".", File.separator) +
+                File.separator + artifact + File.separator + version + File.separator + artifact + "-" + version + "." + extension);
+    }
+
+    Optional<File> findReleaseInLocalRepository(String group, String artifact, String version, String extension)
+    {
+        //released artifacts are immutable, once downloaded (and matching their checksum) there is nothing to resolve
+        if (localRepository == null || !VersionValidator.isValidReleaseVersion(version))
+        {
+            return Optional.empty();
+        }
+        File file = localRepositoryPath(group, artifact, version, extension);
+        if (!file.isFile())
+        {
+            return Optional.empty();
+        }
+        //a file rewritten in place (same path, different size or modification time) is verified again
+        String fingerprint = file.length() + GAV_SEP + file.lastModified();
+        if (fingerprint.equals(verifiedLocalFiles.get(file.getPath())) || matchesChecksum(file))
+        {
+            verifiedLocalFiles.put(file.getPath(), fingerprint);
+            LOGGER.debug("found {} in local repository", file.getPath());
+            return Optional.of(file);
+        }
+        LOGGER.warn("checksum missing or not matching for {}, resolving from remote repository", file.getPath());
+        return Optional.empty();
+    }
+
+    private boolean matchesChecksum(File file)
+    {
+        //without a checksum there is no telling a partial download from a complete one, resolution decides
+        for (Map.Entry<String, String> checksum : CHECKSUM_ALGORITHMS.entrySet())
+        {
+            File sidecar = new File(file.getPath() + checksum.getKey());
+            if (sidecar.isFile())
+            {
+                try
+                {
+                    String expected = new String(Files.readAllBytes(sidecar.toPath()), StandardCharsets.UTF_8).trim().split("\\s+")[0];
+                    return expected.equalsIgnoreCase(digest(file, checksum.getValue()));
+                }
+                catch (IOException | NoSuchAlgorithmException e)
+                {
+                    LOGGER.warn("could not verify checksum of {}: {}", file.getPath(), e.getMessage());
+                    return false;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static String digest(File file, String algorithm) throws IOException, NoSuchAlgorithmException
+    {
+        MessageDigest messageDigest = MessageDigest.getInstance(algorithm);
+        try (InputStream stream = new DigestInputStream(new FileInputStream(file), messageDigest))
+        {
+            byte[] buffer = new byte[8192];
+            while (stream.read(buffer) != -1)
+            {
+                //reading updates the digest
+            }
+        }
+        StringBuilder hex = new StringBuilder();
+        for (byte b : messageDigest.digest())
+        {
+            hex.append(String.format("%02x", b));
         }
+        return hex.toString();
     }
 
     protected File[] resolveArtifactFilesFromRepository(String group, String artifact, String version)
     {
-        return (File[]) executeWithTrace("resolveArtifactFilesFromRepository",group,artifact,version,() -> getResolver().resolve(gavCoordinates(group, artifact, version)).withoutTransitivity().asFile());
+        return (File[]) executeWithTrace("resolveArtifactFilesFromRepository",group,artifact,version,() -> resolverPool.resolve(RESOLVE_FILES, resolver -> resolver.resolve(gavCoordinates(group, artifact, version)).withoutTransitivity().asFile()));
     }
 
     protected URL[] resolvePOMFromRepository(String group, String artifact, String version)
     {
-        return (URL[]) executeWithTrace("resolvePOMFromRepository",group,artifact,version, () -> getResolver().resolve(gavCoordinates(group, artifact, PackagingType.POM, version)).withoutTransitivity().as(URL.class));
+        return (URL[]) executeWithTrace("resolvePOMFromRepository",group,artifact,version, () -> resolverPool.resolve(RESOLVE_POM, resolver -> resolver.resolve(gavCoordinates(group, artifact, PackagingType.POM, version)).withoutTransitivity().as(URL.class)));
     }
 
     @Override
     public List<VersionId> findVersions(String group, String artifact) throws ArtifactRepositoryException
+    {
+        String coordinates = group + GAV_SEP + artifact;
+        CachedVersions cached = versions.get(coordinates);
+        if (cached == null || cached.hasExpired())
+        {
+            cached = new CachedVersions(resolveVersions(group, artifact), System.currentTimeMillis() + versionsCacheTtl);
+            versions.put(coordinates, cached);
+        }
+        return new ArrayList<>(cached.versions);
+    }
+
+    @Override
+    public void evictCachedVersions(String group, String artifact)
+    {
+        versions.remove(group + GAV_SEP + artifact);
+    }
+
+    private List<VersionId> resolveVersions(String group, String artifact) throws ArtifactRepositoryException
     {
             List<VersionId> result = new ArrayList<>();
             try
             {
                 String groupArtifactVersionRange = gavCoordinates(group, artifact, ALL_VERSIONS_SCOPE);
-                final MavenVersionRangeResult versionRangeResult = (MavenVersionRangeResult) executeWithTrace("resolveVersionsFromRepository",group,artifact,"ALL",() -> getResolver().resolveVersionRange(groupArtifactVersionRange));
+                final MavenVersionRangeResult versionRangeResult = (MavenVersionRangeResult) executeWithTrace("resolveVersionsFromRepository",group,artifact,"ALL",() -> resolverPool.resolve(RESOLVE_VERSIONS, resolver -> resolver.resolveVersionRange(groupArtifactVersionRange)));
                 LOGGER.debug("resolveVersionsFromRepository {}{}{} , Version data: [{}]", group, artifact, ALL_VERSIONS_SCOPE, versionRangeResult);
                 for (MavenCoordinate coordinate : versionRangeResult.getVersions())
                 {
@@ -313,6 +475,23 @@ public class MavenArtifactRepository implements ArtifactRepository
             return result;
     }
 
+    private static class CachedVersions
+    {
+        private final List<VersionId> versions;
+        private final long expiresAt;
+
+        private CachedVersions(List<VersionId> versions, long expiresAt)
+        {
+            this.versions = versions;
+            this.expiresAt = expiresAt;
+        }
+
+        private boolean hasExpired()
+        {
+            return System.currentTimeMillis() >= expiresAt;
+        }
+    }
+
     private Object executeWithTrace(String label, String groupId, String artifactId, String version, Supplier<Object> functionToExecute)
     {
         return TracerFactory.get().executeWithTrace(label, () ->
@@ -29,6 +29,21 @@ public class MavenArtifactRepositoryConfiguration extends ArtifactRepositoryProv
     @JsonProperty
     private String settingsLocation;
 
+    @JsonProperty
+    private int pomCacheSize = 10000;
+
+    @JsonProperty
+    private long versionsCacheTtlInMillis = 30 * 1000L;
+
+    @JsonProperty
+    private int versionsCacheSize = 10000;
+
+    @JsonProperty
+    private int resolverSessionMaxUses = MavenResolverPool.DEFAULT_MAX_USES;
+
+    @JsonProperty
+    private long resolverSessionMaxAgeInMillis = MavenResolverPool.DEFAULT_MAX_AGE_IN_MILLIS;
+
     @JsonCreator
     public MavenArtifactRepositoryConfiguration(@JsonProperty("settingsLocation") String settingsLocation)
     {
@@ -41,6 +56,31 @@ public class MavenArtifactRepositoryConfiguration extends ArtifactRepositoryProv
         return settingsLocation;
     }
 
+    public int getPomCacheSize()
+    {
+        return pomCacheSize;
+    }
+
+    public long getVersionsCacheTtlInMillis()
+    {
+        return versionsCacheTtlInMillis;
+    }
+
+    public int getVersionsCacheSize()
+    {
+        return versionsCacheSize;
+    }
+
+    public int getResolverSessionMaxUses()
+    {
+        return resolverSessionMaxUses;
+    }
+
+    public long getResolverSessionMaxAgeInMillis()
+    {
+        return resolverSessionMaxAgeInMillis;
+    }
+
     @Override
     public ArtifactRepository initialiseArtifactRepositoryProvider()
     {
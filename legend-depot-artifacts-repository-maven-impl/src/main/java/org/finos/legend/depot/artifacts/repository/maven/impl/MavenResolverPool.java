@@ -0,0 +1,176 @@
+//  Copyright 2021 Goldman Sachs
+//
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//       http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+//
+
+package org.finos.legend.depot.artifacts.repository.maven.impl;
+
+import org.finos.legend.depot.tracing.services.prometheus.PrometheusMetricsFactory;
+import org.jboss.shrinkwrap.resolver.api.maven.Maven;
+import org.jboss.shrinkwrap.resolver.api.maven.MavenResolverSystem;
+import org.jboss.shrinkwrap.resolver.impl.maven.MavenWorkingSessionContainer;
+import org.slf4j.Logger;
+
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Resolver sessions are expensive to build (settings parsing, repository system bootstrap) but are not safe to
+ * share between threads, so each repository keeps a bounded pool of sessions that are lent out to a single caller at a time.
+ * A session remembers which remote metadata it already checked and never checks it again, so sessions are retired
+ * after a number of uses or once they get too old, otherwise newly published versions would never be seen.
+ */
+class MavenResolverPool
+{
+    static final String RESOLUTION_DURATION = "_repository_resolution_duration";
+    static final int DEFAULT_MAX_USES = 500;
+    static final long DEFAULT_MAX_AGE_IN_MILLIS = 60 * 1000L;
+    private static final Logger LOGGER = org.slf4j.LoggerFactory.getLogger(MavenResolverPool.class);
+    private static final String METRIC_SEPARATOR = "_";
+
+    private final Supplier<MavenResolverSystem> resolverFactory;
+    private final String repositoryName;
+    private final int maxUses;
+    private final long maxAgeInMillis;
+    private final Semaphore sessions;
+    private final ConcurrentLinkedDeque<PooledResolver> idle = new ConcurrentLinkedDeque<>();
+    private final AtomicInteger idleCount = new AtomicInteger();
+    private final AtomicInteger created = new AtomicInteger();
+
+    MavenResolverPool(String repositoryName, int maxSessions, Supplier<MavenResolverSystem> resolverFactory)
+    {
+        this(repositoryName, maxSessions, DEFAULT_MAX_USES, DEFAULT_MAX_AGE_IN_MILLIS, resolverFactory);
+    }
+
+    MavenResolverPool(String repositoryName, int maxSessions, int maxUses, long maxAgeInMillis, Supplier<MavenResolverSystem> resolverFactory)
+    {
+        this.repositoryName = repositoryName;
+        this.sessions = new Semaphore(Math.max(maxSessions, 1), true);
+        this.maxUses = Math.max(maxUses, 1);
+        this.maxAgeInMillis = maxAgeInMillis;
+        this.resolverFactory = resolverFactory;
+    }
+
+    static MavenResolverPool forSettings(String settingsLocation, String repositoryName, int maxSessions, int maxUses, long maxAgeInMillis)
+    {
+        return new MavenResolverPool(repositoryName, maxSessions, maxUses, maxAgeInMillis, () -> newResolver(settingsLocation));
+    }
+
+    private static MavenResolverSystem newResolver(String settingsLocation)
+    {
+        return Maven.configureResolver()
+                .withMavenCentralRepo(false)
+                .withClassPathResolution(false)
+                .fromFile(settingsLocation);
+    }
+
+    <T> T resolve(String operation, Function<MavenResolverSystem, T> resolution)
+    {
+        //at most maxSessions sessions exist at any time, further callers wait for one to be given back
+        sessions.acquireUninterruptibly();
+        try
+        {
+            PooledResolver pooled = borrow();
+            long start = System.currentTimeMillis();
+            boolean succeeded = false;
+            try
+            {
+                T result = resolution.apply(pooled.resolver);
+                succeeded = true;
+                return result;
+            }
+            finally
+            {
+                PrometheusMetricsFactory.getInstance().observeHistogram(metricName(operation), start, System.currentTimeMillis());
+                giveBack(pooled, succeeded);
+            }
+        }
+        finally
+        {
+            sessions.release();
+        }
+    }
+
+    int getCreatedCount()
+    {
+        return created.get();
+    }
+
+    int getIdleCount()
+    {
+        return idleCount.get();
+    }
+
+    private PooledResolver borrow()
+    {
+        PooledResolver pooled = idle.pollFirst();
+        while (pooled != null)
+        {
+            idleCount.decrementAndGet();
+            if (!pooled.isExpired())
+            {
+                pooled.uses++;
+                return pooled;
+            }
+            pooled = idle.pollFirst();
+        }
+        LOGGER.info("creating resolver session [{}] for repository [{}]", created.incrementAndGet(), repositoryName);
+        return new PooledResolver(resolverFactory.get());
+    }
+
+    private void giveBack(PooledResolver pooled, boolean succeeded)
+    {
+        //failed resolutions leave the requested coordinates queued in the session
+        if ((!succeeded && !reset(pooled.resolver)) || pooled.uses >= maxUses || pooled.isExpired())
+        {
+            return;
+        }
+        idleCount.incrementAndGet();
+        idle.offerFirst(pooled);
+    }
+
+    private boolean reset(MavenResolverSystem resolver)
+    {
+        if (resolver instanceof MavenWorkingSessionContainer)
+        {
+            ((MavenWorkingSessionContainer)resolver).getMavenWorkingSession().getDependenciesForResolution().clear();
+            return true;
+        }
+        return false;
+    }
+
+    private String metricName(String operation)
+    {
+        return repositoryName + METRIC_SEPARATOR + operation + RESOLUTION_DURATION;
+    }
+
+    private class PooledResolver
+    {
+        private final MavenResolverSystem resolver;
+        private final long createdAt = System.currentTimeMillis();
+        private int uses = 1;
+
+        private PooledResolver(MavenResolverSystem resolver)
+        {
+            this.resolver = resolver;
+        }
+
+        private boolean isExpired()
+        {
+            return System.currentTimeMillis() - createdAt >= maxAgeInMillis;
+        }
+    }
+}
@@ -0,0 +1,102 @@
+//  Copyright 2021 Goldman Sachs
+//
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//       http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+//
+
+package org.finos.legend.depot.artifacts.repository.maven.impl;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Optional;
+
+public class TestLocalRepositoryFastPath
+{
+    private static final String JAR_CONTENT = "entities";
+    private static final String JAR_SHA1 = "9d88f3cc176f53090e9fd457c305bbeb86126bcd";
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+    private MavenArtifactRepository repository;
+    private File localRepository;
+
+    @Before
+    public void setUp() throws IOException
+    {
+        localRepository = folder.newFolder("local");
+        File settings = folder.newFile("settings.xml");
+        Files.write(settings.toPath(), ("<settings><localRepository>" + localRepository.getAbsolutePath() + "</localRepository></settings>").getBytes(StandardCharsets.UTF_8));
+        repository = new MavenArtifactRepository(new MavenArtifactRepositoryConfiguration(settings.getAbsolutePath()));
+    }
+
+    private File install(String version, String checksum) throws IOException
+    {
+        File versionFolder = new File(localRepository, "examples/metadata/test-entities/" + version);
+        Assert.assertTrue(versionFolder.mkdirs());
+        File jar = new File(versionFolder, "test-entities-" + version + ".jar");
+        Files.write(jar.toPath(), JAR_CONTENT.getBytes(StandardCharsets.UTF_8));
+        if (checksum != null)
+        {
+            Files.write(new File(versionFolder, jar.getName() + ".sha1").toPath(), checksum.getBytes(StandardCharsets.UTF_8));
+        }
+        return jar;
+    }
+
+    @Test
+    public void downloadedReleasesAreServedFromLocalRepository() throws IOException
+    {
+        File jar = install("1.0.0", JAR_SHA1);
+        Optional<File> found = repository.findReleaseInLocalRepository("examples.metadata", "test-entities", "1.0.0", "jar");
+        Assert.assertTrue(found.isPresent());
+        Assert.assertEquals(jar, found.get());
+    }
+
+    @Test
+    public void filesWithoutChecksumSidecarAreResolved() throws IOException
+    {
+        install("1.0.0", null);
+        Assert.assertFalse(repository.findReleaseInLocalRepository("examples.metadata", "test-entities", "1.0.0", "jar").isPresent());
+    }
+
+    @Test
+    public void filesChangedAfterVerificationAreVerifiedAgain() throws IOException
+    {
+        File jar = install("1.0.0", JAR_SHA1);
+        Assert.assertTrue(repository.findReleaseInLocalRepository("examples.metadata", "test-entities", "1.0.0", "jar").isPresent());
+
+        Files.write(jar.toPath(), "truncated".getBytes(StandardCharsets.UTF_8));
+        Assert.assertFalse(repository.findReleaseInLocalRepository("examples.metadata", "test-entities", "1.0.0", "jar").isPresent());
+    }
+
+    @Test
+    public void checksumMismatchFallsBackToResolution() throws IOException
+    {
+        install("1.0.0", "0000000000000000000000000000000000000000");
+        Assert.assertFalse(repository.findReleaseInLocalRepository("examples.metadata", "test-entities", "1.0.0", "jar").isPresent());
+    }
+
+    @Test
+    public void snapshotsAndMissingFilesAreNotServedLocally() throws IOException
+    {
+        install("master-SNAPSHOT", null);
+        Assert.assertFalse(repository.findReleaseInLocalRepository("examples.metadata", "test-entities", "master-SNAPSHOT", "jar").isPresent());
+        Assert.assertFalse(repository.findReleaseInLocalRepository("examples.metadata", "test-entities", "2.0.0", "jar").isPresent());
+    }
+}
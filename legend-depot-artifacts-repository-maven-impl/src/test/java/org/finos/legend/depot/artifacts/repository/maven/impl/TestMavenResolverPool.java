@@ -0,0 +1,152 @@
+//  Copyright 2021 Goldman Sachs
+//
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//       http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+//
+
+package org.finos.legend.depot.artifacts.repository.maven.impl;
+
+import org.jboss.shrinkwrap.resolver.api.maven.MavenResolverSystem;
+import org.junit.Assert;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+public class TestMavenResolverPool
+{
+    private final MavenResolverPool pool = new MavenResolverPool("test", 2, () -> Mockito.mock(MavenResolverSystem.class));
+
+    @Test
+    public void sessionsAreReusedAcrossCalls()
+    {
+        MavenResolverSystem first = pool.resolve("pom", resolver -> resolver);
+        IntStream.range(0, 10).forEach(i -> Assert.assertSame(first, pool.resolve("pom", resolver -> resolver)));
+        Assert.assertEquals(1, pool.getCreatedCount());
+        Assert.assertEquals(1, pool.getIdleCount());
+    }
+
+    @Test
+    public void concurrentCallersGetTheirOwnSession() throws InterruptedException
+    {
+        CountDownLatch bothBorrowed = new CountDownLatch(2);
+        Set<MavenResolverSystem> used = ConcurrentHashMap.newKeySet();
+        Runnable borrower = () -> pool.resolve("versions", resolver ->
+        {
+            used.add(resolver);
+            bothBorrowed.countDown();
+            try
+            {
+                bothBorrowed.await();
+            }
+            catch (InterruptedException e)
+            {
+                Thread.currentThread().interrupt();
+            }
+            return resolver;
+        });
+        Thread one = new Thread(borrower);
+        Thread two = new Thread(borrower);
+        one.start();
+        two.start();
+        one.join();
+        two.join();
+
+        Assert.assertEquals(2, used.size());
+        Assert.assertEquals(2, pool.getIdleCount());
+    }
+
+    @Test
+    public void sessionsThatCannotBeResetAreDiscardedOnFailure()
+    {
+        try
+        {
+            pool.resolve("files", resolver ->
+            {
+                throw new IllegalStateException("not found");
+            });
+            Assert.fail();
+        }
+        catch (IllegalStateException e)
+        {
+            Assert.assertEquals("not found", e.getMessage());
+        }
+        Assert.assertEquals(0, pool.getIdleCount());
+        pool.resolve("files", resolver -> resolver);
+        Assert.assertEquals(2, pool.getCreatedCount());
+    }
+
+    @Test
+    public void sessionsAreRetiredAfterMaxUses()
+    {
+        MavenResolverPool recycling = new MavenResolverPool("test", 2, 3, 60000L, () -> Mockito.mock(MavenResolverSystem.class));
+        MavenResolverSystem first = recycling.resolve("versions", resolver -> resolver);
+        Assert.assertSame(first, recycling.resolve("versions", resolver -> resolver));
+        Assert.assertSame(first, recycling.resolve("versions", resolver -> resolver));
+        Assert.assertEquals(0, recycling.getIdleCount());
+
+        Assert.assertNotSame(first, recycling.resolve("versions", resolver -> resolver));
+        Assert.assertEquals(2, recycling.getCreatedCount());
+    }
+
+    @Test
+    public void expiredSessionsAreNotReused()
+    {
+        MavenResolverPool expiring = new MavenResolverPool("test", 2, 100, 0L, () -> Mockito.mock(MavenResolverSystem.class));
+        MavenResolverSystem first = expiring.resolve("versions", resolver -> resolver);
+        Assert.assertNotSame(first, expiring.resolve("versions", resolver -> resolver));
+        Assert.assertEquals(2, expiring.getCreatedCount());
+        Assert.assertEquals(0, expiring.getIdleCount());
+    }
+
+    @Test
+    public void callersWaitForASessionOnceAllAreLentOut() throws InterruptedException
+    {
+        MavenResolverPool single = new MavenResolverPool("test", 1, () -> Mockito.mock(MavenResolverSystem.class));
+        CountDownLatch borrowed = new CountDownLatch(1);
+        CountDownLatch giveBack = new CountDownLatch(1);
+        Thread holder = new Thread(() -> single.resolve("pom", resolver ->
+        {
+            borrowed.countDown();
+            try
+            {
+                giveBack.await();
+            }
+            catch (InterruptedException e)
+            {
+                Thread.currentThread().interrupt();
+            }
+            return resolver;
+        }));
+        holder.start();
+        Assert.assertTrue(borrowed.await(5, TimeUnit.SECONDS));
+
+        CountDownLatch resolved = new CountDownLatch(1);
+        Thread waiter = new Thread(() ->
+        {
+            single.resolve("pom", resolver -> resolver);
+            resolved.countDown();
+        });
+        waiter.start();
+        Assert.assertFalse(resolved.await(200, TimeUnit.MILLISECONDS));
+
+        giveBack.countDown();
+        Assert.assertTrue(resolved.await(5, TimeUnit.SECONDS));
+        holder.join();
+        waiter.join();
+        Assert.assertEquals(1, single.getCreatedCount());
+    }
+}
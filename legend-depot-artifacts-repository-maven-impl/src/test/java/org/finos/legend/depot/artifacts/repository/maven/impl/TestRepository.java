@@ -15,6 +15,7 @@
 
 package org.finos.legend.depot.artifacts.repository.maven.impl;
 
+import org.apache.maven.model.Model;
 import org.finos.legend.depot.artifacts.repository.api.ArtifactNotFoundException;
 import org.finos.legend.depot.artifacts.repository.api.ArtifactRepository;
 import org.finos.legend.depot.artifacts.repository.domain.ArtifactDependency;
@@ -25,8 +26,10 @@ import org.junit.Assert;
 import org.junit.Test;
 
 import java.io.File;
+import java.net.URL;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class TestRepository extends TestStoreMongo
 {
@@ -120,4 +123,24 @@ public class TestRepository extends TestStoreMongo
         Assert.assertEquals(1,filesForVersionedEntities.size());
         Assert.assertEquals("test-versioned-entities-1.0.0.jar",filesForVersionedEntities.get(0).getName());
     }
+
+    @Test
+    public void releasedPOMsAreOnlyResolvedOnce()
+    {
+        AtomicInteger resolved = new AtomicInteger();
+        MavenArtifactRepository countingRepository = new TestMavenArtifactsRepository()
+        {
+            @Override
+            protected URL[] resolvePOMFromRepository(String group, String artifact, String version)
+            {
+                resolved.incrementAndGet();
+                return super.resolvePOMFromRepository(group, artifact, version);
+            }
+        };
+
+        Model pom = countingRepository.getPOM(GROUP_ID, "test", "1.0.0");
+        pom.getModules().clear();
+        Assert.assertFalse(countingRepository.getPOM(GROUP_ID, "test", "1.0.0").getModules().isEmpty());
+        Assert.assertEquals(1, resolved.get());
+    }
 }
@@ -24,6 +24,7 @@ import org.finos.legend.depot.services.api.generation.file.FileGenerationsServic
 import org.finos.legend.depot.services.api.generation.file.ManageFileGenerationsService;
 import org.finos.legend.depot.services.api.projects.ManageProjectsService;
 import org.finos.legend.depot.services.api.projects.ProjectsService;
+import org.finos.legend.depot.services.configuration.DependenciesCacheConfiguration;
 import org.finos.legend.depot.services.entities.EntitiesServiceImpl;
 import org.finos.legend.depot.services.generation.file.FileGenerationsServiceImpl;
 import org.finos.legend.depot.services.projects.DependenciesCache;
@@ -66,8 +67,10 @@ public class AdminServicesModule extends PrivateModule
     @Provides
     @Named("dependencyCache")
     @Singleton
-    DependenciesCache initialiseDependencyCache(Projects projects)
+    DependenciesCache initialiseDependencyCache(Projects projects, DependenciesCacheConfiguration configuration)
     {
-        return new DependenciesCache(projects);
+        DependenciesCache dependenciesCache = new DependenciesCache(projects, configuration.getMaximumSize(), configuration.getSnapshotExpiry());
+        dependenciesCache.initialiseInBackground();
+        return dependenciesCache;
     }
 }
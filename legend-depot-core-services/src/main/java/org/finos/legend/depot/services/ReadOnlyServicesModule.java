@@ -23,8 +23,10 @@ import org.finos.legend.depot.services.api.entities.EntitiesService;
 import org.finos.legend.depot.services.api.entities.EntityClassifierService;
 import org.finos.legend.depot.services.api.generation.file.FileGenerationsService;
 import org.finos.legend.depot.services.api.projects.ProjectsService;
+import org.finos.legend.depot.services.configuration.DependenciesCacheConfiguration;
 import org.finos.legend.depot.services.entities.EntitiesServiceImpl;
 import org.finos.legend.depot.services.entities.EntityClassifierServiceImpl;
+import org.finos.legend.depot.services.entities.EntitySearchIndex;
 import org.finos.legend.depot.services.generation.file.FileGenerationsServiceImpl;
 import org.finos.legend.depot.services.projects.DependenciesCache;
 import org.finos.legend.depot.services.projects.ProjectsServiceImpl;
@@ -61,8 +63,20 @@ public class ReadOnlyServicesModule extends PrivateModule
     @Provides
     @Named("dependencyCache")
     @Singleton
-    public DependenciesCache initialiseDependencyCache(Projects projects)
+    public DependenciesCache initialiseDependencyCache(Projects projects, DependenciesCacheConfiguration configuration)
     {
-        return new DependenciesCache(projects);
+        DependenciesCache dependenciesCache = new DependenciesCache(projects, configuration.getMaximumSize(), configuration.getSnapshotExpiry());
+        dependenciesCache.initialiseInBackground();
+        return dependenciesCache;
+    }
+
+    @Provides
+    @Named("entitySearchIndex")
+    @Singleton
+    public EntitySearchIndex initialiseEntitySearchIndex(Entities entities)
+    {
+        EntitySearchIndex entitySearchIndex = new EntitySearchIndex(entities, EntitySearchIndex.DEFAULT_REFRESH_INTERVAL, EntitySearchIndex.DEFAULT_REBUILD_INTERVAL);
+        entitySearchIndex.initialiseInBackground();
+        return entitySearchIndex;
     }
 }
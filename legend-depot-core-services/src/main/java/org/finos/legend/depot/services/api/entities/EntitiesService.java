@@ -15,6 +15,7 @@
 
 package org.finos.legend.depot.services.api.entities;
 
+import org.finos.legend.depot.domain.entity.EntitiesSnapshot;
 import org.finos.legend.depot.domain.entity.ProjectVersionEntities;
 import org.finos.legend.depot.domain.entity.StoredEntity;
 import org.finos.legend.depot.domain.project.ProjectVersion;
@@ -24,6 +25,7 @@ import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
+import java.util.stream.Stream;
 
 import static org.finos.legend.depot.domain.version.VersionValidator.MASTER_SNAPSHOT;
 
@@ -32,15 +34,37 @@ public interface EntitiesService
 
     List<Entity> getEntities(String groupId, String artifactId, String versionId, boolean versioned);
 
+    Stream<Entity> streamEntities(String groupId, String artifactId, String versionId, boolean versioned);
+
+    Stream<String> streamEntitiesAsJson(String groupId, String artifactId, String versionId, boolean versioned);
+
+    Optional<EntitiesSnapshot> getEntitiesSnapshot(String groupId, String artifactId, String versionId, boolean versioned);
+
+    Optional<String> getVersionEtag(String groupId, String artifactId, String versionId, boolean versioned);
+
     Optional<Entity> getEntity(String groupId, String artifactId, String versionId, String entityPath);
 
     List<Entity> getEntitiesByPackage(String groupId, String artifactId, String versionId, String packageName, boolean versioned, Set<String> classifierPaths, boolean includeSubPackages);
 
+    Stream<Entity> streamEntitiesByPackage(String groupId, String artifactId, String versionId, String packageName, boolean versioned, Set<String> classifierPaths, boolean includeSubPackages);
+
+    Stream<String> streamEntitiesByPackageAsJson(String groupId, String artifactId, String versionId, String packageName, boolean versioned, Set<String> classifierPaths, boolean includeSubPackages);
+
     default List<Entity> getLatestEntities(String groupId, String artifactId, boolean versioned)
     {
         return getEntities(groupId, artifactId, MASTER_SNAPSHOT, versioned);
     }
 
+    default Stream<Entity> streamLatestEntities(String groupId, String artifactId, boolean versioned)
+    {
+        return streamEntities(groupId, artifactId, MASTER_SNAPSHOT, versioned);
+    }
+
+    default Stream<String> streamLatestEntitiesAsJson(String groupId, String artifactId, boolean versioned)
+    {
+        return streamEntitiesAsJson(groupId, artifactId, MASTER_SNAPSHOT, versioned);
+    }
+
     default Optional<Entity> getLatestEntity(String groupId, String artifactId, String entityPath)
     {
         return getEntity(groupId, artifactId, MASTER_SNAPSHOT, entityPath);
@@ -51,6 +75,16 @@ public interface EntitiesService
         return getEntitiesByPackage(groupId, artifactId, MASTER_SNAPSHOT, packageName, versioned, classifierPaths, includeSubPackages);
     }
 
+    default Stream<Entity> streamLatestEntitiesByPackage(String groupId, String artifactId, String packageName, boolean versioned, Set<String> classifierPaths, boolean includeSubPackages)
+    {
+        return streamEntitiesByPackage(groupId, artifactId, MASTER_SNAPSHOT, packageName, versioned, classifierPaths, includeSubPackages);
+    }
+
+    default Stream<String> streamLatestEntitiesByPackageAsJson(String groupId, String artifactId, String packageName, boolean versioned, Set<String> classifierPaths, boolean includeSubPackages)
+    {
+        return streamEntitiesByPackageAsJson(groupId, artifactId, MASTER_SNAPSHOT, packageName, versioned, classifierPaths, includeSubPackages);
+    }
+
     List<ProjectVersionEntities> getDependenciesEntities(List<ProjectVersion> projectDependencies, boolean versioned, boolean transitive, boolean includeOrigin);
 
     default List<ProjectVersionEntities> getDependenciesEntities(String groupId, String artifactId, String versionId, boolean versioned, boolean transitive, boolean includeOrigin)
@@ -58,6 +92,16 @@ public interface EntitiesService
         return getDependenciesEntities(Arrays.asList(new ProjectVersion(groupId, artifactId, versionId)), versioned, transitive, includeOrigin);
     }
 
+    /**
+     * Same as {@link #getDependenciesEntities(List, boolean, boolean, boolean)}, handing each version's entities over as soon as they are read; callers must close the returned stream.
+     */
+    Stream<ProjectVersionEntities> streamDependenciesEntities(List<ProjectVersion> projectDependencies, boolean versioned, boolean transitive, boolean includeOrigin);
+
+    default Stream<ProjectVersionEntities> streamDependenciesEntities(String groupId, String artifactId, String versionId, boolean versioned, boolean transitive, boolean includeOrigin)
+    {
+        return streamDependenciesEntities(Arrays.asList(new ProjectVersion(groupId, artifactId, versionId)), versioned, transitive, includeOrigin);
+    }
+
     default List<ProjectVersionEntities> getLatestDependenciesEntities(String groupId, String artifactId, boolean versioned, boolean transitive, boolean includeOrigin)
     {
         return getDependenciesEntities(groupId, artifactId, MASTER_SNAPSHOT, versioned, transitive, includeOrigin);
@@ -67,6 +111,13 @@ public interface EntitiesService
 
     List<StoredEntity> findReleasedEntitiesByClassifier(String classifier, String search, List<ProjectVersion> projectVersions, Integer limit, boolean summary, boolean versioned);
 
+    List<StoredEntity> findLatestReleasedEntitiesByClassifier(String classifier, String search, Integer limit, boolean summary, boolean versioned);
+
+    /**
+     * Full stored entities for the given summaries, in the same order; summaries whose entity no longer exists are skipped.
+     */
+    List<StoredEntity> findStoredEntities(List<StoredEntity> summaries);
+
     List<StoredEntity> findLatestEntitiesByClassifier(String classifier, boolean summary, boolean versioned);
 
     List<StoredEntity> findReleasedEntitiesByClassifier(String classifier, boolean summary, boolean versioned);
@@ -20,7 +20,9 @@ import org.finos.legend.depot.domain.api.MetadataEventResponse;
 import org.finos.legend.depot.domain.entity.StoredEntity;
 import org.finos.legend.sdlc.domain.model.entity.Entity;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
 import static org.finos.legend.depot.domain.version.VersionValidator.MASTER_SNAPSHOT;
 
@@ -41,6 +43,16 @@ public interface ManageEntitiesService extends EntitiesService
 
     MetadataEventResponse delete(String groupId, String artifactId, String versionId,boolean versioned);
 
+    MetadataEventResponse delete(String groupId, String artifactId, String versionId, boolean versioned, Collection<String> entityPaths);
+
+    Map<String, String> getContentHashes(String groupId, String artifactId, String versionId, boolean versioned);
+
+    MetadataEventResponse createSnapshot(String groupId, String artifactId, String versionId, boolean versioned);
+
+    MetadataEventResponse updateVersionEtag(String groupId, String artifactId, String versionId, boolean versioned);
+
+    MetadataEventResponse markLatestVersion(String groupId, String artifactId, String versionId);
+
     MetadataEventResponse createOrUpdate(List<StoredEntity> versionedEntities);
 
     List<Pair<String, String>> getOrphanedStoredEntities();
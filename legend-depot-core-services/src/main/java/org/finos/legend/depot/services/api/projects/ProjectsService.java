@@ -59,7 +59,12 @@ public interface ProjectsService
         return getProjectDependencyReport(Arrays.asList(new ProjectVersion(groupId, artifactId, versionId)));
     }
 
-    List<ProjectVersionPlatformDependency> getDependentProjects(String groupId, String artifactId, String versionId);
+    default List<ProjectVersionPlatformDependency> getDependentProjects(String groupId, String artifactId, String versionId)
+    {
+        return getDependentProjects(groupId, artifactId, versionId, false);
+    }
+
+    List<ProjectVersionPlatformDependency> getDependentProjects(String groupId, String artifactId, String versionId, boolean transitive);
 
     void checkExists(String groupId, String artifactId) throws IllegalArgumentException;
 
@@ -0,0 +1,52 @@
+//  Copyright 2021 Goldman Sachs
+//
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//       http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+//
+
+package org.finos.legend.depot.services.configuration;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import org.finos.legend.depot.services.projects.DependenciesCache;
+
+import java.time.Duration;
+
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class DependenciesCacheConfiguration
+{
+    @JsonProperty
+    int maximumSize = DependenciesCache.DEFAULT_MAXIMUM_SIZE;
+
+    @JsonProperty
+    long snapshotExpiryInMillis = DependenciesCache.DEFAULT_SNAPSHOT_EXPIRY.toMillis();
+
+    public DependenciesCacheConfiguration()
+    {
+    }
+
+    public DependenciesCacheConfiguration(int maximumSize, long snapshotExpiryInMillis)
+    {
+        this.maximumSize = maximumSize;
+        this.snapshotExpiryInMillis = snapshotExpiryInMillis;
+    }
+
+    public int getMaximumSize()
+    {
+        return maximumSize;
+    }
+
+    public Duration getSnapshotExpiry()
+    {
+        return Duration.ofMillis(snapshotExpiryInMillis);
+    }
+}
@@ -15,14 +15,16 @@
 
 package org.finos.legend.depot.services.entities;
 
-import org.eclipse.collections.api.list.MutableList;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
 import org.eclipse.collections.api.tuple.Pair;
-import org.eclipse.collections.impl.list.mutable.FastList;
-import org.eclipse.collections.impl.parallel.ParallelIterate;
 import org.finos.legend.depot.domain.api.MetadataEventResponse;
+import org.finos.legend.depot.domain.entity.EntitiesSnapshot;
 import org.finos.legend.depot.domain.entity.EntityDefinition;
 import org.finos.legend.depot.domain.entity.ProjectVersionEntities;
 import org.finos.legend.depot.domain.entity.StoredEntity;
+import org.finos.legend.depot.domain.entity.StoredEntityOverview;
 import org.finos.legend.depot.domain.project.ProjectVersion;
 import org.finos.legend.depot.services.api.entities.EntitiesService;
 import org.finos.legend.depot.services.api.entities.ManageEntitiesService;
@@ -33,18 +35,32 @@ import org.finos.legend.sdlc.domain.model.entity.Entity;
 import org.slf4j.Logger;
 
 import javax.inject.Inject;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
-import java.util.concurrent.atomic.AtomicInteger;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Function;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 public class EntitiesServiceImpl implements ManageEntitiesService, EntitiesService
 {
     private static final Logger LOGGER = org.slf4j.LoggerFactory.getLogger(EntitiesServiceImpl.class);
     public static final String CALCULATE_PROJECT_DEPENDENCIES = "calculateProjectDependencies";
     public static final String RETRIEVE_DEPENDENCY_ENTITIES = "retrieveDependencyEntities";
+    private static final ObjectReader SNAPSHOT_READER = new ObjectMapper().readerFor(new TypeReference<List<EntityDefinition>>() {});
     private final UpdateEntities entities;
     private final ProjectsService projects;
 
@@ -60,9 +76,48 @@ public class EntitiesServiceImpl implements ManageEntitiesService, EntitiesServi
     public List<Entity> getEntities(String groupId, String artifactId, String versionId, boolean versioned)
     {
         this.projects.checkExists(groupId, artifactId, versionId);
+        Optional<EntitiesSnapshot> snapshot = entities.getSnapshot(groupId, artifactId, versionId, versioned);
+        if (snapshot.isPresent())
+        {
+            try (InputStream json = snapshot.get().openJson())
+            {
+                return new ArrayList<>(SNAPSHOT_READER.<List<EntityDefinition>>readValue(json));
+            }
+            catch (IOException e)
+            {
+                LOGGER.error("could not read entities snapshot for {}-{}-{}, reading from store: {}", groupId, artifactId, versionId, e.getMessage());
+            }
+        }
         return entities.getEntities(groupId, artifactId, versionId, versioned);
     }
 
+    @Override
+    public Stream<Entity> streamEntities(String groupId, String artifactId, String versionId, boolean versioned)
+    {
+        this.projects.checkExists(groupId, artifactId, versionId);
+        return entities.streamEntities(groupId, artifactId, versionId, versioned);
+    }
+
+    @Override
+    public Stream<String> streamEntitiesAsJson(String groupId, String artifactId, String versionId, boolean versioned)
+    {
+        this.projects.checkExists(groupId, artifactId, versionId);
+        return entities.streamEntitiesAsJson(groupId, artifactId, versionId, versioned);
+    }
+
+    @Override
+    public Optional<EntitiesSnapshot> getEntitiesSnapshot(String groupId, String artifactId, String versionId, boolean versioned)
+    {
+        this.projects.checkExists(groupId, artifactId, versionId);
+        return entities.getSnapshot(groupId, artifactId, versionId, versioned);
+    }
+
+    @Override
+    public Optional<String> getVersionEtag(String groupId, String artifactId, String versionId, boolean versioned)
+    {
+        return entities.getVersionEtag(groupId, artifactId, versionId, versioned);
+    }
+
     @Override
     public Optional<Entity> getEntity(String groupId, String artifactId, String versionId, String entityPath)
     {
@@ -77,6 +132,20 @@ public class EntitiesServiceImpl implements ManageEntitiesService, EntitiesServi
         return entities.getEntitiesByPackage(groupId, artifactId, versionId, packageName, versioned, classifierPaths, includeSubPackages);
     }
 
+    @Override
+    public Stream<Entity> streamEntitiesByPackage(String groupId, String artifactId, String versionId, String packageName, boolean versioned, Set<String> classifierPaths, boolean includeSubPackages)
+    {
+        this.projects.checkExists(groupId, artifactId, versionId);
+        return entities.streamEntitiesByPackage(groupId, artifactId, versionId, packageName, versioned, classifierPaths, includeSubPackages);
+    }
+
+    @Override
+    public Stream<String> streamEntitiesByPackageAsJson(String groupId, String artifactId, String versionId, String packageName, boolean versioned, Set<String> classifierPaths, boolean includeSubPackages)
+    {
+        this.projects.checkExists(groupId, artifactId, versionId);
+        return entities.streamEntitiesByPackageAsJson(groupId, artifactId, versionId, packageName, versioned, classifierPaths, includeSubPackages);
+    }
+
     @Override
     public List<StoredEntity> getStoredEntities(String groupId, String artifactId)
     {
@@ -91,6 +160,39 @@ public class EntitiesServiceImpl implements ManageEntitiesService, EntitiesServi
 
     @Override
     public List<ProjectVersionEntities> getDependenciesEntities(List<ProjectVersion> projectDependencies, boolean versioned, boolean transitive, boolean includeOrigin)
+    {
+        Set<ProjectVersion> dependencies = calculateDependencies(projectDependencies, transitive, includeOrigin);
+        return  (List<ProjectVersionEntities>) executeWithTrace(RETRIEVE_DEPENDENCY_ENTITIES, () ->
+        {
+            Map<ProjectVersion, List<EntityDefinition>> entitiesByVersion;
+            try (Stream<StoredEntity> storedEntities = entities.streamStoredEntities(new ArrayList<>(dependencies), versioned))
+            {
+                entitiesByVersion = storedEntities.collect(Collectors.groupingBy(EntitiesServiceImpl::getProjectVersion, Collectors.mapping(StoredEntity::getEntity, Collectors.toList())));
+            }
+            List<ProjectVersionEntities> depEntities = new ArrayList<>(dependencies.size());
+            int totalEntities = 0;
+            for (ProjectVersion dep : dependencies)
+            {
+                List<EntityDefinition> deps = entitiesByVersion.getOrDefault(dep, new ArrayList<>());
+                depEntities.add(new ProjectVersionEntities(dep.getGroupId(), dep.getArtifactId(), dep.getVersionId(), versioned, deps));
+                totalEntities += deps.size();
+                TracerFactory.get().log(String.format("Total [%s-%s-%s]: [%s] entities",dep.getGroupId(), dep.getArtifactId(), dep.getVersionId(),deps.size()));
+            }
+            TracerFactory.get().log(String.format("Total [%s]: [%s] entities",depEntities.size(),totalEntities));
+            return depEntities;
+        });
+    }
+
+    @Override
+    public Stream<ProjectVersionEntities> streamDependenciesEntities(List<ProjectVersion> projectDependencies, boolean versioned, boolean transitive, boolean includeOrigin)
+    {
+        Set<ProjectVersion> dependencies = calculateDependencies(projectDependencies, transitive, includeOrigin);
+        Stream<StoredEntity> storedEntities = entities.streamStoredEntities(new ArrayList<>(dependencies), versioned);
+        ProjectVersionEntitiesIterator projectVersionEntities = new ProjectVersionEntitiesIterator(storedEntities.iterator(), dependencies, versioned);
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(projectVersionEntities, Spliterator.ORDERED | Spliterator.NONNULL), false).onClose(storedEntities::close);
+    }
+
+    private Set<ProjectVersion> calculateDependencies(List<ProjectVersion> projectDependencies, boolean transitive, boolean includeOrigin)
     {
         Set<ProjectVersion> dependencies = (Set<ProjectVersion>) executeWithTrace(CALCULATE_PROJECT_DEPENDENCIES, () ->
         {
@@ -103,20 +205,12 @@ public class EntitiesServiceImpl implements ManageEntitiesService, EntitiesServi
         });
         TracerFactory.get().log(String.format("dependencies: [%s] ",dependencies.size()));
         LOGGER.info("finished calculating [{}] dependencies",dependencies.size());
-        return  (List<ProjectVersionEntities>) executeWithTrace(RETRIEVE_DEPENDENCY_ENTITIES, () ->
-        {
-            MutableList<ProjectVersionEntities> depEntities = FastList.newList();
-            final AtomicInteger totalEntities = new AtomicInteger();
-            ParallelIterate.forEach(dependencies, dep ->
-            {
-                List<EntityDefinition> deps = entities.getStoredEntities(dep.getGroupId(), dep.getArtifactId(), dep.getVersionId(), versioned).stream().map(StoredEntity::getEntity).collect(Collectors.toList());
-                depEntities.add(new ProjectVersionEntities(dep.getGroupId(), dep.getArtifactId(), dep.getVersionId(), versioned, deps));
-                totalEntities.addAndGet(deps.size());
-                TracerFactory.get().log(String.format("Total [%s-%s-%s]: [%s] entities",dep.getGroupId(), dep.getArtifactId(), dep.getVersionId(),deps.size()));
-            });
-            TracerFactory.get().log(String.format("Total [%s]: [%s] entities",depEntities.size(),totalEntities));
-            return depEntities;
-        });
+        return dependencies;
+    }
+
+    private static ProjectVersion getProjectVersion(StoredEntity storedEntity)
+    {
+        return new ProjectVersion(storedEntity.getGroupId(), storedEntity.getArtifactId(), storedEntity.getVersionId());
     }
 
     @Override
@@ -131,6 +225,25 @@ public class EntitiesServiceImpl implements ManageEntitiesService, EntitiesServi
         return entities.findReleasedEntitiesByClassifier(classifier, search, projectVersions, limit, summary, versioned);
     }
 
+    @Override
+    public List<StoredEntity> findLatestReleasedEntitiesByClassifier(String classifier, String search, Integer limit, boolean summary, boolean versioned)
+    {
+        return entities.findLatestReleasedEntitiesByClassifier(classifier, search, limit, summary, versioned);
+    }
+
+    @Override
+    public List<StoredEntity> findStoredEntities(List<StoredEntity> summaries)
+    {
+        Map<String, StoredEntity> found = entities.findStoredEntities(summaries).stream().collect(Collectors.toMap(EntitiesServiceImpl::getEntityKey, Function.identity(), (first, second) -> first));
+        return summaries.stream().map(summary -> found.get(getEntityKey(summary))).filter(Objects::nonNull).collect(Collectors.toList());
+    }
+
+    private static String getEntityKey(StoredEntity storedEntity)
+    {
+        String path = storedEntity instanceof StoredEntityOverview ? ((StoredEntityOverview) storedEntity).getPath() : storedEntity.getEntity().getPath();
+        return String.join(":", storedEntity.getGroupId(), storedEntity.getArtifactId(), storedEntity.getVersionId(), String.valueOf(storedEntity.isVersionedEntity()), path);
+    }
+
     @Override
     public List<StoredEntity> findLatestEntitiesByClassifier(String classifier, boolean summary, boolean versioned)
     {
@@ -150,6 +263,37 @@ public class EntitiesServiceImpl implements ManageEntitiesService, EntitiesServi
         return new MetadataEventResponse().combine(entities.delete(groupId, artifactId, versionId, versioned));
     }
 
+    @Override
+    public MetadataEventResponse delete(String groupId, String artifactId, String versionId, boolean versioned, Collection<String> entityPaths)
+    {
+        this.projects.checkExists(groupId, artifactId, versionId);
+        return new MetadataEventResponse().combine(entities.delete(groupId, artifactId, versionId, versioned, entityPaths));
+    }
+
+    @Override
+    public MetadataEventResponse createSnapshot(String groupId, String artifactId, String versionId, boolean versioned)
+    {
+        return new MetadataEventResponse().combine(entities.createSnapshot(groupId, artifactId, versionId, versioned));
+    }
+
+    @Override
+    public MetadataEventResponse updateVersionEtag(String groupId, String artifactId, String versionId, boolean versioned)
+    {
+        return new MetadataEventResponse().combine(entities.updateVersionEtag(groupId, artifactId, versionId, versioned));
+    }
+
+    @Override
+    public MetadataEventResponse markLatestVersion(String groupId, String artifactId, String versionId)
+    {
+        return new MetadataEventResponse().combine(entities.markLatestVersion(groupId, artifactId, versionId));
+    }
+
+    @Override
+    public Map<String, String> getContentHashes(String groupId, String artifactId, String versionId, boolean versioned)
+    {
+        return entities.getContentHashes(groupId, artifactId, versionId, versioned);
+    }
+
     @Override
     public MetadataEventResponse deleteAll(String groupId, String artifactId)
     {
@@ -174,4 +318,65 @@ public class EntitiesServiceImpl implements ManageEntitiesService, EntitiesServi
     {
         return TracerFactory.get().executeWithTrace(label, () -> functionToExecute.get());
     }
+
+    /**
+     * Groups stored entities, read one version after the other, into one {@link ProjectVersionEntities} per version,
+     * followed by empty ones for any requested version without entities.
+     */
+    private static final class ProjectVersionEntitiesIterator implements Iterator<ProjectVersionEntities>
+    {
+        private final Iterator<StoredEntity> storedEntities;
+        private final Set<ProjectVersion> withoutEntities;
+        private final boolean versioned;
+        private Iterator<ProjectVersion> emptyVersions;
+        private StoredEntity next;
+
+        private ProjectVersionEntitiesIterator(Iterator<StoredEntity> storedEntities, Set<ProjectVersion> projectVersions, boolean versioned)
+        {
+            this.storedEntities = storedEntities;
+            this.withoutEntities = new LinkedHashSet<>(projectVersions);
+            this.versioned = versioned;
+        }
+
+        @Override
+        public boolean hasNext()
+        {
+            if (emptyVersions == null)
+            {
+                if (next == null && storedEntities.hasNext())
+                {
+                    next = storedEntities.next();
+                }
+                if (next != null)
+                {
+                    return true;
+                }
+                emptyVersions = withoutEntities.iterator();
+            }
+            return emptyVersions.hasNext();
+        }
+
+        @Override
+        public ProjectVersionEntities next()
+        {
+            if (!hasNext())
+            {
+                throw new NoSuchElementException();
+            }
+            if (emptyVersions != null)
+            {
+                ProjectVersion projectVersion = emptyVersions.next();
+                return new ProjectVersionEntities(projectVersion.getGroupId(), projectVersion.getArtifactId(), projectVersion.getVersionId(), versioned, new ArrayList<>());
+            }
+            ProjectVersion projectVersion = getProjectVersion(next);
+            List<EntityDefinition> versionEntities = new ArrayList<>();
+            while (next != null && projectVersion.equals(getProjectVersion(next)))
+            {
+                versionEntities.add(next.getEntity());
+                next = storedEntities.hasNext() ? storedEntities.next() : null;
+            }
+            withoutEntities.remove(projectVersion);
+            return new ProjectVersionEntities(projectVersion.getGroupId(), projectVersion.getArtifactId(), projectVersion.getVersionId(), versioned, versionEntities);
+        }
+    }
 }
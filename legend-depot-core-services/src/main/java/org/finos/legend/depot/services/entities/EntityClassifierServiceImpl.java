@@ -15,69 +15,41 @@
 
 package org.finos.legend.depot.services.entities;
 
-import org.eclipse.collections.impl.utility.ListIterate;
 import org.finos.legend.depot.domain.entity.StoredEntity;
-import org.finos.legend.depot.domain.project.ProjectVersion;
 import org.finos.legend.depot.domain.version.Scope;
 import org.finos.legend.depot.services.api.entities.EntitiesService;
 import org.finos.legend.depot.services.api.entities.EntityClassifierService;
-import org.finos.legend.depot.services.api.projects.ProjectsService;
-import org.finos.legend.sdlc.domain.model.version.VersionId;
-import org.slf4j.Logger;
 
 import javax.inject.Inject;
-import java.util.ArrayList;
+import javax.inject.Named;
 import java.util.List;
-import java.util.stream.Collectors;
 
 public class EntityClassifierServiceImpl implements EntityClassifierService
 {
-    private static final Logger LOGGER = org.slf4j.LoggerFactory.getLogger(EntityClassifierServiceImpl.class);
     private final EntitiesService entities;
-    private final ProjectsService projects;
+    private final EntitySearchIndex searchIndex;
 
     @Inject
-    public EntityClassifierServiceImpl(ProjectsService projects, EntitiesService versions)
+    public EntityClassifierServiceImpl(EntitiesService versions, @Named("entitySearchIndex") EntitySearchIndex searchIndex)
     {
-        this.projects = projects;
         this.entities = versions;
-    }
-
-    private List<ProjectVersion> getProjectsInfo(int page, int pageSize)
-    {
-        return ListIterate.collect(projects.getProjects(page, pageSize), projectData ->
-        {
-            VersionId latestVersion = projectData.getLatestVersion().orElse(null);
-            return new ProjectVersion(projectData.getGroupId(), projectData.getArtifactId(), latestVersion != null ? latestVersion.toVersionIdString() : null);
-        }).select(info -> info.getVersionId() != null);
+        this.searchIndex = searchIndex;
     }
 
     @Override
     public List<StoredEntity> getEntitiesByClassifierPath(String classifierPath, String search, Integer limit, Scope scope, boolean summary, boolean versioned)
     {
-        if (Scope.SNAPSHOT.equals(scope))
+        if (search != null && this.searchIndex.isReady())
         {
-            return this.entities.findLatestEntitiesByClassifier(classifierPath, search, limit, summary, versioned);
-        }
-        List<StoredEntity> result = new ArrayList<>();
-        int PAGE_SIZE = 100;
-        int currentPage = 1;
-        List<ProjectVersion> projectVersions = this.getProjectsInfo(currentPage, PAGE_SIZE);
-        while (!projectVersions.isEmpty())
-        {
-            List<StoredEntity> entities = this.entities.findReleasedEntitiesByClassifier(classifierPath, search, projectVersions, limit, summary, versioned);
-            result.addAll(entities);
-            if (limit != null && result.size() >= limit)
-            {
-                break;
-            }
-            currentPage++;
-            projectVersions = this.getProjectsInfo(currentPage, PAGE_SIZE);
+            //searching paths in the store is a regex scan, the index answers from memory and ranks the matches
+            List<StoredEntity> found = this.searchIndex.search(classifierPath, search, scope, versioned, limit);
+            return summary ? found : this.entities.findStoredEntities(found);
         }
-        if (limit != null)
+        if (Scope.SNAPSHOT.equals(scope))
         {
-            result = result.stream().limit(limit).collect(Collectors.toList());
+            return this.entities.findLatestEntitiesByClassifier(classifierPath, search, limit, summary, versioned);
         }
-        return result;
+        //each project's latest release is flagged when it is refreshed, so this is a single indexed query
+        return this.entities.findLatestReleasedEntitiesByClassifier(classifierPath, search, limit, summary, versioned);
     }
 }
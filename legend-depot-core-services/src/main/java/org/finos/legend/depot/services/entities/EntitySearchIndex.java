@@ -0,0 +1,472 @@
+//  Copyright 2021 Goldman Sachs
+//
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//       http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+//
+
+package org.finos.legend.depot.services.entities;
+
+import org.eclipse.collections.api.list.primitive.IntList;
+import org.eclipse.collections.api.list.primitive.MutableIntList;
+import org.eclipse.collections.api.tuple.Pair;
+import org.eclipse.collections.impl.list.mutable.primitive.IntArrayList;
+import org.finos.legend.depot.domain.entity.StoredEntity;
+import org.finos.legend.depot.domain.entity.StoredEntityOverview;
+import org.finos.legend.depot.domain.version.Scope;
+import org.finos.legend.depot.store.api.entities.Entities;
+import org.slf4j.Logger;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.finos.legend.depot.domain.version.VersionValidator.MASTER_SNAPSHOT;
+
+/**
+ * Paths of master-SNAPSHOT entities and of the entities of each project's latest release, partitioned by scope, versioned flag
+ * and classifier. Each path is split into overlapping lower case trigrams mapped to the ids of the entities holding them, so a
+ * substring search only checks the entities sharing the query's rarest trigram instead of scanning every path in the store.
+ * The index is built in the background, catches up with the projects modified or deleted since its last refresh and is
+ * rebuilt from scratch periodically.
+ */
+public final class EntitySearchIndex
+{
+    private static final Logger LOGGER = org.slf4j.LoggerFactory.getLogger(EntitySearchIndex.class);
+    public static final Duration DEFAULT_REFRESH_INTERVAL = Duration.ofSeconds(30);
+    public static final Duration DEFAULT_REBUILD_INTERVAL = Duration.ofHours(1);
+    //changes are stamped by the store servers' clocks, overlapping catch-ups tolerates some skew at the cost of reindexing a few projects twice
+    private static final long CLOCK_SKEW_MARGIN_MILLIS = Duration.ofMinutes(1).toMillis();
+    private static final int GRAM_LENGTH = 3;
+    private static final String PACKAGE_SEPARATOR = "::";
+    private final Entities entitiesStore;
+    private final long refreshIntervalMillis;
+    private final long rebuildIntervalMillis;
+    private final AtomicBoolean rebuilding = new AtomicBoolean(false);
+    private final AtomicBoolean refreshing = new AtomicBoolean(false);
+    private final Object swapLock = new Object();
+    private volatile Index index;
+    private volatile long builtAt;
+    private volatile long refreshedAt;
+
+    public EntitySearchIndex(Entities entitiesStore, Duration refreshInterval, Duration rebuildInterval)
+    {
+        this.entitiesStore = entitiesStore;
+        this.refreshIntervalMillis = refreshInterval.toMillis();
+        this.rebuildIntervalMillis = rebuildInterval.toMillis();
+    }
+
+    public CompletableFuture<Void> initialiseInBackground()
+    {
+        return CompletableFuture.runAsync(this::rebuild).exceptionally(e ->
+        {
+            LOGGER.warn("entity searches will be answered by the store until the search index is built: {}", e.getMessage());
+            return null;
+        });
+    }
+
+    public boolean isReady()
+    {
+        return index != null;
+    }
+
+    public void rebuild()
+    {
+        if (!rebuilding.compareAndSet(false, true))
+        {
+            return;
+        }
+        try
+        {
+            long startedAt = System.currentTimeMillis();
+            Index rebuilt = new Index();
+            try (Stream<StoredEntity> summaries = entitiesStore.streamLatestEntitySummaries())
+            {
+                summaries.forEach(summary -> rebuilt.add((StoredEntityOverview) summary));
+            }
+            synchronized (swapLock)
+            {
+                //changes made while reading are replayed by the next refresh
+                this.index = rebuilt;
+                this.builtAt = startedAt;
+                this.refreshedAt = startedAt;
+            }
+            LOGGER.info("entity search index built with [{}] entities in [{}] ms", rebuilt.size(), System.currentTimeMillis() - startedAt);
+        }
+        finally
+        {
+            rebuilding.set(false);
+        }
+    }
+
+    public void refresh()
+    {
+        if (!refreshing.compareAndSet(false, true))
+        {
+            return;
+        }
+        try
+        {
+            Index current = this.index;
+            if (current == null)
+            {
+                return;
+            }
+            //read before taking the lock so a rebuild swapping in its index is not held up by the store
+            long startedAt = System.currentTimeMillis();
+            List<Pair<String, String>> modified = entitiesStore.getProjectsModifiedSince(new Date(refreshedAt - CLOCK_SKEW_MARGIN_MILLIS));
+            Map<Pair<String, String>, List<StoredEntity>> latest = new HashMap<>();
+            for (Pair<String, String> project : modified)
+            {
+                try (Stream<StoredEntity> summaries = entitiesStore.streamLatestEntitySummaries(project.getOne(), project.getTwo()))
+                {
+                    latest.put(project, summaries.collect(Collectors.toList()));
+                }
+            }
+            synchronized (swapLock)
+            {
+                if (this.index != current)
+                {
+                    //rebuilt while reading, the new index is at least as recent as what was read
+                    return;
+                }
+                //deleted projects have no summaries left, updating them drops their entries
+                latest.forEach((project, summaries) -> current.update(project.getOne(), project.getTwo(), summaries));
+                this.refreshedAt = startedAt;
+            }
+            LOGGER.info("entity search index refreshed [{}] modified projects in [{}] ms", modified.size(), System.currentTimeMillis() - startedAt);
+        }
+        finally
+        {
+            refreshing.set(false);
+        }
+    }
+
+    /**
+     * Entities of the given classifier whose path contains {@code search}, ignoring case. Entities named after the search
+     * come first, then those whose name or path starts with it, then any other match, shorter paths first.
+     */
+    public List<StoredEntity> search(String classifier, String search, Scope scope, boolean versioned, Integer limit)
+    {
+        Index current = this.index;
+        if (current == null)
+        {
+            throw new IllegalStateException("entity search index is not built yet");
+        }
+        refreshIfDue();
+        return current.search(partitionOf(classifier, Scope.SNAPSHOT.equals(scope), versioned), search.toLowerCase(Locale.ROOT), limit);
+    }
+
+    /**
+     * Entries held by the index, including removed ones not compacted yet.
+     */
+    int heldEntries()
+    {
+        Index current = this.index;
+        return current == null ? 0 : current.held();
+    }
+
+    private void refreshIfDue()
+    {
+        long now = System.currentTimeMillis();
+        if (now - builtAt > rebuildIntervalMillis && !rebuilding.get())
+        {
+            CompletableFuture.runAsync(this::rebuild).exceptionally(e ->
+            {
+                LOGGER.error("could not rebuild entity search index {}", e.getMessage());
+                return null;
+            });
+        }
+        else if (now - refreshedAt > refreshIntervalMillis && !refreshing.get())
+        {
+            CompletableFuture.runAsync(this::refresh).exceptionally(e ->
+            {
+                LOGGER.error("could not refresh entity search index {}", e.getMessage());
+                return null;
+            });
+        }
+    }
+
+    private static String partitionOf(String classifier, boolean snapshot, boolean versioned)
+    {
+        return (snapshot ? Scope.SNAPSHOT : Scope.RELEASES) + ":" + versioned + ":" + classifier;
+    }
+
+    private static Set<String> gramsOf(String lowerCasePath)
+    {
+        Set<String> grams = new HashSet<>();
+        for (int i = 0; i + GRAM_LENGTH <= lowerCasePath.length(); i++)
+        {
+            grams.add(lowerCasePath.substring(i, i + GRAM_LENGTH));
+        }
+        return grams;
+    }
+
+    private static int rank(String lowerCasePath, String query)
+    {
+        int separator = lowerCasePath.lastIndexOf(PACKAGE_SEPARATOR);
+        int nameStart = separator == -1 ? 0 : separator + PACKAGE_SEPARATOR.length();
+        if (lowerCasePath.startsWith(query, nameStart))
+        {
+            return lowerCasePath.length() - nameStart == query.length() ? 0 : 1;
+        }
+        if (lowerCasePath.startsWith(query))
+        {
+            return 2;
+        }
+        return lowerCasePath.indexOf(query, nameStart) != -1 ? 3 : 4;
+    }
+
+    private static final class Index
+    {
+        private final List<StoredEntityOverview> entries = new ArrayList<>();
+        private final List<String> lowerCasePaths = new ArrayList<>();
+        private final Map<String, Partition> partitions = new HashMap<>();
+        private final Map<String, MutableIntList> projectEntries = new HashMap<>();
+        private final ReadWriteLock lock = new ReentrantReadWriteLock();
+        private int removed;
+
+        private int size()
+        {
+            lock.readLock().lock();
+            try
+            {
+                return entries.size() - removed;
+            }
+            finally
+            {
+                lock.readLock().unlock();
+            }
+        }
+
+        private void add(StoredEntityOverview entry)
+        {
+            if (entry.getPath() == null || entry.getClassifierPath() == null)
+            {
+                return;
+            }
+            int id = entries.size();
+            String lowerCasePath = entry.getPath().toLowerCase(Locale.ROOT);
+            entries.add(entry);
+            lowerCasePaths.add(lowerCasePath);
+            Partition partition = partitions.computeIfAbsent(partitionOf(entry.getClassifierPath(), MASTER_SNAPSHOT.equals(entry.getVersionId()), entry.isVersionedEntity()), key -> new Partition());
+            partition.ids.add(id);
+            gramsOf(lowerCasePath).forEach(gram -> partition.postings.computeIfAbsent(gram, key -> new IntArrayList()).add(id));
+            projectEntries.computeIfAbsent(entry.getGroupId() + PACKAGE_SEPARATOR + entry.getArtifactId(), key -> new IntArrayList()).add(id);
+        }
+
+        private void update(String groupId, String artifactId, List<StoredEntity> latest)
+        {
+            lock.writeLock().lock();
+            try
+            {
+                MutableIntList previous = projectEntries.remove(groupId + PACKAGE_SEPARATOR + artifactId);
+                if (previous != null)
+                {
+                    Set<Partition> touched = new HashSet<>();
+                    previous.each(id ->
+                    {
+                        StoredEntityOverview entry = entries.get(id);
+                        Partition partition = partitions.get(partitionOf(entry.getClassifierPath(), MASTER_SNAPSHOT.equals(entry.getVersionId()), entry.isVersionedEntity()));
+                        partition.removed++;
+                        touched.add(partition);
+                        entries.set(id, null);
+                        lowerCasePaths.set(id, null);
+                        removed++;
+                    });
+                    touched.forEach(partition -> partition.compactIfSparse(entries));
+                    compactIfSparse();
+                }
+                latest.forEach(summary -> add((StoredEntityOverview) summary));
+            }
+            finally
+            {
+                lock.writeLock().unlock();
+            }
+        }
+
+        private void compactIfSparse()
+        {
+            //ids are positions in the entries, dropping the removed ones renumbers the remaining ids wherever they are held
+            if (removed == 0 || removed * 2 < entries.size())
+            {
+                return;
+            }
+            int[] renumbered = new int[entries.size()];
+            int kept = 0;
+            for (int id = 0; id < entries.size(); id++)
+            {
+                StoredEntityOverview entry = entries.get(id);
+                if (entry == null)
+                {
+                    renumbered[id] = -1;
+                }
+                else
+                {
+                    renumbered[id] = kept;
+                    entries.set(kept, entry);
+                    lowerCasePaths.set(kept, lowerCasePaths.get(id));
+                    kept++;
+                }
+            }
+            entries.subList(kept, entries.size()).clear();
+            lowerCasePaths.subList(kept, lowerCasePaths.size()).clear();
+            partitions.values().forEach(partition -> partition.renumber(renumbered));
+            partitions.values().removeIf(partition -> partition.ids.isEmpty());
+            projectEntries.values().forEach(ids -> renumber(ids, renumbered));
+            removed = 0;
+        }
+
+        private int held()
+        {
+            lock.readLock().lock();
+            try
+            {
+                return entries.size();
+            }
+            finally
+            {
+                lock.readLock().unlock();
+            }
+        }
+
+        private List<StoredEntity> search(String partitionKey, String query, Integer limit)
+        {
+            Comparator<Match> ranking = Comparator.comparingInt((Match match) -> match.rank).thenComparingInt(match -> match.path.length()).thenComparing(match -> match.path);
+            //only the best matches are kept when limited, so short queries matching most of a partition are not sorted in full
+            PriorityQueue<Match> best = new PriorityQueue<>(ranking.reversed());
+            lock.readLock().lock();
+            try
+            {
+                Partition partition = partitions.get(partitionKey);
+                if (partition == null)
+                {
+                    return new ArrayList<>();
+                }
+                IntList candidates = query.length() < GRAM_LENGTH ? partition.ids : partition.rarestPosting(query);
+                candidates.each(id ->
+                {
+                    String path = lowerCasePaths.get(id);
+                    if (path != null && path.contains(query))
+                    {
+                        best.add(new Match(entries.get(id), path, rank(path, query)));
+                        if (limit != null && best.size() > limit)
+                        {
+                            best.poll();
+                        }
+                    }
+                });
+            }
+            finally
+            {
+                lock.readLock().unlock();
+            }
+            List<Match> matches = new ArrayList<>(best);
+            matches.sort(ranking);
+            List<StoredEntity> result = new ArrayList<>(matches.size());
+            matches.forEach(match -> result.add(match.entry));
+            return result;
+        }
+    }
+
+    private static final class Partition
+    {
+        private static final IntList NO_IDS = new IntArrayList();
+        private final MutableIntList ids = new IntArrayList();
+        private final Map<String, MutableIntList> postings = new HashMap<>();
+        private int removed;
+
+        private IntList rarestPosting(String query)
+        {
+            IntList rarest = null;
+            for (String gram : gramsOf(query))
+            {
+                MutableIntList posting = postings.get(gram);
+                if (posting == null)
+                {
+                    return NO_IDS;
+                }
+                if (rarest == null || posting.size() < rarest.size())
+                {
+                    rarest = posting;
+                }
+            }
+            return rarest;
+        }
+
+        private void compactIfSparse(List<StoredEntityOverview> entries)
+        {
+            //removed ids are skipped by searches, they are only dropped once they make up half of the partition
+            if (removed * 2 < ids.size())
+            {
+                return;
+            }
+            ids.removeIf(id -> entries.get(id) == null);
+            postings.values().forEach(posting -> posting.removeIf(id -> entries.get(id) == null));
+            postings.values().removeIf(MutableIntList::isEmpty);
+            removed = 0;
+        }
+
+        private void renumber(int[] renumbered)
+        {
+            EntitySearchIndex.renumber(ids, renumbered);
+            postings.values().forEach(posting -> EntitySearchIndex.renumber(posting, renumbered));
+            postings.values().removeIf(MutableIntList::isEmpty);
+            removed = 0;
+        }
+    }
+
+    private static void renumber(MutableIntList ids, int[] renumbered)
+    {
+        //ids keep their order, removed ones are dropped
+        int kept = 0;
+        for (int i = 0; i < ids.size(); i++)
+        {
+            int id = renumbered[ids.get(i)];
+            if (id != -1)
+            {
+                ids.set(kept++, id);
+            }
+        }
+        while (ids.size() > kept)
+        {
+            ids.removeAtIndex(ids.size() - 1);
+        }
+    }
+
+    private static final class Match
+    {
+        private final StoredEntity entry;
+        private final String path;
+        private final int rank;
+
+        private Match(StoredEntity entry, String path, int rank)
+        {
+            this.entry = entry;
+            this.path = path;
+            this.rank = rank;
+        }
+    }
+}
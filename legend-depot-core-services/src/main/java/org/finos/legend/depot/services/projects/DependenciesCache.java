@@ -16,47 +16,115 @@
 package org.finos.legend.depot.services.projects;
 
 import org.eclipse.collections.api.block.function.Function2;
+import org.eclipse.collections.api.list.primitive.MutableIntList;
 import org.eclipse.collections.api.map.ConcurrentMutableMap;
+import org.eclipse.collections.api.set.primitive.MutableIntSet;
+import org.eclipse.collections.impl.list.mutable.primitive.IntArrayList;
 import org.eclipse.collections.impl.map.mutable.ConcurrentHashMap;
+import org.eclipse.collections.impl.set.mutable.primitive.IntHashSet;
 import org.finos.legend.depot.domain.project.ProjectData;
 import org.finos.legend.depot.domain.project.ProjectVersion;
 import org.finos.legend.depot.domain.project.ProjectVersionDependency;
 import org.finos.legend.depot.store.api.projects.Projects;
 import org.slf4j.Logger;
 
-import java.util.HashSet;
+import java.time.Duration;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Queue;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 import static org.finos.legend.depot.domain.version.VersionValidator.MASTER_SNAPSHOT;
 
+/**
+ * Project versions are interned to int ids and the cache rows hold ids rather than objects: direct dependencies as one
+ * row per version and transitive closures as id arrays ordered by coordinates. Identical closures, such as those of
+ * releases with the same dependencies, share a single array. Ids are reference counted by the rows holding them and
+ * recycled when the last one is dropped; recycling waits until no lookup is reading ids, so dropped rows are released
+ * at the end of each call rather than straight away.
+ */
 public final class DependenciesCache
 {
     private static final Logger LOGGER = org.slf4j.LoggerFactory.getLogger(DependenciesCache.class);
-    final ConcurrentMutableMap<ProjectVersion, Set<ProjectVersion>> transitiveDependencies = new ConcurrentHashMap<>();
+    public static final int DEFAULT_MAXIMUM_SIZE = 200000;
+    public static final Duration DEFAULT_SNAPSHOT_EXPIRY = Duration.ofMinutes(5);
+    private static final int[] NO_DEPENDENCIES = new int[0];
+    private static final Comparator<ProjectVersion> BY_COORDINATES = Comparator.comparing(ProjectVersion::getGroupId).thenComparing(ProjectVersion::getArtifactId).thenComparing(ProjectVersion::getVersionId);
+    final ConcurrentMutableMap<ProjectVersion, int[]> transitiveDependencies = new ConcurrentHashMap<>();
+    final ConcurrentMutableMap<ProjectVersion, int[]> directDependencies = new ConcurrentHashMap<>();
+    final ConcurrentMutableMap<ProjectVersion, Long> snapshotsCalculatedAt = new ConcurrentHashMap<>();
+    //keys to drop when a project is updated: its own cached versions and every version whose closure holds one of its versions
+    final ConcurrentMutableMap<String, Set<ProjectVersion>> keysByProject = new ConcurrentHashMap<>();
+    final ProjectVersionIds ids = new ProjectVersionIds();
+    //lookups hold the read lock while they use ids, releasing dropped rows takes the write lock
+    private final ReadWriteLock idsInUse = new ReentrantReadWriteLock();
+    private final Queue<Runnable> pendingReleases = new ConcurrentLinkedQueue<>();
     AtomicInteger absentKeys = new AtomicInteger(0);
+    private final AtomicLong invalidations = new AtomicLong(0);
     private final Projects projectsStore;
+    private final int maximumSize;
+    private final long snapshotExpiryMillis;
 
-    public DependenciesCache(Projects projectsService)
+    public DependenciesCache(Projects projectsService, int maximumSize, Duration snapshotExpiry)
     {
         this.projectsStore = projectsService;
-        initCache();
+        this.maximumSize = maximumSize;
+        this.snapshotExpiryMillis = snapshotExpiry.toMillis();
+    }
+
+    public CompletableFuture<Void> initialiseInBackground()
+    {
+        return CompletableFuture.runAsync(this::initCache).exceptionally(e ->
+        {
+            LOGGER.warn("dependencies cache will be populated on demand: {}", e.getMessage());
+            return null;
+        });
     }
 
     private void initCache()
     {
+        long invalidationsBefore = invalidations.get();
         try
         {
             List<ProjectData> allProject = projectsStore.getAll();
             Stream<ProjectVersion> allProjectVersions = allProject.stream().filter(p -> !p.getDependencies().isEmpty()).flatMap(p -> p.getVersions().stream().map(v -> new ProjectVersion(p.getGroupId(), p.getArtifactId(), v)));
             LOGGER.info("Initialising dependencies cache");
             Map<String, ProjectData> projectDataMap = allProject.stream().collect(Collectors.toMap(p -> p.getGroupId() + p.getArtifactId(), Function.identity()));
-            allProjectVersions.forEach(pv -> transitiveDependencies.put(pv, calculateTransitiveDependencies(pv, projectDataMap)));
+            Function2<String,String,ProjectData> projectDataProvider = getProjectDataFromProjectsMap(projectDataMap);
+            //projects read up front go stale once an update is invalidated, so the rest is left to be calculated on demand
+            allProjectVersions.filter(pv -> invalidationsBefore == invalidations.get()).forEach(pv ->
+            {
+                idsInUse.readLock().lock();
+                try
+                {
+                    evictIfFull();
+                    int[] dependencies = calculateTransitiveDependencies(pv, projectDataProvider);
+                    if (invalidationsBefore == invalidations.get())
+                    {
+                        cacheIfAbsent(pv, dependencies);
+                    }
+                }
+                finally
+                {
+                    idsInUse.readLock().unlock();
+                }
+                releaseDroppedRows();
+            });
             LOGGER.info("Total [{}] keys in cache",transitiveDependencies.keySet().size());
         }
         catch (Exception e)
@@ -68,7 +136,7 @@ public final class DependenciesCache
 
     private Function2<String,String,ProjectData> getProjectDataFromStore()
     {
-        return (group, artifact) -> this.projectsStore.find(group, artifact).get();
+        return (group, artifact) -> this.projectsStore.find(group, artifact).orElse(null);
     }
 
     private Function2<String,String,ProjectData> getProjectDataFromProjectsMap(Map<String, ProjectData> projectDataMap)
@@ -76,59 +144,432 @@ public final class DependenciesCache
         return (group, artifact) -> projectDataMap.get(group + artifact);
     }
 
-    private Set<ProjectVersion> calculateTransitiveDependencies(ProjectVersion projectVersion, Map<String, ProjectData> projectDataMap)
+    private int[] getOrCalculate(ProjectVersion pv, Function2<String,String,ProjectData> projectDataProvider)
     {
-        return getTransitiveDependencies(projectVersion, getProjectDataFromProjectsMap(projectDataMap));
+        int[] cached = this.transitiveDependencies.get(pv);
+        if (cached != null)
+        {
+            return cached;
+        }
+        long invalidationsBefore = invalidations.get();
+        absentKeys.getAndIncrement();
+        int[] dependencies = calculateTransitiveDependencies(pv, projectDataProvider);
+        //an invalidation while calculating means the result may already be stale, so it is served but not cached
+        if (invalidationsBefore == invalidations.get())
+        {
+            evictIfFull();
+            return cacheIfAbsent(pv, dependencies);
+        }
+        return dependencies;
     }
 
-    private Set<ProjectVersion> getTransitiveDependencies(ProjectVersion pv, Function2<String,String,ProjectData> projectDataProvider)
+    private int[] cacheIfAbsent(ProjectVersion pv, int[] dependencies)
     {
-        Set<ProjectVersion> dependencies = new HashSet<>();
-        try
+        ProjectVersion key = ids.get(ids.acquire(pv));
+        int[] shared = ids.share(dependencies);
+        int[] existing = this.transitiveDependencies.putIfAbsent(key, shared);
+        if (existing != null)
+        {
+            pendingReleases.add(() -> ids.release(shared, key));
+            return existing;
+        }
+        keysOf(key).add(key);
+        ProjectVersion previous = key;
+        for (int id : shared)
+        {
+            //closures are ordered by coordinates, so each project is indexed once
+            ProjectVersion dependency = ids.get(id);
+            if (!isVersionOf(dependency, previous.getGroupId(), previous.getArtifactId()))
+            {
+                keysOf(dependency).add(key);
+            }
+            previous = dependency;
+        }
+        return shared;
+    }
+
+    private Set<ProjectVersion> keysOf(ProjectVersion pv)
+    {
+        return this.keysByProject.getIfAbsentPut(projectKey(pv.getGroupId(), pv.getArtifactId()), () -> Collections.newSetFromMap(new ConcurrentHashMap<>()));
+    }
+
+    private void dropClosure(ProjectVersion pv)
+    {
+        this.snapshotsCalculatedAt.remove(pv);
+        int[] dependencies = this.transitiveDependencies.remove(pv);
+        if (dependencies != null)
         {
-            ProjectData projectData = projectDataProvider.apply(pv.getGroupId(), pv.getArtifactId());
-            if (projectData != null)
+            for (int id : dependencies)
             {
-                List<ProjectVersionDependency> projectVersionDependencies = projectData.getDependencies(pv.getVersionId());
-                projectVersionDependencies.forEach(dep ->
+                ProjectVersion dependency = ids.get(id);
+                if (!isVersionOf(dependency, pv.getGroupId(), pv.getArtifactId()))
                 {
-                    dependencies.add(dep.getDependency());
-                    ProjectVersion dpv = new ProjectVersion(dep.getDependency().getGroupId(), dep.getDependency().getArtifactId(), dep.getDependency().getVersionId());
-                    Set<ProjectVersion> deps = this.transitiveDependencies.getIfAbsentPut(dpv,() ->
-                    {
-                        absentKeys.getAndIncrement();
-                        return getTransitiveDependencies(dpv, projectDataProvider);
-                    });
-                    dependencies.addAll(deps);
-                });
+                    this.keysByProject.getIfAbsentValue(projectKey(dependency.getGroupId(), dependency.getArtifactId()), Collections.emptySet()).remove(pv);
+                }
+            }
+            pendingReleases.add(() -> ids.release(dependencies, pv));
+        }
+    }
+
+    private void drop(ProjectVersion pv)
+    {
+        dropClosure(pv);
+        int[] dependencies = this.directDependencies.remove(pv);
+        if (dependencies != null)
+        {
+            pendingReleases.add(() -> ids.releaseAll(dependencies, pv));
+        }
+        this.keysByProject.getIfAbsentValue(projectKey(pv.getGroupId(), pv.getArtifactId()), Collections.emptySet()).remove(pv);
+    }
+
+    private void releaseDroppedRows()
+    {
+        if (pendingReleases.isEmpty())
+        {
+            return;
+        }
+        idsInUse.writeLock().lock();
+        try
+        {
+            Runnable release;
+            while ((release = pendingReleases.poll()) != null)
+            {
+                release.run();
+            }
+        }
+        finally
+        {
+            idsInUse.writeLock().unlock();
+        }
+    }
+
+    private int[] calculateTransitiveDependencies(ProjectVersion pv, Function2<String,String,ProjectData> projectDataProvider)
+    {
+        MutableIntSet dependencies = new IntHashSet();
+        try
+        {
+            for (int dependency : getDirectDependencies(pv, projectDataProvider))
+            {
+                dependencies.add(dependency);
+                dependencies.addAll(getOrCalculate(ids.get(dependency), projectDataProvider));
             }
         }
         catch (Exception e)
         {
             LOGGER.error("error getting transitive dependencies {}",e.getMessage());
         }
-        return dependencies;
+        if (dependencies.isEmpty())
+        {
+            return NO_DEPENDENCIES;
+        }
+        ProjectVersion[] sorted = ids.versionsOf(dependencies.toArray());
+        Arrays.sort(sorted, BY_COORDINATES);
+        return Arrays.stream(sorted).mapToInt(ids::idOf).toArray();
+    }
+
+    private int[] getDirectDependencies(ProjectVersion pv, Function2<String,String,ProjectData> projectDataProvider)
+    {
+        int[] cached = this.directDependencies.get(pv);
+        if (cached != null)
+        {
+            return cached;
+        }
+        ProjectVersion[] dependencies = new ProjectVersion[0];
+        ProjectData projectData = projectDataProvider.apply(pv.getGroupId(), pv.getArtifactId());
+        if (projectData != null)
+        {
+            List<ProjectVersionDependency> projectVersionDependencies = projectData.getDependencies(pv.getVersionId());
+            if (!projectVersionDependencies.isEmpty())
+            {
+                dependencies = projectVersionDependencies.stream().map(ProjectVersionDependency::getDependency).distinct().toArray(ProjectVersion[]::new);
+            }
+        }
+        ProjectVersion key = ids.get(ids.acquire(pv));
+        int[] row = ids.acquireAll(dependencies);
+        int[] existing = this.directDependencies.putIfAbsent(key, row);
+        if (existing != null)
+        {
+            pendingReleases.add(() -> ids.releaseAll(row, key));
+            return existing;
+        }
+        keysOf(key).add(key);
+        return row;
+    }
+
+    private void evictIfFull()
+    {
+        if (this.transitiveDependencies.size() < maximumSize)
+        {
+            return;
+        }
+        //closures are cheap to rebuild from their cached dependencies, so dropping an arbitrary tenth of the keys is enough to keep the footprint bounded
+        int toEvict = Math.max(1, maximumSize / 10);
+        Iterator<ProjectVersion> keys = this.transitiveDependencies.keySet().iterator();
+        while (toEvict-- > 0 && keys.hasNext())
+        {
+            drop(keys.next());
+        }
+        LOGGER.info("dependencies cache reached [{}] keys, evicted down to [{}]", maximumSize, this.transitiveDependencies.size());
     }
 
     public Set<ProjectVersion> getTransitiveDependencies(ProjectVersion pv)
+    {
+        ProjectVersion[] dependencies;
+        idsInUse.readLock().lock();
+        try
+        {
+            dependencies = ids.versionsOf(getOrCalculateSnapshotAware(pv));
+        }
+        finally
+        {
+            idsInUse.readLock().unlock();
+        }
+        releaseDroppedRows();
+        return new ProjectVersions(dependencies);
+    }
+
+    private int[] getOrCalculateSnapshotAware(ProjectVersion pv)
     {
         if (pv.getVersionId().equals(MASTER_SNAPSHOT))
         {
-            absentKeys.getAndIncrement();
-            Set<ProjectVersion> masterSNAPSHOTDependencies = getTransitiveDependencies(pv, getProjectDataFromStore());
-            this.transitiveDependencies.put(pv,masterSNAPSHOTDependencies);
-            return masterSNAPSHOTDependencies;
+            //snapshot dependencies change without a version bump; updates made through this process invalidate them straight away,
+            //the expiry bounds how stale they can get when the update happened elsewhere
+            long now = System.currentTimeMillis();
+            Long calculatedAt = this.snapshotsCalculatedAt.get(pv);
+            if (calculatedAt == null || now - calculatedAt > snapshotExpiryMillis)
+            {
+                drop(pv);
+                this.snapshotsCalculatedAt.put(pv, now);
+            }
         }
-        else
+        //we might end up with dirty entries for wrong projects or non existent versions in the cache but we need speed
+        //we must absolutely return empty dependencies
+        return getOrCalculate(pv, getProjectDataFromStore());
+    }
+
+    public void invalidate(String groupId, String artifactId)
+    {
+        invalidations.incrementAndGet();
+        Set<ProjectVersion> cone = this.keysByProject.getIfAbsentValue(projectKey(groupId, artifactId), Collections.emptySet());
+        int invalidated = 0;
+        idsInUse.readLock().lock();
+        try
         {
-            //we might end up with dirty entries for wrong projects or non existent versions in the cache but we need speed
-            //we must absolutely return empty dependencies
-            return this.transitiveDependencies.getIfAbsentPut(pv, () ->
+            for (ProjectVersion pv : cone.toArray(new ProjectVersion[0]))
             {
-                absentKeys.getAndIncrement();
-                return getTransitiveDependencies(pv, getProjectDataFromStore());
-            });
+                //only the updated project's own rows can have changed, the rest of the cone is rebuilt from the rows already held
+                if (isVersionOf(pv, groupId, artifactId))
+                {
+                    drop(pv);
+                }
+                else
+                {
+                    cone.remove(pv);
+                    dropClosure(pv);
+                }
+                invalidated++;
+            }
+        }
+        finally
+        {
+            idsInUse.readLock().unlock();
         }
+        releaseDroppedRows();
+        LOGGER.info("invalidated [{}] dependencies cache keys for {}-{}", invalidated, groupId, artifactId);
+    }
+
+    private static String projectKey(String groupId, String artifactId)
+    {
+        return groupId + ":" + artifactId;
     }
 
+    private static boolean isVersionOf(ProjectVersion pv, String groupId, String artifactId)
+    {
+        return pv.getGroupId().equals(groupId) && pv.getArtifactId().equals(artifactId);
+    }
+
+    /**
+     * Interned project versions. Ids are only recycled by the release methods, which callers run while nothing else reads ids.
+     */
+    static final class ProjectVersionIds
+    {
+        private final ConcurrentMutableMap<ProjectVersion, Integer> idsByVersion = new ConcurrentHashMap<>();
+        private final Map<Closure, Closure> closures = new HashMap<>();
+        private final MutableIntList freeIds = new IntArrayList();
+        private volatile ProjectVersion[] versions = new ProjectVersion[1024];
+        private int[] references = new int[1024];
+        private int nextId;
+
+        ProjectVersion get(int id)
+        {
+            return versions[id];
+        }
+
+        int idOf(ProjectVersion pv)
+        {
+            return idsByVersion.get(pv);
+        }
+
+        ProjectVersion[] versionsOf(int[] ids)
+        {
+            ProjectVersion[] result = new ProjectVersion[ids.length];
+            for (int i = 0; i < ids.length; i++)
+            {
+                result[i] = versions[ids[i]];
+            }
+            return result;
+        }
+
+        synchronized int acquire(ProjectVersion pv)
+        {
+            Integer id = idsByVersion.get(pv);
+            if (id == null)
+            {
+                id = freeIds.isEmpty() ? nextId++ : freeIds.removeAtIndex(freeIds.size() - 1);
+                if (id == versions.length)
+                {
+                    references = Arrays.copyOf(references, id * 2);
+                    ProjectVersion[] grown = Arrays.copyOf(versions, id * 2);
+                    grown[id] = pv;
+                    versions = grown;
+                }
+                else
+                {
+                    versions[id] = pv;
+                }
+                idsByVersion.put(pv, id);
+            }
+            references[id]++;
+            return id;
+        }
+
+        synchronized int[] acquireAll(ProjectVersion[] pvs)
+        {
+            return pvs.length == 0 ? NO_DEPENDENCIES : Arrays.stream(pvs).mapToInt(this::acquire).toArray();
+        }
+
+        /**
+         * The closure with the same ids already held by another row, or this one, which from now on holds its ids.
+         */
+        synchronized int[] share(int[] closure)
+        {
+            if (closure.length == 0)
+            {
+                return NO_DEPENDENCIES;
+            }
+            Closure probe = new Closure(closure);
+            Closure shared = closures.get(probe);
+            if (shared == null)
+            {
+                for (int id : closure)
+                {
+                    references[id]++;
+                }
+                shared = probe;
+                closures.put(shared, shared);
+            }
+            shared.rows++;
+            return shared.ids;
+        }
+
+        synchronized void release(int[] closure, ProjectVersion key)
+        {
+            Closure shared = closure.length == 0 ? null : closures.get(new Closure(closure));
+            if (shared != null && --shared.rows == 0)
+            {
+                closures.remove(shared);
+                for (int id : closure)
+                {
+                    release(id);
+                }
+            }
+            release(idOf(key));
+        }
+
+        synchronized void releaseAll(int[] row, ProjectVersion key)
+        {
+            for (int id : row)
+            {
+                release(id);
+            }
+            release(idOf(key));
+        }
+
+        private void release(int id)
+        {
+            if (--references[id] == 0)
+            {
+                idsByVersion.remove(versions[id]);
+                versions[id] = null;
+                freeIds.add(id);
+            }
+        }
+
+        int size()
+        {
+            return idsByVersion.size();
+        }
+
+        synchronized int closureCount()
+        {
+            return closures.size();
+        }
+    }
+
+    private static final class Closure
+    {
+        private final int[] ids;
+        private final int hash;
+        private int rows;
+
+        private Closure(int[] ids)
+        {
+            this.ids = ids;
+            this.hash = Arrays.hashCode(ids);
+        }
+
+        @Override
+        public boolean equals(Object o)
+        {
+            return o instanceof Closure && Arrays.equals(ids, ((Closure) o).ids);
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return hash;
+        }
+    }
+
+    private static final class ProjectVersions extends AbstractSet<ProjectVersion>
+    {
+        private final ProjectVersion[] dependencies;
+
+        private ProjectVersions(ProjectVersion[] dependencies)
+        {
+            this.dependencies = dependencies;
+        }
+
+        @Override
+        public boolean contains(Object o)
+        {
+            if (!(o instanceof ProjectVersion))
+            {
+                return false;
+            }
+            return Arrays.binarySearch(dependencies, (ProjectVersion) o, BY_COORDINATES) >= 0;
+        }
+
+        @Override
+        public Iterator<ProjectVersion> iterator()
+        {
+            return Arrays.asList(dependencies).iterator();
+        }
+
+        @Override
+        public int size()
+        {
+            return dependencies.length;
+        }
+    }
 }
@@ -31,11 +31,13 @@ import org.finos.legend.sdlc.domain.model.version.VersionId;
 
 import javax.inject.Inject;
 import javax.inject.Named;
-import java.util.Collection;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
 import static org.finos.legend.depot.domain.version.VersionValidator.MASTER_SNAPSHOT;
@@ -43,6 +45,7 @@ import static org.finos.legend.depot.domain.version.VersionValidator.MASTER_SNAP
 public class ProjectsServiceImpl implements ManageProjectsService
 {
     private static final String PATH_DELIMITER = ">";
+    private static final String ALL_VERSIONS = "ALL";
 
     private final UpdateProjects projects;
 
@@ -58,25 +61,32 @@ public class ProjectsServiceImpl implements ManageProjectsService
     public ProjectsServiceImpl(UpdateProjects projects)
     {
         this.projects = projects;
-        this.dependenciesCache = new DependenciesCache(projects);
+        this.dependenciesCache = new DependenciesCache(projects, DependenciesCache.DEFAULT_MAXIMUM_SIZE, DependenciesCache.DEFAULT_SNAPSHOT_EXPIRY);
     }
 
     @Override
     public ProjectData createOrUpdate(ProjectData projectData)
     {
-        return projects.createOrUpdate(projectData);
+        ProjectData result = projects.createOrUpdate(projectData);
+        dependenciesCache.invalidate(projectData.getGroupId(), projectData.getArtifactId());
+        return result;
     }
 
     @Override
     public MetadataEventResponse delete(String groupId, String artifactId)
     {
-        return projects.delete(groupId, artifactId);
+        MetadataEventResponse response = projects.delete(groupId, artifactId);
+        dependenciesCache.invalidate(groupId, artifactId);
+        return response;
     }
 
     @Override
     public MetadataEventResponse delete(String projectId)
     {
-        return projects.deleteByProjectId(projectId);
+        List<ProjectData> deleted = projects.findByProjectId(projectId);
+        MetadataEventResponse response = projects.deleteByProjectId(projectId);
+        deleted.forEach(project -> dependenciesCache.invalidate(project.getGroupId(), project.getArtifactId()));
+        return response;
     }
 
     @Override
@@ -226,19 +236,46 @@ public class ProjectsServiceImpl implements ManageProjectsService
     }
 
     @Override
-    public List<ProjectVersionPlatformDependency> getDependentProjects(String groupId, String artifactId, String versionId)
+    public List<ProjectVersionPlatformDependency> getDependentProjects(String groupId, String artifactId, String versionId, boolean transitive)
     {
-        if (versionId.equalsIgnoreCase("ALL"))
+        List<ProjectVersionPlatformDependency> dependants = new ArrayList<>();
+        Set<ProjectVersion> visited = new HashSet<>();
+        Predicate<ProjectVersion> isTarget;
+        List<ProjectData> candidates;
+        if (versionId.equalsIgnoreCase(ALL_VERSIONS))
         {
-            return getAll().stream().map(projectData -> projectData.getDependencies().stream()
-                    .filter(dep -> dep.getDependency().getGroupId().equals(groupId) && dep.getDependency().getArtifactId().equals(artifactId))
-                    .map(dep -> new ProjectVersionPlatformDependency(dep.getGroupId(), dep.getArtifactId(), dep.getVersionId(), dep.getDependency(), projectData.getPropertiesForProjectVersionID(dep.getVersionId())))
-                    .collect(Collectors.toList())).flatMap(Collection::stream).collect(Collectors.toList());
+            isTarget = dep -> dep.getGroupId().equals(groupId) && dep.getArtifactId().equals(artifactId);
+            candidates = projects.findDependants(groupId, artifactId);
         }
-        return getAll().stream().map(projectData -> projectData.getDependencies().stream()
-                .filter(dep -> dep.getDependency().getGroupId().equals(groupId) && dep.getDependency().getArtifactId().equals(artifactId) && dep.getDependency().getVersionId().equals(versionId))
-                .map(dep -> new ProjectVersionPlatformDependency(dep.getGroupId(), dep.getArtifactId(), dep.getVersionId(), dep.getDependency(), projectData.getPropertiesForProjectVersionID(dep.getVersionId())))
-                .collect(Collectors.toList())).flatMap(Collection::stream).collect(Collectors.toList());
+        else
+        {
+            ProjectVersion projectVersion = new ProjectVersion(groupId, artifactId, versionId);
+            visited.add(projectVersion);
+            isTarget = projectVersion::equals;
+            candidates = projects.findDependants(Collections.singletonList(projectVersion));
+        }
+        while (!candidates.isEmpty())
+        {
+            Set<ProjectVersion> nextTargets = new HashSet<>();
+            for (ProjectData projectData : candidates)
+            {
+                for (ProjectVersionDependency dep : projectData.getDependencies())
+                {
+                    if (isTarget.test(dep.getDependency()))
+                    {
+                        dependants.add(new ProjectVersionPlatformDependency(dep.getGroupId(), dep.getArtifactId(), dep.getVersionId(), dep.getDependency(), projectData.getPropertiesForProjectVersionID(dep.getVersionId())));
+                        ProjectVersion dependant = new ProjectVersion(dep.getGroupId(), dep.getArtifactId(), dep.getVersionId());
+                        if (transitive && visited.add(dependant))
+                        {
+                            nextTargets.add(dependant);
+                        }
+                    }
+                }
+            }
+            isTarget = nextTargets::contains;
+            candidates = projects.findDependants(new ArrayList<>(nextTargets));
+        }
+        return dependants;
     }
 
     private ProjectData getProject(String groupId, String artifactId)
@@ -33,8 +33,11 @@ import org.junit.Test;
 
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
 import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 public class TestEntitiesService extends TestBaseServices
 {
@@ -114,6 +117,22 @@ public class TestEntitiesService extends TestBaseServices
 
     }
 
+    @Test
+    public void canStreamDependenciesEntities()
+    {
+        List<ProjectVersion> projectVersions = Arrays.asList(new ProjectVersion("examples.metadata", "test", "2.3.1"), new ProjectVersion("examples.metadata", "test-dependencies", "1.0.0"), new ProjectVersion("examples.metadata", "test", "9.9.9"));
+        List<ProjectVersionEntities> dependencyList = entitiesService.getDependenciesEntities(projectVersions, false, true, true);
+        List<ProjectVersionEntities> streamed;
+        try (Stream<ProjectVersionEntities> dependencies = entitiesService.streamDependenciesEntities(projectVersions, false, true, true))
+        {
+            streamed = dependencies.collect(Collectors.toList());
+        }
+        Assert.assertEquals(4, streamed.size());
+        Assert.assertEquals(new HashSet<>(dependencyList), new HashSet<>(streamed));
+        Assert.assertTrue(streamed.get(3).getEntities().isEmpty());
+        Assert.assertEquals("9.9.9", streamed.get(3).getVersionId());
+    }
+
     @Test
     public void canGetOrphanedEntities()
     {
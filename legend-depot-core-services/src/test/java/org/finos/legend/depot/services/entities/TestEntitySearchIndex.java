@@ -0,0 +1,127 @@
+//  Copyright 2021 Goldman Sachs
+//
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//       http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+//
+
+package org.finos.legend.depot.services.entities;
+
+import org.finos.legend.depot.domain.entity.StoredEntity;
+import org.finos.legend.depot.domain.entity.StoredEntityOverview;
+import org.finos.legend.depot.domain.version.Scope;
+import org.finos.legend.depot.services.TestBaseServices;
+import org.finos.legend.depot.services.api.entities.EntityClassifierService;
+import org.finos.legend.depot.services.projects.ProjectsServiceImpl;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+public class TestEntitySearchIndex extends TestBaseServices
+{
+    private static final String CLASS = "meta::pure::metamodel::type::Class";
+    private final EntitySearchIndex searchIndex = new EntitySearchIndex(entitiesStore, Duration.ofHours(1), Duration.ofHours(1));
+
+    @Before
+    public void setUpData()
+    {
+        super.setUpData();
+        loadEntities("PROD-A", "master-SNAPSHOT");
+        loadEntities("PROD-A", "2.3.0");
+        loadEntities("PROD-A", "2.3.1");
+        loadEntities("PROD-B", "1.0.0");
+        loadEntities("PROD-C", "2.0.1");
+        entitiesStore.createSnapshot("examples.metadata", "test", "2.3.1", false);
+        entitiesStore.markLatestVersion("examples.metadata", "test", "2.3.1");
+        entitiesStore.markLatestVersion("examples.metadata", "test-dependencies", "1.0.0");
+        entitiesStore.markLatestVersion("example.services.test", "test", "2.0.1");
+        searchIndex.rebuild();
+    }
+
+    private static List<String> pathsOf(List<StoredEntity> entities)
+    {
+        return entities.stream().map(entity -> entity instanceof StoredEntityOverview ? ((StoredEntityOverview) entity).getPath() : entity.getEntity().getPath()).collect(Collectors.toList());
+    }
+
+    @Test
+    public void canSearchPathsBySubstringAndPrefix()
+    {
+        Assert.assertTrue(searchIndex.isReady());
+        Assert.assertEquals(Arrays.asList("examples::metadata::test::ClientBasic"), pathsOf(searchIndex.search(CLASS, "basic", Scope.SNAPSHOT, false, null)));
+        Assert.assertEquals(Arrays.asList("examples::metadata::test::ClientBasic", "examples::metadata::test::ClassWithDependency"), pathsOf(searchIndex.search(CLASS, "examples::metadata::test::C", Scope.RELEASES, false, null)));
+        Assert.assertEquals(Arrays.asList("domain::covid::JHUCovid19"), pathsOf(searchIndex.search(CLASS, "co", Scope.RELEASES, false, 1)));
+        Assert.assertTrue(searchIndex.search(CLASS, "zzz", Scope.RELEASES, false, null).isEmpty());
+        Assert.assertTrue(searchIndex.search("meta::pure::unknown::Classifier", "basic", Scope.RELEASES, false, null).isEmpty());
+        Assert.assertEquals(1, searchIndex.search(CLASS, "basic", Scope.RELEASES, true, null).size());
+    }
+
+    @Test
+    public void exactNameMatchesRankFirst()
+    {
+        List<StoredEntity> found = searchIndex.search(CLASS, "dependency", Scope.RELEASES, false, null);
+        Assert.assertEquals(Arrays.asList("examples::metadata::test::dependency::Dependency", "examples::metadata::test::ClassWithDependency"), pathsOf(found));
+
+        EntityClassifierService classifierService = new EntityClassifierServiceImpl(new EntitiesServiceImpl(entitiesStore, new ProjectsServiceImpl(projectsStore)), searchIndex);
+        List<StoredEntity> entities = classifierService.getEntitiesByClassifierPath(CLASS, "dependency", null, Scope.RELEASES, false, false);
+        Assert.assertEquals(pathsOf(found), pathsOf(entities));
+        Assert.assertEquals("2.3.1", entities.get(1).getVersionId());
+        Assert.assertNotNull(entities.get(1).getEntity().getContent());
+    }
+
+    @Test
+    public void modifiedProjectsAreReindexedOnRefresh()
+    {
+        Assert.assertTrue(searchIndex.search(CLASS, "Dependency1", Scope.RELEASES, false, null).isEmpty());
+
+        loadEntities("PROD-D", "1.0.0");
+        entitiesStore.createSnapshot("examples.metadata", "test1", "1.0.0", false);
+        entitiesStore.markLatestVersion("examples.metadata", "test1", "1.0.0");
+        entitiesStore.markLatestVersion("examples.metadata", "test", null);
+        searchIndex.refresh();
+
+        Assert.assertEquals(Arrays.asList("examples::metadata::test::dependency::v1_2_3::subp::Dependency1"), pathsOf(searchIndex.search(CLASS, "Dependency1", Scope.RELEASES, false, null)));
+        Assert.assertTrue(searchIndex.search(CLASS, "basic", Scope.RELEASES, false, null).isEmpty());
+        Assert.assertEquals(1, searchIndex.search(CLASS, "basic", Scope.SNAPSHOT, false, null).size());
+    }
+
+    @Test
+    public void deletedProjectsAreDroppedOnRefresh()
+    {
+        Assert.assertEquals(1, searchIndex.search(CLASS, "JHUCovid19", Scope.RELEASES, false, null).size());
+
+        entitiesStore.deleteAll("example.services.test", "test");
+        searchIndex.refresh();
+
+        Assert.assertTrue(searchIndex.search(CLASS, "JHUCovid19", Scope.RELEASES, false, null).isEmpty());
+    }
+
+    @Test
+    public void reindexedProjectsDoNotGrowTheIndex()
+    {
+        int built = searchIndex.heldEntries();
+        List<String> before = pathsOf(searchIndex.search(CLASS, "e", Scope.RELEASES, false, null));
+
+        //projects modified within the clock skew margin are reindexed by every refresh
+        for (int i = 0; i < 10; i++)
+        {
+            searchIndex.refresh();
+        }
+
+        Assert.assertTrue(searchIndex.heldEntries() <= 2 * built);
+        Assert.assertEquals(before, pathsOf(searchIndex.search(CLASS, "e", Scope.RELEASES, false, null)));
+        Assert.assertEquals(1, searchIndex.search(CLASS, "basic", Scope.SNAPSHOT, false, null).size());
+    }
+}
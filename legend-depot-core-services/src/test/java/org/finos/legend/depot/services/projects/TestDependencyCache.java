@@ -30,6 +30,8 @@ import org.junit.Before;
 import org.junit.Test;
 
 import java.net.URL;
+import java.util.HashSet;
+import java.util.Set;
 
 public class TestDependencyCache extends TestBaseServices
 {
@@ -46,10 +48,17 @@ public class TestDependencyCache extends TestBaseServices
     {
     }
 
+    private DependenciesCache initialisedCache()
+    {
+        DependenciesCache dependenciesCache = new DependenciesCache(projectsStore, DependenciesCache.DEFAULT_MAXIMUM_SIZE, DependenciesCache.DEFAULT_SNAPSHOT_EXPIRY);
+        dependenciesCache.initialiseInBackground().join();
+        return dependenciesCache;
+    }
+
     @Test
     public void canInitialiseCacheEmptyStore()
     {
-        DependenciesCache dependenciesCache = new DependenciesCache(projectsStore);
+        DependenciesCache dependenciesCache = initialisedCache();
         Assert.assertTrue(dependenciesCache.transitiveDependencies.isEmpty());
     }
 
@@ -71,15 +80,15 @@ public class TestDependencyCache extends TestBaseServices
     public void canInitialiseCache()
     {
         seedTestData();
-        DependenciesCache dependenciesCache = new DependenciesCache(projectsStore);
+        DependenciesCache dependenciesCache = initialisedCache();
         Assert.assertFalse(dependenciesCache.transitiveDependencies.isEmpty());
         Assert.assertEquals(4, dependenciesCache.transitiveDependencies.size());
         Assert.assertTrue(dependenciesCache.transitiveDependencies.keySet().stream().anyMatch(pv -> pv.equals(new ProjectVersion(TEST_GROUP,"artifactc","1.0.0"))));
         Assert.assertTrue(dependenciesCache.transitiveDependencies.keySet().stream().anyMatch(pv -> pv.equals(new ProjectVersion(TEST_GROUP,"artifacta","1.0.0"))));
         Assert.assertTrue(dependenciesCache.transitiveDependencies.keySet().stream().anyMatch(pv -> pv.equals(new ProjectVersion(TEST_GROUP,"artifacta","2.0.0"))));
-        Assert.assertEquals(2,dependenciesCache.transitiveDependencies.get(new ProjectVersion(TEST_GROUP,"artifacta","2.0.0")).size());
-        Assert.assertEquals(1,dependenciesCache.transitiveDependencies.get(new ProjectVersion(TEST_GROUP,"artifactb","1.0.0")).size());
-        Assert.assertTrue(dependenciesCache.transitiveDependencies.get(new ProjectVersion(TEST_GROUP,"artifactc","1.0.0")).isEmpty());
+        Assert.assertEquals(2,dependenciesCache.transitiveDependencies.get(new ProjectVersion(TEST_GROUP,"artifacta","2.0.0")).length);
+        Assert.assertEquals(1,dependenciesCache.transitiveDependencies.get(new ProjectVersion(TEST_GROUP,"artifactb","1.0.0")).length);
+        Assert.assertEquals(0, dependenciesCache.transitiveDependencies.get(new ProjectVersion(TEST_GROUP,"artifactc","1.0.0")).length);
         Assert.assertTrue(dependenciesCache.transitiveDependencies.keySet().stream().anyMatch(pv -> pv.equals(new ProjectVersion(TEST_GROUP,"artifactb","1.0.0"))));
     }
 
@@ -87,7 +96,7 @@ public class TestDependencyCache extends TestBaseServices
     public void getDependenciesForNewProjectVersion()
     {
         seedTestData();
-        DependenciesCache dependenciesCache = new DependenciesCache(projectsStore);
+        DependenciesCache dependenciesCache = initialisedCache();
         ProjectData projectD = new ProjectData("d", TEST_GROUP,"artifactd").withVersions("1.0.0");
         projectsStore.createOrUpdate(projectD);
         dependenciesCache.getTransitiveDependencies(new ProjectVersion(TEST_GROUP,"artifactd","1.0.0"));
@@ -101,7 +110,7 @@ public class TestDependencyCache extends TestBaseServices
     public void getDependenciesForNewProjectVersionWithSameDependencies()
     {
         seedTestData();
-        DependenciesCache dependenciesCache = new DependenciesCache(projectsStore);
+        DependenciesCache dependenciesCache = initialisedCache();
         ProjectData projectD = new ProjectData("d", TEST_GROUP,"artifactd").withVersions("1.0.0");
         projectsStore.createOrUpdate(projectD);
         dependenciesCache.getTransitiveDependencies(new ProjectVersion(TEST_GROUP,"artifactd","1.0.0"));
@@ -129,7 +138,7 @@ public class TestDependencyCache extends TestBaseServices
     public void getDependenciesForUnknownProject()
     {
         seedTestData();
-        DependenciesCache dependenciesCache = new DependenciesCache(projectsStore);
+        DependenciesCache dependenciesCache = initialisedCache();
         Assert.assertEquals(4, dependenciesCache.transitiveDependencies.size());
         ProjectVersion unknownProject = new ProjectVersion(TEST_GROUP, "artifactd", "1.0.0");
         dependenciesCache.getTransitiveDependencies(unknownProject);
@@ -138,14 +147,14 @@ public class TestDependencyCache extends TestBaseServices
         Assert.assertFalse(dependenciesCache.transitiveDependencies.isEmpty());
         Assert.assertEquals(5, dependenciesCache.transitiveDependencies.size());
         Assert.assertTrue(dependenciesCache.transitiveDependencies.keySet().stream().anyMatch(pv -> pv.equals(unknownProject)));
-        Assert.assertTrue(dependenciesCache.transitiveDependencies.get(unknownProject).isEmpty());
+        Assert.assertEquals(0, dependenciesCache.transitiveDependencies.get(unknownProject).length);
     }
 
     @Test
     public void getDependenciesForUnknownVersion()
     {
         seedTestData();
-        DependenciesCache dependenciesCache = new DependenciesCache(projectsStore);
+        DependenciesCache dependenciesCache = initialisedCache();
         Assert.assertEquals(4, dependenciesCache.transitiveDependencies.size());
         ProjectVersion unknownVersion = new ProjectVersion(TEST_GROUP, "artifacta", "10.0.0");
         dependenciesCache.getTransitiveDependencies(unknownVersion);
@@ -153,14 +162,14 @@ public class TestDependencyCache extends TestBaseServices
         Assert.assertFalse(dependenciesCache.transitiveDependencies.isEmpty());
         Assert.assertEquals(5, dependenciesCache.transitiveDependencies.size());
         Assert.assertTrue(dependenciesCache.transitiveDependencies.keySet().stream().anyMatch(pv -> pv.equals(unknownVersion)));
-        Assert.assertTrue(dependenciesCache.transitiveDependencies.get(unknownVersion).isEmpty());
+        Assert.assertEquals(0, dependenciesCache.transitiveDependencies.get(unknownVersion).length);
     }
 
     @Test
     public void getDependenciesForNewProjectVersionWithDependencies()
     {
         seedTestData();
-        DependenciesCache dependenciesCache = new DependenciesCache(projectsStore);
+        DependenciesCache dependenciesCache = initialisedCache();
         Assert.assertEquals(4, dependenciesCache.transitiveDependencies.size());
         ProjectData projectD = new ProjectData("d", TEST_GROUP,"artifactd").withVersions("1.0.0");
         ProjectVersion projectDVersion1 = new ProjectVersion(TEST_GROUP, "artifactd", "1.0.0");
@@ -172,7 +181,7 @@ public class TestDependencyCache extends TestBaseServices
 
         Assert.assertFalse(dependenciesCache.transitiveDependencies.isEmpty());
         Assert.assertEquals(5,dependenciesCache.transitiveDependencies.size());
-        Assert.assertEquals(1,dependenciesCache.transitiveDependencies.get(projectDVersion1).size());
+        Assert.assertEquals(1,dependenciesCache.transitiveDependencies.get(projectDVersion1).length);
     }
 
     @Test
@@ -185,14 +194,14 @@ public class TestDependencyCache extends TestBaseServices
         projectA.addDependency(new ProjectVersionDependency(TEST_GROUP, "artifacta", "master-SNAPSHOT", new ProjectVersion(TEST_GROUP, "artifactb", "1.0.0")));
         projectsStore.createOrUpdate(projectA);
 
-        DependenciesCache dependenciesCache = new DependenciesCache(projectsStore);
+        DependenciesCache dependenciesCache = initialisedCache();
 
         Assert.assertEquals(4, dependenciesCache.transitiveDependencies.size());
 
         dependenciesCache.getTransitiveDependencies(masterSNAPSHOTVersion);
 
         Assert.assertEquals(5,dependenciesCache.transitiveDependencies.size());
-        Assert.assertEquals(2,dependenciesCache.transitiveDependencies.get(masterSNAPSHOTVersion).size());
+        Assert.assertEquals(2,dependenciesCache.transitiveDependencies.get(masterSNAPSHOTVersion).length);
 
 
         ProjectData projectD = new ProjectData("d", TEST_GROUP,"artifactd").withVersions("1.0.0");
@@ -200,12 +209,113 @@ public class TestDependencyCache extends TestBaseServices
         ProjectData changedProjectA = projectsStore.find(TEST_GROUP,"artifacta").get();
         changedProjectA.addDependency(new ProjectVersionDependency(TEST_GROUP, "artifacta", "master-SNAPSHOT", new ProjectVersion(TEST_GROUP, "artifactd", "1.0.0")));
         projectsStore.createOrUpdate(changedProjectA);
+        dependenciesCache.invalidate(TEST_GROUP, "artifacta");
 
         dependenciesCache.getTransitiveDependencies(masterSNAPSHOTVersion);
 
-        Assert.assertEquals(6,dependenciesCache.transitiveDependencies.size());
-        Assert.assertEquals(3,dependenciesCache.transitiveDependencies.get(masterSNAPSHOTVersion).size());
+        Assert.assertEquals(4,dependenciesCache.transitiveDependencies.size());
+        Assert.assertEquals(3,dependenciesCache.transitiveDependencies.get(masterSNAPSHOTVersion).length);
+        Assert.assertTrue(dependenciesCache.getTransitiveDependencies(masterSNAPSHOTVersion).contains(new ProjectVersion(TEST_GROUP, "artifactd", "1.0.0")));
+
+    }
+
+    @Test
+    public void invalidatesReverseDependencyCone()
+    {
+        seedTestData();
+        DependenciesCache dependenciesCache = initialisedCache();
+        Assert.assertEquals(4, dependenciesCache.transitiveDependencies.size());
+
+        ProjectData projectC = projectsStore.find(TEST_GROUP, "artifactc").get();
+        projectC.addDependency(new ProjectVersionDependency(TEST_GROUP, "artifactc", "1.0.0", new ProjectVersion(TEST_GROUP, "artifactd", "1.0.0")));
+        projectsStore.createOrUpdate(projectC);
+        dependenciesCache.invalidate(TEST_GROUP, "artifactc");
+
+        Assert.assertTrue(dependenciesCache.transitiveDependencies.isEmpty());
+        Assert.assertEquals(3, dependenciesCache.getTransitiveDependencies(new ProjectVersion(TEST_GROUP, "artifacta", "2.0.0")).size());
+
+        dependenciesCache.invalidate(TEST_GROUP, "artifacta");
+        Assert.assertEquals(3, dependenciesCache.transitiveDependencies.size());
+        Assert.assertFalse(dependenciesCache.transitiveDependencies.containsKey(new ProjectVersion(TEST_GROUP, "artifacta", "2.0.0")));
+    }
+
+    @Test
+    public void transitiveDependenciesAreReturnedAsProjectVersions()
+    {
+        seedTestData();
+        DependenciesCache dependenciesCache = initialisedCache();
+        Set<ProjectVersion> dependencies = dependenciesCache.getTransitiveDependencies(new ProjectVersion(TEST_GROUP, "artifacta", "1.0.0"));
+
+        Set<ProjectVersion> expected = new HashSet<>();
+        expected.add(new ProjectVersion(TEST_GROUP, "artifactb", "1.0.0"));
+        expected.add(new ProjectVersion(TEST_GROUP, "artifactc", "1.0.0"));
+        Assert.assertEquals(expected, dependencies);
+        Assert.assertEquals(expected, new HashSet<>(dependencies));
+        Assert.assertFalse(dependencies.contains(new ProjectVersion(TEST_GROUP, "artifacta", "1.0.0")));
+        Assert.assertFalse(dependencies.contains(new ProjectVersion(TEST_GROUP, "unknown", "1.0.0")));
+    }
+
+    @Test
+    public void keepsCacheWithinMaximumSize()
+    {
+        seedTestData();
+        DependenciesCache dependenciesCache = new DependenciesCache(projectsStore, 2, DependenciesCache.DEFAULT_SNAPSHOT_EXPIRY);
+        Assert.assertTrue(dependenciesCache.transitiveDependencies.isEmpty());
 
+        Assert.assertEquals(2, dependenciesCache.getTransitiveDependencies(new ProjectVersion(TEST_GROUP, "artifacta", "1.0.0")).size());
+        Assert.assertEquals(2, dependenciesCache.getTransitiveDependencies(new ProjectVersion(TEST_GROUP, "artifacta", "2.0.0")).size());
+        Assert.assertTrue(dependenciesCache.transitiveDependencies.size() <= 2);
+    }
+
+    @Test
+    public void projectIndexOnlyHoldsCachedKeys()
+    {
+        seedTestData();
+        DependenciesCache dependenciesCache = new DependenciesCache(projectsStore, 2, DependenciesCache.DEFAULT_SNAPSHOT_EXPIRY);
+        dependenciesCache.getTransitiveDependencies(new ProjectVersion(TEST_GROUP, "artifacta", "1.0.0"));
+        dependenciesCache.getTransitiveDependencies(new ProjectVersion(TEST_GROUP, "artifacta", "2.0.0"));
+
+        Set<ProjectVersion> indexed = new HashSet<>();
+        dependenciesCache.keysByProject.forEachValue(indexed::addAll);
+        Set<ProjectVersion> cached = new HashSet<>(dependenciesCache.transitiveDependencies.keySet());
+        cached.addAll(dependenciesCache.directDependencies.keySet());
+        Assert.assertEquals(cached, indexed);
+
+        dependenciesCache.invalidate(TEST_GROUP, "artifactc");
+        Assert.assertTrue(dependenciesCache.keysByProject.get(TEST_GROUP + ":artifactc").isEmpty());
+        Assert.assertFalse(dependenciesCache.transitiveDependencies.keySet().stream().anyMatch(pv -> pv.getArtifactId().equals("artifacta")));
+    }
+
+    @Test
+    public void identicalClosuresAreSharedAndIdsAreRecycled()
+    {
+        seedTestData();
+        DependenciesCache dependenciesCache = initialisedCache();
+        Assert.assertSame(dependenciesCache.transitiveDependencies.get(new ProjectVersion(TEST_GROUP, "artifacta", "1.0.0")),
+                dependenciesCache.transitiveDependencies.get(new ProjectVersion(TEST_GROUP, "artifacta", "2.0.0")));
+        Assert.assertEquals(2, dependenciesCache.ids.closureCount());
+        Assert.assertEquals(4, dependenciesCache.ids.size());
+
+        dependenciesCache.invalidate(TEST_GROUP, "artifacta");
+        dependenciesCache.invalidate(TEST_GROUP, "artifactb");
+        dependenciesCache.invalidate(TEST_GROUP, "artifactc");
+        Assert.assertTrue(dependenciesCache.transitiveDependencies.isEmpty());
+        Assert.assertTrue(dependenciesCache.directDependencies.isEmpty());
+        Assert.assertEquals(0, dependenciesCache.ids.closureCount());
+        Assert.assertEquals(0, dependenciesCache.ids.size());
+
+        Assert.assertEquals(2, dependenciesCache.getTransitiveDependencies(new ProjectVersion(TEST_GROUP, "artifacta", "2.0.0")).size());
+        Assert.assertEquals(3, dependenciesCache.ids.size());
+    }
+
+    @Test
+    public void canInitialiseCacheInBackground()
+    {
+        seedTestData();
+        DependenciesCache dependenciesCache = new DependenciesCache(projectsStore, DependenciesCache.DEFAULT_MAXIMUM_SIZE, DependenciesCache.DEFAULT_SNAPSHOT_EXPIRY);
+        Assert.assertTrue(dependenciesCache.transitiveDependencies.isEmpty());
+        dependenciesCache.initialiseInBackground().join();
+        Assert.assertEquals(4, dependenciesCache.transitiveDependencies.size());
     }
 
     @Test
@@ -224,17 +334,9 @@ public class TestDependencyCache extends TestBaseServices
         {
             Assert.assertTrue(true);
         }
-        try
-        {
-            DependenciesCache dependenciesCache = new DependenciesCache(projectsStore);
-            Assert.fail();
-            Assert.assertNotNull(dependenciesCache);
-        }
-        catch (Exception e)
-        {
-            Assert.assertTrue(true);
-        }
-
+        //initialisation failures are logged and leave the cache to be populated on demand
+        DependenciesCache dependenciesCache = initialisedCache();
+        Assert.assertTrue(dependenciesCache.transitiveDependencies.isEmpty());
     }
 
 
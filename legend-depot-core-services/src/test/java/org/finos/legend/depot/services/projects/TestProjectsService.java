@@ -41,7 +41,7 @@ import static org.finos.legend.depot.domain.version.VersionValidator.MASTER_SNAP
 public class TestProjectsService extends TestBaseServices
 {
 
-    protected ManageProjectsService projectsService = new ProjectsServiceImpl(projectsStore, new DependenciesCache(projectsStore));
+    protected ManageProjectsService projectsService = new ProjectsServiceImpl(projectsStore, new DependenciesCache(projectsStore, DependenciesCache.DEFAULT_MAXIMUM_SIZE, DependenciesCache.DEFAULT_SNAPSHOT_EXPIRY));
 
     @Before
     public void setUpData()
@@ -186,6 +186,19 @@ public class TestProjectsService extends TestBaseServices
 
     }
 
+    @Test
+    public void canGetTransitiveDependantProjects()
+    {
+        List<ProjectVersionPlatformDependency> dependencyList = projectsService.getDependentProjects("example.services.test", "test", "1.0.0", true);
+        Assert.assertEquals(3, dependencyList.size());
+        Assert.assertTrue(dependencyList.contains(new ProjectVersionPlatformDependency("examples.metadata", "test-dependencies", "1.0.0", new ProjectVersion("example.services.test", "test", "1.0.0"), Collections.emptyList())));
+        Assert.assertTrue(dependencyList.contains(new ProjectVersionPlatformDependency("examples.metadata", "test", "2.3.1", new ProjectVersion("examples.metadata", "test-dependencies", "1.0.0"), Collections.emptyList())));
+        Assert.assertTrue(dependencyList.contains(new ProjectVersionPlatformDependency("examples.metadata", "test", MASTER_SNAPSHOT, new ProjectVersion("examples.metadata", "test-dependencies", "1.0.0"), Collections.emptyList())));
+
+        Assert.assertEquals(3, projectsService.getDependentProjects("example.services.test", "test", "all", true).size());
+        Assert.assertTrue(projectsService.getDependentProjects("examples.metadata", "test", "2.3.1", true).isEmpty());
+    }
+
     @Test
     public void canGetDependantProjectsWithAllVersions()
     {
@@ -21,6 +21,11 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import javax.ws.rs.WebApplicationException;
+import javax.ws.rs.core.Response;
+import javax.ws.rs.core.StreamingOutput;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Optional;
 import java.util.function.Supplier;
 
 public class BaseResource
@@ -101,4 +106,135 @@ public class BaseResource
     {
         return handle(label, label, supplier);
     }
+
+    /**
+     * Streamed bodies are only written once the resource method has returned, so the request is timed, traced and its
+     * errors counted around the write; building the output is only traced and has its errors mapped.
+     */
+    protected StreamingOutput handleStreaming(String resourceAPIMetricName, String label, Supplier<StreamingOutput> supplier)
+    {
+        long start = System.currentTimeMillis();
+        return recordWrite(resourceAPIMetricName, label, start, build(resourceAPIMetricName, label, start, supplier));
+    }
+
+    /**
+     * Same as {@link #handleStreaming(String, String, Supplier)} for responses that may carry a streamed body, such as conditional ones.
+     */
+    protected Response handleStreamingResponse(String resourceAPIMetricName, String label, Supplier<Response> supplier)
+    {
+        long start = System.currentTimeMillis();
+        Response response = build(resourceAPIMetricName, label, start, supplier);
+        if (response.getEntity() instanceof StreamingOutput)
+        {
+            return Response.fromResponse(response).entity(recordWrite(resourceAPIMetricName, label, start, (StreamingOutput) response.getEntity())).build();
+        }
+        PrometheusMetricsFactory.getInstance().observe(resourceAPIMetricName, start, System.currentTimeMillis());
+        return response;
+    }
+
+    private <T> T build(String resourceAPIMetricName, String label, long start, Supplier<T> supplier)
+    {
+        try
+        {
+            return TracerFactory.get().executeWithTrace(label, supplier);
+        }
+        catch (Exception e)
+        {
+            recordError(resourceAPIMetricName, label, start, e);
+            throw new WebApplicationException(e.getMessage(), e);
+        }
+    }
+
+    private StreamingOutput recordWrite(String resourceAPIMetricName, String label, long start, StreamingOutput output)
+    {
+        return outputStream ->
+        {
+            try
+            {
+                TracerFactory.get().executeWithTrace(label, () ->
+                {
+                    try
+                    {
+                        output.write(outputStream);
+                        return null;
+                    }
+                    catch (IOException e)
+                    {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+                long end = System.currentTimeMillis();
+                PrometheusMetricsFactory.getInstance().observe(resourceAPIMetricName, start, end);
+                getLogger().info("Finished {} ({}ms)", label, end - start);
+            }
+            catch (UncheckedIOException e)
+            {
+                recordError(resourceAPIMetricName, label, start, e.getCause());
+                throw e.getCause();
+            }
+            catch (RuntimeException e)
+            {
+                //once the body is committed the status can no longer change: the exception makes the container abort the
+                //response, so clients see a broken transfer instead of a complete looking but truncated body
+                recordError(resourceAPIMetricName, label, start, e);
+                throw e;
+            }
+        };
+    }
+
+    private void recordError(String resourceAPIMetricName, String label, long start, Throwable t)
+    {
+        PrometheusMetricsFactory.getInstance().incrementErrorCount(resourceAPIMetricName);
+        Logger logger = this.getLogger();
+        if (logger.isErrorEnabled())
+        {
+            logger.error(this.buildLoggingErrorMessage(t, label, System.currentTimeMillis() - start), t);
+        }
+    }
+
+    /**
+     * Answers with 304 when the client already holds the current entity tag, otherwise builds the full response tagged with it.
+     */
+    protected Response conditional(String ifNoneMatch, Optional<String> etag, Supplier<Response.ResponseBuilder> response)
+    {
+        if (etag.isPresent() && matchesEtag(ifNoneMatch, etag.get()))
+        {
+            return Response.notModified(etag.get()).build();
+        }
+        Response.ResponseBuilder builder = response.get();
+        etag.ifPresent(builder::tag);
+        return builder.build();
+    }
+
+    public static boolean matchesEtag(String ifNoneMatch, String etag)
+    {
+        if (ifNoneMatch == null || etag == null)
+        {
+            return false;
+        }
+        String current = unquote(etag);
+        for (String candidate : ifNoneMatch.split(","))
+        {
+            String tag = unquote(candidate);
+            if (tag.equals("*") || tag.equals(current))
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String unquote(String etag)
+    {
+        String tag = etag.trim();
+        if (tag.startsWith("W/"))
+        {
+            tag = tag.substring(2);
+        }
+        if (tag.length() > 1 && tag.startsWith("\"") && tag.endsWith("\""))
+        {
+            tag = tag.substring(1, tag.length() - 1);
+        }
+        return tag;
+    }
 }
@@ -0,0 +1,75 @@
+//  Copyright 2021 Goldman Sachs
+//
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//       http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+//
+
+package org.finos.legend.depot.domain.entity;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * All the entities of a released version, pre-serialised as a gzipped json array so a whole version can be served
+ * with a single read and a byte copy.
+ */
+public class EntitiesSnapshot
+{
+    private static final int BUFFER_SIZE = 16 * 1024;
+
+    private final String etag;
+    private final int entityCount;
+    private final byte[] compressedJson;
+
+    public EntitiesSnapshot(String etag, int entityCount, byte[] compressedJson)
+    {
+        this.etag = etag;
+        this.entityCount = entityCount;
+        this.compressedJson = compressedJson;
+    }
+
+    public String getEtag()
+    {
+        return etag;
+    }
+
+    public int getEntityCount()
+    {
+        return entityCount;
+    }
+
+    public byte[] getCompressedJson()
+    {
+        return compressedJson;
+    }
+
+    public InputStream openJson() throws IOException
+    {
+        return new GZIPInputStream(new ByteArrayInputStream(compressedJson), BUFFER_SIZE);
+    }
+
+    public void writeJsonTo(OutputStream output) throws IOException
+    {
+        try (InputStream json = openJson())
+        {
+            byte[] buffer = new byte[BUFFER_SIZE];
+            int read;
+            while ((read = json.read(buffer)) != -1)
+            {
+                output.write(buffer, 0, read);
+            }
+        }
+    }
+}
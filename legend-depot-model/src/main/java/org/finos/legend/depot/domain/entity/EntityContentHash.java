@@ -0,0 +1,69 @@
+//  Copyright 2021 Goldman Sachs
+//
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//       http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+//
+
+package org.finos.legend.depot.domain.entity;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.finos.legend.sdlc.domain.model.entity.Entity;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * Stable hash of an entity: content maps are serialised with their keys sorted so that the same model always hashes
+ * the same, whatever order the properties were read in.
+ */
+public final class EntityContentHash
+{
+    private static final ObjectMapper CANONICAL_MAPPER = new ObjectMapper().configure(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS, true);
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+    private static final byte SEPARATOR = 0;
+
+    private EntityContentHash()
+    {
+    }
+
+    public static String of(Entity entity)
+    {
+        try
+        {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(String.valueOf(entity.getPath()).getBytes(StandardCharsets.UTF_8));
+            digest.update(SEPARATOR);
+            digest.update(String.valueOf(entity.getClassifierPath()).getBytes(StandardCharsets.UTF_8));
+            digest.update(SEPARATOR);
+            digest.update(CANONICAL_MAPPER.writeValueAsBytes(entity.getContent()));
+            return toHex(digest.digest());
+        }
+        catch (NoSuchAlgorithmException | JsonProcessingException e)
+        {
+            throw new IllegalStateException("could not hash entity " + entity.getPath(), e);
+        }
+    }
+
+    public static String toHex(byte[] bytes)
+    {
+        char[] chars = new char[bytes.length * 2];
+        for (int i = 0; i < bytes.length; i++)
+        {
+            chars[i * 2] = HEX[(bytes[i] >> 4) & 0xF];
+            chars[i * 2 + 1] = HEX[bytes[i] & 0xF];
+        }
+        return new String(chars);
+    }
+}
@@ -48,6 +48,16 @@ public class StoreOperationResult
         this.insertedCount++;
     }
 
+    public void addModifiedCount(long count)
+    {
+        this.modifiedCount += count;
+    }
+
+    public void addInsertedCount(long count)
+    {
+        this.insertedCount += count;
+    }
+
     public void addDeletionCount()
     {
         this.deletionCount++;
@@ -93,4 +103,16 @@ public class StoreOperationResult
     {
         this.errors.addAll(errors);
     }
+
+    public StoreOperationResult combine(StoreOperationResult result)
+    {
+        if (result != null)
+        {
+            this.modifiedCount += result.getModifiedCount();
+            this.insertedCount += result.getInsertedCount();
+            this.deletionCount += result.getDeletionCount();
+            this.errors.addAll(result.getErrors());
+        }
+        return this;
+    }
 }
@@ -16,8 +16,10 @@
 package org.finos.legend.depot.server.pure.model.context;
 
 import com.google.inject.PrivateModule;
+import com.google.inject.Singleton;
 import org.finos.legend.depot.server.pure.model.context.api.PureModelContextService;
 import org.finos.legend.depot.server.pure.model.context.resources.PureModelContextResource;
+import org.finos.legend.depot.server.pure.model.context.services.PureModelContextDataCache;
 import org.finos.legend.depot.server.pure.model.context.services.PureModelContextServiceImpl;
 
 public class PureModelContextModule extends PrivateModule
@@ -25,6 +27,7 @@ public class PureModelContextModule extends PrivateModule
     @Override
     protected void configure()
     {
+        bind(PureModelContextDataCache.class).in(Singleton.class);
         bind(PureModelContextService.class).to(PureModelContextServiceImpl.class);
         expose(PureModelContextService.class);
 
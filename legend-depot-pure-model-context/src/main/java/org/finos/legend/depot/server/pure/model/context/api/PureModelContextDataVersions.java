@@ -0,0 +1,99 @@
+//  Copyright 2021 Goldman Sachs
+//
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//       http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+//
+
+package org.finos.legend.depot.server.pure.model.context.api;
+
+import org.finos.legend.depot.domain.project.ProjectVersion;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * The versions a pure model context data request reads, resolved once per request: the requested version first, then
+ * its transitive dependencies if asked for, each with its content tag, and the entity tag of the whole response.
+ */
+public final class PureModelContextDataVersions
+{
+    private final String groupId;
+    private final String artifactId;
+    private final String versionId;
+    private final String clientVersion;
+    private final boolean versioned;
+    private final boolean getDependencies;
+    private final Map<ProjectVersion, Optional<String>> versionEtags;
+    private final Optional<String> etag;
+
+    public PureModelContextDataVersions(String groupId, String artifactId, String versionId, String clientVersion, boolean versioned, boolean getDependencies,
+                                        LinkedHashMap<ProjectVersion, Optional<String>> versionEtags, Optional<String> etag)
+    {
+        this.groupId = groupId;
+        this.artifactId = artifactId;
+        this.versionId = versionId;
+        this.clientVersion = clientVersion;
+        this.versioned = versioned;
+        this.getDependencies = getDependencies;
+        this.versionEtags = Collections.unmodifiableMap(versionEtags);
+        this.etag = etag;
+    }
+
+    public String getGroupId()
+    {
+        return groupId;
+    }
+
+    public String getArtifactId()
+    {
+        return artifactId;
+    }
+
+    public String getVersionId()
+    {
+        return versionId;
+    }
+
+    public String getClientVersion()
+    {
+        return clientVersion;
+    }
+
+    public boolean isVersioned()
+    {
+        return versioned;
+    }
+
+    public boolean isGetDependencies()
+    {
+        return getDependencies;
+    }
+
+    public List<ProjectVersion> getProjectVersions()
+    {
+        return new ArrayList<>(versionEtags.keySet());
+    }
+
+    public Optional<String> getVersionEtag(ProjectVersion projectVersion)
+    {
+        return versionEtags.getOrDefault(projectVersion, Optional.empty());
+    }
+
+    public Optional<String> getEtag()
+    {
+        return etag;
+    }
+}
@@ -18,6 +18,8 @@ package org.finos.legend.depot.server.pure.model.context.api;
 import org.finos.legend.depot.domain.version.VersionValidator;
 import org.finos.legend.engine.protocol.pure.v1.model.context.PureModelContextData;
 
+import java.util.Optional;
+
 public interface PureModelContextService
 {
     String getPureModelContextDataAsString(String groupId, String artifactId, String versionId, String clientVersion, boolean versioned, boolean getDependencies);
@@ -33,4 +35,17 @@ public interface PureModelContextService
     {
         return getPureModelContextData(groupId, artifactId, VersionValidator.MASTER_SNAPSHOT, clientVersion, versioned, getDependencies);
     }
+
+    /**
+     * Entity tag of the data {@link #getPureModelContextData} would return, derived from the content tags of the version and,
+     * if requested, of all its dependencies; empty when any of those versions has no tag yet.
+     */
+    Optional<String> getPureModelContextDataEtag(String groupId, String artifactId, String versionId, String clientVersion, boolean versioned, boolean getDependencies);
+
+    /**
+     * Resolves the versions a request reads and their tags once, so the entity tag and the data can both be served from them.
+     */
+    PureModelContextDataVersions getPureModelContextDataVersions(String groupId, String artifactId, String versionId, String clientVersion, boolean versioned, boolean getDependencies);
+
+    String getPureModelContextDataAsString(PureModelContextDataVersions versions);
 }
@@ -0,0 +1,51 @@
+//  Copyright 2021 Goldman Sachs
+//
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//       http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+//
+
+package org.finos.legend.depot.server.pure.model.context.configuration;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class PureModelContextCacheConfiguration
+{
+    public static final long DEFAULT_MAXIMUM_SIZE_IN_BYTES = 512L * 1024 * 1024;
+
+    @JsonProperty
+    boolean enabled = true;
+
+    @JsonProperty
+    long maximumSizeInBytes = DEFAULT_MAXIMUM_SIZE_IN_BYTES;
+
+    public PureModelContextCacheConfiguration()
+    {
+    }
+
+    public PureModelContextCacheConfiguration(boolean enabled, long maximumSizeInBytes)
+    {
+        this.enabled = enabled;
+        this.maximumSizeInBytes = maximumSizeInBytes;
+    }
+
+    public boolean isEnabled()
+    {
+        return enabled;
+    }
+
+    public long getMaximumSizeInBytes()
+    {
+        return maximumSizeInBytes;
+    }
+}
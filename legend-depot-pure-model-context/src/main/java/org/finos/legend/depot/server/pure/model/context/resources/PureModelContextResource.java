@@ -19,6 +19,7 @@ import io.swagger.annotations.Api;
 import io.swagger.annotations.ApiOperation;
 import io.swagger.annotations.ApiParam;
 import org.finos.legend.depot.domain.version.VersionValidator;
+import org.finos.legend.depot.server.pure.model.context.api.PureModelContextDataVersions;
 import org.finos.legend.depot.server.pure.model.context.api.PureModelContextService;
 import org.finos.legend.depot.store.metrics.QueryMetricsContainer;
 import org.finos.legend.depot.tracing.resources.BaseResource;
@@ -27,11 +28,15 @@ import org.finos.legend.engine.protocol.pure.v1.model.context.PureModelContextDa
 import javax.inject.Inject;
 import javax.ws.rs.DefaultValue;
 import javax.ws.rs.GET;
+import javax.ws.rs.HeaderParam;
 import javax.ws.rs.Path;
 import javax.ws.rs.PathParam;
 import javax.ws.rs.Produces;
 import javax.ws.rs.QueryParam;
+import javax.ws.rs.core.HttpHeaders;
 import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Response;
+import java.util.function.Supplier;
 
 import static org.finos.legend.depot.tracing.resources.ResourceLoggingAndTracing.GET_REVISION_ENTITIES_AS_PMCD;
 import static org.finos.legend.depot.tracing.resources.ResourceLoggingAndTracing.GET_VERSION_ENTITIES_AS_PMCD;
@@ -50,38 +55,56 @@ public class PureModelContextResource extends BaseResource
 
     @GET
     @Path("projects/{groupId}/{artifactId}/versions/{versionId}/pureModelContextData")
-    @ApiOperation(GET_VERSION_ENTITIES_AS_PMCD)
+    @ApiOperation(value = GET_VERSION_ENTITIES_AS_PMCD, response = PureModelContextData.class)
     @Produces(MediaType.APPLICATION_JSON)
-    public PureModelContextData getPureModelContextData(@PathParam("groupId") String groupId,
-                                                        @PathParam("artifactId") String artifactId,
-                                                        @PathParam("versionId") String versionId,
-                                                        @QueryParam("clientVersion") String clientVersion,
-                                                        @QueryParam("versioned")
-                                                        @DefaultValue("false")
-                                                        @ApiParam("Whether to return ENTITIES with version in entity path") boolean versioned,
-                                                        @QueryParam("getDependencies")
-                                                        @DefaultValue("true")
-                                                        @ApiParam("Whether to return ENTITIES with version in entity path") boolean getDependencies)
+    public Response getPureModelContextData(@PathParam("groupId") String groupId,
+                                            @PathParam("artifactId") String artifactId,
+                                            @PathParam("versionId") String versionId,
+                                            @QueryParam("clientVersion") String clientVersion,
+                                            @QueryParam("versioned")
+                                            @DefaultValue("false")
+                                            @ApiParam("Whether to return ENTITIES with version in entity path") boolean versioned,
+                                            @QueryParam("getDependencies")
+                                            @DefaultValue("true")
+                                            @ApiParam("Whether to return ENTITIES with version in entity path") boolean getDependencies,
+                                            @HeaderParam(HttpHeaders.IF_NONE_MATCH) String ifNoneMatch)
     {
         QueryMetricsContainer.record(groupId, artifactId, versionId);
-        return handle(GET_VERSION_ENTITIES_AS_PMCD, () -> service.getPureModelContextData(groupId, artifactId, versionId, clientVersion, versioned, getDependencies));
+        return handle(GET_VERSION_ENTITIES_AS_PMCD, () ->
+        {
+            PureModelContextDataVersions versions = service.getPureModelContextDataVersions(groupId, artifactId, versionId, clientVersion, versioned, getDependencies);
+            return conditional(ifNoneMatch, versions.getEtag(), () -> pureModelContextData(service.getPureModelContextDataAsString(versions),
+                    () -> service.getPureModelContextData(groupId, artifactId, versionId, clientVersion, versioned, getDependencies)));
+        });
     }
 
     @GET
     @Path("projects/{groupId}/{artifactId}/revisions/latest/pureModelContextData")
-    @ApiOperation(GET_REVISION_ENTITIES_AS_PMCD)
+    @ApiOperation(value = GET_REVISION_ENTITIES_AS_PMCD, response = PureModelContextData.class)
     @Produces(MediaType.APPLICATION_JSON)
-    public PureModelContextData getPureModelContextData(@PathParam("groupId") String groupId,
-                                                        @PathParam("artifactId") String artifactId,
-                                                        @QueryParam("clientVersion") String clientVersion,
-                                                        @QueryParam("versioned")
-                                                        @DefaultValue("false")
-                                                        @ApiParam("Whether to return ENTITIES with version in entity path") boolean versioned,
-                                                        @QueryParam("getDependencies")
-                                                        @DefaultValue("true")
-                                                        @ApiParam("Whether to return ENTITIES with version in entity path") boolean getDependencies)
+    public Response getPureModelContextData(@PathParam("groupId") String groupId,
+                                            @PathParam("artifactId") String artifactId,
+                                            @QueryParam("clientVersion") String clientVersion,
+                                            @QueryParam("versioned")
+                                            @DefaultValue("false")
+                                            @ApiParam("Whether to return ENTITIES with version in entity path") boolean versioned,
+                                            @QueryParam("getDependencies")
+                                            @DefaultValue("true")
+                                            @ApiParam("Whether to return ENTITIES with version in entity path") boolean getDependencies,
+                                            @HeaderParam(HttpHeaders.IF_NONE_MATCH) String ifNoneMatch)
     {
         QueryMetricsContainer.record(groupId, artifactId, VersionValidator.MASTER_SNAPSHOT);
-        return handle(GET_REVISION_ENTITIES_AS_PMCD, () -> service.getLatestPureModelContextData(groupId, artifactId, clientVersion, versioned, getDependencies));
+        return handle(GET_REVISION_ENTITIES_AS_PMCD, () ->
+        {
+            PureModelContextDataVersions versions = service.getPureModelContextDataVersions(groupId, artifactId, VersionValidator.MASTER_SNAPSHOT, clientVersion, versioned, getDependencies);
+            return conditional(ifNoneMatch, versions.getEtag(), () -> pureModelContextData(service.getPureModelContextDataAsString(versions),
+                    () -> service.getLatestPureModelContextData(groupId, artifactId, clientVersion, versioned, getDependencies)));
+        });
+    }
+
+    private Response.ResponseBuilder pureModelContextData(String json, Supplier<PureModelContextData> empty)
+    {
+        //serialised data is only produced when there are elements, empty data is still returned as an object
+        return json != null ? Response.ok(json, MediaType.APPLICATION_JSON_TYPE) : Response.ok(empty.get());
     }
 }
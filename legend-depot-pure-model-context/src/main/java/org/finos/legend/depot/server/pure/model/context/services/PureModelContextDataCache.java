@@ -0,0 +1,195 @@
+//  Copyright 2021 Goldman Sachs
+//
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//       http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+//
+
+package org.finos.legend.depot.server.pure.model.context.services;
+
+import org.finos.legend.depot.server.pure.model.context.configuration.PureModelContextCacheConfiguration;
+import org.finos.legend.depot.tracing.services.prometheus.PrometheusMetricsFactory;
+
+import javax.inject.Inject;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * Serialised pure model context data, and the per version fragments it is assembled from, least recently used first
+ * out once the total size goes over the configured maximum. Every entry remembers the entity tag it was built for and is only returned while that tag is still current,
+ * so refreshed master-SNAPSHOT versions or dependencies are rebuilt on the next read.
+ */
+public class PureModelContextDataCache
+{
+    public static final String PMCD_CACHE_HITS = "pmcd_cache_hits";
+    public static final String PMCD_CACHE_MISSES = "pmcd_cache_misses";
+    public static final String PMCD_CACHE_EVICTIONS = "pmcd_cache_evictions";
+    public static final String PMCD_CACHE_SIZE = "pmcd_cache_size_bytes";
+
+    private final LinkedHashMap<String, CachedData> entries = new LinkedHashMap<>(256, 0.75f, true);
+    private final boolean enabled;
+    private final long maximumSizeInBytes;
+    private long sizeInBytes;
+
+    @Inject
+    public PureModelContextDataCache(PureModelContextCacheConfiguration configuration)
+    {
+        this.enabled = configuration.isEnabled();
+        this.maximumSizeInBytes = configuration.getMaximumSizeInBytes();
+    }
+
+    public static String keyOf(String groupId, String artifactId, String versionId, String clientVersion, boolean versioned, boolean getDependencies)
+    {
+        return String.format("%s:%s:%s:%s:%s:%s", groupId, artifactId, versionId, clientVersion, versioned, getDependencies);
+    }
+
+    public static String fragmentKeyOf(String groupId, String artifactId, String versionId, String clientVersion, boolean versioned)
+    {
+        return String.format("fragment:%s:%s:%s:%s:%s", groupId, artifactId, versionId, clientVersion, versioned);
+    }
+
+    public boolean isEnabled()
+    {
+        return enabled;
+    }
+
+    public Optional<String> get(String key, String etag)
+    {
+        return lookup(key, etag).map(String.class::cast);
+    }
+
+    public void put(String key, String etag, String json)
+    {
+        store(key, new CachedData(etag, json, utf8Length(json)));
+    }
+
+    public Optional<PureModelContextDataFragment> getFragment(String key, String etag)
+    {
+        return lookup(key, etag).map(PureModelContextDataFragment.class::cast);
+    }
+
+    public void putFragment(String key, String etag, PureModelContextDataFragment fragment)
+    {
+        store(key, new CachedData(etag, fragment, fragment.getSize()));
+    }
+
+    /**
+     * Size in bytes of the text once UTF-8 encoded, which is how it is sent, without encoding it.
+     */
+    static long utf8Length(CharSequence text)
+    {
+        long length = 0;
+        for (int i = 0; i < text.length(); i++)
+        {
+            char c = text.charAt(i);
+            if (c < 0x80)
+            {
+                length += 1;
+            }
+            else if (c < 0x800)
+            {
+                length += 2;
+            }
+            else if (Character.isHighSurrogate(c) && i + 1 < text.length() && Character.isLowSurrogate(text.charAt(i + 1)))
+            {
+                length += 4;
+                i++;
+            }
+            else
+            {
+                length += 3;
+            }
+        }
+        return length;
+    }
+
+    private Optional<Object> lookup(String key, String etag)
+    {
+        if (!enabled)
+        {
+            return Optional.empty();
+        }
+        CachedData cached;
+        synchronized (entries)
+        {
+            cached = entries.get(key);
+            if (cached != null && !Objects.equals(cached.etag, etag))
+            {
+                remove(key);
+                cached = null;
+            }
+        }
+        PrometheusMetricsFactory.getInstance().incrementCount(cached == null ? PMCD_CACHE_MISSES : PMCD_CACHE_HITS);
+        return cached == null ? Optional.empty() : Optional.of(cached.value);
+    }
+
+    private void store(String key, CachedData data)
+    {
+        if (!enabled || data.size > maximumSizeInBytes / 4)
+        {
+            return;
+        }
+        int evicted = 0;
+        long size;
+        synchronized (entries)
+        {
+            remove(key);
+            entries.put(key, data);
+            sizeInBytes += data.size;
+            Iterator<CachedData> eldest = entries.values().iterator();
+            while (sizeInBytes > maximumSizeInBytes && eldest.hasNext())
+            {
+                sizeInBytes -= eldest.next().size;
+                eldest.remove();
+                evicted++;
+            }
+            size = sizeInBytes;
+        }
+        for (int i = 0; i < evicted; i++)
+        {
+            PrometheusMetricsFactory.getInstance().incrementCount(PMCD_CACHE_EVICTIONS);
+        }
+        PrometheusMetricsFactory.getInstance().setGauge(PMCD_CACHE_SIZE, size);
+    }
+
+    public int getCount()
+    {
+        synchronized (entries)
+        {
+            return entries.size();
+        }
+    }
+
+    private void remove(String key)
+    {
+        CachedData removed = entries.remove(key);
+        if (removed != null)
+        {
+            sizeInBytes -= removed.size;
+        }
+    }
+
+    private static final class CachedData
+    {
+        private final String etag;
+        private final Object value;
+        private final long size;
+
+        private CachedData(String etag, Object value, long size)
+        {
+            this.etag = etag;
+            this.value = value;
+            this.size = size;
+        }
+    }
+}
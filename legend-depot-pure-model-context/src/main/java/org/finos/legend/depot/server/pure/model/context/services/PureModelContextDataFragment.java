@@ -0,0 +1,181 @@
+//  Copyright 2021 Goldman Sachs
+//
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//       http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+//
+
+package org.finos.legend.depot.server.pure.model.context.services;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.finos.legend.engine.protocol.pure.v1.model.packageableElement.PackageableElement;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * The elements of a single project version, already sorted the way {@code PureModelContextData.Builder.sorted()}
+ * sorts them (by package, root package first, then by name) and already serialised, so that the pure model context
+ * data of a version and all its dependencies can be assembled by merging fragments instead of rebuilding and sorting
+ * the union of every dependency's elements.
+ */
+public final class PureModelContextDataFragment
+{
+    private static final Comparator<Element> ELEMENT_ORDER = Comparator.comparing(Element::getPackageName, PureModelContextDataFragment::comparePackages).thenComparing(Element::getName);
+
+    private final List<Element> elements;
+    private final long size;
+
+    private PureModelContextDataFragment(List<Element> elements)
+    {
+        this.elements = Collections.unmodifiableList(elements);
+        this.size = elements.stream().mapToLong(element -> PureModelContextDataCache.utf8Length(element.getJson())).sum();
+    }
+
+    public static PureModelContextDataFragment of(List<PackageableElement> packageableElements, ObjectWriter elementWriter) throws JsonProcessingException
+    {
+        List<Element> elements = new ArrayList<>(packageableElements.size());
+        for (PackageableElement packageableElement : packageableElements)
+        {
+            elements.add(new Element(packageableElement._package == null ? "" : packageableElement._package, packageableElement.name, packageableElement.getPath(), elementWriter.writeValueAsString(packageableElement)));
+        }
+        elements.sort(ELEMENT_ORDER);
+        return new PureModelContextDataFragment(elements);
+    }
+
+    public List<Element> getElements()
+    {
+        return elements;
+    }
+
+    public boolean isEmpty()
+    {
+        return elements.isEmpty();
+    }
+
+    public long getSize()
+    {
+        return size;
+    }
+
+    /**
+     * Appends the serialised elements of all fragments to {@code json}, comma separated, in sorted order. An element
+     * path found in more than one fragment is only written once, taken from the earliest fragment in the list.
+     *
+     * @return the number of elements written
+     */
+    public static int merge(List<PureModelContextDataFragment> fragments, StringBuilder json)
+    {
+        PriorityQueue<Cursor> cursors = new PriorityQueue<>(Math.max(fragments.size(), 1), Comparator.comparing(Cursor::current, ELEMENT_ORDER).thenComparingInt(cursor -> cursor.fragmentIndex));
+        for (int i = 0; i < fragments.size(); i++)
+        {
+            if (!fragments.get(i).isEmpty())
+            {
+                cursors.add(new Cursor(fragments.get(i), i));
+            }
+        }
+        int written = 0;
+        String lastPath = null;
+        while (!cursors.isEmpty())
+        {
+            Cursor cursor = cursors.poll();
+            Element element = cursor.current();
+            //same path means same package and name, so duplicates always come out of the queue one after the other
+            if (!element.getPath().equals(lastPath))
+            {
+                if (written > 0)
+                {
+                    json.append(',');
+                }
+                json.append(element.getJson());
+                lastPath = element.getPath();
+                written++;
+            }
+            if (cursor.advance())
+            {
+                cursors.add(cursor);
+            }
+        }
+        return written;
+    }
+
+    private static int comparePackages(String package1, String package2)
+    {
+        if (package1.isEmpty())
+        {
+            return package2.isEmpty() ? 0 : -1;
+        }
+        return package2.isEmpty() ? 1 : package1.compareTo(package2);
+    }
+
+    public static final class Element
+    {
+        private final String packageName;
+        private final String name;
+        private final String path;
+        private final String json;
+
+        private Element(String packageName, String name, String path, String json)
+        {
+            this.packageName = packageName;
+            this.name = name;
+            this.path = path;
+            this.json = json;
+        }
+
+        public String getPackageName()
+        {
+            return packageName;
+        }
+
+        public String getName()
+        {
+            return name;
+        }
+
+        public String getPath()
+        {
+            return path;
+        }
+
+        public String getJson()
+        {
+            return json;
+        }
+    }
+
+    private static final class Cursor
+    {
+        private final List<Element> elements;
+        private final int fragmentIndex;
+        private int position;
+
+        private Cursor(PureModelContextDataFragment fragment, int fragmentIndex)
+        {
+            this.elements = fragment.getElements();
+            this.fragmentIndex = fragmentIndex;
+        }
+
+        private Element current()
+        {
+            return elements.get(position);
+        }
+
+        private boolean advance()
+        {
+            return ++position < elements.size();
+        }
+    }
+}
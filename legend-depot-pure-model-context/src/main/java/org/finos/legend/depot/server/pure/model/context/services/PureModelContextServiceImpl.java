@@ -18,25 +18,41 @@ package org.finos.legend.depot.server.pure.model.context.services;
 import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.finos.legend.depot.domain.entity.EntityContentHash;
 import org.finos.legend.depot.domain.entity.ProjectVersionEntities;
 import org.finos.legend.depot.domain.project.ProjectData;
+import org.finos.legend.depot.domain.project.ProjectVersion;
+import org.finos.legend.depot.domain.version.VersionValidator;
+import org.finos.legend.depot.server.pure.model.context.api.PureModelContextDataVersions;
 import org.finos.legend.depot.server.pure.model.context.api.PureModelContextService;
 import org.finos.legend.depot.server.pure.model.context.api.PureModelContextServiceException;
+import org.finos.legend.depot.server.pure.model.context.configuration.PureModelContextCacheConfiguration;
 import org.finos.legend.depot.services.api.entities.EntitiesService;
 import org.finos.legend.depot.services.api.projects.ProjectsService;
 import org.finos.legend.engine.protocol.pure.PureClientVersions;
 import org.finos.legend.engine.protocol.pure.v1.model.context.AlloySDLC;
 import org.finos.legend.engine.protocol.pure.v1.model.context.PureModelContextData;
+import org.finos.legend.engine.protocol.pure.v1.model.packageableElement.PackageableElement;
 import org.finos.legend.engine.shared.core.ObjectMapperFactory;
 import org.finos.legend.sdlc.domain.model.entity.Entity;
 import org.finos.legend.sdlc.protocol.pure.v1.PureModelContextDataBuilder;
 import org.slf4j.Logger;
 
 import javax.inject.Inject;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
 import static org.finos.legend.engine.protocol.pure.v1.model.context.PureModelContextData.newBuilder;
@@ -45,38 +61,167 @@ public class PureModelContextServiceImpl implements PureModelContextService
 {
     public static final String PURE = "pure";
     private static final String LATEST = "latest";
+    private static final String EMPTY_ELEMENTS = "\"elements\":[]";
     private static final Logger LOGGER = org.slf4j.LoggerFactory.getLogger(PureModelContextServiceImpl.class);
     private final EntitiesService entitiesService;
     private final ProjectsService projectsService;
     private final ObjectMapper objectMapper;
+    private final PureModelContextDataCache cache;
+    private final ObjectWriter elementWriter;
 
     @Inject
-    public PureModelContextServiceImpl(EntitiesService entitiesService, ProjectsService projectsService)
+    public PureModelContextServiceImpl(EntitiesService entitiesService, ProjectsService projectsService, PureModelContextDataCache cache)
     {
         this.entitiesService = entitiesService;
         this.projectsService = projectsService;
+        this.cache = cache;
         objectMapper = ObjectMapperFactory.getNewStandardObjectMapperWithPureProtocolExtensionSupports();
         objectMapper.setSerializationInclusion(JsonInclude.Include.NON_NULL);
+        elementWriter = objectMapper.writerFor(PackageableElement.class);
+    }
+
+    public PureModelContextServiceImpl(EntitiesService entitiesService, ProjectsService projectsService)
+    {
+        this(entitiesService, projectsService, new PureModelContextDataCache(new PureModelContextCacheConfiguration()));
     }
 
     public String getPureModelContextDataAsString(String groupId, String artifactId, String versionId, String clientVersion, boolean versioned, boolean getDependencies)
     {
-        return toString(getPureModelContextData(groupId, artifactId, versionId, clientVersion, versioned, getDependencies));
+        return getPureModelContextDataAsString(getPureModelContextDataVersions(groupId, artifactId, versionId, clientVersion, versioned, getDependencies));
     }
 
     @Override
-    public PureModelContextData getPureModelContextData(String groupId, String artifactId, String versionId, String clientVersion, boolean versioned, boolean getDependencies)
+    public String getPureModelContextDataAsString(PureModelContextDataVersions versions)
     {
-        String version = versionId;
-        if (version.equals(LATEST))
+        String groupId = versions.getGroupId();
+        String artifactId = versions.getArtifactId();
+        String version = versions.getVersionId();
+        String clientVersion = versions.getClientVersion();
+        boolean versioned = versions.isVersioned();
+        boolean getDependencies = versions.isGetDependencies();
+        if (!cache.isEnabled() || version == null)
         {
-            Optional<ProjectData> project = this.projectsService.find(groupId, artifactId);
-            if (project.isPresent())
+            return toString(getPureModelContextData(groupId, artifactId, version, clientVersion, versioned, getDependencies));
+        }
+        String protocolVersion = clientVersion == null ? PureClientVersions.production : clientVersion;
+        Optional<String> etag = versions.getEtag();
+        //untagged snapshots cannot be told apart from their previous content, released versions never change
+        boolean cacheable = etag.isPresent() || VersionValidator.isValidReleaseVersion(version);
+        String key = PureModelContextDataCache.keyOf(groupId, artifactId, version, protocolVersion, versioned, getDependencies);
+        if (cacheable)
+        {
+            Optional<String> cached = cache.get(key, etag.orElse(null));
+            if (cached.isPresent())
             {
-                version = project.get().getLatestVersionAsString();
+                return cached.get();
             }
         }
+        String json = getDependencies ? mergeFragments(versions, protocolVersion) : toString(getPureModelContextData(groupId, artifactId, version, clientVersion, versioned, false));
+        if (cacheable && json != null)
+        {
+            cache.put(key, etag.orElse(null), json);
+        }
+        return json;
+    }
+
+    private String mergeFragments(PureModelContextDataVersions versions, String clientVersion)
+    {
+        String groupId = versions.getGroupId();
+        String artifactId = versions.getArtifactId();
+        String versionId = versions.getVersionId();
+        boolean versioned = versions.isVersioned();
+        //the project's own fragment may have been cached as someone else's dependency, check it is a known version first
+        this.projectsService.checkExists(groupId, artifactId, versionId);
+        ProjectVersion origin = new ProjectVersion(groupId, artifactId, versionId);
+        List<ProjectVersion> projectVersions = versions.getProjectVersions();
+
+        Map<ProjectVersion, PureModelContextDataFragment> fragments = new ConcurrentHashMap<>();
+        Map<ProjectVersion, Optional<String>> missing = new HashMap<>();
+        for (ProjectVersion projectVersion : projectVersions)
+        {
+            Optional<String> etag = versions.getVersionEtag(projectVersion);
+            Optional<PureModelContextDataFragment> cached = isCacheable(projectVersion, etag) ? cache.getFragment(fragmentKeyOf(projectVersion, clientVersion, versioned), etag.orElse(null)) : Optional.empty();
+            if (cached.isPresent())
+            {
+                fragments.put(projectVersion, cached.get());
+            }
+            else
+            {
+                missing.put(projectVersion, etag);
+            }
+        }
+        Optional<String> originEtag = missing.remove(origin);
+        if (originEtag != null)
+        {
+            List<Entity> entities = this.entitiesService.getEntities(groupId, artifactId, versionId, versioned);
+            fragments.put(origin, buildFragment(origin, entities, clientVersion, versioned, originEtag));
+        }
+        if (!missing.isEmpty())
+        {
+            //only the fragments not cached yet are read, all of them in one go
+            this.entitiesService.getDependenciesEntities(new ArrayList<>(missing.keySet()), versioned, false, true).parallelStream().forEach(projectVersionEntities ->
+            {
+                ProjectVersion projectVersion = new ProjectVersion(projectVersionEntities.getGroupId(), projectVersionEntities.getArtifactId(), projectVersionEntities.getVersionId());
+                if (missing.containsKey(projectVersion))
+                {
+                    List<Entity> entities = projectVersionEntities.getEntities().stream().map(x -> (Entity) x).collect(Collectors.toList());
+                    fragments.put(projectVersion, buildFragment(projectVersion, entities, clientVersion, versioned, missing.get(projectVersion)));
+                }
+            });
+        }
+
+        //the project's own fragment comes first, so its elements win over any dependency element with the same path
+        StringBuilder elements = new StringBuilder();
+        if (PureModelContextDataFragment.merge(projectVersions.stream().map(fragments::get).filter(Objects::nonNull).collect(Collectors.toList()), elements) == 0)
+        {
+            return null;
+        }
+        String envelope = toJson(getPureModelContextData(Collections.emptyList(), groupId, artifactId, versionId, clientVersion));
+        int elementsAt = envelope.indexOf(EMPTY_ELEMENTS);
+        if (elementsAt < 0)
+        {
+            throw new PureModelContextServiceException(new IllegalStateException("no elements found in pure model context data " + envelope));
+        }
+        return new StringBuilder(envelope.length() + elements.length())
+                .append(envelope, 0, elementsAt + EMPTY_ELEMENTS.length() - 1)
+                .append(elements)
+                .append(envelope, elementsAt + EMPTY_ELEMENTS.length() - 1, envelope.length())
+                .toString();
+    }
 
+    private PureModelContextDataFragment buildFragment(ProjectVersion projectVersion, List<Entity> entities, String clientVersion, boolean versioned, Optional<String> etag)
+    {
+        PureModelContextDataFragment fragment;
+        try
+        {
+            fragment = PureModelContextDataFragment.of(getPureModelContextData(entities, projectVersion.getGroupId(), projectVersion.getArtifactId(), projectVersion.getVersionId(), clientVersion).getElements(), elementWriter);
+        }
+        catch (JsonProcessingException e)
+        {
+            LOGGER.error(e.getMessage());
+            throw new PureModelContextServiceException(e);
+        }
+        if (isCacheable(projectVersion, etag))
+        {
+            cache.putFragment(fragmentKeyOf(projectVersion, clientVersion, versioned), etag.orElse(null), fragment);
+        }
+        return fragment;
+    }
+
+    private static boolean isCacheable(ProjectVersion projectVersion, Optional<String> etag)
+    {
+        return etag.isPresent() || VersionValidator.isValidReleaseVersion(projectVersion.getVersionId());
+    }
+
+    private static String fragmentKeyOf(ProjectVersion projectVersion, String clientVersion, boolean versioned)
+    {
+        return PureModelContextDataCache.fragmentKeyOf(projectVersion.getGroupId(), projectVersion.getArtifactId(), projectVersion.getVersionId(), clientVersion, versioned);
+    }
+
+    @Override
+    public PureModelContextData getPureModelContextData(String groupId, String artifactId, String versionId, String clientVersion, boolean versioned, boolean getDependencies)
+    {
+        String version = resolveVersion(groupId, artifactId, versionId);
         List<Entity> entities = this.entitiesService.getEntities(groupId, artifactId, version, versioned);
         PureModelContextData pureModelContextData = getPureModelContextData(entities, groupId, artifactId, version, clientVersion);
         if (!getDependencies)
@@ -100,6 +245,69 @@ public class PureModelContextServiceImpl implements PureModelContextService
         }
     }
 
+    @Override
+    public Optional<String> getPureModelContextDataEtag(String groupId, String artifactId, String versionId, String clientVersion, boolean versioned, boolean getDependencies)
+    {
+        return getPureModelContextDataVersions(groupId, artifactId, versionId, clientVersion, versioned, getDependencies).getEtag();
+    }
+
+    @Override
+    public PureModelContextDataVersions getPureModelContextDataVersions(String groupId, String artifactId, String versionId, String clientVersion, boolean versioned, boolean getDependencies)
+    {
+        String version = resolveVersion(groupId, artifactId, versionId);
+        LinkedHashMap<ProjectVersion, Optional<String>> versionEtags = new LinkedHashMap<>();
+        if (version == null)
+        {
+            return new PureModelContextDataVersions(groupId, artifactId, null, clientVersion, versioned, getDependencies, versionEtags, Optional.empty());
+        }
+        List<ProjectVersion> projectVersions = new ArrayList<>();
+        projectVersions.add(new ProjectVersion(groupId, artifactId, version));
+        if (getDependencies)
+        {
+            this.projectsService.getDependencies(groupId, artifactId, version, true).stream()
+                    .sorted(Comparator.comparing(ProjectVersion::getGav))
+                    .forEach(projectVersions::add);
+        }
+        MessageDigest digest = newSha256();
+        digest.update(String.format("%s:%s:%s", clientVersion == null ? PureClientVersions.production : clientVersion, versioned, getDependencies).getBytes(StandardCharsets.UTF_8));
+        boolean tagged = true;
+        for (ProjectVersion projectVersion : projectVersions)
+        {
+            Optional<String> etag = this.entitiesService.getVersionEtag(projectVersion.getGroupId(), projectVersion.getArtifactId(), projectVersion.getVersionId(), versioned);
+            versionEtags.put(projectVersion, etag);
+            //any version without a content tag, e.g. one not refreshed since tags were introduced, makes the whole response untagged
+            tagged = tagged && etag.isPresent();
+            etag.ifPresent(tag -> digest.update(String.format("|%s=%s", projectVersion.getGav(), tag).getBytes(StandardCharsets.UTF_8)));
+        }
+        return new PureModelContextDataVersions(groupId, artifactId, version, clientVersion, versioned, getDependencies, versionEtags,
+                tagged ? Optional.of(EntityContentHash.toHex(digest.digest())) : Optional.empty());
+    }
+
+    private String resolveVersion(String groupId, String artifactId, String versionId)
+    {
+        if (versionId.equals(LATEST))
+        {
+            Optional<ProjectData> project = this.projectsService.find(groupId, artifactId);
+            if (project.isPresent())
+            {
+                return project.get().getLatestVersionAsString();
+            }
+        }
+        return versionId;
+    }
+
+    private static MessageDigest newSha256()
+    {
+        try
+        {
+            return MessageDigest.getInstance("SHA-256");
+        }
+        catch (NoSuchAlgorithmException e)
+        {
+            throw new IllegalStateException(e);
+        }
+    }
+
     private PureModelContextData getPureModelContextData(List<Entity> entities, String groupId, String artifactId, String versionId, String clientVersion)
     {
         return PureModelContextDataBuilder
@@ -124,6 +332,11 @@ public class PureModelContextServiceImpl implements PureModelContextService
         {
             return null;
         }
+        return toJson(contextData);
+    }
+
+    private String toJson(PureModelContextData contextData)
+    {
         try
         {
             return objectMapper.writeValueAsString(contextData);
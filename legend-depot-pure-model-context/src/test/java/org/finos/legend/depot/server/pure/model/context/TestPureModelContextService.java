@@ -16,6 +16,8 @@
 package org.finos.legend.depot.server.pure.model.context;
 
 import org.finos.legend.depot.server.pure.model.context.api.PureModelContextService;
+import org.finos.legend.depot.server.pure.model.context.configuration.PureModelContextCacheConfiguration;
+import org.finos.legend.depot.server.pure.model.context.services.PureModelContextDataCache;
 import org.finos.legend.depot.server.pure.model.context.services.PureModelContextServiceImpl;
 import org.finos.legend.depot.services.TestBaseServices;
 import org.finos.legend.depot.services.api.entities.EntitiesService;
@@ -33,6 +35,7 @@ import org.mockito.Mockito;
 
 import java.net.URL;
 import java.util.List;
+import java.util.Optional;
 
 public class TestPureModelContextService extends TestBaseServices
 {
@@ -141,4 +144,70 @@ public class TestPureModelContextService extends TestBaseServices
         Assert.assertNotNull(modelContextDataAsString);
         Assert.assertEquals("{\"_type\":\"data\",\"elements\":[{\"_type\":\"service\",\"autoActivateUpdates\":true,\"documentation\":\"\",\"execution\":{\"_type\":\"pureMultiExecution\",\"executionKey\":\"env\",\"executionParameters\":[{\"key\":\"PROD\",\"mapping\":\"mapping::SomeMapping\",\"runtime\":{\"_type\":\"runtimePointer\",\"runtime\":\"runtime::H2Runtime\"}},{\"key\":\"DEV\",\"mapping\":\"mapping::SomeMapping\",\"runtime\":{\"_type\":\"runtimePointer\",\"runtime\":\"runtime::H2Runtime\"}}],\"func\":{\"_type\":\"lambda\",\"body\":[{\"_type\":\"func\",\"function\":\"project\",\"parameters\":[{\"_type\":\"func\",\"function\":\"getAll\",\"parameters\":[{\"_type\":\"packageableElementPtr\",\"fullPath\":\"domain::COVIDData\"}]},{\"_type\":\"collection\",\"multiplicity\":{\"lowerBound\":1,\"upperBound\":1},\"values\":[{\"_type\":\"lambda\",\"body\":[{\"_type\":\"property\",\"parameters\":[{\"_type\":\"var\",\"name\":\"x\"}],\"property\":\"cases\"}],\"parameters\":[{\"_type\":\"var\",\"name\":\"x\"}]}]},{\"_type\":\"collection\",\"multiplicity\":{\"lowerBound\":1,\"upperBound\":1},\"values\":[{\"_type\":\"string\",\"value\":\"Cases\"}]}]}],\"parameters\":[]}},\"name\":\"SomeService\",\"owners\":[\"anonymous\",\"akphi\"],\"package\":\"service\",\"pattern\":\"/9566f101-2108-408f-863f-6d7e154dc17a\",\"stereotypes\":[],\"taggedValues\":[]},{\"_type\":\"class\",\"constraints\":[],\"name\":\"Person\",\"originalMilestonedProperties\":[],\"package\":\"test::legend::blank_prod::v2_0_0::blank\",\"properties\":[],\"qualifiedProperties\":[],\"sourceInformation\":{\"endColumn\":1,\"endLine\":3,\"sourceId\":\"\",\"startColumn\":1,\"startLine\":1},\"stereotypes\":[],\"superTypes\":[],\"taggedValues\":[]}],\"origin\":{\"_type\":\"pointer\",\"sdlcInfo\":{\"_type\":\"alloy\",\"baseVersion\":\"2.0.0\",\"packageableElementPointers\":[],\"project\":\"test.legend:blank-prod\",\"version\":\"none\"},\"serializer\":{\"name\":\"pure\",\"version\":\"vX_X_X\"}},\"serializer\":{\"name\":\"pure\",\"version\":\"vX_X_X\"}}", modelContextDataAsString);
     }
+
+    @Test
+    public void pureModelContextDataIsTaggedByVersionAndDependencyContent()
+    {
+        Assert.assertFalse(service.getPureModelContextDataEtag("test.legend", "blank-prod", "2.0.0", CLIENT_VERSION, true, false).isPresent());
+
+        entitiesStore.createSnapshot("test.legend", "blank-prod", "2.0.0", true);
+        String etag = service.getPureModelContextDataEtag("test.legend", "blank-prod", "2.0.0", CLIENT_VERSION, true, false).get();
+        Assert.assertEquals(etag, service.getPureModelContextDataEtag("test.legend", "blank-prod", "2.0.0", CLIENT_VERSION, true, false).get());
+        Assert.assertNotEquals(etag, service.getPureModelContextDataEtag("test.legend", "blank-prod", "2.0.0", "v1_0_0", true, false).get());
+
+        Assert.assertFalse(service.getPureModelContextDataEtag("test.legend", "blank-prod", "2.0.0", CLIENT_VERSION, true, true).isPresent());
+        entitiesStore.createSnapshot("examples.metadata", "test", "3.0.0", true);
+        entitiesStore.createSnapshot("examples.metadata", "test-dependencies", "2.0.0", true);
+        Optional<String> withDependencies = service.getPureModelContextDataEtag("test.legend", "blank-prod", "2.0.0", CLIENT_VERSION, true, true);
+        Assert.assertTrue(withDependencies.isPresent());
+        Assert.assertNotEquals(etag, withDependencies.get());
+    }
+
+    @Test
+    public void releasedPureModelContextDataIsServedFromCache()
+    {
+        PureModelContextDataCache cache = new PureModelContextDataCache(new PureModelContextCacheConfiguration());
+        PureModelContextService cachingService = new PureModelContextServiceImpl(new EntitiesServiceImpl(entitiesStore, projectsService), projectsService, cache);
+
+        String built = cachingService.getPureModelContextDataAsString(TEST_GROUP_ID, "test", "2.2.0", CLIENT_VERSION, false, false);
+        Assert.assertEquals(1, cache.getCount());
+        Assert.assertSame(built, cachingService.getPureModelContextDataAsString(TEST_GROUP_ID, "test", "2.2.0", CLIENT_VERSION, false, false));
+        Assert.assertEquals(service.getPureModelContextDataAsString(TEST_GROUP_ID, "test", "2.2.0", CLIENT_VERSION, false, false), built);
+
+        cachingService.getPureModelContextDataAsString(TEST_GROUP_ID, "test", "2.2.0", "v1_0_0", false, false);
+        Assert.assertEquals(2, cache.getCount());
+
+        entitiesStore.createSnapshot(TEST_GROUP_ID, "test", "2.2.0", false);
+        Assert.assertNotSame(built, cachingService.getPureModelContextDataAsString(TEST_GROUP_ID, "test", "2.2.0", CLIENT_VERSION, false, false));
+        Assert.assertEquals(2, cache.getCount());
+
+        cachingService.getLatestPureModelContextDataAsString(TEST_GROUP_ID, "test", CLIENT_VERSION, false, false);
+        Assert.assertEquals(2, cache.getCount());
+    }
+
+    @Test
+    public void dependenciesAreMergedFromCachedFragments()
+    {
+        PureModelContextDataCache cache = new PureModelContextDataCache(new PureModelContextCacheConfiguration());
+        EntitiesService entitiesService = Mockito.spy(new EntitiesServiceImpl(entitiesStore, projectsService));
+        PureModelContextService cachingService = new PureModelContextServiceImpl(entitiesService, projectsService, cache);
+        PureModelContextService rebuildingService = new PureModelContextServiceImpl(entitiesService, projectsService, new PureModelContextDataCache(new PureModelContextCacheConfiguration(false, 0)));
+
+        String merged = cachingService.getPureModelContextDataAsString("test.legend", "blank-prod", "2.0.0", CLIENT_VERSION, true, true);
+        Assert.assertEquals(rebuildingService.getPureModelContextDataAsString("test.legend", "blank-prod", "2.0.0", CLIENT_VERSION, true, true), merged);
+
+        String released = cachingService.getPureModelContextDataAsString(TEST_GROUP_ID, "test", "2.3.1", CLIENT_VERSION, false, true);
+        Assert.assertEquals(rebuildingService.getPureModelContextDataAsString(TEST_GROUP_ID, "test", "2.3.1", CLIENT_VERSION, false, true), released);
+        int cached = cache.getCount();
+
+        //master-SNAPSHOT depends on the same released version, whose fragment is reused rather than read again
+        Mockito.clearInvocations(entitiesService);
+        String snapshot = cachingService.getPureModelContextDataAsString(TEST_GROUP_ID, "test", "master-SNAPSHOT", CLIENT_VERSION, false, true);
+        Mockito.verify(entitiesService, Mockito.never()).getDependenciesEntities(Mockito.anyList(), Mockito.anyBoolean(), Mockito.anyBoolean(), Mockito.anyBoolean());
+        Mockito.verify(entitiesService).getEntities(TEST_GROUP_ID, "test", "master-SNAPSHOT", false);
+        //the versions and their tags are resolved once for the whole request
+        Mockito.verify(entitiesService).getVersionEtag(TEST_GROUP_ID, "test", "master-SNAPSHOT", false);
+        Assert.assertEquals(rebuildingService.getPureModelContextDataAsString(TEST_GROUP_ID, "test", "master-SNAPSHOT", CLIENT_VERSION, false, true), snapshot);
+        Assert.assertEquals(cached, cache.getCount());
+    }
 }
@@ -20,11 +20,14 @@ import com.hubspot.dropwizard.guicier.GuiceBundle;
 import io.dropwizard.setup.Environment;
 import org.finos.legend.depot.core.http.BaseServer;
 import org.finos.legend.depot.core.http.resources.InfoPageModule;
+import org.finos.legend.depot.server.cache.ResponseCache;
+import org.finos.legend.depot.server.cache.ResponseCacheFilter;
 import org.finos.legend.depot.server.configuration.DepotServerConfiguration;
 import org.finos.legend.depot.server.guice.DepotServerModule;
 import org.finos.legend.depot.server.guice.DepotServerResourcesModule;
 import org.finos.legend.depot.server.pure.model.context.PureModelContextModule;
 import org.finos.legend.depot.services.ReadOnlyServicesModule;
+import org.finos.legend.depot.services.api.entities.EntitiesService;
 import org.finos.legend.depot.store.mongo.ManageMongoModule;
 import org.finos.legend.depot.store.mongo.ReadMongoModule;
 import org.finos.legend.depot.store.mongo.StoreMongoModule;
@@ -35,6 +38,8 @@ import java.util.List;
 
 public class LegendDepotServer extends BaseServer<DepotServerConfiguration>
 {
+    private GuiceBundle<DepotServerConfiguration> guiceBundle;
+
     public LegendDepotServer()
     {
         super();
@@ -61,7 +66,8 @@ public class LegendDepotServer extends BaseServer<DepotServerConfiguration>
     @Override
     protected GuiceBundle<DepotServerConfiguration> buildGuiceBundle(List<Module> serverModules)
     {
-        return GuiceBundle.defaultBuilder(DepotServerConfiguration.class).modules(serverModules).build();
+        guiceBundle = GuiceBundle.defaultBuilder(DepotServerConfiguration.class).modules(serverModules).build();
+        return guiceBundle;
     }
 
     @Override
@@ -69,5 +75,9 @@ public class LegendDepotServer extends BaseServer<DepotServerConfiguration>
     {
         super.run(configuration, environment);
         environment.jersey().register(LegendDepotServerJacksonJsonProvider.class);
+        if (configuration.getResponseCacheConfiguration().isEnabled())
+        {
+            environment.jersey().register(new ResponseCacheFilter(new ResponseCache(configuration.getResponseCacheConfiguration()), guiceBundle.getInjector().getInstance(EntitiesService.class)));
+        }
     }
 }
@@ -0,0 +1,220 @@
+//  Copyright 2021 Goldman Sachs
+//
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//       http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+//
+
+package org.finos.legend.depot.server.cache;
+
+import org.finos.legend.depot.domain.version.VersionValidator;
+import org.finos.legend.depot.server.configuration.ResponseCacheConfiguration;
+import org.finos.legend.depot.tracing.services.prometheus.PrometheusMetricsFactory;
+
+import javax.ws.rs.core.MediaType;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+/**
+ * Serialised read API responses, bounded by their total size in bytes and evicted least recently used first.
+ * Responses for released versions are stored with the version's entity tag and kept until evicted, but are dropped
+ * on the first lookup that finds a different tag, as purges and full updates rewrite released versions too. Anything
+ * without a tag, such as master-SNAPSHOT, expires so that refreshes done by the store server become visible.
+ */
+public class ResponseCache
+{
+    public static final String RESPONSE_CACHE_HITS = "response_cache_hits";
+    public static final String RESPONSE_CACHE_MISSES = "response_cache_misses";
+    public static final String RESPONSE_CACHE_EVICTIONS = "response_cache_evictions";
+    public static final String RESPONSE_CACHE_SIZE = "response_cache_size_bytes";
+
+    private final LinkedHashMap<String, CachedResponse> responses = new LinkedHashMap<>(1024, 0.75f, true);
+    private final long maximumSizeInBytes;
+    private final long snapshotExpiryInMillis;
+    private long sizeInBytes;
+
+    public ResponseCache(ResponseCacheConfiguration configuration)
+    {
+        this.maximumSizeInBytes = configuration.getMaximumSizeInBytes();
+        this.snapshotExpiryInMillis = configuration.getSnapshotExpiryInMillis();
+    }
+
+    public static boolean isImmutable(String versionId)
+    {
+        return versionId != null && VersionValidator.isValidReleaseVersion(versionId);
+    }
+
+    /**
+     * Largest body worth caching, so a few huge responses cannot flush everything else.
+     */
+    public long getMaximumEntrySizeInBytes()
+    {
+        return maximumSizeInBytes / 10;
+    }
+
+    public Optional<CachedResponse> get(String key, Supplier<Optional<String>> currentVersionEtag)
+    {
+        CachedResponse cached;
+        synchronized (responses)
+        {
+            cached = responses.get(key);
+            if (cached != null && !cached.isValidatedByVersionEtag() && System.currentTimeMillis() - cached.getCachedAt() > snapshotExpiryInMillis)
+            {
+                remove(key);
+                cached = null;
+            }
+        }
+        //the current tag is read outside the lock, and only for entries that are validated against it
+        if (cached != null && cached.isValidatedByVersionEtag() && !cached.getVersionEtag().equals(currentVersionEtag.get().orElse(null)))
+        {
+            synchronized (responses)
+            {
+                if (responses.get(key) == cached)
+                {
+                    remove(key);
+                }
+            }
+            cached = null;
+        }
+        PrometheusMetricsFactory.getInstance().incrementCount(cached == null ? RESPONSE_CACHE_MISSES : RESPONSE_CACHE_HITS);
+        return Optional.ofNullable(cached);
+    }
+
+    public void put(String key, CachedResponse response)
+    {
+        if (response.getSize() > getMaximumEntrySizeInBytes())
+        {
+            return;
+        }
+        int evicted = 0;
+        long size;
+        synchronized (responses)
+        {
+            remove(key);
+            responses.put(key, response);
+            sizeInBytes += response.getSize();
+            Iterator<CachedResponse> eldest = responses.values().iterator();
+            while (sizeInBytes > maximumSizeInBytes && eldest.hasNext())
+            {
+                sizeInBytes -= eldest.next().getSize();
+                eldest.remove();
+                evicted++;
+            }
+            size = sizeInBytes;
+        }
+        for (int i = 0; i < evicted; i++)
+        {
+            PrometheusMetricsFactory.getInstance().incrementCount(RESPONSE_CACHE_EVICTIONS);
+        }
+        PrometheusMetricsFactory.getInstance().setGauge(RESPONSE_CACHE_SIZE, size);
+    }
+
+    public int getCount()
+    {
+        synchronized (responses)
+        {
+            return responses.size();
+        }
+    }
+
+    public long getSizeInBytes()
+    {
+        synchronized (responses)
+        {
+            return sizeInBytes;
+        }
+    }
+
+    private void remove(String key)
+    {
+        CachedResponse removed = responses.remove(key);
+        if (removed != null)
+        {
+            sizeInBytes -= removed.getSize();
+        }
+    }
+
+    public static final class CachedResponse
+    {
+        private final String groupId;
+        private final String artifactId;
+        private final boolean immutable;
+        private final String versionEtag;
+        private final byte[] body;
+        private final MediaType mediaType;
+        private final String etag;
+        private final long cachedAt = System.currentTimeMillis();
+
+        public CachedResponse(String groupId, String artifactId, String versionId, String versionEtag, byte[] body, MediaType mediaType, String etag)
+        {
+            this.groupId = groupId;
+            this.artifactId = artifactId;
+            this.immutable = ResponseCache.isImmutable(versionId);
+            this.versionEtag = versionEtag;
+            this.body = body;
+            this.mediaType = mediaType;
+            this.etag = etag;
+        }
+
+        public String getGroupId()
+        {
+            return groupId;
+        }
+
+        public String getArtifactId()
+        {
+            return artifactId;
+        }
+
+        public boolean isImmutable()
+        {
+            return immutable;
+        }
+
+        public String getVersionEtag()
+        {
+            return versionEtag;
+        }
+
+        boolean isValidatedByVersionEtag()
+        {
+            return immutable && versionEtag != null;
+        }
+
+        public byte[] getBody()
+        {
+            return body;
+        }
+
+        public MediaType getMediaType()
+        {
+            return mediaType;
+        }
+
+        public String getEtag()
+        {
+            return etag;
+        }
+
+        long getCachedAt()
+        {
+            return cachedAt;
+        }
+
+        long getSize()
+        {
+            return body.length;
+        }
+    }
+}
@@ -0,0 +1,259 @@
+//  Copyright 2021 Goldman Sachs
+//
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//       http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+//
+
+
+package org.finos.legend.depot.server.cache;
+
+import org.finos.legend.depot.services.api.entities.EntitiesService;
+import org.finos.legend.depot.store.metrics.QueryMetricsContainer;
+import org.finos.legend.depot.tracing.resources.BaseResource;
+
+import javax.annotation.Priority;
+import javax.ws.rs.HttpMethod;
+import javax.ws.rs.Priorities;
+import javax.ws.rs.container.ContainerRequestContext;
+import javax.ws.rs.container.ContainerRequestFilter;
+import javax.ws.rs.container.ContainerResponseContext;
+import javax.ws.rs.container.ContainerResponseFilter;
+import javax.ws.rs.container.ResourceInfo;
+import javax.ws.rs.core.Context;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.MultivaluedMap;
+import javax.ws.rs.core.Response;
+import javax.ws.rs.core.UriInfo;
+import javax.ws.rs.ext.WriterInterceptor;
+import javax.ws.rs.ext.WriterInterceptorContext;
+import java.io.ByteArrayOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.reflect.Method;
+import java.util.Optional;
+import java.util.TreeMap;
+
+import static org.finos.legend.depot.domain.version.VersionValidator.MASTER_SNAPSHOT;
+
+/**
+ * Serves {@link CacheableResponse} endpoints from the {@link ResponseCache}, and on a miss tees the serialised body
+ * into the cache while it is written to the client, so responses are cached exactly as they were sent. Released
+ * versions are cached with the entity tag the version had when the request came in, and revalidated against it.
+ */
+@CacheableResponse
+@Priority(Priorities.USER)
+public class ResponseCacheFilter implements ContainerRequestFilter, ContainerResponseFilter, WriterInterceptor
+{
+    static final String GROUP_ID = "groupId";
+    static final String ARTIFACT_ID = "artifactId";
+    static final String VERSION_ID = "versionId";
+    private static final String CACHE_KEY = ResponseCacheFilter.class.getName() + ".key";
+    private static final String PENDING_RESPONSE = ResponseCacheFilter.class.getName() + ".pending";
+    private static final String VERSION_ETAG = ResponseCacheFilter.class.getName() + ".versionEtag";
+
+    private final ResponseCache cache;
+    private final EntitiesService entities;
+    @Context
+    private ResourceInfo resourceInfo;
+
+    public ResponseCacheFilter(ResponseCache cache, EntitiesService entities)
+    {
+        this.cache = cache;
+        this.entities = entities;
+    }
+
+    ResponseCacheFilter(ResponseCache cache, EntitiesService entities, ResourceInfo resourceInfo)
+    {
+        this.cache = cache;
+        this.entities = entities;
+        this.resourceInfo = resourceInfo;
+    }
+
+    @Override
+    public void filter(ContainerRequestContext request)
+    {
+        if (!HttpMethod.GET.equals(request.getMethod()) || request.getUriInfo().getPathParameters().getFirst(GROUP_ID) == null)
+        {
+            return;
+        }
+        String key = keyOf(request.getUriInfo());
+        MultivaluedMap<String, String> pathParameters = request.getUriInfo().getPathParameters();
+        Optional<ResponseCache.CachedResponse> cached = cache.get(key, () -> currentVersionEtag(pathParameters));
+        if (cached.isPresent())
+        {
+            recordQueryMetrics(pathParameters);
+            if (BaseResource.matchesEtag(request.getHeaderString(HttpHeaders.IF_NONE_MATCH), cached.get().getEtag()))
+            {
+                request.abortWith(Response.notModified().header(HttpHeaders.ETAG, cached.get().getEtag()).build());
+                return;
+            }
+            Response.ResponseBuilder response = Response.ok(cached.get().getBody(), cached.get().getMediaType());
+            if (cached.get().getEtag() != null)
+            {
+                response.header(HttpHeaders.ETAG, cached.get().getEtag());
+            }
+            request.abortWith(response.build());
+            return;
+        }
+        request.setProperty(CACHE_KEY, key);
+        if (ResponseCache.isImmutable(versionOf(pathParameters)))
+        {
+            currentVersionEtag(pathParameters).ifPresent(versionEtag -> request.setProperty(VERSION_ETAG, versionEtag));
+        }
+    }
+
+    @Override
+    public void filter(ContainerRequestContext request, ContainerResponseContext response)
+    {
+        Object key = request.getProperty(CACHE_KEY);
+        if (key == null || response.getStatus() != Response.Status.OK.getStatusCode() || !response.hasEntity())
+        {
+            return;
+        }
+        MultivaluedMap<String, String> pathParameters = request.getUriInfo().getPathParameters();
+        MediaType mediaType = response.getMediaType() == null ? MediaType.APPLICATION_JSON_TYPE : response.getMediaType();
+        request.setProperty(PENDING_RESPONSE, new PendingResponse((String) key, pathParameters.getFirst(GROUP_ID), pathParameters.getFirst(ARTIFACT_ID), versionOf(pathParameters),
+                (String) request.getProperty(VERSION_ETAG), mediaType, response.getHeaderString(HttpHeaders.ETAG)));
+    }
+
+    @Override
+    public void aroundWriteTo(WriterInterceptorContext context) throws IOException
+    {
+        Object pending = context.getProperty(PENDING_RESPONSE);
+        if (!(pending instanceof PendingResponse))
+        {
+            context.proceed();
+            return;
+        }
+        OutputStream output = context.getOutputStream();
+        CapturingOutputStream capture = new CapturingOutputStream(output, cache.getMaximumEntrySizeInBytes());
+        context.setOutputStream(capture);
+        try
+        {
+            context.proceed();
+        }
+        finally
+        {
+            context.setOutputStream(output);
+        }
+        if (!capture.isOverflowed())
+        {
+            PendingResponse response = (PendingResponse) pending;
+            cache.put(response.key, new ResponseCache.CachedResponse(response.groupId, response.artifactId, response.versionId, response.versionEtag,
+                    capture.getCaptured(), response.mediaType, response.etag));
+        }
+    }
+
+    private void recordQueryMetrics(MultivaluedMap<String, String> pathParameters)
+    {
+        Method method = resourceInfo == null ? null : resourceInfo.getResourceMethod();
+        CacheableResponse cacheable = method == null ? null : method.getAnnotation(CacheableResponse.class);
+        if (cacheable != null && cacheable.recordsQueryMetrics())
+        {
+            QueryMetricsContainer.record(pathParameters.getFirst(GROUP_ID), pathParameters.getFirst(ARTIFACT_ID), versionOf(pathParameters));
+        }
+    }
+
+    private Optional<String> currentVersionEtag(MultivaluedMap<String, String> pathParameters)
+    {
+        return entities.getVersionEtag(pathParameters.getFirst(GROUP_ID), pathParameters.getFirst(ARTIFACT_ID), versionOf(pathParameters), false);
+    }
+
+    private static String versionOf(MultivaluedMap<String, String> pathParameters)
+    {
+        return pathParameters.containsKey(VERSION_ID) ? pathParameters.getFirst(VERSION_ID) : MASTER_SNAPSHOT;
+    }
+
+    static String keyOf(UriInfo uriInfo)
+    {
+        StringBuilder key = new StringBuilder(uriInfo.getPath());
+        new TreeMap<>(uriInfo.getQueryParameters()).forEach((name, values) -> values.stream().sorted().forEach(value -> key.append('&').append(name).append('=').append(value)));
+        return key.toString();
+    }
+
+    private static final class PendingResponse
+    {
+        private final String key;
+        private final String groupId;
+        private final String artifactId;
+        private final String versionId;
+        private final String versionEtag;
+        private final MediaType mediaType;
+        private final String etag;
+
+        private PendingResponse(String key, String groupId, String artifactId, String versionId, String versionEtag, MediaType mediaType, String etag)
+        {
+            this.key = key;
+            this.groupId = groupId;
+            this.artifactId = artifactId;
+            this.versionId = versionId;
+            this.versionEtag = versionEtag;
+            this.mediaType = mediaType;
+            this.etag = etag;
+        }
+    }
+
+    private static final class CapturingOutputStream extends FilterOutputStream
+    {
+        private final ByteArrayOutputStream captured = new ByteArrayOutputStream();
+        private final long limit;
+        private boolean overflowed;
+
+        private CapturingOutputStream(OutputStream output, long limit)
+        {
+            super(output);
+            this.limit = limit;
+        }
+
+        @Override
+        public void write(int b) throws IOException
+        {
+            out.write(b);
+            if (capture(1))
+            {
+                captured.write(b);
+            }
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException
+        {
+            out.write(b, off, len);
+            if (capture(len))
+            {
+                captured.write(b, off, len);
+            }
+        }
+
+        private boolean capture(int length)
+        {
+            if (!overflowed && captured.size() + (long) length > limit)
+            {
+                overflowed = true;
+                captured.reset();
+            }
+            return !overflowed;
+        }
+
+        private boolean isOverflowed()
+        {
+            return overflowed;
+        }
+
+        private byte[] getCaptured()
+        {
+            return captured.toByteArray();
+        }
+    }
+}
@@ -16,9 +16,50 @@
 package org.finos.legend.depot.server.configuration;
 
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
 import org.finos.legend.depot.core.http.ServersConfiguration;
+import org.finos.legend.depot.server.pure.model.context.configuration.PureModelContextCacheConfiguration;
+import org.finos.legend.depot.services.configuration.DependenciesCacheConfiguration;
 
 @JsonIgnoreProperties(ignoreUnknown = true)
 public class DepotServerConfiguration extends ServersConfiguration
 {
+    @JsonProperty("responseCache")
+    private ResponseCacheConfiguration responseCacheConfiguration = new ResponseCacheConfiguration();
+
+    @JsonProperty("pureModelContextCache")
+    private PureModelContextCacheConfiguration pureModelContextCacheConfiguration = new PureModelContextCacheConfiguration();
+
+    @JsonProperty("dependenciesCache")
+    private DependenciesCacheConfiguration dependenciesCacheConfiguration = new DependenciesCacheConfiguration();
+
+    public ResponseCacheConfiguration getResponseCacheConfiguration()
+    {
+        return responseCacheConfiguration;
+    }
+
+    public void setResponseCacheConfiguration(ResponseCacheConfiguration responseCacheConfiguration)
+    {
+        this.responseCacheConfiguration = responseCacheConfiguration;
+    }
+
+    public PureModelContextCacheConfiguration getPureModelContextCacheConfiguration()
+    {
+        return pureModelContextCacheConfiguration;
+    }
+
+    public void setPureModelContextCacheConfiguration(PureModelContextCacheConfiguration pureModelContextCacheConfiguration)
+    {
+        this.pureModelContextCacheConfiguration = pureModelContextCacheConfiguration;
+    }
+
+    public DependenciesCacheConfiguration getDependenciesCacheConfiguration()
+    {
+        return dependenciesCacheConfiguration;
+    }
+
+    public void setDependenciesCacheConfiguration(DependenciesCacheConfiguration dependenciesCacheConfiguration)
+    {
+        this.dependenciesCacheConfiguration = dependenciesCacheConfiguration;
+    }
 }
@@ -0,0 +1,64 @@
+//  Copyright 2021 Goldman Sachs
+//
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//       http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+//
+
+package org.finos.legend.depot.server.configuration;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * The response cache is opt-in: refreshes run in the store server and do not invalidate it, so cached snapshot
+ * responses can be up to {@code snapshotExpiryInMillis} stale.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class ResponseCacheConfiguration
+{
+    public static final long DEFAULT_MAXIMUM_SIZE_IN_BYTES = 64L * 1024 * 1024;
+    public static final long DEFAULT_SNAPSHOT_EXPIRY_IN_MILLIS = 60 * 1000L;
+
+    @JsonProperty
+    boolean enabled = false;
+
+    @JsonProperty
+    long maximumSizeInBytes = DEFAULT_MAXIMUM_SIZE_IN_BYTES;
+
+    @JsonProperty
+    long snapshotExpiryInMillis = DEFAULT_SNAPSHOT_EXPIRY_IN_MILLIS;
+
+    public ResponseCacheConfiguration()
+    {
+    }
+
+    public ResponseCacheConfiguration(long maximumSizeInBytes, long snapshotExpiryInMillis)
+    {
+        this.maximumSizeInBytes = maximumSizeInBytes;
+        this.snapshotExpiryInMillis = snapshotExpiryInMillis;
+    }
+
+    public boolean isEnabled()
+    {
+        return enabled;
+    }
+
+    public long getMaximumSizeInBytes()
+    {
+        return maximumSizeInBytes;
+    }
+
+    public long getSnapshotExpiryInMillis()
+    {
+        return snapshotExpiryInMillis;
+    }
+}
@@ -15,9 +15,29 @@
 
 package org.finos.legend.depot.server.guice;
 
+import com.google.inject.Binder;
 import org.finos.legend.depot.core.http.guice.BaseModule;
 import org.finos.legend.depot.server.configuration.DepotServerConfiguration;
+import org.finos.legend.depot.server.pure.model.context.configuration.PureModelContextCacheConfiguration;
+import org.finos.legend.depot.services.configuration.DependenciesCacheConfiguration;
 
 public class DepotServerModule extends BaseModule<DepotServerConfiguration>
 {
+    @Override
+    public void configure(Binder binder)
+    {
+        super.configure(binder);
+        binder.bind(PureModelContextCacheConfiguration.class).toProvider(this::getPureModelContextCacheConfiguration);
+        binder.bind(DependenciesCacheConfiguration.class).toProvider(this::getDependenciesCacheConfiguration);
+    }
+
+    private PureModelContextCacheConfiguration getPureModelContextCacheConfiguration()
+    {
+        return getConfiguration().getPureModelContextCacheConfiguration() != null ? getConfiguration().getPureModelContextCacheConfiguration() : new PureModelContextCacheConfiguration();
+    }
+
+    private DependenciesCacheConfiguration getDependenciesCacheConfiguration()
+    {
+        return getConfiguration().getDependenciesCacheConfiguration() != null ? getConfiguration().getDependenciesCacheConfiguration() : new DependenciesCacheConfiguration();
+    }
 }
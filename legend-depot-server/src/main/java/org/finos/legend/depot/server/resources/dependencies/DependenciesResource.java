@@ -22,6 +22,7 @@ import org.finos.legend.depot.domain.entity.ProjectVersionEntities;
 import org.finos.legend.depot.domain.project.dependencies.ProjectDependencyReport;
 import org.finos.legend.depot.domain.project.ProjectVersion;
 import org.finos.legend.depot.domain.project.ProjectVersionPlatformDependency;
+import org.finos.legend.depot.server.cache.CacheableResponse;
 import org.finos.legend.depot.services.api.entities.EntitiesService;
 import org.finos.legend.depot.services.api.projects.ProjectsService;
 import org.finos.legend.depot.store.metrics.QueryMetricsContainer;
@@ -37,6 +38,7 @@ import javax.ws.rs.PathParam;
 import javax.ws.rs.Produces;
 import javax.ws.rs.QueryParam;
 import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.StreamingOutput;
 import java.util.List;
 import java.util.Set;
 
@@ -62,6 +64,7 @@ public class DependenciesResource extends BaseResource
     }
 
     @GET
+    @CacheableResponse(recordsQueryMetrics = false)
     @Path("/projects/{groupId}/{artifactId}/version/{versionId}/projectDependencies")
     @ApiOperation(GET_PROJECT_DEPENDENCIES)
     @Produces(MediaType.APPLICATION_JSON)
@@ -75,6 +78,7 @@ public class DependenciesResource extends BaseResource
     }
 
     @GET
+    @CacheableResponse(recordsQueryMetrics = false)
     @Path("/projects/{groupId}/{artifactId}/versions/{versionId}/projectDependencies")
     @ApiOperation(GET_PROJECT_DEPENDENCIES)
     @Produces(MediaType.APPLICATION_JSON)
@@ -101,13 +105,15 @@ public class DependenciesResource extends BaseResource
     @Produces(MediaType.APPLICATION_JSON)
     public List<ProjectVersionPlatformDependency> getProjectDependencies(@PathParam("groupId") String groupId,
                                                                          @PathParam("artifactId") String artifactId,
-                                                                         @PathParam("versionId") String versionId
+                                                                         @PathParam("versionId") String versionId,
+                                                                         @QueryParam("transitive") @ApiParam("Whether to return transitive dependants") Boolean transitive
     )
     {
-        return handle(GET_DEPENDANT_PROJECTS, GET_DEPENDANT_PROJECTS + groupId + artifactId, () -> this.projectApi.getDependentProjects(groupId, artifactId, versionId));
+        return handle(GET_DEPENDANT_PROJECTS, GET_DEPENDANT_PROJECTS + groupId + artifactId, () -> this.projectApi.getDependentProjects(groupId, artifactId, versionId, Boolean.TRUE.equals(transitive)));
     }
 
     @GET
+    @CacheableResponse
     @Path("/projects/{groupId}/{artifactId}/versions/{versionId}/dependencies")
     @ApiOperation(GET_VERSION_DEPENDENCY_ENTITIES)
     @Consumes(MediaType.APPLICATION_JSON)
@@ -127,6 +133,25 @@ public class DependenciesResource extends BaseResource
     }
 
     @GET
+    @Path("/projects/{groupId}/{artifactId}/versions/{versionId}/dependencies/stream")
+    @ApiOperation(GET_VERSION_DEPENDENCY_ENTITIES)
+    @Produces(DependenciesStreamingOutput.APPLICATION_NDJSON)
+    public StreamingOutput streamEntitiesFromDependencies(@PathParam("groupId") String groupId,
+                                                          @PathParam("artifactId") String artifactId,
+                                                          @PathParam("versionId") String versionId,
+                                                          @QueryParam("versioned") @DefaultValue("false")
+                                                          @ApiParam("Whether to return ENTITIES with version in entity path") boolean versioned,
+                                                          @QueryParam("transitive") @DefaultValue("false")
+                                                          @ApiParam("Whether to return transitive dependencies") boolean transitive,
+                                                          @QueryParam("includeOrigin") @DefaultValue("false")
+                                                          @ApiParam("Whether to return start of dependency tree") boolean includeOrigin)
+    {
+        QueryMetricsContainer.record(groupId, artifactId, versionId);
+        return handleStreaming(GET_VERSION_DEPENDENCY_ENTITIES, GET_VERSION_DEPENDENCY_ENTITIES, () -> new DependenciesStreamingOutput(() -> this.entitiesService.streamDependenciesEntities(groupId, artifactId, versionId, versioned, transitive, includeOrigin)));
+    }
+
+    @GET
+    @CacheableResponse
     @Path("/projects/{groupId}/{artifactId}/revisions/latest/dependants")
     @ApiOperation(GET_REVISION_DEPENDENCY_ENTITIES)
     @Produces(MediaType.APPLICATION_JSON)
@@ -160,4 +185,21 @@ public class DependenciesResource extends BaseResource
             QueryMetricsContainer.record(dep.getGroupId(), dep.getArtifactId(), dep.getVersionId()));
         return handle(GET_VERSION_DEPENDENCY_ENTITIES, () -> this.entitiesService.getDependenciesEntities(projectDependencies, versioned, transitive, includeOrigin));
     }
+
+    @POST
+    @Path("/projects/dependencies/stream")
+    @ApiOperation(GET_VERSION_DEPENDENCY_ENTITIES)
+    @Produces(DependenciesStreamingOutput.APPLICATION_NDJSON)
+    public StreamingOutput streamAllEntitiesFromDependencies(@ApiParam("projectDependencies") List<ProjectVersion> projectDependencies,
+                                                             @QueryParam("versioned") @DefaultValue("false")
+                                                             @ApiParam("Whether to return ENTITIES with version in entity path") boolean versioned,
+                                                             @QueryParam("transitive") @DefaultValue("false")
+                                                             @ApiParam("Whether to return transitive dependencies") boolean transitive,
+                                                             @QueryParam("includeOrigin") @DefaultValue("false")
+                                                             @ApiParam("Whether to return start of dependency tree") boolean includeOrigin)
+    {
+        projectDependencies.forEach(dep ->
+            QueryMetricsContainer.record(dep.getGroupId(), dep.getArtifactId(), dep.getVersionId()));
+        return handleStreaming(GET_VERSION_DEPENDENCY_ENTITIES, GET_VERSION_DEPENDENCY_ENTITIES, () -> new DependenciesStreamingOutput(() -> this.entitiesService.streamDependenciesEntities(projectDependencies, versioned, transitive, includeOrigin)));
+    }
 }
@@ -0,0 +1,76 @@
+//  Copyright 2021 Goldman Sachs
+//
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//       http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+//
+
+package org.finos.legend.depot.server.resources.dependencies;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.finos.legend.depot.domain.entity.ProjectVersionEntities;
+
+import javax.ws.rs.core.StreamingOutput;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * Writes the entities of each dependency as its own line of json (NDJSON), as soon as they are read from the store.
+ * The dependencies are only resolved, and the store read, while the response is written.
+ */
+public class DependenciesStreamingOutput implements StreamingOutput
+{
+    public static final String APPLICATION_NDJSON = "application/x-ndjson";
+    private static final ObjectWriter WRITER = new ObjectMapper().configure(JsonGenerator.Feature.AUTO_CLOSE_TARGET, false).writerFor(ProjectVersionEntities.class);
+    private static final byte[] LINE_SEPARATOR = "\n".getBytes(StandardCharsets.UTF_8);
+    private final Supplier<Stream<ProjectVersionEntities>> dependencies;
+
+    /**
+     * @param dependencies opens the stream of dependencies, only called, and the stream always closed, by {@link #write(OutputStream)}
+     */
+    public DependenciesStreamingOutput(Supplier<Stream<ProjectVersionEntities>> dependencies)
+    {
+        this.dependencies = dependencies;
+    }
+
+    @Override
+    public void write(OutputStream output) throws IOException
+    {
+        try (Stream<ProjectVersionEntities> toWrite = this.dependencies.get())
+        {
+            toWrite.forEach(projectVersionEntities -> writeLine(output, projectVersionEntities));
+            output.flush();
+        }
+        catch (UncheckedIOException e)
+        {
+            throw e.getCause();
+        }
+    }
+
+    private void writeLine(OutputStream output, ProjectVersionEntities projectVersionEntities)
+    {
+        try
+        {
+            WRITER.writeValue(output, projectVersionEntities);
+            output.write(LINE_SEPARATOR);
+        }
+        catch (IOException e)
+        {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
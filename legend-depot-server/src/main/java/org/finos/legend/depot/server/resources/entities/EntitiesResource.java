@@ -18,6 +18,8 @@ package org.finos.legend.depot.server.resources.entities;
 import io.swagger.annotations.Api;
 import io.swagger.annotations.ApiOperation;
 import io.swagger.annotations.ApiParam;
+import org.finos.legend.depot.domain.entity.EntitiesSnapshot;
+import org.finos.legend.depot.server.cache.CacheableResponse;
 import org.finos.legend.depot.services.api.entities.EntitiesService;
 import org.finos.legend.depot.store.metrics.QueryMetricsContainer;
 import org.finos.legend.depot.tracing.resources.BaseResource;
@@ -26,12 +28,15 @@ import org.finos.legend.sdlc.domain.model.entity.Entity;
 import javax.inject.Inject;
 import javax.ws.rs.DefaultValue;
 import javax.ws.rs.GET;
+import javax.ws.rs.HeaderParam;
 import javax.ws.rs.Path;
 import javax.ws.rs.PathParam;
 import javax.ws.rs.Produces;
 import javax.ws.rs.QueryParam;
+import javax.ws.rs.core.HttpHeaders;
 import javax.ws.rs.core.MediaType;
-import java.util.List;
+import javax.ws.rs.core.Response;
+import javax.ws.rs.core.StreamingOutput;
 import java.util.Optional;
 import java.util.Set;
 
@@ -56,22 +61,33 @@ public class EntitiesResource extends BaseResource
     }
 
     @GET
+    @CacheableResponse
     @Path("/projects/{groupId}/{artifactId}/versions/{versionId}")
-    @ApiOperation(GET_VERSION_ENTITIES)
+    @ApiOperation(value = GET_VERSION_ENTITIES, response = Entity.class, responseContainer = "List")
     @Produces(MediaType.APPLICATION_JSON)
-    public List<Entity> getEntities(@PathParam("groupId") String groupId,
-                                    @PathParam("artifactId") String artifactId,
-                                    @PathParam("versionId") String versionId,
-                                    @QueryParam("versioned")
-                                    @DefaultValue("false")
-                                    @ApiParam("Whether to return ENTITIES with version in entity path") boolean versioned)
+    public Response getEntities(@PathParam("groupId") String groupId,
+                                @PathParam("artifactId") String artifactId,
+                                @PathParam("versionId") String versionId,
+                                @QueryParam("versioned")
+                                @DefaultValue("false")
+                                @ApiParam("Whether to return ENTITIES with version in entity path") boolean versioned,
+                                @HeaderParam(HttpHeaders.IF_NONE_MATCH) String ifNoneMatch)
     {
         QueryMetricsContainer.record(groupId, artifactId, versionId);
-        return handle(GET_VERSION_ENTITIES, () -> this.entitiesService.getEntities(groupId, artifactId, versionId, versioned));
+        return handleStreamingResponse(GET_VERSION_ENTITIES, GET_VERSION_ENTITIES, () -> conditional(ifNoneMatch, this.entitiesService.getVersionEtag(groupId, artifactId, versionId, versioned), () ->
+        {
+            Optional<EntitiesSnapshot> snapshot = this.entitiesService.getEntitiesSnapshot(groupId, artifactId, versionId, versioned);
+            if (snapshot.isPresent())
+            {
+                return Response.ok((StreamingOutput) snapshot.get()::writeJsonTo);
+            }
+            return Response.ok(new EntitiesStreamingOutput(this.entitiesService.streamEntitiesAsJson(groupId, artifactId, versionId, versioned)));
+        }));
     }
 
 
     @GET
+    @CacheableResponse
     @Path("/projects/{groupId}/{artifactId}/versions/{versionId}/entities/{path}")
     @ApiOperation(GET_VERSION_ENTITY)
     @Produces(MediaType.APPLICATION_JSON)
@@ -85,43 +101,48 @@ public class EntitiesResource extends BaseResource
     }
 
     @GET
+    @CacheableResponse
     @Path("/projects/{groupId}/{artifactId}/versions/{versionId}/entities")
-    @ApiOperation(GET_VERSION_ENTITIES_BY_PACKAGE)
+    @ApiOperation(value = GET_VERSION_ENTITIES_BY_PACKAGE, response = Entity.class, responseContainer = "List")
     @Produces(MediaType.APPLICATION_JSON)
-    public List<Entity> getEntities(@PathParam("groupId") String groupId,
-                                    @PathParam("artifactId") String artifactId,
-                                    @PathParam("versionId") String versionId,
-                                    @QueryParam("package") String packageName,
-                                    @QueryParam("versioned")
-                                    @DefaultValue("false")
-                                    @ApiParam("Whether to return ENTITIES with version in entity path") boolean versioned,
-                                    @QueryParam("classifierPath") @ApiParam("Only include ENTITIES with one of these classifier paths.") Set<String> classifierPaths,
-                                    @QueryParam("includeSubPackages")
-                                    @DefaultValue("true")
-                                    @ApiParam("Whether to include ENTITIES from subpackages or only directly in one of the given packages") boolean includeSubPackages
+    public StreamingOutput getEntities(@PathParam("groupId") String groupId,
+                                      @PathParam("artifactId") String artifactId,
+                                      @PathParam("versionId") String versionId,
+                                      @QueryParam("package") String packageName,
+                                      @QueryParam("versioned")
+                                      @DefaultValue("false")
+                                      @ApiParam("Whether to return ENTITIES with version in entity path") boolean versioned,
+                                      @QueryParam("classifierPath") @ApiParam("Only include ENTITIES with one of these classifier paths.") Set<String> classifierPaths,
+                                      @QueryParam("includeSubPackages")
+                                      @DefaultValue("true")
+                                      @ApiParam("Whether to include ENTITIES from subpackages or only directly in one of the given packages") boolean includeSubPackages
     )
     {
         QueryMetricsContainer.record(groupId, artifactId, versionId);
-        return handle(GET_VERSION_ENTITIES_BY_PACKAGE, GET_VERSION_ENTITIES_BY_PACKAGE + packageName, () -> entitiesService.getEntitiesByPackage(groupId, artifactId, versionId, packageName, versioned, classifierPaths, includeSubPackages));
+        return handleStreaming(GET_VERSION_ENTITIES_BY_PACKAGE, GET_VERSION_ENTITIES_BY_PACKAGE + packageName, () -> new EntitiesStreamingOutput(entitiesService.streamEntitiesByPackageAsJson(groupId, artifactId, versionId, packageName, versioned, classifierPaths, includeSubPackages)));
     }
 
 
     @GET
+    @CacheableResponse
     @Path("/projects/{groupId}/{artifactId}/revisions/latest")
-    @ApiOperation(GET_REVISION_ENTITIES)
+    @ApiOperation(value = GET_REVISION_ENTITIES, response = Entity.class, responseContainer = "List")
     @Produces(MediaType.APPLICATION_JSON)
-    public List<Entity> getLatestEntities(@PathParam("groupId") String groupId,
-                                          @PathParam("artifactId") String artifactId,
-                                          @QueryParam("versioned")
-                                          @DefaultValue("false")
-                                          @ApiParam("Whether to return ENTITIES with version in entity path") boolean versioned)
+    public Response getLatestEntities(@PathParam("groupId") String groupId,
+                                      @PathParam("artifactId") String artifactId,
+                                      @QueryParam("versioned")
+                                      @DefaultValue("false")
+                                      @ApiParam("Whether to return ENTITIES with version in entity path") boolean versioned,
+                                      @HeaderParam(HttpHeaders.IF_NONE_MATCH) String ifNoneMatch)
     {
         QueryMetricsContainer.record(groupId, artifactId, MASTER_SNAPSHOT);
-        return handle(GET_REVISION_ENTITIES, () -> this.entitiesService.getLatestEntities(groupId, artifactId, versioned));
+        return handleStreamingResponse(GET_REVISION_ENTITIES, GET_REVISION_ENTITIES, () -> conditional(ifNoneMatch, this.entitiesService.getVersionEtag(groupId, artifactId, MASTER_SNAPSHOT, versioned),
+                () -> Response.ok(new EntitiesStreamingOutput(this.entitiesService.streamLatestEntitiesAsJson(groupId, artifactId, versioned)))));
     }
 
 
     @GET
+    @CacheableResponse
     @Path("/projects/{groupId}/{artifactId}/latest/entities/{path}")
     @ApiOperation(GET_REVISION_ENTITY)
     @Produces(MediaType.APPLICATION_JSON)
@@ -134,21 +155,22 @@ public class EntitiesResource extends BaseResource
     }
 
     @GET
+    @CacheableResponse
     @Path("/projects/{groupId}/{artifactId}/latest/entities")
-    @ApiOperation(GET_REVISION_ENTITIES_BY_PACKAGE)
+    @ApiOperation(value = GET_REVISION_ENTITIES_BY_PACKAGE, response = Entity.class, responseContainer = "List")
     @Produces(MediaType.APPLICATION_JSON)
-    public List<Entity> getLatestEntities(@PathParam("groupId") String groupId,
-                                          @PathParam("artifactId") String artifactId,
-                                          @QueryParam("package") String packageName,
-                                          @QueryParam("versioned")
-                                          @DefaultValue("false")
-                                          @ApiParam("Whether to return ENTITIES with version in entity path") boolean versioned,
-                                          @QueryParam("classifierPath") @ApiParam("Only include ENTITIES with one of these classifier paths.") Set<String> classifierPaths,
-                                          @QueryParam("includeSubPackages")
-                                          @DefaultValue("true")
-                                          @ApiParam("Whether to include ENTITIES from subpackages or only directly in one of the given packages") boolean includeSubPackages)
+    public StreamingOutput getLatestEntities(@PathParam("groupId") String groupId,
+                                           @PathParam("artifactId") String artifactId,
+                                           @QueryParam("package") String packageName,
+                                           @QueryParam("versioned")
+                                           @DefaultValue("false")
+                                           @ApiParam("Whether to return ENTITIES with version in entity path") boolean versioned,
+                                           @QueryParam("classifierPath") @ApiParam("Only include ENTITIES with one of these classifier paths.") Set<String> classifierPaths,
+                                           @QueryParam("includeSubPackages")
+                                           @DefaultValue("true")
+                                           @ApiParam("Whether to include ENTITIES from subpackages or only directly in one of the given packages") boolean includeSubPackages)
     {
         QueryMetricsContainer.record(groupId, artifactId, MASTER_SNAPSHOT);
-        return handle(GET_REVISION_ENTITIES_BY_PACKAGE, GET_REVISION_ENTITIES_BY_PACKAGE + packageName, () -> this.entitiesService.getLatestEntitiesByPackage(groupId, artifactId, packageName, versioned, classifierPaths, includeSubPackages));
+        return handleStreaming(GET_REVISION_ENTITIES_BY_PACKAGE, GET_REVISION_ENTITIES_BY_PACKAGE + packageName, () -> new EntitiesStreamingOutput(this.entitiesService.streamLatestEntitiesByPackageAsJson(groupId, artifactId, packageName, versioned, classifierPaths, includeSubPackages)));
     }
 }
@@ -0,0 +1,68 @@
+//  Copyright 2021 Goldman Sachs
+//
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//       http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+//
+
+package org.finos.legend.depot.server.resources.entities;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import javax.ws.rs.core.StreamingOutput;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.stream.Stream;
+
+public class EntitiesStreamingOutput implements StreamingOutput
+{
+    //a failure part way must not close the array, or a truncated listing would look complete
+    private static final JsonFactory JSON_FACTORY = new JsonFactory().configure(JsonGenerator.Feature.AUTO_CLOSE_TARGET, false).configure(JsonGenerator.Feature.AUTO_CLOSE_JSON_CONTENT, false);
+    private final Stream<String> entities;
+
+    /**
+     * @param entities lazily opened stream of entity json, only consumed, and always closed, by {@link #write(OutputStream)}
+     */
+    public EntitiesStreamingOutput(Stream<String> entities)
+    {
+        this.entities = entities;
+    }
+
+    @Override
+    public void write(OutputStream output) throws IOException
+    {
+        try (Stream<String> toWrite = this.entities;
+             JsonGenerator generator = JSON_FACTORY.createGenerator(output))
+        {
+            generator.writeStartArray();
+            toWrite.forEach(entityJson -> writeEntity(generator, entityJson));
+            generator.writeEndArray();
+        }
+        catch (UncheckedIOException e)
+        {
+            throw e.getCause();
+        }
+    }
+
+    private void writeEntity(JsonGenerator generator, String entityJson)
+    {
+        try
+        {
+            generator.writeRawValue(entityJson);
+        }
+        catch (IOException e)
+        {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -19,6 +19,7 @@ import io.swagger.annotations.Api;
 import io.swagger.annotations.ApiOperation;
 import org.finos.legend.depot.domain.generation.file.FileGeneration;
 import org.finos.legend.depot.domain.version.VersionValidator;
+import org.finos.legend.depot.server.cache.CacheableResponse;
 import org.finos.legend.depot.services.api.generation.file.FileGenerationsService;
 import org.finos.legend.depot.store.metrics.QueryMetricsContainer;
 import org.finos.legend.depot.tracing.resources.BaseResource;
@@ -56,6 +57,7 @@ public class FileGenerationsResource extends BaseResource
     }
 
     @GET
+    @CacheableResponse
     @Path("/projects/{groupId}/{artifactId}/latest/generations")
     @ApiOperation(GET_REVISION_FILE_GENERATION_ENTITIES)
     @Produces(MediaType.APPLICATION_JSON)
@@ -67,6 +69,7 @@ public class FileGenerationsResource extends BaseResource
     }
 
     @GET
+    @CacheableResponse
     @Path("/projects/{groupId}/{artifactId}/{versionId}/generations")
     @ApiOperation(GET_VERSION_FILE_GENERATION_ENTITIES)
     @Produces(MediaType.APPLICATION_JSON)
@@ -79,6 +82,7 @@ public class FileGenerationsResource extends BaseResource
     }
 
     @GET
+    @CacheableResponse
     @Path("/generations/{groupId}/{artifactId}/latest")
     @ApiOperation(GET_REVISION_FILE_GENERATION)
     @Produces(MediaType.APPLICATION_JSON)
@@ -90,6 +94,7 @@ public class FileGenerationsResource extends BaseResource
     }
 
     @GET
+    @CacheableResponse
     @Path("/generations/{groupId}/{artifactId}/latest/{elementPath}")
     @ApiOperation(GET_REVISION_FILE_GENERATION_BY_ELEMENT_PATH)
     @Produces(MediaType.APPLICATION_JSON)
@@ -102,6 +107,7 @@ public class FileGenerationsResource extends BaseResource
     }
 
     @GET
+    @CacheableResponse
     @Path("/generations/{groupId}/{artifactId}/latest/file/{filePath}")
     @ApiOperation(GET_REVISION_FILE_GENERATION_BY_FILEPATH)
     @Produces(MediaType.APPLICATION_JSON)
@@ -114,6 +120,7 @@ public class FileGenerationsResource extends BaseResource
     }
 
     @GET
+    @CacheableResponse
     @Path("/generations/{groupId}/{artifactId}/versions/{versionId}")
     @ApiOperation(GET_VERSION_FILE_GENERATION)
     @Produces(MediaType.APPLICATION_JSON)
@@ -126,6 +133,7 @@ public class FileGenerationsResource extends BaseResource
     }
 
     @GET
+    @CacheableResponse
     @Path("/generations/{groupId}/{artifactId}/versions/{versionId}/{elementPath}")
     @ApiOperation(GET_VERSION_FILE_GENERATION_BY_ELEMENT_PATH)
     @Produces(MediaType.APPLICATION_JSON)
@@ -138,6 +146,7 @@ public class FileGenerationsResource extends BaseResource
     }
 
     @GET
+    @CacheableResponse
     @Path("/generations/{groupId}/{artifactId}/versions/{versionId}/file/{filePath}")
     @ApiOperation(GET_VERSION_FILE_GENERATION_BY_FILEPATH)
     @Produces(MediaType.APPLICATION_JSON)
@@ -150,6 +159,7 @@ public class FileGenerationsResource extends BaseResource
     }
 
     @GET
+    @CacheableResponse
     @Path("/generationFileContent/{groupId}/{artifactId}/versions/{versionId}/file/{filePath}")
     @ApiOperation(GET_VERSION_FILE_GENERATION_BY_FILEPATH)
     @Produces(MediaType.TEXT_PLAIN)
@@ -162,6 +172,7 @@ public class FileGenerationsResource extends BaseResource
     }
 
     @GET
+    @CacheableResponse
     @Path("/generationFileContent/{groupId}/{artifactId}/latest/file/{filePath}")
     @ApiOperation(GET_REVISION_FILE_GENERATION_BY_FILEPATH)
     @Produces(MediaType.TEXT_PLAIN)
@@ -15,9 +15,13 @@
 
 package org.finos.legend.depot.server;
 
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.squarespace.jersey2.guice.JerseyGuiceUtils;
+import org.finos.legend.depot.domain.entity.EntityDefinition;
 import org.finos.legend.depot.domain.project.ProjectData;
 import org.finos.legend.depot.server.resources.entities.EntitiesResource;
+import org.finos.legend.depot.server.resources.entities.EntitiesStreamingOutput;
 import org.finos.legend.depot.services.TestBaseServices;
 import org.finos.legend.depot.services.entities.EntitiesServiceImpl;
 import org.finos.legend.depot.services.projects.ProjectsServiceImpl;
@@ -30,10 +34,16 @@ import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
 
+import javax.ws.rs.core.Response;
+import javax.ws.rs.core.StreamingOutput;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
 import java.util.Date;
 import java.util.List;
 import java.util.Optional;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
 
 import static org.finos.legend.depot.domain.version.VersionValidator.MASTER_SNAPSHOT;
 import static org.mockito.Mockito.mock;
@@ -72,7 +82,7 @@ public class TestQueryEntitiesResource extends TestBaseServices
     @Test
     public void canGetEntitiesForProjectAndVersion()
     {
-        List<Entity> entityList = entitiesResource.getEntities("examples.metadata", "test", "2.3.0", false);
+        List<EntityDefinition> entityList = readEntities(entitiesResource.getEntities("examples.metadata", "test", "2.3.0", false, null));
         Assert.assertNotNull(entityList);
         Assert.assertEquals(7, entityList.size());
     }
@@ -89,7 +99,7 @@ public class TestQueryEntitiesResource extends TestBaseServices
     @Test
     public void canGetEntitiesByPackageForProjectAndVersion()
     {
-        List<Entity> entityList = entitiesResource.getEntities("examples.metadata", "test", "2.3.0", "examples::metadata::test", false, null, true);
+        List<EntityDefinition> entityList = readEntities(entitiesResource.getEntities("examples.metadata", "test", "2.3.0", "examples::metadata::test", false, null, true));
         Assert.assertNotNull(entityList);
         Assert.assertEquals(4, entityList.size());
 
@@ -102,14 +112,14 @@ public class TestQueryEntitiesResource extends TestBaseServices
         Assert.assertTrue(queryMetrics.getAllStoredEntities().isEmpty());
         Assert.assertEquals(0, QueryMetricsContainer.getMetrics("examples.metadata", "test", "2.3.0").size());
 
-        entitiesResource.getEntities("examples.metadata", "test", "2.3.0", "examples::metadata::test", false, null, true);
+        readEntities(entitiesResource.getEntities("examples.metadata", "test", "2.3.0", "examples::metadata::test", false, null, true));
 
         Assert.assertEquals(1, QueryMetricsContainer.getMetrics("examples.metadata", "test", "2.3.0").size());
         Date lastQueryTime = QueryMetricsContainer.getMetrics("examples.metadata", "test", "2.3.0").get(0).getLastQueryTime();
         Assert.assertNotNull(lastQueryTime);
         TimeUnit.SECONDS.sleep(30);
 
-        entitiesResource.getEntities("example.services.test", "test", "1.0.1", false);
+        readEntities(entitiesResource.getEntities("example.services.test", "test", "1.0.1", false, null));
 
         QueryMetricsContainer.getMetrics("examples.metadata", "test", "2.3.0").get(0).getLastQueryTime();
 
@@ -138,9 +148,87 @@ public class TestQueryEntitiesResource extends TestBaseServices
     @Test
     public void canGetEntitiesByPackage()
     {
-        List<Entity> entityList = entitiesResource.getEntities("examples.metadata", "test", "2.3.0", "examples::metadata::test", false, null, true);
+        List<EntityDefinition> entityList = readEntities(entitiesResource.getEntities("examples.metadata", "test", "2.3.0", "examples::metadata::test", false, null, true));
         Assert.assertNotNull(entityList);
         Assert.assertEquals(4, entityList.size());
 
     }
+
+    @Test
+    public void canStreamLatestEntities()
+    {
+        List<EntityDefinition> entityList = readEntities(entitiesResource.getLatestEntities("examples.metadata", "test", false, null));
+        Assert.assertEquals(entitiesStore.getLatestEntities("examples.metadata", "test", false).size(), entityList.size());
+        Assert.assertTrue(entityList.stream().anyMatch(entity -> "examples::metadata::test::TestProfile".equals(entity.getPath())));
+    }
+
+    @Test
+    public void releasedVersionsAreServedFromSnapshotWithEtag()
+    {
+        Response fromStore = entitiesResource.getEntities("examples.metadata", "test", "2.3.0", false, null);
+        Assert.assertNull(fromStore.getEntityTag());
+        List<EntityDefinition> storedEntities = readEntities(fromStore);
+
+        Assert.assertFalse(entitiesStore.createSnapshot("examples.metadata", "test", "2.3.0", false).hasErrors());
+        Response fromSnapshot = entitiesResource.getEntities("examples.metadata", "test", "2.3.0", false, null);
+        Assert.assertNotNull(fromSnapshot.getEntityTag());
+        Assert.assertEquals(entitiesStore.getSnapshot("examples.metadata", "test", "2.3.0", false).get().getEtag(), fromSnapshot.getEntityTag().getValue());
+        List<EntityDefinition> snapshotEntities = readEntities(fromSnapshot);
+        Assert.assertEquals(storedEntities.size(), snapshotEntities.size());
+        Assert.assertTrue(snapshotEntities.containsAll(storedEntities));
+    }
+
+    @Test
+    public void unchangedVersionsAreNotModified()
+    {
+        Assert.assertFalse(entitiesStore.createSnapshot("examples.metadata", "test", "2.3.0", false).hasErrors());
+        String etag = entitiesResource.getEntities("examples.metadata", "test", "2.3.0", false, null).getEntityTag().getValue();
+
+        Response notModified = entitiesResource.getEntities("examples.metadata", "test", "2.3.0", false, "\"" + etag + "\"");
+        Assert.assertEquals(Response.Status.NOT_MODIFIED.getStatusCode(), notModified.getStatus());
+        Assert.assertNull(notModified.getEntity());
+        Assert.assertEquals(etag, notModified.getEntityTag().getValue());
+
+        Response modified = entitiesResource.getEntities("examples.metadata", "test", "2.3.0", false, "\"stale\"");
+        Assert.assertEquals(Response.Status.OK.getStatusCode(), modified.getStatus());
+        Assert.assertFalse(readEntities(modified).isEmpty());
+    }
+
+    @Test
+    public void failedWritesLeaveTheListingOpenAndCloseTheCursor()
+    {
+        AtomicBoolean closed = new AtomicBoolean(false);
+        Stream<String> failing = Stream.of("{\"path\":\"a\"}", "{\"path\":\"b\"}").map(json ->
+        {
+            if (json.contains("b"))
+            {
+                throw new IllegalStateException("cursor lost");
+            }
+            return json;
+        }).onClose(() -> closed.set(true));
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        Assert.assertThrows(IllegalStateException.class, () -> new EntitiesStreamingOutput(failing).write(bytes));
+        Assert.assertTrue(closed.get());
+        Assert.assertEquals("[{\"path\":\"a\"}", bytes.toString());
+    }
+
+    private List<EntityDefinition> readEntities(Response response)
+    {
+        return readEntities((StreamingOutput) response.getEntity());
+    }
+
+    private List<EntityDefinition> readEntities(StreamingOutput output)
+    {
+        try
+        {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            output.write(bytes);
+            return new ObjectMapper().readValue(bytes.toByteArray(), new TypeReference<List<EntityDefinition>>() {});
+        }
+        catch (IOException e)
+        {
+            throw new RuntimeException(e);
+        }
+    }
 }
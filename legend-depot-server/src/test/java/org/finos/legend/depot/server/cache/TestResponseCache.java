@@ -0,0 +1,225 @@
+//  Copyright 2021 Goldman Sachs
+//
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//       http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+//
+
+
+package org.finos.legend.depot.server.cache;
+
+import com.squarespace.jersey2.guice.JerseyGuiceUtils;
+import org.finos.legend.depot.server.configuration.ResponseCacheConfiguration;
+import org.finos.legend.depot.services.api.entities.EntitiesService;
+import org.finos.legend.depot.store.metrics.QueryMetricsContainer;
+import org.junit.Assert;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+
+import javax.ws.rs.container.ContainerRequestContext;
+import javax.ws.rs.container.ContainerResponseContext;
+import javax.ws.rs.container.ResourceInfo;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.MultivaluedHashMap;
+import javax.ws.rs.core.MultivaluedMap;
+import javax.ws.rs.core.Response;
+import javax.ws.rs.core.UriInfo;
+import javax.ws.rs.ext.WriterInterceptorContext;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.reflect.Method;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.finos.legend.depot.domain.version.VersionValidator.MASTER_SNAPSHOT;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class TestResponseCache
+{
+    private static final String BODY = "[{\"path\":\"examples::metadata::test::TestProfile\"}]";
+
+    static
+    {
+        JerseyGuiceUtils.install((s, serviceLocator) -> null);
+    }
+
+    private final EntitiesService entities = mock(EntitiesService.class);
+
+    private ResponseCache.CachedResponse response(String versionId, int size)
+    {
+        return response(versionId, "tag", size);
+    }
+
+    private ResponseCache.CachedResponse response(String versionId, String versionEtag, int size)
+    {
+        return new ResponseCache.CachedResponse("examples.metadata", "test", versionId, versionEtag, new byte[size], MediaType.APPLICATION_JSON_TYPE, null);
+    }
+
+    private static Optional<ResponseCache.CachedResponse> get(ResponseCache cache, String key)
+    {
+        return cache.get(key, () -> Optional.of("tag"));
+    }
+
+    @Test
+    public void releasedVersionsAreKeptWhileTheirTagIsCurrent() throws InterruptedException
+    {
+        ResponseCache cache = new ResponseCache(new ResponseCacheConfiguration(1000, 1));
+        cache.put("release", response("1.0.0", 10));
+        cache.put("untaggedRelease", response("1.0.0", null, 10));
+        cache.put("snapshot", response(MASTER_SNAPSHOT, 10));
+        Thread.sleep(5);
+        Assert.assertTrue(get(cache, "release").isPresent());
+        Assert.assertFalse(get(cache, "untaggedRelease").isPresent());
+        Assert.assertFalse(get(cache, "snapshot").isPresent());
+        Assert.assertEquals(10, cache.getSizeInBytes());
+    }
+
+    @Test
+    public void releasedVersionsAreDroppedWhenTheirTagChanges()
+    {
+        ResponseCache cache = new ResponseCache(new ResponseCacheConfiguration(1000, 60000));
+        cache.put("updated", response("1.0.0", 10));
+        cache.put("purged", response("2.0.0", 10));
+        Assert.assertFalse(cache.get("updated", () -> Optional.of("newTag")).isPresent());
+        Assert.assertFalse(cache.get("purged", Optional::empty).isPresent());
+        Assert.assertEquals(0, cache.getCount());
+        Assert.assertEquals(0, cache.getSizeInBytes());
+    }
+
+    @Test
+    public void leastRecentlyUsedResponsesAreEvictedBySize()
+    {
+        ResponseCache cache = new ResponseCache(new ResponseCacheConfiguration(1000, 60000));
+        cache.put("first", response("1.0.0", 100));
+        cache.put("second", response("1.0.0", 100));
+        get(cache, "first");
+        for (int i = 0; i < 8; i++)
+        {
+            cache.put("other" + i, response("1.0.0", 100));
+        }
+        cache.put("last", response("1.0.0", 100));
+        Assert.assertTrue(get(cache, "first").isPresent());
+        Assert.assertFalse(get(cache, "second").isPresent());
+        Assert.assertEquals(1000, cache.getSizeInBytes());
+
+        cache.put("tooBig", response("1.0.0", 101));
+        Assert.assertFalse(get(cache, "tooBig").isPresent());
+    }
+
+    @Test
+    public void cacheHitsRecordQueryMetrics() throws NoSuchMethodException
+    {
+        QueryMetricsContainer.flush();
+        ResponseCache cache = new ResponseCache(new ResponseCacheConfiguration(1000, 60000));
+        cache.put(ResponseCacheFilter.keyOf(request(new HashMap<>()).getUriInfo()), response("1.0.0", 10));
+        when(entities.getVersionEtag("examples.metadata", "test", "1.0.0", false)).thenReturn(Optional.of("tag"));
+
+        new ResponseCacheFilter(cache, entities, resourceInfo("recordedEndpoint")).filter(request(new HashMap<>()));
+        Assert.assertEquals(1, QueryMetricsContainer.getMetrics("examples.metadata", "test", "1.0.0").size());
+
+        new ResponseCacheFilter(cache, entities, resourceInfo("unrecordedEndpoint")).filter(request(new HashMap<>()));
+        Assert.assertEquals(1, QueryMetricsContainer.getMetrics("examples.metadata", "test", "1.0.0").size());
+        QueryMetricsContainer.flush();
+    }
+
+    @CacheableResponse
+    private void recordedEndpoint()
+    {
+    }
+
+    @CacheableResponse(recordsQueryMetrics = false)
+    private void unrecordedEndpoint()
+    {
+    }
+
+    private ResourceInfo resourceInfo(String methodName) throws NoSuchMethodException
+    {
+        Method method = TestResponseCache.class.getDeclaredMethod(methodName);
+        ResourceInfo resourceInfo = mock(ResourceInfo.class);
+        when(resourceInfo.getResourceMethod()).thenReturn(method);
+        return resourceInfo;
+    }
+
+    @Test
+    public void responsesAreCachedAsWrittenAndServedOnNextRequest() throws IOException
+    {
+        ResponseCache cache = new ResponseCache(new ResponseCacheConfiguration(1000, 60000));
+        when(entities.getVersionEtag("examples.metadata", "test", "1.0.0", false)).thenReturn(Optional.of("tag"));
+        ResponseCacheFilter filter = new ResponseCacheFilter(cache, entities);
+        Map<String, Object> properties = new HashMap<>();
+        ContainerRequestContext request = request(properties);
+
+        filter.filter(request);
+        verify(request, never()).abortWith(any());
+        ContainerResponseContext response = mock(ContainerResponseContext.class);
+        when(response.getStatus()).thenReturn(Response.Status.OK.getStatusCode());
+        when(response.hasEntity()).thenReturn(true);
+        when(response.getMediaType()).thenReturn(MediaType.APPLICATION_JSON_TYPE);
+        when(response.getHeaderString("ETag")).thenReturn("\"abc\"");
+        filter.filter(request, response);
+
+        ByteArrayOutputStream sent = new ByteArrayOutputStream();
+        WriterInterceptorContext writer = mock(WriterInterceptorContext.class);
+        OutputStream[] output = {sent};
+        when(writer.getProperty(anyString())).thenAnswer(invocation -> properties.get(invocation.<String>getArgument(0)));
+        when(writer.getOutputStream()).thenAnswer(invocation -> output[0]);
+        doAnswer(invocation -> output[0] = invocation.getArgument(0)).when(writer).setOutputStream(any());
+        doAnswer(invocation ->
+        {
+            output[0].write(BODY.getBytes(StandardCharsets.UTF_8));
+            return null;
+        }).when(writer).proceed();
+        filter.aroundWriteTo(writer);
+        Assert.assertEquals(BODY, sent.toString(StandardCharsets.UTF_8.name()));
+
+        ContainerRequestContext secondRequest = request(new HashMap<>());
+        filter.filter(secondRequest);
+        ArgumentCaptor<Response> served = ArgumentCaptor.forClass(Response.class);
+        verify(secondRequest).abortWith(served.capture());
+        Assert.assertEquals(BODY, new String((byte[]) served.getValue().getEntity(), StandardCharsets.UTF_8));
+        Assert.assertEquals("\"abc\"", served.getValue().getHeaderString("ETag"));
+
+        when(entities.getVersionEtag("examples.metadata", "test", "1.0.0", false)).thenReturn(Optional.of("newTag"));
+        ContainerRequestContext afterUpdate = request(new HashMap<>());
+        filter.filter(afterUpdate);
+        verify(afterUpdate, never()).abortWith(any());
+    }
+
+    private ContainerRequestContext request(Map<String, Object> properties)
+    {
+        MultivaluedMap<String, String> pathParameters = new MultivaluedHashMap<>();
+        pathParameters.putSingle("groupId", "examples.metadata");
+        pathParameters.putSingle("artifactId", "test");
+        pathParameters.putSingle("versionId", "1.0.0");
+        MultivaluedMap<String, String> queryParameters = new MultivaluedHashMap<>();
+        queryParameters.putSingle("versioned", "false");
+        UriInfo uriInfo = mock(UriInfo.class);
+        when(uriInfo.getPath()).thenReturn("projects/examples.metadata/test/versions/1.0.0");
+        when(uriInfo.getPathParameters()).thenReturn(pathParameters);
+        when(uriInfo.getQueryParameters()).thenReturn(queryParameters);
+
+        ContainerRequestContext request = mock(ContainerRequestContext.class);
+        when(request.getMethod()).thenReturn("GET");
+        when(request.getUriInfo()).thenReturn(uriInfo);
+        doAnswer(invocation -> properties.put(invocation.getArgument(0), invocation.getArgument(1))).when(request).setProperty(anyString(), any());
+        when(request.getProperty(anyString())).thenAnswer(invocation -> properties.get(invocation.<String>getArgument(0)));
+        return request;
+    }
+}
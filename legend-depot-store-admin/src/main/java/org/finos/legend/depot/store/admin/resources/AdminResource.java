@@ -96,6 +96,22 @@ public class AdminResource extends BaseAuthorisedResource
     }
 
 
+    @PUT
+    @Path("/entities/latestVersions")
+    @ApiOperation("flag the entities of each project's latest released version")
+    public long markLatestVersions()
+    {
+        return handle("Mark latest versions", () ->
+        {
+            validateUser();
+            //projects without releases have nothing to flag
+            return projects.getAll().stream()
+                    .filter(project -> project.getLatestVersionAsString() != null)
+                    .mapToLong(project -> entitiesService.markLatestVersion(project.getGroupId(), project.getArtifactId(), project.getLatestVersionAsString()).getModifiedCount())
+                    .sum();
+        });
+    }
+
     @DELETE
     @Path("/indexes/{index}/{collection}")
     @ApiOperation("remove")
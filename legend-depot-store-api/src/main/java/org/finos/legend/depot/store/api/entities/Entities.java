@@ -15,13 +15,17 @@
 
 package org.finos.legend.depot.store.api.entities;
 
+import org.eclipse.collections.api.tuple.Pair;
+import org.finos.legend.depot.domain.entity.EntitiesSnapshot;
 import org.finos.legend.depot.domain.entity.StoredEntity;
 import org.finos.legend.depot.domain.project.ProjectVersion;
 import org.finos.legend.sdlc.domain.model.entity.Entity;
 
+import java.util.Date;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
+import java.util.stream.Stream;
 
 import static org.finos.legend.depot.domain.version.VersionValidator.MASTER_SNAPSHOT;
 
@@ -41,6 +45,26 @@ public interface Entities
         return getEntities(groupId, artifactId, MASTER_SNAPSHOT, versionedEntities);
     }
 
+    /**
+     * Streams entities straight from the underlying store cursor; callers must close the returned stream.
+     */
+    Stream<Entity> streamEntities(String groupId, String artifactId, String versionId, boolean versionedEntities);
+
+    /**
+     * Streams the JSON representation of each entity as held by the store, without binding it to an Entity; callers must close the returned stream.
+     */
+    Stream<String> streamEntitiesAsJson(String groupId, String artifactId, String versionId, boolean versionedEntities);
+
+    /**
+     * Pre-serialised entities of a released version, if one has been materialised at refresh time.
+     */
+    Optional<EntitiesSnapshot> getSnapshot(String groupId, String artifactId, String versionId, boolean versionedEntities);
+
+    /**
+     * Strong entity tag for the content of a version, computed at refresh time and dropped whenever the version changes.
+     */
+    Optional<String> getVersionEtag(String groupId, String artifactId, String versionId, boolean versionedEntities);
+
     Optional<Entity> getEntity(String groupId, String artifactId, String versionId, String path);
 
     default Optional<Entity> getLatestEntity(String groupId, String artifactId, String entityPath)
@@ -55,6 +79,10 @@ public interface Entities
         return getEntitiesByPackage(groupId, artifactId, MASTER_SNAPSHOT, packageName, versioned, classifierPaths, includeSubPackages);
     }
 
+    Stream<Entity> streamEntitiesByPackage(String groupId, String artifactId, String versionId, String packageName, boolean versioned, Set<String> classifierPaths, boolean includeSubPackages);
+
+    Stream<String> streamEntitiesByPackageAsJson(String groupId, String artifactId, String versionId, String packageName, boolean versioned, Set<String> classifierPaths, boolean includeSubPackages);
+
     long getRevisionEntityCount();
 
     long getVersionEntityCount();
@@ -74,9 +102,31 @@ public interface Entities
 
     List<StoredEntity> findLatestEntitiesByClassifier(String classifier, String search, Integer limit, boolean summary, boolean versioned);
 
+    /**
+     * Entities of each project's latest released version only, as marked at refresh time.
+     */
+    List<StoredEntity> findLatestReleasedEntitiesByClassifier(String classifier, String search, Integer limit, boolean summary, boolean versioned);
+
     List<StoredEntity> findReleasedEntitiesByClassifier(String classifier, boolean summary, boolean versionedEntities);
 
     List<StoredEntity> findLatestEntitiesByClassifier(String classifier, boolean summary, boolean versionedEntities);
 
     List<StoredEntity> findEntitiesByClassifier(String groupId, String artifactId, String versionId, String classifier, boolean summary, boolean versionedEntities);
+
+    /**
+     * Summaries of every master-SNAPSHOT entity and of every entity of a project's latest released version; callers must close the returned stream.
+     */
+    Stream<StoredEntity> streamLatestEntitySummaries();
+
+    Stream<StoredEntity> streamLatestEntitySummaries(String groupId, String artifactId);
+
+    /**
+     * Projects with a version whose entities were stored, deleted or flagged as latest at or after the given time.
+     */
+    List<Pair<String, String>> getProjectsModifiedSince(Date since);
+
+    /**
+     * Full stored entities matching the coordinates, versioned flag and path of each summary, in no particular order.
+     */
+    List<StoredEntity> findStoredEntities(List<StoredEntity> summaries);
 }
@@ -17,10 +17,14 @@ package org.finos.legend.depot.store.api.entities;
 
 import org.eclipse.collections.api.tuple.Pair;
 import org.finos.legend.depot.domain.entity.StoredEntity;
+import org.finos.legend.depot.domain.project.ProjectVersion;
 import org.finos.legend.depot.domain.status.StoreOperationResult;
 import org.finos.legend.depot.domain.version.VersionValidator;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
 
 public interface UpdateEntities extends Entities
 {
@@ -33,6 +37,19 @@ public interface UpdateEntities extends Entities
 
     StoreOperationResult delete(String groupId, String artifactId, String versionId,boolean versioned);
 
+    StoreOperationResult delete(String groupId, String artifactId, String versionId, boolean versioned, Collection<String> entityPaths);
+
+    Map<String, String> getContentHashes(String groupId, String artifactId, String versionId, boolean versioned);
+
+    StoreOperationResult createSnapshot(String groupId, String artifactId, String versionId, boolean versioned);
+
+    StoreOperationResult updateVersionEtag(String groupId, String artifactId, String versionId, boolean versioned);
+
+    /**
+     * Flags the entities of the given version as the project's latest release and clears the flag on any other version; a null version clears it everywhere.
+     */
+    StoreOperationResult markLatestVersion(String groupId, String artifactId, String versionId);
+
     default void deleteLatest(String groupId, String artifactId,boolean versioned)
     {
         delete(groupId, artifactId, VersionValidator.MASTER_SNAPSHOT,versioned);
@@ -44,5 +61,10 @@ public interface UpdateEntities extends Entities
 
     List<StoredEntity> getStoredEntities(String groupId, String artifactId, String versionId, boolean versioned);
 
+    /**
+     * Streams the entities of many versions with a handful of queries, each version's entities one after the other; callers must close the returned stream.
+     */
+    Stream<StoredEntity> streamStoredEntities(List<ProjectVersion> projectVersions, boolean versioned);
+
     List<Pair<String, String>> getStoredEntitiesCoordinates();
 }
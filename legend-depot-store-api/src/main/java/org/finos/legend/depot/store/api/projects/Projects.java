@@ -16,6 +16,7 @@
 package org.finos.legend.depot.store.api.projects;
 
 import org.finos.legend.depot.domain.project.ProjectData;
+import org.finos.legend.depot.domain.project.ProjectVersion;
 
 import java.util.List;
 import java.util.Optional;
@@ -36,4 +37,14 @@ public interface Projects
 
     List<String> getVersions(String groupId, String artifactId);
 
+    /**
+     * projects with at least one version depending on any version of the given project
+     */
+    List<ProjectData> findDependants(String groupId, String artifactId);
+
+    /**
+     * projects with at least one version depending on one of the given project versions
+     */
+    List<ProjectData> findDependants(List<ProjectVersion> projectVersions);
+
 }
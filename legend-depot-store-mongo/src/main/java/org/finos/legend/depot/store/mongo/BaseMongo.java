@@ -19,7 +19,9 @@ import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.mongodb.client.FindIterable;
 import com.mongodb.client.MongoCollection;
+import com.mongodb.client.MongoCursor;
 import com.mongodb.client.MongoDatabase;
+import com.mongodb.client.MongoIterable;
 import com.mongodb.client.model.FindOneAndReplaceOptions;
 import com.mongodb.client.model.IndexOptions;
 import com.mongodb.client.model.Indexes;
@@ -32,13 +34,28 @@ import org.bson.types.ObjectId;
 import org.finos.legend.depot.domain.HasIdentifier;
 import org.slf4j.Logger;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Iterator;
 import java.util.List;
+import java.util.NoSuchElementException;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Consumer;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 import static com.mongodb.client.model.Filters.and;
 import static com.mongodb.client.model.Filters.eq;
@@ -56,6 +73,13 @@ public abstract class BaseMongo<T extends HasIdentifier>
     public static final UpdateOptions INSERT_IF_ABSENT = new UpdateOptions().upsert(true);
     public static final FindOneAndReplaceOptions FIND_ONE_AND_REPLACE_OPTIONS = new FindOneAndReplaceOptions().upsert(true).returnDocument(ReturnDocument.AFTER);
     private static final Logger LOGGER = org.slf4j.LoggerFactory.getLogger(BaseMongo.class);
+    //keeps each $or of project versions well under the server's document and plan limits
+    protected static final int VERSIONS_PER_QUERY = 100;
+    //documents are decoded in chunks, with a bounded number of chunks read ahead of the consumer
+    private static final int DOCUMENTS_PER_DECODE = 256;
+    private static final int DECODES_IN_FLIGHT = Math.max(2, Runtime.getRuntime().availableProcessors());
+    //never queues: a stream that finds no idle decoder decodes the chunk itself
+    private static final ThreadPoolExecutor DECODERS = new ThreadPoolExecutor(0, DECODES_IN_FLIGHT, 60L, TimeUnit.SECONDS, new SynchronousQueue<>(), decoderThreads(), (task, pool) -> task.run());
     private final ObjectMapper objectMapper;
     private final MongoDatabase mongoDatabase;
     private final Class<T> documentClass;
@@ -179,16 +203,34 @@ public abstract class BaseMongo<T extends HasIdentifier>
 
     protected boolean createIndexIfAbsent(String indexName,String... fieldNames)
     {
-        List<Document> indexes = getIndexes(getCollection()).collect(Collectors.toList());
+        return createIndexIfAbsent(getCollection(), indexName, fieldNames);
+    }
+
+    protected boolean createIndexIfAbsent(MongoCollection collection, String indexName, String... fieldNames)
+    {
+        List<Document> indexes = getIndexes(collection).collect(Collectors.toList());
         if (indexes.stream().noneMatch(i -> i.getString(INDEX_NAME).equals(indexName)))
         {
             IndexOptions indexOptions = new IndexOptions().name(indexName);
-            getCollection().createIndex(Indexes.ascending(fieldNames), indexOptions);
+            collection.createIndex(Indexes.ascending(fieldNames), indexOptions);
         }
         return true;
     }
 
 
+    /**
+     * Index only covering the documents matching {@code partialFilter}, so queries including that filter scan far fewer keys.
+     */
+    protected boolean createPartialIndexIfAbsent(String indexName, Bson partialFilter, String... fieldNames)
+    {
+        if (getIndexes(getCollection()).noneMatch(i -> i.getString(INDEX_NAME).equals(indexName)))
+        {
+            IndexOptions indexOptions = new IndexOptions().name(indexName).partialFilterExpression(partialFilter);
+            getCollection().createIndex(Indexes.ascending(fieldNames), indexOptions);
+        }
+        return true;
+    }
+
     protected abstract Bson getKeyFilter(T data);
 
     protected abstract void validateNewData(T data);
@@ -198,6 +240,51 @@ public abstract class BaseMongo<T extends HasIdentifier>
         return convert(getCollection().find(filter));
     }
 
+    protected Stream<T> stream(Bson filter)
+    {
+        return stream(getCollection().find(filter));
+    }
+
+    protected Stream<T> stream(FindIterable iterable)
+    {
+        return streamLazily((FindIterable<Document>) iterable).map(doc -> convert(doc, documentClass));
+    }
+
+    /**
+     * Streams the results of a query without running it: the cursor is only opened once the stream is consumed, so a
+     * stream handed over to be written later holds no server resources until then; callers must close the returned stream.
+     */
+    protected static <D> Stream<D> streamLazily(MongoIterable<D> query)
+    {
+        LazyCursor<D> cursor = new LazyCursor<>(query);
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(cursor, Spliterator.ORDERED | Spliterator.NONNULL), false)
+                .onClose(cursor::close);
+    }
+
+    /**
+     * Streams the documents matching each of the filters in turn, running one query at a time and only once the
+     * previous cursor is exhausted. Documents are read from the cursor on the consuming thread and decoded in parallel
+     * chunks, a bounded number of them ahead of the consumer, and are returned in cursor order; callers must close the
+     * returned stream.
+     */
+    protected Stream<T> stream(List<Bson> filters, Bson sort)
+    {
+        BatchedCursor cursor = new BatchedCursor(filters.iterator(), sort);
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(new DecodingIterator(cursor), Spliterator.ORDERED | Spliterator.NONNULL), false)
+                .onClose(cursor::close);
+    }
+
+    private static ThreadFactory decoderThreads()
+    {
+        AtomicInteger threads = new AtomicInteger();
+        return task ->
+        {
+            Thread thread = new Thread(task, "mongo-decoder-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
     protected FindIterable executeFind(Bson filter)
     {
         return getCollection().find(filter);
@@ -228,4 +315,151 @@ public abstract class BaseMongo<T extends HasIdentifier>
         LOGGER.info("delete result {} :{}",getCollection().getNamespace().getCollectionName(),deleteResult);
         return deleteResult.wasAcknowledged();
     }
+
+    private static final class LazyCursor<D> implements Iterator<D>
+    {
+        private final MongoIterable<D> query;
+        private MongoCursor<D> cursor;
+        private boolean closed;
+
+        private LazyCursor(MongoIterable<D> query)
+        {
+            this.query = query;
+        }
+
+        @Override
+        public boolean hasNext()
+        {
+            if (cursor == null && !closed)
+            {
+                cursor = query.iterator();
+            }
+            return cursor != null && cursor.hasNext();
+        }
+
+        @Override
+        public D next()
+        {
+            if (!hasNext())
+            {
+                throw new NoSuchElementException();
+            }
+            return cursor.next();
+        }
+
+        private void close()
+        {
+            closed = true;
+            if (cursor != null)
+            {
+                cursor.close();
+                cursor = null;
+            }
+        }
+    }
+
+    private final class DecodingIterator implements Iterator<T>
+    {
+        private final Iterator<Document> documents;
+        private final Deque<CompletableFuture<List<T>>> decoding = new ArrayDeque<>();
+        private Iterator<T> decoded = Collections.emptyIterator();
+
+        private DecodingIterator(Iterator<Document> documents)
+        {
+            this.documents = documents;
+        }
+
+        @Override
+        public boolean hasNext()
+        {
+            while (!decoded.hasNext())
+            {
+                readAhead();
+                if (decoding.isEmpty())
+                {
+                    return false;
+                }
+                decoded = join(decoding.poll()).iterator();
+            }
+            return true;
+        }
+
+        @Override
+        public T next()
+        {
+            if (!hasNext())
+            {
+                throw new NoSuchElementException();
+            }
+            return decoded.next();
+        }
+
+        private void readAhead()
+        {
+            while (decoding.size() < DECODES_IN_FLIGHT && documents.hasNext())
+            {
+                List<Document> chunk = new ArrayList<>(DOCUMENTS_PER_DECODE);
+                while (chunk.size() < DOCUMENTS_PER_DECODE && documents.hasNext())
+                {
+                    chunk.add(documents.next());
+                }
+                decoding.add(CompletableFuture.supplyAsync(() -> chunk.stream().map(doc -> convert(doc, documentClass)).filter(Objects::nonNull).collect(Collectors.toList()), DECODERS));
+            }
+        }
+
+        private List<T> join(CompletableFuture<List<T>> chunk)
+        {
+            try
+            {
+                return chunk.join();
+            }
+            catch (CompletionException e)
+            {
+                throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : e;
+            }
+        }
+    }
+
+    private final class BatchedCursor implements Iterator<Document>
+    {
+        private final Iterator<Bson> filters;
+        private final Bson sort;
+        private MongoCursor<Document> cursor;
+
+        private BatchedCursor(Iterator<Bson> filters, Bson sort)
+        {
+            this.filters = filters;
+            this.sort = sort;
+        }
+
+        @Override
+        public boolean hasNext()
+        {
+            while ((cursor == null || !cursor.hasNext()) && filters.hasNext())
+            {
+                close();
+                cursor = getCollection().find(filters.next()).sort(sort).iterator();
+            }
+            return cursor != null && cursor.hasNext();
+        }
+
+        @Override
+        public Document next()
+        {
+            if (!hasNext())
+            {
+                throw new NoSuchElementException();
+            }
+            return cursor.next();
+        }
+
+        private void close()
+        {
+            if (cursor != null)
+            {
+                cursor.close();
+                cursor = null;
+            }
+        }
+    }
 }
@@ -38,6 +38,8 @@ public class StoreMongoModule extends PrivateModule
         expose(ConnectionFactory.class);
         expose(MongoDatabase.class).annotatedWith(Names.named("mongoDatabase"));
         expose(Boolean.class).annotatedWith(Names.named("transactionMode"));
+        expose(Integer.class).annotatedWith(Names.named("bulkWriteBatchSize"));
+        expose(Boolean.class).annotatedWith(Names.named("bulkWriteOrdered"));
         expose(MongoClient.class);
     }
 
@@ -76,4 +78,20 @@ public class StoreMongoModule extends PrivateModule
     {
         return false;
     }
+
+    @Provides
+    @Singleton
+    @Named("bulkWriteBatchSize")
+    Integer getBulkWriteBatchSize(MongoConfiguration mongoConfiguration)
+    {
+        return mongoConfiguration.getBulkWriteBatchSize() > 0 ? mongoConfiguration.getBulkWriteBatchSize() : MongoConfiguration.DEFAULT_BULK_WRITE_BATCH_SIZE;
+    }
+
+    @Provides
+    @Singleton
+    @Named("bulkWriteOrdered")
+    Boolean getBulkWriteOrdered(MongoConfiguration mongoConfiguration)
+    {
+        return mongoConfiguration.isBulkWriteOrdered();
+    }
 }
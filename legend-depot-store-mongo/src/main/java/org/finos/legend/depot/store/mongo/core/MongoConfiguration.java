@@ -22,6 +22,8 @@ import javax.validation.constraints.NotNull;
 
 public class MongoConfiguration
 {
+    public static final int DEFAULT_BULK_WRITE_BATCH_SIZE = 1000;
+
     @NotNull
     @JsonProperty
     public String database;
@@ -34,6 +36,12 @@ public class MongoConfiguration
     @JsonProperty
     public boolean tracing;
 
+    @JsonProperty
+    public int bulkWriteBatchSize = DEFAULT_BULK_WRITE_BATCH_SIZE;
+
+    @JsonProperty
+    public boolean bulkWriteOrdered = false;
+
     @JsonCreator
     public MongoConfiguration(@JsonProperty("database") String database, @JsonProperty("url") String url,@JsonProperty("tracing") boolean tracing)
     {
@@ -56,4 +64,14 @@ public class MongoConfiguration
     {
         return tracing;
     }
+
+    public int getBulkWriteBatchSize()
+    {
+        return bulkWriteBatchSize;
+    }
+
+    public boolean isBulkWriteOrdered()
+    {
+        return bulkWriteOrdered;
+    }
 }
@@ -17,26 +17,40 @@ package org.finos.legend.depot.store.mongo.entities;
 
 import com.mongodb.BasicDBList;
 import com.mongodb.BasicDBObject;
+import com.mongodb.MongoBulkWriteException;
 import com.mongodb.MongoClient;
 import com.mongodb.ReadConcern;
 import com.mongodb.ReadPreference;
 import com.mongodb.TransactionOptions;
 import com.mongodb.WriteConcern;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.bulk.BulkWriteResult;
 import com.mongodb.client.ClientSession;
 import com.mongodb.client.FindIterable;
 import com.mongodb.client.MongoCollection;
+import com.mongodb.client.MongoCursor;
 import com.mongodb.client.MongoDatabase;
 import com.mongodb.client.model.Aggregates;
+import com.mongodb.client.model.BulkWriteOptions;
 import com.mongodb.client.model.Filters;
 import com.mongodb.client.model.Projections;
+import com.mongodb.client.model.Sorts;
+import com.mongodb.client.model.UpdateOneModel;
+import com.mongodb.client.model.WriteModel;
 import com.mongodb.client.result.DeleteResult;
 import com.mongodb.client.result.UpdateResult;
+import org.bson.BsonBinaryReader;
 import org.bson.Document;
+import org.bson.RawBsonDocument;
+import org.bson.types.Binary;
+import org.bson.codecs.DecoderContext;
 import org.bson.conversions.Bson;
 import org.eclipse.collections.api.tuple.Pair;
 import org.eclipse.collections.impl.tuple.Tuples;
 import org.eclipse.collections.impl.utility.ListIterate;
 import org.finos.legend.depot.domain.EntityValidator;
+import org.finos.legend.depot.domain.entity.EntitiesSnapshot;
+import org.finos.legend.depot.domain.entity.EntityContentHash;
 import org.finos.legend.depot.domain.entity.StoredEntity;
 import org.finos.legend.depot.domain.entity.StoredEntityOverview;
 import org.finos.legend.depot.domain.project.ProjectVersion;
@@ -46,33 +60,55 @@ import org.finos.legend.depot.store.api.entities.Entities;
 import org.finos.legend.depot.store.api.entities.UpdateEntities;
 import org.finos.legend.depot.store.mongo.BaseMongo;
 import org.finos.legend.depot.store.mongo.MongoStoreErrors;
+import org.finos.legend.depot.store.mongo.StoreException;
+import org.finos.legend.depot.store.mongo.core.MongoConfiguration;
 import org.finos.legend.sdlc.domain.model.entity.Entity;
+import org.finos.legend.sdlc.domain.model.version.VersionId;
 import org.slf4j.Logger;
 
 import javax.inject.Inject;
 import javax.inject.Named;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
 import java.util.StringTokenizer;
 import java.util.function.Consumer;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+import java.util.zip.GZIPOutputStream;
 
 import static com.mongodb.client.model.Aggregates.group;
 import static com.mongodb.client.model.Filters.and;
 import static com.mongodb.client.model.Filters.or;
 import static com.mongodb.client.model.Filters.eq;
+import static com.mongodb.client.model.Filters.gte;
+import static com.mongodb.client.model.Filters.in;
 import static com.mongodb.client.model.Filters.ne;
 import static com.mongodb.client.model.Filters.regex;
 import static com.mongodb.client.model.Updates.combine;
 import static com.mongodb.client.model.Updates.currentDate;
 import static com.mongodb.client.model.Updates.set;
+import static com.mongodb.client.model.Updates.unset;
 import static org.finos.legend.depot.domain.version.VersionValidator.MASTER_SNAPSHOT;
 
 public class EntitiesMongo extends BaseMongo<StoredEntity> implements Entities, UpdateEntities
@@ -88,19 +124,45 @@ public class EntitiesMongo extends BaseMongo<StoredEntity> implements Entities,
     public static final String PATH = "path";
     public static final String ENTITY_PACKAGE = "entity.content.package";
     public static final String VERSIONED_ENTITY = "versionedEntity";
+    public static final String CONTENT_HASH = "contentHash";
+    public static final String ENTITIES_SNAPSHOTS = "entities-snapshots";
+    public static final String ENTITIES_MODIFIED = "entities-modified";
+    public static final String SNAPSHOT = "snapshot";
+    public static final String ETAG = "etag";
+    public static final String ENTITY_COUNT = "entityCount";
+    public static final String LATEST_VERSION = "latestVersion";
+    //leave headroom under mongo's 16MB document limit, bigger versions are served from the entities collection
+    private static final int MAX_SNAPSHOT_SIZE = 15 * 1024 * 1024;
+    private static final byte[] JSON_ARRAY_START = "[".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] JSON_ARRAY_SEPARATOR = ",".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] JSON_ARRAY_END = "]".getBytes(StandardCharsets.UTF_8);
+    private static final EntityJsonDecoder ENTITY_JSON_DECODER = new EntityJsonDecoder(ENTITY);
 
 
     public final boolean transactionMode;
+    private int maxSnapshotSize = MAX_SNAPSHOT_SIZE;
 
     private final MongoClient mongoClient;
 
+    private final int bulkWriteBatchSize;
+
+    private final BulkWriteOptions bulkWriteOptions;
+
 
     @Inject
-    public EntitiesMongo(@Named("mongoDatabase") MongoDatabase databaseProvider, MongoClient mongoClient, @Named("transactionMode") boolean transactionMode)
+    public EntitiesMongo(@Named("mongoDatabase") MongoDatabase databaseProvider, MongoClient mongoClient, @Named("transactionMode") boolean transactionMode,
+                         @Named("bulkWriteBatchSize") int bulkWriteBatchSize, @Named("bulkWriteOrdered") boolean bulkWriteOrdered)
     {
         super(databaseProvider, StoredEntity.class);
         this.mongoClient = mongoClient;
         this.transactionMode = transactionMode;
+        this.bulkWriteBatchSize = bulkWriteBatchSize > 0 ? bulkWriteBatchSize : MongoConfiguration.DEFAULT_BULK_WRITE_BATCH_SIZE;
+        this.bulkWriteOptions = new BulkWriteOptions().ordered(bulkWriteOrdered);
+    }
+
+    public EntitiesMongo(@Named("mongoDatabase") MongoDatabase databaseProvider, MongoClient mongoClient, @Named("transactionMode") boolean transactionMode)
+    {
+        this(databaseProvider, mongoClient, transactionMode, MongoConfiguration.DEFAULT_BULK_WRITE_BATCH_SIZE, false);
     }
 
     public EntitiesMongo(@Named("mongoDatabase") MongoDatabase mongoProvider, MongoClient mongoClient)
@@ -113,6 +175,12 @@ public class EntitiesMongo extends BaseMongo<StoredEntity> implements Entities,
         this(mongoProvider, null, false);
     }
 
+    EntitiesMongo withMaxSnapshotSize(int maxSnapshotSize)
+    {
+        this.maxSnapshotSize = maxSnapshotSize;
+        return this;
+    }
+
     public boolean createIndexesIfAbsent()
     {
         createIndexIfAbsent("groupId-artifactId-versionId-versioned", GROUP_ID, ARTIFACT_ID, VERSION_ID,VERSIONED_ENTITY);
@@ -120,6 +188,11 @@ public class EntitiesMongo extends BaseMongo<StoredEntity> implements Entities,
         createIndexIfAbsent("groupId-artifactId-versionId-package", GROUP_ID, ARTIFACT_ID, VERSION_ID, ENTITY_PACKAGE);
         createIndexIfAbsent("groupId-artifactId-hashed", GROUP_ID, ARTIFACT_ID);
         createIndexIfAbsent("entity-classifier", ENTITY_CLASSIFIER_PATH);
+        createPartialIndexIfAbsent("latest-version-entity-classifier", eq(LATEST_VERSION, true), ENTITY_CLASSIFIER_PATH, VERSIONED_ENTITY, LATEST_VERSION);
+        createIndexIfAbsent(getSnapshotsCollection(), "groupId-artifactId-versionId-versioned", GROUP_ID, ARTIFACT_ID, VERSION_ID, VERSIONED_ENTITY);
+        createIndexIfAbsent(getSnapshotsCollection(), "lastModified", LAST_MODIFIED);
+        createIndexIfAbsent(getModifiedCollection(), "groupId-artifactId", GROUP_ID, ARTIFACT_ID);
+        createIndexIfAbsent(getModifiedCollection(), "lastModified", LAST_MODIFIED);
         return true;
 
     }
@@ -130,6 +203,16 @@ public class EntitiesMongo extends BaseMongo<StoredEntity> implements Entities,
         return getMongoCollection(ENTITIES_VERSIONS);
     }
 
+    private MongoCollection<Document> getSnapshotsCollection()
+    {
+        return getMongoCollection(ENTITIES_SNAPSHOTS);
+    }
+
+    private MongoCollection<Document> getModifiedCollection()
+    {
+        return getMongoCollection(ENTITIES_MODIFIED);
+    }
+
     @Override
     protected Bson getKeyFilter(StoredEntity data)
     {
@@ -171,6 +254,7 @@ public class EntitiesMongo extends BaseMongo<StoredEntity> implements Entities,
                 set(ENTITY_PATH, entity.getEntity().getPath()),
                 set(ENTITY_CLASSIFIER_PATH, entity.getEntity().getClassifierPath()),
                 set(ENTITY_CONTENT, entity.getEntity().getContent()),
+                set(CONTENT_HASH, EntityContentHash.of(entity.getEntity())),
                 currentDate(LAST_MODIFIED));
     }
 
@@ -192,6 +276,8 @@ public class EntitiesMongo extends BaseMongo<StoredEntity> implements Entities,
         {
             result = getCollection().updateOne(getEntityPathFilter(entity), combineDocument(entity), INSERT_IF_ABSENT);
         }
+        deleteSnapshots(clientSession, entity);
+        markModified(clientSession, entity.getGroupId(), entity.getArtifactId());
         if (result.getUpsertedId() != null)
         {
             report.addInsertedCount();
@@ -229,19 +315,87 @@ public class EntitiesMongo extends BaseMongo<StoredEntity> implements Entities,
     public StoreOperationResult newOrUpdate(ClientSession clientSession, List<StoredEntity> versionedEntities)
     {
         StoreOperationResult report = new StoreOperationResult(0, 0, 0, new ArrayList<>());
+        List<WriteModel<Document>> batch = new ArrayList<>(Math.min(versionedEntities.size(), bulkWriteBatchSize));
+        List<StoredEntity> batchEntities = new ArrayList<>(Math.min(versionedEntities.size(), bulkWriteBatchSize));
+        Map<String, StoredEntity> writtenVersions = new LinkedHashMap<>();
         for (StoredEntity versionedEntity : versionedEntities)
         {
-            StoreOperationResult result = newOrUpdate(clientSession, versionedEntity);
-            report.addInsertedCount();
-            report.logErrors(result.getErrors());
+            StoreOperationResult validation = validateEntity(versionedEntity, new StoreOperationResult(0, 0, 0, new ArrayList<>()));
+            if (validation.hasErrors())
+            {
+                report.logErrors(validation.getErrors());
+                continue;
+            }
+            batch.add(new UpdateOneModel<>(getEntityPathFilter(versionedEntity), combineDocument(versionedEntity), INSERT_IF_ABSENT));
+            batchEntities.add(versionedEntity);
+            if (batch.size() >= bulkWriteBatchSize)
+            {
+                report.combine(bulkWrite(clientSession, batch, batchEntities, writtenVersions));
+                batch.clear();
+                batchEntities.clear();
+            }
+        }
+        if (!batch.isEmpty())
+        {
+            report.combine(bulkWrite(clientSession, batch, batchEntities, writtenVersions));
+        }
+        //snapshots are built from these entities, so every version that took at least one write drops its snapshots once
+        writtenVersions.values().forEach(entity -> deleteSnapshots(clientSession, entity));
+        writtenVersions.values().stream().map(entity -> Tuples.pair(entity.getGroupId(), entity.getArtifactId())).distinct()
+                .forEach(project -> markModified(clientSession, project.getOne(), project.getTwo()));
+        return report;
+    }
+
+    private StoreOperationResult bulkWrite(ClientSession clientSession, List<WriteModel<Document>> batch, List<StoredEntity> batchEntities, Map<String, StoredEntity> writtenVersions)
+    {
+        StoreOperationResult report = new StoreOperationResult(0, 0, 0, new ArrayList<>());
+        try
+        {
+            BulkWriteResult result = clientSession != null ? getCollection().bulkWrite(clientSession, batch, bulkWriteOptions) : getCollection().bulkWrite(batch, bulkWriteOptions);
+            recordBulkWriteResult(result, report);
+            batchEntities.forEach(entity -> writtenVersions.putIfAbsent(snapshotKey(entity), entity));
+        }
+        catch (MongoBulkWriteException e)
+        {
+            recordBulkWriteResult(e.getWriteResult(), report);
+            Set<Integer> failed = new HashSet<>();
+            for (BulkWriteError error : e.getWriteErrors())
+            {
+                StoredEntity entity = batchEntities.get(error.getIndex());
+                failed.add(error.getIndex());
+                report.logError(String.format("error writing entity %s-%s-%s %s: %s", entity.getGroupId(), entity.getArtifactId(), entity.getVersionId(), entity.getEntity().getPath(), error.getMessage()));
+            }
+            //an ordered write stops at its first error, an unordered one carries on past every error
+            int attempted = bulkWriteOptions.isOrdered() ? failed.stream().min(Integer::compare).orElse(batchEntities.size()) : batchEntities.size();
+            for (int i = 0; i < attempted; i++)
+            {
+                if (!failed.contains(i))
+                {
+                    writtenVersions.putIfAbsent(snapshotKey(batchEntities.get(i)), batchEntities.get(i));
+                }
+            }
+            LOGGER.error("bulk write of [{}] entities completed with [{}] errors", batch.size(), e.getWriteErrors().size());
+            if (clientSession != null)
+            {
+                throw e;
+            }
         }
         return report;
     }
 
+    private void recordBulkWriteResult(BulkWriteResult result, StoreOperationResult report)
+    {
+        if (result.wasAcknowledged())
+        {
+            report.addInsertedCount(result.getUpserts().size() + result.getInsertedCount());
+            report.addModifiedCount(result.getMatchedCount());
+        }
+    }
+
     public StoreOperationResult atomicNewOrUpdate(ClientSession clientSession, List<StoredEntity> versionedEntities)
     {
 
-        StoreOperationResult report = new StoreOperationResult(0, 0, 0, new ArrayList<>());
+        StoreOperationResult report;
         TransactionOptions txnOptions = TransactionOptions.builder()
                 .readConcern(ReadConcern.MAJORITY)
                 .writeConcern(WriteConcern.ACKNOWLEDGED)
@@ -249,7 +403,7 @@ public class EntitiesMongo extends BaseMongo<StoredEntity> implements Entities,
         try
         {
             clientSession.startTransaction(txnOptions);
-            newOrUpdate(clientSession, versionedEntities);
+            report = newOrUpdate(clientSession, versionedEntities);
             if (report.hasErrors())
             {
                 clientSession.abortTransaction();
@@ -262,7 +416,6 @@ public class EntitiesMongo extends BaseMongo<StoredEntity> implements Entities,
         catch (RuntimeException e)
         {
             clientSession.abortTransaction();
-            report.logError(e.getMessage());
             throw e;
         }
         finally
@@ -310,6 +463,14 @@ public class EntitiesMongo extends BaseMongo<StoredEntity> implements Entities,
         return find(and(getArtifactAndVersionFilter(groupId, artifactId, versionId), eq(VERSIONED_ENTITY, versioned)));
     }
 
+    @Override
+    public Stream<StoredEntity> streamStoredEntities(List<ProjectVersion> projectVersions, boolean versioned)
+    {
+        List<Bson> filters = ListIterate.distinct(projectVersions).chunk(VERSIONS_PER_QUERY).collect(versions ->
+                and(eq(VERSIONED_ENTITY, versioned), or(versions.collect(projectVersion -> getArtifactAndVersionFilter(projectVersion.getGroupId(), projectVersion.getArtifactId(), projectVersion.getVersionId()))))).toList();
+        return stream(filters, Sorts.ascending(GROUP_ID, ARTIFACT_ID, VERSION_ID));
+    }
+
     @Override
     public List<Entity> getAllEntities(String groupId, String artifactId, String versionId)
     {
@@ -320,14 +481,37 @@ public class EntitiesMongo extends BaseMongo<StoredEntity> implements Entities,
 
     private List<Entity> getAllEntities(String groupId, String artifactId, String versionId, boolean versioned)
     {
-        validateInput(groupId, artifactId, versionId);
-        return find(getArtifactWithVersionsFilter(groupId, artifactId, versionId, versioned)).stream().map(StoredEntity::getEntity).collect(Collectors.toList());
+        try (Stream<Entity> entities = streamEntities(groupId, artifactId, versionId, versioned))
+        {
+            return entities.collect(Collectors.toList());
+        }
     }
 
     @Override
     public List<Entity> getEntitiesByPackage(String groupId, String artifactId, String versionId, String packageName, boolean versioned, Set<String> classifierPaths, boolean includeSubPackages)
+    {
+        try (Stream<Entity> entities = streamEntitiesByPackage(groupId, artifactId, versionId, packageName, versioned, classifierPaths, includeSubPackages))
+        {
+            return entities.collect(Collectors.toList());
+        }
+    }
+
+    @Override
+    public Stream<Entity> streamEntitiesByPackage(String groupId, String artifactId, String versionId, String packageName, boolean versioned, Set<String> classifierPaths, boolean includeSubPackages)
+    {
+        validateInput(groupId, artifactId, versionId);
+        return stream(getEntitiesByPackageFilter(groupId, artifactId, versionId, packageName, versioned, classifierPaths, includeSubPackages)).map(StoredEntity::getEntity);
+    }
+
+    @Override
+    public Stream<String> streamEntitiesByPackageAsJson(String groupId, String artifactId, String versionId, String packageName, boolean versioned, Set<String> classifierPaths, boolean includeSubPackages)
     {
         validateInput(groupId, artifactId, versionId);
+        return streamAsJson(getEntitiesByPackageFilter(groupId, artifactId, versionId, packageName, versioned, classifierPaths, includeSubPackages));
+    }
+
+    private Bson getEntitiesByPackageFilter(String groupId, String artifactId, String versionId, String packageName, boolean versioned, Set<String> classifierPaths, boolean includeSubPackages)
+    {
         Bson filter = getArtifactWithVersionsFilter(groupId, artifactId, versionId, versioned);
         if (includeSubPackages)
         {
@@ -337,12 +521,29 @@ public class EntitiesMongo extends BaseMongo<StoredEntity> implements Entities,
         {
             filter = and(filter, eq(ENTITY_PACKAGE, packageName));
         }
-        Stream<Entity> entities = find(filter).stream().map(StoredEntity::getEntity);
         if (classifierPaths != null && !classifierPaths.isEmpty())
         {
-            entities = entities.filter(entity -> classifierPaths.contains(entity.getClassifierPath()));
+            filter = and(filter, in(ENTITY_CLASSIFIER_PATH, classifierPaths));
+        }
+        return filter;
+    }
+
+    private Stream<String> streamAsJson(Bson filter)
+    {
+        return streamAsJson(getCollection().withDocumentClass(RawBsonDocument.class).find(filter));
+    }
+
+    private Stream<String> streamAsJson(FindIterable<RawBsonDocument> query)
+    {
+        return streamLazily(query.projection(Projections.include(ENTITY))).map(this::toEntityJson);
+    }
+
+    private String toEntityJson(RawBsonDocument document)
+    {
+        try (BsonBinaryReader reader = new BsonBinaryReader(document.getByteBuffer().asNIO()))
+        {
+            return ENTITY_JSON_DECODER.decode(reader, DecoderContext.builder().build());
         }
-        return entities.collect(Collectors.toList());
     }
 
     protected List<StoredEntity> transform(boolean summary, FindIterable query)
@@ -381,6 +582,116 @@ public class EntitiesMongo extends BaseMongo<StoredEntity> implements Entities,
         return transform(summary, executeFind(and(filters)));
     }
 
+    @Override
+    public List<StoredEntity> findLatestReleasedEntitiesByClassifier(String classifier, String search, Integer limit, boolean summary, boolean versioned)
+    {
+        List<Bson> filters = new ArrayList<>();
+        filters.add(eq(ENTITY_CLASSIFIER_PATH, classifier));
+        filters.add(eq(VERSIONED_ENTITY, versioned));
+        filters.add(eq(LATEST_VERSION, true));
+        if (search != null)
+        {
+            filters.add(Filters.regex(ENTITY_PATH, Pattern.quote(search), "i"));
+        }
+        if (limit != null)
+        {
+            return transform(summary, executeFind(and(filters)).limit(limit));
+        }
+        return transform(summary, executeFind(and(filters)));
+    }
+
+    @Override
+    public StoreOperationResult markLatestVersion(String groupId, String artifactId, String versionId)
+    {
+        boolean released = versionId != null && !MASTER_SNAPSHOT.equals(versionId);
+        Bson previous = and(getArtifactFilter(groupId, artifactId), eq(LATEST_VERSION, true));
+        if (released && isOlderThanMarked(previous, versionId))
+        {
+            //versions can be refreshed out of order, an older release must never take the flag from a newer one
+            LOGGER.info("{}-{}-{} is older than the version already marked as latest, skipping", groupId, artifactId, versionId);
+            return new StoreOperationResult(0, 0, 0, new ArrayList<>());
+        }
+        //the new flag is set before the old one is cleared, so readers never find a project without a latest version
+        long marked = 0;
+        if (released)
+        {
+            marked = getCollection().updateMany(and(getArtifactAndVersionFilter(groupId, artifactId, versionId), ne(LATEST_VERSION, true)), set(LATEST_VERSION, true)).getModifiedCount();
+        }
+        UpdateResult cleared = getCollection().updateMany(released ? and(previous, ne(VERSION_ID, versionId)) : previous, unset(LATEST_VERSION));
+        if (marked + cleared.getModifiedCount() > 0)
+        {
+            markModified(null, groupId, artifactId);
+        }
+        LOGGER.info("latest version of {}-{} is now {}: [{}] entities marked, [{}] cleared", groupId, artifactId, versionId, marked, cleared.getModifiedCount());
+        return new StoreOperationResult(marked + cleared.getModifiedCount(), 0, 0, new ArrayList<>());
+    }
+
+    @Override
+    public Stream<StoredEntity> streamLatestEntitySummaries()
+    {
+        return streamSummaries(or(eq(VERSION_ID, MASTER_SNAPSHOT), eq(LATEST_VERSION, true)));
+    }
+
+    @Override
+    public Stream<StoredEntity> streamLatestEntitySummaries(String groupId, String artifactId)
+    {
+        return streamSummaries(and(getArtifactFilter(groupId, artifactId), or(eq(VERSION_ID, MASTER_SNAPSHOT), eq(LATEST_VERSION, true))));
+    }
+
+    private Stream<StoredEntity> streamSummaries(Bson filter)
+    {
+        MongoCursor<Document> cursor = getCollection().find(filter).projection(Projections.include(GROUP_ID, ARTIFACT_ID, VERSION_ID, VERSIONED_ENTITY, ENTITY_PATH, ENTITY_CLASSIFIER_PATH)).iterator();
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(cursor, Spliterator.ORDERED | Spliterator.NONNULL), false)
+                .map(doc ->
+                {
+                    Map<String, Object> entity = (Map<String, Object>) doc.get(ENTITY);
+                    return (StoredEntity) new StoredEntityOverview(doc.getString(GROUP_ID), doc.getString(ARTIFACT_ID), doc.getString(VERSION_ID), doc.getBoolean(VERSIONED_ENTITY), (String) entity.get(PATH), (String) entity.get(CLASSIFIER_PATH));
+                })
+                .onClose(cursor::close);
+    }
+
+    @Override
+    public List<Pair<String, String>> getProjectsModifiedSince(Date since)
+    {
+        Set<Pair<String, String>> projects = new HashSet<>();
+        getModifiedCollection().find(gte(LAST_MODIFIED, since)).projection(Projections.include(GROUP_ID, ARTIFACT_ID))
+                .forEach((Consumer<Document>) doc -> projects.add(Tuples.pair(doc.getString(GROUP_ID), doc.getString(ARTIFACT_ID))));
+        return new ArrayList<>(projects);
+    }
+
+    @Override
+    public List<StoredEntity> findStoredEntities(List<StoredEntity> summaries)
+    {
+        if (summaries.isEmpty())
+        {
+            return new ArrayList<>();
+        }
+        Map<Boolean, Map<ProjectVersion, List<String>>> pathsByVersion = summaries.stream().collect(Collectors.groupingBy(StoredEntity::isVersionedEntity,
+                Collectors.groupingBy(summary -> new ProjectVersion(summary.getGroupId(), summary.getArtifactId(), summary.getVersionId()), Collectors.mapping(EntitiesMongo::getPath, Collectors.toList()))));
+        List<Bson> filters = new ArrayList<>();
+        pathsByVersion.forEach((versioned, versions) -> versions.forEach((version, paths) ->
+                filters.add(and(getArtifactWithVersionsFilter(version.getGroupId(), version.getArtifactId(), version.getVersionId(), versioned), in(ENTITY_PATH, paths)))));
+        return find(or(filters));
+    }
+
+    private static String getPath(StoredEntity storedEntity)
+    {
+        return storedEntity instanceof StoredEntityOverview ? ((StoredEntityOverview) storedEntity).getPath() : storedEntity.getEntity().getPath();
+    }
+
+    private boolean isOlderThanMarked(Bson markedFilter, String versionId)
+    {
+        VersionId version = VersionId.parseVersionId(versionId);
+        for (Object marked : getCollection().distinct(VERSION_ID, markedFilter, String.class))
+        {
+            if (VersionValidator.isValidReleaseVersion((String) marked) && VersionId.parseVersionId((String) marked).compareTo(version) > 0)
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+
     @Override
     public List<StoredEntity> findLatestEntitiesByClassifier(String classifier, String search, Integer limit, boolean summary, boolean versioned)
     {
@@ -456,21 +767,254 @@ public class EntitiesMongo extends BaseMongo<StoredEntity> implements Entities,
         return getAllEntities(groupId, artifactId, version, versioned);
     }
 
+    @Override
+    public Stream<Entity> streamEntities(String groupId, String artifactId, String versionId, boolean versioned)
+    {
+        validateInput(groupId, artifactId, versionId);
+        return stream(getArtifactWithVersionsFilter(groupId, artifactId, versionId, versioned)).map(StoredEntity::getEntity);
+    }
+
+    @Override
+    public Stream<String> streamEntitiesAsJson(String groupId, String artifactId, String versionId, boolean versioned)
+    {
+        validateInput(groupId, artifactId, versionId);
+        return streamAsJson(getArtifactWithVersionsFilter(groupId, artifactId, versionId, versioned));
+    }
+
 
     @Override
     public StoreOperationResult delete(String groupId, String artifactId, String versionId, boolean versioned)
     {
         Bson filter = and(eq(VERSIONED_ENTITY, versioned), getArtifactAndVersionFilter(groupId, artifactId, versionId));
+        deleteSnapshots(filter);
         DeleteResult result = getCollection().deleteMany(filter);
+        markModified(null, groupId, artifactId);
         LOGGER.info("delete result {}-{}-{} {} :{}",groupId,artifactId,versionId,versioned,result);
         return new StoreOperationResult(0, 0, result.getDeletedCount(), Collections.emptyList());
     }
 
+    @Override
+    public StoreOperationResult delete(String groupId, String artifactId, String versionId, boolean versioned, Collection<String> entityPaths)
+    {
+        if (entityPaths.isEmpty())
+        {
+            return new StoreOperationResult(0, 0, 0, Collections.emptyList());
+        }
+        deleteSnapshots(groupId, artifactId, versionId, versioned);
+        Bson filter = and(getArtifactWithVersionsFilter(groupId, artifactId, versionId, versioned), in(ENTITY_PATH, entityPaths));
+        DeleteResult result = getCollection().deleteMany(filter);
+        markModified(null, groupId, artifactId);
+        LOGGER.info("delete [{}] paths result {}-{}-{} {} :{}", entityPaths.size(), groupId, artifactId, versionId, versioned, result);
+        return new StoreOperationResult(0, 0, result.getDeletedCount(), Collections.emptyList());
+    }
+
+    @Override
+    public Map<String, String> getContentHashes(String groupId, String artifactId, String versionId, boolean versioned)
+    {
+        Map<String, String> hashes = new HashMap<>();
+        getCollection().find(getArtifactWithVersionsFilter(groupId, artifactId, versionId, versioned))
+                .projection(Projections.include(ENTITY_PATH, CONTENT_HASH))
+                .forEach((Consumer<Document>)doc -> hashes.put(((Document)doc.get(ENTITY)).getString(PATH), doc.getString(CONTENT_HASH)));
+        return hashes;
+    }
+
+    @Override
+    public StoreOperationResult createSnapshot(String groupId, String artifactId, String versionId, boolean versioned)
+    {
+        StoreOperationResult report = new StoreOperationResult(0, 0, 0, new ArrayList<>());
+        if (MASTER_SNAPSHOT.equals(versionId))
+        {
+            report.logError(String.format("snapshots are only kept for released versions, not %s-%s-%s", groupId, artifactId, versionId));
+            return report;
+        }
+        Bson filter = getArtifactWithVersionsFilter(groupId, artifactId, versionId, versioned);
+        Optional<String> contentBefore = contentEtag(filter, new int[1]);
+        MessageDigest digest = newSha256();
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        int count = 0;
+        try (Stream<String> entities = streamAsJson(getCollection().withDocumentClass(RawBsonDocument.class).find(filter).sort(Sorts.ascending(ENTITY_PATH)));
+             DigestOutputStream json = new DigestOutputStream(new GZIPOutputStream(compressed), digest))
+        {
+            json.write(JSON_ARRAY_START);
+            for (Iterator<String> iterator = entities.iterator(); iterator.hasNext(); count++)
+            {
+                if (compressed.size() > maxSnapshotSize)
+                {
+                    //still keep an etag so conditional requests for the version can be answered
+                    LOGGER.warn("entities snapshot for {}-{}-{} {} is over the {} bytes limit after {} entities, not stored", groupId, artifactId, versionId, versioned, maxSnapshotSize, count);
+                    return updateVersionEtag(groupId, artifactId, versionId, versioned);
+                }
+                if (count > 0)
+                {
+                    json.write(JSON_ARRAY_SEPARATOR);
+                }
+                json.write(iterator.next().getBytes(StandardCharsets.UTF_8));
+            }
+            json.write(JSON_ARRAY_END);
+        }
+        catch (IOException e)
+        {
+            throw new StoreException(String.format("error writing entities snapshot for %s-%s-%s: %s", groupId, artifactId, versionId, e.getMessage()));
+        }
+        if (compressed.size() > maxSnapshotSize)
+        {
+            LOGGER.warn("entities snapshot for {}-{}-{} {} is {} bytes, over the {} limit, not stored", groupId, artifactId, versionId, versioned, compressed.size(), maxSnapshotSize);
+            return updateVersionEtag(groupId, artifactId, versionId, versioned);
+        }
+        if (!contentBefore.equals(contentEtag(filter, new int[1])))
+        {
+            //entities were rewritten while the snapshot was being written, it may mix both versions
+            LOGGER.warn("entities of {}-{}-{} {} changed while their snapshot was written, not stored", groupId, artifactId, versionId, versioned);
+            return updateVersionEtag(groupId, artifactId, versionId, versioned);
+        }
+        return storeVersionEtag(report, groupId, artifactId, versionId, versioned, EntityContentHash.toHex(digest.digest()), count, set(SNAPSHOT, new Binary(compressed.toByteArray())));
+    }
+
+    @Override
+    public StoreOperationResult updateVersionEtag(String groupId, String artifactId, String versionId, boolean versioned)
+    {
+        StoreOperationResult report = new StoreOperationResult(0, 0, 0, new ArrayList<>());
+        Bson filter = getArtifactWithVersionsFilter(groupId, artifactId, versionId, versioned);
+        int[] count = new int[1];
+        Optional<String> etag = contentEtag(filter, count);
+        if (!etag.isPresent())
+        {
+            //stored before content hashes were kept, the next refresh rewrites it with one
+            LOGGER.warn("entities of {}-{}-{} {} have no content hash, version etag not stored", groupId, artifactId, versionId, versioned);
+            deleteSnapshots(filter);
+            return report;
+        }
+        return storeVersionEtag(report, groupId, artifactId, versionId, versioned, etag.get(), count[0], unset(SNAPSHOT));
+    }
+
+    /**
+     * Hash of every entity's path and content hash; empty when an entity has no content hash.
+     */
+    private Optional<String> contentEtag(Bson filter, int[] count)
+    {
+        MessageDigest digest = newSha256();
+        MongoCollection<Document> entities = getCollection();
+        for (Document document : entities.find(filter).projection(Projections.include(ENTITY_PATH, CONTENT_HASH)).sort(Sorts.ascending(ENTITY_PATH)))
+        {
+            String contentHash = document.getString(CONTENT_HASH);
+            if (contentHash == null)
+            {
+                return Optional.empty();
+            }
+            digest.update(((Document) document.get(ENTITY)).getString(PATH).getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            digest.update(contentHash.getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            count[0]++;
+        }
+        return Optional.of(EntityContentHash.toHex(digest.digest()));
+    }
+
+    private StoreOperationResult storeVersionEtag(StoreOperationResult report, String groupId, String artifactId, String versionId, boolean versioned, String etag, int count, Bson snapshot)
+    {
+        UpdateResult result = getSnapshotsCollection().updateOne(getArtifactWithVersionsFilter(groupId, artifactId, versionId, versioned), combine(
+                set(GROUP_ID, groupId),
+                set(ARTIFACT_ID, artifactId),
+                set(VERSION_ID, versionId),
+                set(VERSIONED_ENTITY, versioned),
+                set(ETAG, etag),
+                set(ENTITY_COUNT, count),
+                snapshot,
+                currentDate(LAST_MODIFIED)), INSERT_IF_ABSENT);
+        if (result.getUpsertedId() != null)
+        {
+            report.addInsertedCount();
+        }
+        else
+        {
+            report.addModifiedCount();
+        }
+        return report;
+    }
+
+    @Override
+    public Optional<EntitiesSnapshot> getSnapshot(String groupId, String artifactId, String versionId, boolean versioned)
+    {
+        Document snapshot = getSnapshotsCollection().find(getArtifactWithVersionsFilter(groupId, artifactId, versionId, versioned)).first();
+        if (snapshot == null || !snapshot.containsKey(SNAPSHOT))
+        {
+            return Optional.empty();
+        }
+        return Optional.of(new EntitiesSnapshot(snapshot.getString(ETAG), snapshot.getInteger(ENTITY_COUNT), snapshot.get(SNAPSHOT, Binary.class).getData()));
+    }
+
+    @Override
+    public Optional<String> getVersionEtag(String groupId, String artifactId, String versionId, boolean versioned)
+    {
+        Document etag = getSnapshotsCollection().find(getArtifactWithVersionsFilter(groupId, artifactId, versionId, versioned)).projection(Projections.include(ETAG)).first();
+        return etag == null ? Optional.empty() : Optional.ofNullable(etag.getString(ETAG));
+    }
+
+    private static MessageDigest newSha256()
+    {
+        try
+        {
+            return MessageDigest.getInstance("SHA-256");
+        }
+        catch (NoSuchAlgorithmException e)
+        {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private void deleteSnapshots(Bson filter)
+    {
+        getSnapshotsCollection().deleteMany(filter);
+    }
+
+    private void deleteSnapshots(String groupId, String artifactId, String versionId, boolean versioned)
+    {
+        deleteSnapshots(getArtifactWithVersionsFilter(groupId, artifactId, versionId, versioned));
+    }
+
+    private void deleteSnapshots(ClientSession clientSession, StoredEntity changedEntity)
+    {
+        Bson filter = getArtifactWithVersionsFilter(changedEntity.getGroupId(), changedEntity.getArtifactId(), changedEntity.getVersionId(), changedEntity.isVersionedEntity());
+        if (clientSession != null)
+        {
+            getSnapshotsCollection().deleteMany(clientSession, filter);
+        }
+        else
+        {
+            getSnapshotsCollection().deleteMany(filter);
+        }
+    }
+
+    /**
+     * Stamps the project as modified for readers catching up with changes, such as the entity search index. Unlike the
+     * snapshots, the stamp outlives the project's entities so deletions are seen as well.
+     */
+    private void markModified(ClientSession clientSession, String groupId, String artifactId)
+    {
+        Bson update = combine(set(GROUP_ID, groupId), set(ARTIFACT_ID, artifactId), currentDate(LAST_MODIFIED));
+        if (clientSession != null)
+        {
+            getModifiedCollection().updateOne(clientSession, getArtifactFilter(groupId, artifactId), update, INSERT_IF_ABSENT);
+        }
+        else
+        {
+            getModifiedCollection().updateOne(getArtifactFilter(groupId, artifactId), update, INSERT_IF_ABSENT);
+        }
+    }
+
+    private static String snapshotKey(StoredEntity entity)
+    {
+        return entity.getGroupId() + ":" + entity.getArtifactId() + ":" + entity.getVersionId() + ":" + entity.isVersionedEntity();
+    }
+
     @Override
     public StoreOperationResult deleteAll(String groupId, String artifactId)
     {
         Bson filter = getArtifactFilter(groupId, artifactId);
+        deleteSnapshots(filter);
         DeleteResult result = getCollection().deleteMany(filter);
+        //kept after the project is gone so readers tracking modified projects see it was deleted
+        markModified(null, groupId, artifactId);
         LOGGER.info("deleteAll result {}-{} :{}",groupId,artifactId,result);
         return new StoreOperationResult(0, 0, result.getDeletedCount(), Collections.emptyList());
     }
@@ -0,0 +1,164 @@
+//  Copyright 2021 Goldman Sachs
+//
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//       http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+//
+
+package org.finos.legend.depot.store.mongo.entities;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import org.bson.BsonReader;
+import org.bson.BsonType;
+import org.bson.codecs.Decoder;
+import org.bson.codecs.DecoderContext;
+import org.bson.types.Decimal128;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.util.Base64;
+
+/**
+ * Decodes a stored entity document straight into the JSON text of its entity sub-document,
+ * piping the BSON tokens to a jackson generator without materialising any intermediate document or map.
+ * Values are written as jackson would write the decoded document: dates as epoch millis, longs as plain
+ * numbers, non finite doubles as quoted strings and decimals as plain numbers.
+ */
+class EntityJsonDecoder implements Decoder<String>
+{
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+    private final String entityField;
+
+    EntityJsonDecoder(String entityField)
+    {
+        this.entityField = entityField;
+    }
+
+    @Override
+    public String decode(BsonReader reader, DecoderContext decoderContext)
+    {
+        String json = null;
+        reader.readStartDocument();
+        while (reader.readBsonType() != BsonType.END_OF_DOCUMENT)
+        {
+            String fieldName = reader.readName();
+            if (entityField.equals(fieldName) && reader.getCurrentBsonType() == BsonType.DOCUMENT)
+            {
+                json = toJson(reader);
+            }
+            else
+            {
+                reader.skipValue();
+            }
+        }
+        reader.readEndDocument();
+        return json;
+    }
+
+    private static String toJson(BsonReader reader)
+    {
+        StringWriter entity = new StringWriter();
+        try (JsonGenerator generator = JSON_FACTORY.createGenerator(entity))
+        {
+            writeValue(reader, generator);
+        }
+        catch (IOException e)
+        {
+            throw new UncheckedIOException(e);
+        }
+        return entity.toString();
+    }
+
+    private static void writeValue(BsonReader reader, JsonGenerator generator) throws IOException
+    {
+        switch (reader.getCurrentBsonType())
+        {
+            case DOCUMENT:
+                reader.readStartDocument();
+                generator.writeStartObject();
+                while (reader.readBsonType() != BsonType.END_OF_DOCUMENT)
+                {
+                    generator.writeFieldName(reader.readName());
+                    writeValue(reader, generator);
+                }
+                reader.readEndDocument();
+                generator.writeEndObject();
+                break;
+            case ARRAY:
+                reader.readStartArray();
+                generator.writeStartArray();
+                while (reader.readBsonType() != BsonType.END_OF_DOCUMENT)
+                {
+                    writeValue(reader, generator);
+                }
+                reader.readEndArray();
+                generator.writeEndArray();
+                break;
+            case STRING:
+                generator.writeString(reader.readString());
+                break;
+            case SYMBOL:
+                generator.writeString(reader.readSymbol());
+                break;
+            case INT32:
+                generator.writeNumber(reader.readInt32());
+                break;
+            case INT64:
+                generator.writeNumber(reader.readInt64());
+                break;
+            case DOUBLE:
+                generator.writeNumber(reader.readDouble());
+                break;
+            case DECIMAL128:
+                writeDecimal(reader.readDecimal128(), generator);
+                break;
+            case BOOLEAN:
+                generator.writeBoolean(reader.readBoolean());
+                break;
+            case DATE_TIME:
+                generator.writeNumber(reader.readDateTime());
+                break;
+            case TIMESTAMP:
+                generator.writeNumber(reader.readTimestamp().getValue());
+                break;
+            case OBJECT_ID:
+                generator.writeString(reader.readObjectId().toHexString());
+                break;
+            case BINARY:
+                generator.writeString(Base64.getEncoder().encodeToString(reader.readBinaryData().getData()));
+                break;
+            case NULL:
+                reader.readNull();
+                generator.writeNull();
+                break;
+            case UNDEFINED:
+                reader.readUndefined();
+                generator.writeNull();
+                break;
+            default:
+                throw new IllegalStateException("unsupported bson type in entity: " + reader.getCurrentBsonType());
+        }
+    }
+
+    private static void writeDecimal(Decimal128 decimal, JsonGenerator generator) throws IOException
+    {
+        if (decimal.isNaN() || decimal.isInfinite())
+        {
+            generator.writeString(decimal.toString());
+        }
+        else
+        {
+            generator.writeNumber(decimal.bigDecimalValue());
+        }
+    }
+}
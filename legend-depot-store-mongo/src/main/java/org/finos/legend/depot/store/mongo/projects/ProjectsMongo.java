@@ -19,10 +19,13 @@ import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.mongodb.client.MongoCollection;
 import com.mongodb.client.MongoDatabase;
+import com.mongodb.client.model.Sorts;
 import org.bson.conversions.Bson;
+import org.eclipse.collections.impl.utility.ListIterate;
 import org.finos.legend.depot.domain.EntityValidator;
 import org.finos.legend.depot.domain.api.MetadataEventResponse;
 import org.finos.legend.depot.domain.project.ProjectData;
+import org.finos.legend.depot.domain.project.ProjectVersion;
 import org.finos.legend.depot.store.api.projects.Projects;
 import org.finos.legend.depot.store.api.projects.UpdateProjects;
 import org.finos.legend.depot.store.mongo.BaseMongo;
@@ -31,12 +34,18 @@ import org.finos.legend.sdlc.domain.model.version.VersionId;
 
 import javax.inject.Inject;
 import javax.inject.Named;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import static com.mongodb.client.model.Filters.and;
+import static com.mongodb.client.model.Filters.elemMatch;
 import static com.mongodb.client.model.Filters.eq;
+import static com.mongodb.client.model.Filters.or;
 
 public class ProjectsMongo extends BaseMongo<ProjectData> implements Projects, UpdateProjects
 {
@@ -44,6 +53,10 @@ public class ProjectsMongo extends BaseMongo<ProjectData> implements Projects, U
     public static final String MONGO_PROJECTS = "project-configurations";
 
     public static final String PROJECT_ID = "projectId";
+    public static final String DEPENDENCIES = "dependencies";
+    public static final String DEPENDENCY_GROUP_ID = "dependency.groupId";
+    public static final String DEPENDENCY_ARTIFACT_ID = "dependency.artifactId";
+    public static final String DEPENDENCY_VERSION_ID = "dependency.versionId";
 
     @Inject
     public ProjectsMongo(@Named("mongoDatabase") MongoDatabase databaseProvider)
@@ -54,7 +67,9 @@ public class ProjectsMongo extends BaseMongo<ProjectData> implements Projects, U
     @Override
     public boolean createIndexesIfAbsent()
     {
-        return createIndexIfAbsent("groupId-artifactId", GROUP_ID, ARTIFACT_ID);
+        createIndexIfAbsent("groupId-artifactId", GROUP_ID, ARTIFACT_ID);
+        createIndexIfAbsent("dependencies", DEPENDENCIES + "." + DEPENDENCY_GROUP_ID, DEPENDENCIES + "." + DEPENDENCY_ARTIFACT_ID, DEPENDENCIES + "." + DEPENDENCY_VERSION_ID);
+        return true;
     }
 
     @Override
@@ -125,6 +140,29 @@ public class ProjectsMongo extends BaseMongo<ProjectData> implements Projects, U
         return projectData.get().getVersionsOrdered().stream().map(VersionId::toVersionIdString).collect(Collectors.toList());
     }
 
+    @Override
+    public List<ProjectData> findDependants(String groupId, String artifactId)
+    {
+        return find(elemMatch(DEPENDENCIES, and(eq(DEPENDENCY_GROUP_ID, groupId), eq(DEPENDENCY_ARTIFACT_ID, artifactId))));
+    }
+
+    @Override
+    public List<ProjectData> findDependants(List<ProjectVersion> projectVersions)
+    {
+        if (projectVersions.isEmpty())
+        {
+            return Collections.emptyList();
+        }
+        List<Bson> filters = ListIterate.distinct(projectVersions).chunk(VERSIONS_PER_QUERY).collect(versions ->
+                or(versions.collect(pv -> elemMatch(DEPENDENCIES, and(eq(DEPENDENCY_GROUP_ID, pv.getGroupId()), eq(DEPENDENCY_ARTIFACT_ID, pv.getArtifactId()), eq(DEPENDENCY_VERSION_ID, pv.getVersionId())))))).toList();
+        //a project depending on versions from several chunks is returned by each of their queries
+        try (Stream<ProjectData> dependants = stream(filters, Sorts.ascending(GROUP_ID, ARTIFACT_ID)))
+        {
+            return dependants.collect(Collectors.toMap(project -> project.getGroupId() + ":" + project.getArtifactId(), Function.identity(), (first, duplicate) -> first, LinkedHashMap::new))
+                    .values().stream().collect(Collectors.toList());
+        }
+    }
+
     @Override
     public MetadataEventResponse delete(String groupId, String artifactId)
     {
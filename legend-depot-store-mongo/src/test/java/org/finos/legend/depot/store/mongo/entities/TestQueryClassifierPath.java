@@ -61,4 +61,28 @@ public class TestQueryClassifierPath extends TestStoreMongo
         Assert.assertEquals(1, mongo.findReleasedEntitiesByClassifier(CPATH, "TestProfileTwo", Lists.fixedSize.of(new ProjectVersion("examples.metadata", "test2", "2.3.0")), null, false, false).size());
         Assert.assertEquals(2, mongo.findReleasedEntitiesByClassifier(CPATH, "TestProfileTwo", Lists.fixedSize.of(new ProjectVersion("examples.metadata", "test", "2.3.0"), new ProjectVersion("examples.metadata", "test2", "2.3.0")), null, false, false).size());
     }
+
+    @Test
+    public void canQueryLatestVersionEntitiesByClassifier()
+    {
+        String CPATH = "meta::pure::metamodel::extension::Profile";
+        setUpEntitiesDataFromFile(ENTITIES_FILE);
+        Assert.assertTrue(mongo.createIndexesIfAbsent());
+        Assert.assertEquals(0, mongo.findLatestReleasedEntitiesByClassifier(CPATH, null, null, false, false).size());
+
+        mongo.markLatestVersion("examples.metadata", "test", "2.3.0");
+        mongo.markLatestVersion("examples.metadata", "test2", "2.3.0");
+        Assert.assertEquals(3, mongo.findLatestReleasedEntitiesByClassifier(CPATH, null, null, false, false).size());
+        Assert.assertEquals(2, mongo.findLatestReleasedEntitiesByClassifier(CPATH, null, 2, false, false).size());
+        Assert.assertEquals(2, mongo.findLatestReleasedEntitiesByClassifier(CPATH, "TestProfileTwo", null, false, false).size());
+
+        mongo.markLatestVersion("examples.metadata", "test", "2.2.0");
+        Assert.assertEquals(3, mongo.findLatestReleasedEntitiesByClassifier(CPATH, null, null, false, false).size());
+
+        mongo.markLatestVersion("examples.metadata", "test", null);
+        Assert.assertEquals(2, mongo.findLatestReleasedEntitiesByClassifier(CPATH, null, null, false, false).size());
+
+        mongo.markLatestVersion("examples.metadata", "test", "2.2.0");
+        Assert.assertEquals(4, mongo.findLatestReleasedEntitiesByClassifier(CPATH, null, null, false, false).size());
+    }
 }
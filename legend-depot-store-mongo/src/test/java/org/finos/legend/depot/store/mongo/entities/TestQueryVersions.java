@@ -15,18 +15,31 @@
 
 package org.finos.legend.depot.store.mongo.entities;
 
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.bson.Document;
+import org.bson.types.Decimal128;
+import org.finos.legend.depot.domain.entity.EntityDefinition;
 import org.finos.legend.depot.domain.entity.StoredEntity;
+import org.finos.legend.depot.domain.project.ProjectVersion;
 import org.finos.legend.depot.store.mongo.TestStoreMongo;
 import org.finos.legend.sdlc.domain.model.entity.Entity;
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.io.IOException;
+import java.math.BigDecimal;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import static org.finos.legend.depot.domain.version.VersionValidator.MASTER_SNAPSHOT;
 
@@ -127,6 +140,44 @@ public class TestQueryVersions extends TestStoreMongo
         Assert.assertTrue(allPaths.stream().anyMatch(ent -> ent.contains("vX_X_X")));
     }
 
+    @Test
+    public void canStreamEntitiesOfManyVersions()
+    {
+        List<ProjectVersion> projectVersions = Arrays.asList(new ProjectVersion("examples.metadata", "test", "2.2.0"), new ProjectVersion("examples.metadata", "test", MASTER_SNAPSHOT), new ProjectVersion("examples.metadata", "test", "2.2.0"));
+        List<StoredEntity> entities;
+        try (Stream<StoredEntity> stored = versionsMongo.streamStoredEntities(projectVersions, false))
+        {
+            entities = stored.collect(Collectors.toList());
+        }
+        List<String> versions = entities.stream().map(StoredEntity::getVersionId).distinct().collect(Collectors.toList());
+        Assert.assertEquals(2, versions.size());
+        Assert.assertEquals(versionsMongo.getStoredEntities("examples.metadata", "test", "2.2.0", false).size() + versionsMongo.getStoredEntities("examples.metadata", "test", MASTER_SNAPSHOT, false).size(), entities.size());
+        //each version's entities come one after the other
+        Assert.assertEquals(1, entities.stream().filter(entity -> entity != entities.get(0) && !entity.getVersionId().equals(entities.get(entities.indexOf(entity) - 1).getVersionId())).count());
+    }
+
+    @Test
+    public void streamsEntitiesDecodedInParallelInCursorOrder()
+    {
+        List<StoredEntity> many = new ArrayList<>();
+        for (int i = 0; i < 1500; i++)
+        {
+            many.add(new StoredEntity("examples.many", "test", i % 2 == 0 ? "1.0.0" : "2.0.0", false, new EntityDefinition(String.format("examples::many::Entity%04d", i), "meta::pure::metamodel::type::Class", new HashMap<>())));
+        }
+        Assert.assertFalse(versionsMongo.createOrUpdate(many).hasErrors());
+
+        List<ProjectVersion> projectVersions = Arrays.asList(new ProjectVersion("examples.many", "test", "2.0.0"), new ProjectVersion("examples.many", "test", "1.0.0"));
+        List<StoredEntity> streamed;
+        try (Stream<StoredEntity> stored = versionsMongo.streamStoredEntities(projectVersions, false))
+        {
+            streamed = stored.collect(Collectors.toList());
+        }
+        Assert.assertEquals(1500, streamed.size());
+        Assert.assertEquals(1500, streamed.stream().map(entity -> entity.getVersionId() + entity.getEntity().getPath()).distinct().count());
+        //versions are streamed one after the other in the order the cursor returned them
+        Assert.assertEquals(750, streamed.subList(0, 750).stream().filter(entity -> entity.getVersionId().equals(streamed.get(0).getVersionId())).count());
+    }
+
     @Test
     public void getMasterVersionWithoutVersionInPath()
     {
@@ -140,5 +191,87 @@ public class TestQueryVersions extends TestStoreMongo
         Assert.assertTrue(allPaths.stream().noneMatch(ent -> ent.contains("v2_2_0")));
     }
 
+    @Test
+    public void canStreamEntitiesByProjectVersion()
+    {
+        try (Stream<Entity> entities = versionsMongo.streamEntities("examples.metadata", "test", "2.2.0", false))
+        {
+            Set<String> paths = entities.map(Entity::getPath).collect(Collectors.toSet());
+            Assert.assertEquals(versionsMongo.getEntities("examples.metadata", "test", "2.2.0", false).size(), paths.size());
+            Assert.assertTrue(paths.contains("examples::metadata::test::TestProfile"));
+        }
+        try (Stream<Entity> entities = versionsMongo.streamEntitiesByPackage("examples.metadata", "test", "2.2.0", "examples::metadata::test", false, null, false))
+        {
+            Assert.assertEquals(2, entities.count());
+        }
+    }
+
+    @Test
+    public void canStreamEntitiesAsJson() throws IOException
+    {
+        ObjectMapper objectMapper = new ObjectMapper();
+        List<Entity> entities = versionsMongo.getEntities("examples.metadata", "test", "2.2.0", false);
+        List<String> entitiesJson;
+        try (Stream<String> json = versionsMongo.streamEntitiesAsJson("examples.metadata", "test", "2.2.0", false))
+        {
+            entitiesJson = json.collect(Collectors.toList());
+        }
+        Assert.assertEquals(entities.size(), entitiesJson.size());
+        for (int i = 0; i < entities.size(); i++)
+        {
+            EntityDefinition fromJson = objectMapper.readValue(entitiesJson.get(i), EntityDefinition.class);
+            Assert.assertEquals(entities.get(i).getPath(), fromJson.getPath());
+            Assert.assertEquals(entities.get(i).getClassifierPath(), fromJson.getClassifierPath());
+            Assert.assertEquals(entities.get(i).getContent(), fromJson.getContent());
+        }
+
+        Set<String> classifiers = new HashSet<>();
+        classifiers.add("meta::pure::metamodel::extension::Profile");
+        try (Stream<String> json = versionsMongo.streamEntitiesByPackageAsJson("examples.metadata", "test", "2.2.0", "examples::metadata", false, classifiers, true))
+        {
+            Assert.assertEquals(versionsMongo.getEntitiesByPackage("examples.metadata", "test", "2.2.0", "examples::metadata", false, classifiers, true).size(), json.count());
+        }
+    }
+
+    @Test
+    public void streamedJsonMatchesJacksonForAllValueTypes() throws IOException
+    {
+        Document content = new Document("package", "examples::types")
+                .append("name", "Types")
+                .append("int", 42)
+                .append("long", 1L << 40)
+                .append("double", 1.5)
+                .append("whole", 2.0)
+                .append("nan", Double.NaN)
+                .append("infinity", Double.POSITIVE_INFINITY)
+                .append("date", new Date(1620000000123L))
+                .append("empty", null)
+                .append("flag", true)
+                .append("values", Arrays.asList(1, 2L, "three", new Document("four", 4.25)));
+        mongoProvider.getCollection(EntitiesMongo.ENTITIES_VERSIONS).insertOne(new Document("groupId", "examples.types").append("artifactId", "types").append("versionId", "1.0.0").append("versionedEntity", false)
+                .append("entity", new Document("path", "examples::types::Types").append("classifierPath", "meta::pure::metamodel::type::Class").append("content", content)));
+
+        ObjectMapper objectMapper = new ObjectMapper();
+        Entity entity = versionsMongo.getEntities("examples.types", "types", "1.0.0", false).get(0);
+        String entityJson;
+        try (Stream<String> json = versionsMongo.streamEntitiesAsJson("examples.types", "types", "1.0.0", false))
+        {
+            entityJson = json.findFirst().get();
+        }
+        Assert.assertEquals(objectMapper.readTree(objectMapper.writeValueAsString(entity.getContent())), objectMapper.readTree(entityJson).get("content"));
+    }
 
+    @Test
+    public void decimalsAreStreamedAsPlainNumbers() throws IOException
+    {
+        mongoProvider.getCollection(EntitiesMongo.ENTITIES_VERSIONS).insertOne(new Document("groupId", "examples.types").append("artifactId", "types").append("versionId", "1.0.0").append("versionedEntity", false)
+                .append("entity", new Document("path", "examples::types::Decimals").append("content", new Document("decimal", new Decimal128(new BigDecimal("12345678901234567890.125"))).append("nan", Decimal128.NaN))));
+
+        try (Stream<String> json = versionsMongo.streamEntitiesAsJson("examples.types", "types", "1.0.0", false))
+        {
+            JsonNode content = new ObjectMapper().enable(DeserializationFeature.USE_BIG_DECIMAL_FOR_FLOATS).readTree(json.findFirst().get()).get("content");
+            Assert.assertEquals(new BigDecimal("12345678901234567890.125"), content.get("decimal").decimalValue());
+            Assert.assertEquals("NaN", content.get("nan").textValue());
+        }
+    }
 }
@@ -17,6 +17,7 @@ package org.finos.legend.depot.store.mongo.entities;
 
 import com.mongodb.client.MongoCollection;
 import org.bson.Document;
+import org.finos.legend.depot.domain.entity.EntityContentHash;
 import org.finos.legend.depot.domain.entity.EntityDefinition;
 import org.finos.legend.depot.domain.entity.StoredEntity;
 import org.finos.legend.depot.domain.entity.StoredEntityOverview;
@@ -29,6 +30,7 @@ import org.junit.Test;
 
 import java.net.URL;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.function.Consumer;
@@ -125,7 +127,7 @@ public class TestUpdateRevisions extends TestStoreMongo
         List indexes1 = new ArrayList();
         this.mongoProvider.getCollection(EntitiesMongo.ENTITIES_VERSIONS).listIndexes().forEach((Consumer<Document>)indexes1::add);
         Assert.assertFalse(indexes1.isEmpty());
-        Assert.assertEquals(6, indexes1.size());
+        Assert.assertEquals(7, indexes1.size());
     }
 
     @Test
@@ -152,4 +154,45 @@ public class TestUpdateRevisions extends TestStoreMongo
         revisionsMongo.deleteLatest("examples.metadata","test",true);
         Assert.assertEquals(0, revisionsMongo.getRevisionEntityCount("examples.metadata","test"));
     }
+
+    @Test
+    public void canDiffRevisionsByContentHash()
+    {
+        List<StoredEntity> entitiesList = readEntitiesFile(ENTITIES_FILE);
+        StoredEntity entity = entitiesList.get(0);
+        entity.setVersionId(VersionValidator.MASTER_SNAPSHOT);
+        revisionsMongo.newOrUpdate(entity);
+
+        Map<String, String> hashes = revisionsMongo.getContentHashes(entity.getGroupId(), entity.getArtifactId(), VersionValidator.MASTER_SNAPSHOT, entity.isVersionedEntity());
+        Assert.assertEquals(1, hashes.size());
+        Assert.assertEquals(EntityContentHash.of(entity.getEntity()), hashes.get(entity.getEntity().getPath()));
+        Assert.assertTrue(revisionsMongo.getContentHashes(entity.getGroupId(), entity.getArtifactId(), VersionValidator.MASTER_SNAPSHOT, !entity.isVersionedEntity()).isEmpty());
+
+        Assert.assertEquals(0, revisionsMongo.delete(entity.getGroupId(), entity.getArtifactId(), VersionValidator.MASTER_SNAPSHOT, entity.isVersionedEntity(), Collections.singletonList("not::there")).getDeletionCount());
+        Assert.assertEquals(1, revisionsMongo.delete(entity.getGroupId(), entity.getArtifactId(), VersionValidator.MASTER_SNAPSHOT, entity.isVersionedEntity(), hashes.keySet()).getDeletionCount());
+        Assert.assertTrue(revisionsMongo.getContentHashes(entity.getGroupId(), entity.getArtifactId(), VersionValidator.MASTER_SNAPSHOT, entity.isVersionedEntity()).isEmpty());
+    }
+
+    @Test
+    public void canTagRevisionsByContent()
+    {
+        List<StoredEntity> entitiesList = readEntitiesFile(ENTITIES_FILE);
+        StoredEntity entity = entitiesList.get(0);
+        entity.setVersionId(VersionValidator.MASTER_SNAPSHOT);
+        revisionsMongo.newOrUpdate(entity);
+        Assert.assertFalse(revisionsMongo.getVersionEtag(entity.getGroupId(), entity.getArtifactId(), VersionValidator.MASTER_SNAPSHOT, entity.isVersionedEntity()).isPresent());
+
+        Assert.assertFalse(revisionsMongo.updateVersionEtag(entity.getGroupId(), entity.getArtifactId(), VersionValidator.MASTER_SNAPSHOT, entity.isVersionedEntity()).hasErrors());
+        String etag = revisionsMongo.getVersionEtag(entity.getGroupId(), entity.getArtifactId(), VersionValidator.MASTER_SNAPSHOT, entity.isVersionedEntity()).get();
+        Assert.assertFalse(revisionsMongo.getSnapshot(entity.getGroupId(), entity.getArtifactId(), VersionValidator.MASTER_SNAPSHOT, entity.isVersionedEntity()).isPresent());
+        revisionsMongo.updateVersionEtag(entity.getGroupId(), entity.getArtifactId(), VersionValidator.MASTER_SNAPSHOT, entity.isVersionedEntity());
+        Assert.assertEquals(etag, revisionsMongo.getVersionEtag(entity.getGroupId(), entity.getArtifactId(), VersionValidator.MASTER_SNAPSHOT, entity.isVersionedEntity()).get());
+
+        StoredEntity other = entitiesList.get(1);
+        other.setVersionId(VersionValidator.MASTER_SNAPSHOT);
+        revisionsMongo.newOrUpdate(other);
+        Assert.assertFalse(revisionsMongo.getVersionEtag(entity.getGroupId(), entity.getArtifactId(), VersionValidator.MASTER_SNAPSHOT, entity.isVersionedEntity()).isPresent());
+        revisionsMongo.updateVersionEtag(entity.getGroupId(), entity.getArtifactId(), VersionValidator.MASTER_SNAPSHOT, entity.isVersionedEntity());
+        Assert.assertNotEquals(etag, revisionsMongo.getVersionEtag(entity.getGroupId(), entity.getArtifactId(), VersionValidator.MASTER_SNAPSHOT, entity.isVersionedEntity()).get());
+    }
 }
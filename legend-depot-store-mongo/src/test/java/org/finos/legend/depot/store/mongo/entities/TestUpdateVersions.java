@@ -17,6 +17,7 @@ package org.finos.legend.depot.store.mongo.entities;
 
 import com.mongodb.client.MongoCollection;
 import org.bson.Document;
+import org.finos.legend.depot.domain.entity.EntitiesSnapshot;
 import org.finos.legend.depot.domain.entity.StoredEntity;
 import org.finos.legend.depot.domain.status.StoreOperationResult;
 import org.finos.legend.depot.store.mongo.TestStoreMongo;
@@ -30,6 +31,8 @@ import java.util.List;
 import java.util.Map;
 import java.util.function.Consumer;
 
+import static org.finos.legend.depot.domain.version.VersionValidator.MASTER_SNAPSHOT;
+
 public class TestUpdateVersions extends TestStoreMongo
 {
 
@@ -110,6 +113,27 @@ public class TestUpdateVersions extends TestStoreMongo
 
     }
 
+    @Test
+    public void canStoreAndUpdateEntitiesInBatches()
+    {
+        EntitiesMongo batchedMongo = new EntitiesMongo(mongoProvider, getMongoClient(), false, 2, true);
+        List<StoredEntity> entitiesList = readEntitiesFile(ENTITIES_FILE);
+        Assert.assertNotNull(entitiesList);
+        Assert.assertEquals(3, entitiesList.size());
+
+        StoreOperationResult result = batchedMongo.createOrUpdate(entitiesList);
+        Assert.assertFalse(result.hasErrors());
+        Assert.assertEquals(3, result.getInsertedCount());
+        Assert.assertEquals(0, result.getModifiedCount());
+        Assert.assertEquals(3, batchedMongo.getVersionEntityCount("examples.metadata", "test", "2.2.0"));
+
+        StoreOperationResult result1 = batchedMongo.createOrUpdate(entitiesList);
+        Assert.assertFalse(result1.hasErrors());
+        Assert.assertEquals(0, result1.getInsertedCount());
+        Assert.assertEquals(3, result1.getModifiedCount());
+        Assert.assertEquals(3, batchedMongo.getVersionEntityCount("examples.metadata", "test", "2.2.0"));
+    }
+
     @Test
     public void canDeleteVersion()
     {
@@ -142,6 +166,52 @@ public class TestUpdateVersions extends TestStoreMongo
         List indexes1 = new ArrayList();
         this.mongoProvider.getCollection(EntitiesMongo.ENTITIES_VERSIONS).listIndexes().forEach((Consumer<Document>)indexes1::add);
         Assert.assertFalse(indexes1.isEmpty());
-        Assert.assertEquals(6, indexes1.size());
+        Assert.assertEquals(7, indexes1.size());
+    }
+
+    @Test
+    public void canSnapshotReleasedVersions()
+    {
+        List<StoredEntity> entitiesList = readEntitiesFile(ENTITIES_FILE);
+        versionsMongo.createOrUpdate(entitiesList);
+        Assert.assertFalse(versionsMongo.getSnapshot("examples.metadata", "test", "2.2.0", false).isPresent());
+
+        Assert.assertFalse(versionsMongo.createSnapshot("examples.metadata", "test", "2.2.0", false).hasErrors());
+        EntitiesSnapshot snapshot = versionsMongo.getSnapshot("examples.metadata", "test", "2.2.0", false).get();
+        Assert.assertEquals(3, snapshot.getEntityCount());
+        Assert.assertEquals(64, snapshot.getEtag().length());
+        Assert.assertFalse(versionsMongo.getSnapshot("examples.metadata", "test", "2.2.0", true).isPresent());
+
+        versionsMongo.createSnapshot("examples.metadata", "test", "2.2.0", false);
+        Assert.assertEquals(snapshot.getEtag(), versionsMongo.getSnapshot("examples.metadata", "test", "2.2.0", false).get().getEtag());
+        Assert.assertTrue(versionsMongo.createSnapshot("examples.metadata", "test", MASTER_SNAPSHOT, false).hasErrors());
+    }
+
+    @Test
+    public void snapshotsAreDroppedWhenVersionChanges()
+    {
+        List<StoredEntity> entitiesList = readEntitiesFile(ENTITIES_FILE);
+        versionsMongo.createOrUpdate(entitiesList);
+        versionsMongo.createSnapshot("examples.metadata", "test", "2.2.0", false);
+        versionsMongo.createOrUpdate(entitiesList.subList(0, 1));
+        Assert.assertFalse(versionsMongo.getSnapshot("examples.metadata", "test", "2.2.0", false).isPresent());
+
+        versionsMongo.createSnapshot("examples.metadata", "test", "2.2.0", false);
+        versionsMongo.delete("examples.metadata", "test", "2.2.0", false);
+        Assert.assertFalse(versionsMongo.getSnapshot("examples.metadata", "test", "2.2.0", false).isPresent());
+    }
+
+    @Test
+    public void oversizedSnapshotsOnlyKeepTheEtag()
+    {
+        List<StoredEntity> entitiesList = readEntitiesFile(ENTITIES_FILE);
+        versionsMongo.createOrUpdate(entitiesList);
+        Assert.assertFalse(versionsMongo.updateVersionEtag("examples.metadata", "test", "2.2.0", false).hasErrors());
+        String contentEtag = versionsMongo.getVersionEtag("examples.metadata", "test", "2.2.0", false).get();
+
+        EntitiesMongo limited = new EntitiesMongo(mongoProvider, getMongoClient()).withMaxSnapshotSize(16);
+        Assert.assertFalse(limited.createSnapshot("examples.metadata", "test", "2.2.0", false).hasErrors());
+        Assert.assertFalse(limited.getSnapshot("examples.metadata", "test", "2.2.0", false).isPresent());
+        Assert.assertEquals(contentEtag, limited.getVersionEtag("examples.metadata", "test", "2.2.0", false).get());
     }
 }
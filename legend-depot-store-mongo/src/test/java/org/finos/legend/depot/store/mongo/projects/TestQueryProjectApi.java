@@ -16,12 +16,16 @@
 package org.finos.legend.depot.store.mongo.projects;
 
 import org.finos.legend.depot.domain.project.ProjectData;
+import org.finos.legend.depot.domain.project.ProjectVersion;
 import org.finos.legend.depot.store.api.projects.Projects;
 import org.finos.legend.depot.store.mongo.TestStoreMongo;
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
 
@@ -87,5 +91,31 @@ public class TestQueryProjectApi extends TestStoreMongo
 
     }
 
+    @Test
+    public void canFindDependants()
+    {
+        List<ProjectData> dependants = projectsAPI.findDependants("examples.metadata", "test-dependencies");
+        Assert.assertEquals(1, dependants.size());
+        Assert.assertEquals("test", dependants.get(0).getArtifactId());
+
+        Assert.assertEquals(1, projectsAPI.findDependants(Arrays.asList(new ProjectVersion("examples.metadata", "test-dependencies", "1.0.0"), new ProjectVersion("examples.metadata", "test", "2.3.1"))).size());
+        Assert.assertTrue(projectsAPI.findDependants(Collections.singletonList(new ProjectVersion("examples.metadata", "test-dependencies", "2.0.0"))).isEmpty());
+        Assert.assertTrue(projectsAPI.findDependants("examples.metadata", "test").isEmpty());
+    }
 
+    @Test
+    public void dependantsOfManyVersionsAreFoundOnce()
+    {
+        List<ProjectVersion> versions = new ArrayList<>();
+        for (int i = 0; i < 250; i++)
+        {
+            versions.add(new ProjectVersion("examples.metadata", "test-dependencies", "0.0." + i));
+        }
+        versions.add(new ProjectVersion("examples.metadata", "test-dependencies", "1.0.0"));
+        versions.add(0, new ProjectVersion("examples.metadata", "test-dependencies", "1.0.0"));
+
+        List<ProjectData> dependants = projectsAPI.findDependants(versions);
+        Assert.assertEquals(1, dependants.size());
+        Assert.assertEquals("test", dependants.get(0).getArtifactId());
+    }
 }
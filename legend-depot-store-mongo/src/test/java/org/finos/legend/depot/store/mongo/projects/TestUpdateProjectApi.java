@@ -77,7 +77,7 @@ public class TestUpdateProjectApi extends TestStoreMongo
         List indexes1 = new ArrayList();
         this.mongoProvider.getCollection(ProjectsMongo.MONGO_PROJECTS).listIndexes().forEach((Consumer<Document>)indexes1::add);
         Assert.assertFalse(indexes1.isEmpty());
-        Assert.assertEquals(2, indexes1.size());
+        Assert.assertEquals(3, indexes1.size());
     }
 
     @Test
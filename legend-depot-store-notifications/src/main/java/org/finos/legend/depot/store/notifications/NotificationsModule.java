@@ -63,8 +63,13 @@ public class NotificationsModule extends PrivateModule
     @Named("queue-observer")
     NotificationsQueueManager initQueue(SchedulesFactory schedulesFactory, QueueManagerConfiguration config, ProjectsService projectsService, Notifications events, Queue queue, NotificationEventHandler notificationHandler)
     {
-        NotificationsQueueManager eventsQueueManager = new NotificationsQueueManager(projectsService, events, queue, notificationHandler);
+        queue.createIndexesIfAbsent();
+        NotificationsQueueManager eventsQueueManager = new NotificationsQueueManager(projectsService, events, queue, notificationHandler, config);
         schedulesFactory.register(QUEUE_OBSERVER, LocalDateTime.now().plusNanos(config.getQueueDelay() * 1000000L), config.getQueueInterval(), true, eventsQueueManager::handle);
+        if (config.isWatchQueue())
+        {
+            eventsQueueManager.watchQueue(config.getWatchPollInterval(), config.isWatchWithChangeStreams());
+        }
         return eventsQueueManager;
     }
 
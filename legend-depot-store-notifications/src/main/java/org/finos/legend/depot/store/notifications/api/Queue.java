@@ -17,6 +17,7 @@ package org.finos.legend.depot.store.notifications.api;
 
 import org.finos.legend.depot.store.notifications.domain.MetadataNotification;
 
+import java.io.Closeable;
 import java.util.List;
 import java.util.Optional;
 
@@ -33,5 +34,17 @@ public interface Queue
 
     String push(MetadataNotification metadataEvent);
 
+    Optional<MetadataNotification> claimNext(String claimerId, long leaseInMillis);
+
+    boolean renewLease(String eventId, String claimerId, long leaseInMillis);
+
+    boolean release(MetadataNotification metadataEvent, String claimerId);
+
+    boolean acknowledge(String eventId, String claimerId);
+
     long size();
+
+    Closeable watch(Runnable onNewEvents, long pollIntervalInMillis, boolean useChangeStreams);
+
+    boolean createIndexesIfAbsent();
 }
@@ -27,6 +27,7 @@ import org.finos.legend.depot.domain.api.MetadataEventResponse;
 import org.finos.legend.depot.domain.api.status.MetadataEventStatus;
 
 import javax.validation.constraints.NotNull;
+import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
 
@@ -54,6 +55,8 @@ public class MetadataNotification implements HasIdentifier
     private int maxRetries;
     @EqualsExclude
     private MetadataEventResponse response;
+    @EqualsExclude
+    private List<String> coalescedParentEventIds = new ArrayList<>();
 
 
     @JsonCreator
@@ -186,6 +189,11 @@ public class MetadataNotification implements HasIdentifier
         return transitive;
     }
 
+    public List<String> getCoalescedParentEventIds()
+    {
+        return coalescedParentEventIds;
+    }
+
 
     public MetadataNotification increaseRetries()
     {
@@ -23,6 +23,7 @@ public class QueueManagerConfiguration
 {
     public static final long TWENTY_SECONDS = 20 * 1000L;
     public static final long ONE_MINUTE = 60 * 1000L;
+    public static final int DEFAULT_NUMBER_OF_WORKERS = 4;
 
     @JsonProperty
     long queueInterval = TWENTY_SECONDS;
@@ -30,6 +31,21 @@ public class QueueManagerConfiguration
     @JsonProperty
     long queueDelay = ONE_MINUTE;
 
+    @JsonProperty
+    int numberOfWorkers = DEFAULT_NUMBER_OF_WORKERS;
+
+    @JsonProperty
+    long leaseDuration = 5 * ONE_MINUTE;
+
+    @JsonProperty
+    boolean watchQueue = false;
+
+    @JsonProperty
+    boolean watchWithChangeStreams = true;
+
+    @JsonProperty
+    long watchPollInterval = 1000L;
+
     public long getQueueInterval()
     {
         return queueInterval;
@@ -40,6 +56,31 @@ public class QueueManagerConfiguration
         return queueDelay;
     }
 
+    public int getNumberOfWorkers()
+    {
+        return numberOfWorkers;
+    }
+
+    public long getLeaseDuration()
+    {
+        return leaseDuration;
+    }
+
+    public boolean isWatchQueue()
+    {
+        return watchQueue;
+    }
+
+    public boolean isWatchWithChangeStreams()
+    {
+        return watchWithChangeStreams;
+    }
+
+    public long getWatchPollInterval()
+    {
+        return watchPollInterval;
+    }
+
     public void setQueueInterval(long queueInterval)
     {
         this.queueInterval = queueInterval;
@@ -49,4 +90,29 @@ public class QueueManagerConfiguration
     {
         this.queueDelay = queueDelay;
     }
+
+    public void setNumberOfWorkers(int numberOfWorkers)
+    {
+        this.numberOfWorkers = numberOfWorkers;
+    }
+
+    public void setLeaseDuration(long leaseDuration)
+    {
+        this.leaseDuration = leaseDuration;
+    }
+
+    public void setWatchQueue(boolean watchQueue)
+    {
+        this.watchQueue = watchQueue;
+    }
+
+    public void setWatchPollInterval(long watchPollInterval)
+    {
+        this.watchPollInterval = watchPollInterval;
+    }
+
+    public void setWatchWithChangeStreams(boolean watchWithChangeStreams)
+    {
+        this.watchWithChangeStreams = watchWithChangeStreams;
+    }
 }
@@ -15,6 +15,7 @@
 
 package org.finos.legend.depot.store.notifications.services;
 
+import io.dropwizard.lifecycle.Managed;
 import org.finos.legend.depot.domain.api.MetadataEventResponse;
 import org.finos.legend.depot.domain.api.status.MetadataEventStatus;
 import org.finos.legend.depot.domain.project.ProjectData;
@@ -24,53 +25,236 @@ import org.finos.legend.depot.store.notifications.api.Notifications;
 import org.finos.legend.depot.store.notifications.api.NotificationsManager;
 import org.finos.legend.depot.store.notifications.api.Queue;
 import org.finos.legend.depot.store.notifications.domain.MetadataNotification;
+import org.finos.legend.depot.store.notifications.domain.QueueManagerConfiguration;
 import org.finos.legend.depot.tracing.resources.ResourceLoggingAndTracing;
 import org.finos.legend.depot.tracing.services.TracerFactory;
 import org.finos.legend.depot.tracing.services.prometheus.PrometheusMetricsFactory;
 import org.slf4j.Logger;
 
 import javax.inject.Inject;
+import java.io.Closeable;
+import java.lang.management.ManagementFactory;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
-public final class NotificationsQueueManager implements NotificationsManager
+public final class NotificationsQueueManager implements NotificationsManager, Managed
 {
     private static final Logger LOGGER = org.slf4j.LoggerFactory.getLogger(NotificationsQueueManager.class);
     public static final String NOTIFICATIONS_COUNTER = "notifications";
     public static final String NOTIFICATIONS_COUNTER_HELP = "total notifications received";
     public static final String QUEUE_WAITING = "queue_waiting";
     public static final String QUEUE_WAITING_HELP = "waiting in queue";
+    private static final long SHUTDOWN_WAIT_IN_SECONDS = 30L;
 
     private final Notifications events;
     private final Queue queue;
     private final NotificationEventHandler eventHandler;
     private final ProjectsService projectsService;
+    private final String claimerId;
+    private final int numberOfWorkers;
+    private final long leaseDuration;
+    private final ExecutorService workers;
+    private final ScheduledExecutorService heartbeat;
+    private final AtomicInteger activeWorkers = new AtomicInteger();
+    private final AtomicBoolean wakeUpPending = new AtomicBoolean();
+    private final AtomicBoolean stopped = new AtomicBoolean();
+    private final ExecutorService dispatcher;
+    private volatile Closeable queueWatcher;
 
-    @Inject
     public NotificationsQueueManager(ProjectsService projectsService, Notifications events, Queue queue, NotificationEventHandler eventHandler)
+    {
+        this(projectsService, events, queue, eventHandler, new QueueManagerConfiguration());
+    }
+
+    @Inject
+    public NotificationsQueueManager(ProjectsService projectsService, Notifications events, Queue queue, NotificationEventHandler eventHandler, QueueManagerConfiguration configuration)
     {
         this.events = events;
         this.queue = queue;
         this.eventHandler = eventHandler;
         this.projectsService = projectsService;
+        this.claimerId = ManagementFactory.getRuntimeMXBean().getName() + "-" + UUID.randomUUID();
+        this.numberOfWorkers = Math.max(1, configuration.getNumberOfWorkers());
+        this.leaseDuration = configuration.getLeaseDuration();
+        this.workers = Executors.newFixedThreadPool(numberOfWorkers, runnable -> newDaemonThread(runnable, "queue-worker"));
+        this.heartbeat = Executors.newSingleThreadScheduledExecutor(runnable -> newDaemonThread(runnable, "queue-heartbeat"));
+        this.dispatcher = Executors.newSingleThreadExecutor(runnable -> newDaemonThread(runnable, "queue-dispatcher"));
+    }
+
+    public Closeable watchQueue(long pollIntervalInMillis, boolean useChangeStreams)
+    {
+        LOGGER.info("watching queue for new events, change streams: {}", useChangeStreams);
+        Closeable watcher = queue.watch(this::wakeUp, pollIntervalInMillis, useChangeStreams);
+        this.queueWatcher = watcher;
+        return watcher;
+    }
+
+    @Override
+    public void start()
+    {
+    }
+
+    @Override
+    public void stop() throws Exception
+    {
+        //scheduled and watcher triggered runs arriving from now on find nothing to do
+        stopped.set(true);
+        Closeable watcher = this.queueWatcher;
+        if (watcher != null)
+        {
+            watcher.close();
+        }
+        //workers finish the event they hold and stop claiming, leases keep being renewed until they are done
+        shutdown(dispatcher, "Queue dispatcher");
+        shutdown(workers, "Queue workers");
+        shutdown(heartbeat, "Queue heartbeat");
+    }
+
+    private static void shutdown(ExecutorService pool, String label)
+    {
+        pool.shutdown();
+        try
+        {
+            if (!pool.awaitTermination(SHUTDOWN_WAIT_IN_SECONDS, TimeUnit.SECONDS))
+            {
+                //claimed events still in flight are released back to the queue once their lease expires
+                LOGGER.warn("{} still running after {}s, interrupting them", label, SHUTDOWN_WAIT_IN_SECONDS);
+                pool.shutdownNow();
+            }
+        }
+        catch (InterruptedException e)
+        {
+            pool.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    void wakeUp()
+    {
+        //bursts of inserts collapse into a single drain, workers already running pick up the new events themselves
+        if (!stopped.get() && wakeUpPending.compareAndSet(false, true))
+        {
+            dispatcher.submit(() ->
+            {
+                wakeUpPending.set(false);
+                return handle();
+            });
+        }
     }
 
+    private static Thread newDaemonThread(Runnable runnable, String name)
+    {
+        Thread thread = new Thread(runnable, name);
+        thread.setDaemon(true);
+        return thread;
+    }
 
     public int handle()
     {
-        return TracerFactory.get().executeWithTrace(ResourceLoggingAndTracing.HANDLE_EVENTS_IN_QUEUE, () -> handleEvents(queue.getFirstInQueue()));
+        return TracerFactory.get().executeWithTrace(ResourceLoggingAndTracing.HANDLE_EVENTS_IN_QUEUE, this::drainWithWorkers);
     }
 
-    private int handleEvents(Optional<MetadataNotification> foundEvent)
+    private int drainWithWorkers()
     {
-        if (foundEvent.isPresent())
+        if (stopped.get())
+        {
+            return 0;
+        }
+        //failed events are released back to the queue, they get retried on the next run rather than within this one
+        Set<String> attempted = ConcurrentHashMap.newKeySet();
+        List<Future<Integer>> started = new ArrayList<>();
+        int running = activeWorkers.get();
+        while (running < numberOfWorkers)
+        {
+            if (activeWorkers.compareAndSet(running, running + 1))
+            {
+                try
+                {
+                    started.add(workers.submit(() -> consume(attempted)));
+                }
+                catch (RejectedExecutionException e)
+                {
+                    //stopped while this run was starting its workers
+                    activeWorkers.decrementAndGet();
+                    break;
+                }
+            }
+            running = activeWorkers.get();
+        }
+        int processed = 0;
+        for (Future<Integer> worker : started)
+        {
+            try
+            {
+                processed += worker.get();
+            }
+            catch (InterruptedException e)
+            {
+                Thread.currentThread().interrupt();
+            }
+            catch (ExecutionException e)
+            {
+                LOGGER.error("queue worker failed", e.getCause());
+            }
+        }
+        return processed;
+    }
+
+    private int consume(Set<String> attempted)
+    {
+        try
+        {
+            return drain(attempted);
+        }
+        finally
+        {
+            activeWorkers.decrementAndGet();
+        }
+    }
+
+    private int drain(Set<String> attempted)
+    {
+        int processed = 0;
+        Optional<MetadataNotification> claimed = stopped.get() ? Optional.empty() : queue.claimNext(claimerId, leaseDuration);
+        while (claimed.isPresent())
+        {
+            MetadataNotification event = claimed.get();
+            if (attempted != null && !attempted.add(event.getEventId()))
+            {
+                queue.release(event, claimerId);
+                break;
+            }
+            processed += handleClaimedEvent(event);
+            claimed = stopped.get() ? Optional.empty() : queue.claimNext(claimerId, leaseDuration);
+        }
+        return processed;
+    }
+
+    private int handleClaimedEvent(MetadataNotification event)
+    {
+        long heartbeatInterval = Math.max(1, leaseDuration / 3);
+        ScheduledFuture<?> leaseRenewal = heartbeat.scheduleAtFixedRate(() -> renewLease(event), heartbeatInterval, heartbeatInterval, TimeUnit.MILLISECONDS);
+        try
         {
-            MetadataNotification event = foundEvent.get();
             if (event.retriesExceeded())
             {
                 event.getResponse().addError("Max number of retries exceed");
-                events.complete(event);
+                complete(event);
                 LOGGER.info("{} event has exceeded {} maximum retries", event.getEventId(),event.getMaxRetries());
             }
             else
@@ -80,7 +264,31 @@ public final class NotificationsQueueManager implements NotificationsManager
             LOGGER.info("Finished processing events");
             return 1;
         }
-        return 0;
+        finally
+        {
+            leaseRenewal.cancel(false);
+        }
+    }
+
+    private void renewLease(MetadataNotification event)
+    {
+        try
+        {
+            if (!queue.renewLease(event.getEventId(), claimerId, leaseDuration))
+            {
+                LOGGER.warn("lease on event {} no longer held by {}", event.getEventId(), claimerId);
+            }
+        }
+        catch (Exception e)
+        {
+            LOGGER.error("could not renew lease on event {}: {}", event.getEventId(), e.getMessage());
+        }
+    }
+
+    private void complete(MetadataNotification event)
+    {
+        events.complete(event);
+        queue.acknowledge(event.getEventId(), claimerId);
     }
 
 
@@ -90,7 +298,7 @@ public final class NotificationsQueueManager implements NotificationsManager
         if (!validationErrors.isEmpty())
         {
             event.addError(String.join(",",validationErrors));
-            events.complete(event);
+            complete(event);
             PrometheusMetricsFactory.getInstance().incrementErrorCount(NOTIFICATIONS_COUNTER);
             return;
         }
@@ -107,13 +315,13 @@ public final class NotificationsQueueManager implements NotificationsManager
         }
         if (response.hasErrors())
         {
-            queue.push(event.increaseRetries().setResponse(response));
+            queue.release(event.increaseRetries().setResponse(response), claimerId);
             LOGGER.info("event completed with errors [{}]", response.getErrors());
             PrometheusMetricsFactory.getInstance().incrementErrorCount(NOTIFICATIONS_COUNTER);
         }
         else
         {
-            events.complete(event.setResponse(response));
+            complete(event.setResponse(response));
             LOGGER.info("event completed successfully");
         }
     }
@@ -164,13 +372,7 @@ public final class NotificationsQueueManager implements NotificationsManager
 
     public void handleAll()
     {
-        Optional<MetadataNotification> event = queue.getFirstInQueue();
-        do
-        {
-            handleEvents(event);
-            event = queue.getFirstInQueue();
-        }
-        while (event.isPresent());
+        drain(null);
     }
 
     public long waitingOnQueue()
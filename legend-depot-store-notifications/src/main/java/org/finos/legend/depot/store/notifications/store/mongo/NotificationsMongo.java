@@ -49,6 +49,7 @@ public class NotificationsMongo extends BaseMongo<MetadataNotification> implemen
     private static final String EVENT_ID = "eventId";
     private static final String LAST_UPDATED = "lastUpdated";
     private static final String PARENT_EVENT = "parentEventId";
+    private static final String COALESCED_PARENTS = "coalescedParentEventIds";
     private static final String RESPONSE_STATUS = "status";
 
     @Inject
@@ -116,7 +117,7 @@ public class NotificationsMongo extends BaseMongo<MetadataNotification> implemen
         filter = groupId != null ? and(filter, eq(GROUP_ID, groupId)) : filter;
         filter = artifactId != null ? and(filter, eq(ARTIFACT_ID, artifactId)) : filter;
         filter = version != null ? and(filter, eq(VERSION_ID, version)) : filter;
-        filter = parentEventId != null ? and(filter, eq(PARENT_EVENT, parentEventId)) : filter;
+        filter = parentEventId != null ? and(filter, Filters.or(eq(PARENT_EVENT, parentEventId), eq(COALESCED_PARENTS, parentEventId))) : filter;
         filter = success != null ? and(filter, eq(RESPONSE_STATUS, (success ? MetadataEventStatus.SUCCESS.name() : MetadataEventStatus.FAILED.name()))) : filter;
 
         List<MetadataNotification> result = new ArrayList<>();
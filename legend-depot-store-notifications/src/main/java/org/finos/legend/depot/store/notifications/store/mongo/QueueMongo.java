@@ -20,6 +20,11 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.mongodb.client.MongoCollection;
 import com.mongodb.client.MongoDatabase;
 import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.FindOneAndDeleteOptions;
+import com.mongodb.client.model.FindOneAndUpdateOptions;
+import com.mongodb.client.model.ReturnDocument;
+import com.mongodb.client.model.Sorts;
+import com.mongodb.client.model.Updates;
 import com.mongodb.client.result.DeleteResult;
 import org.bson.Document;
 import org.bson.conversions.Bson;
@@ -30,7 +35,9 @@ import org.finos.legend.depot.store.notifications.domain.MetadataNotification;
 
 import javax.inject.Inject;
 import javax.inject.Named;
+import java.io.Closeable;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Date;
 import java.util.List;
 import java.util.Optional;
@@ -42,6 +49,16 @@ public class QueueMongo extends BaseMongo<MetadataNotification> implements Queue
 
     public static final String QUEUE = "events-queue";
     public static final String OBJECT_ID = "_id";
+    public static final String CLAIMED_BY = "claimedBy";
+    public static final String LEASE_EXPIRES_AT = "leaseExpiresAt";
+    private static final String LAST_UPDATED = "lastUpdated";
+    private static final String EVENT_ID = "eventId";
+    private static final String PROJECT_ID = "projectId";
+    private static final String PARENT_EVENT = "parentEventId";
+    private static final String FULL_UPDATE = "fullUpdate";
+    private static final String TRANSITIVE = "transitive";
+    private static final String COALESCED_PARENTS = "coalescedParentEventIds";
+    private static final String RETRIES = "retries";
 
     @Inject
     public QueueMongo(@Named("mongoDatabase") MongoDatabase databaseProvider)
@@ -50,9 +67,11 @@ public class QueueMongo extends BaseMongo<MetadataNotification> implements Queue
     }
 
     @Override
-    protected boolean createIndexIfAbsent(String indexName, String... fieldNames)
+    public boolean createIndexesIfAbsent()
     {
-        return createIndexIfAbsent("eventId", "eventId");
+        createIndexIfAbsent("eventId", EVENT_ID);
+        //claimNext scans unleased or expired events oldest first
+        return createIndexIfAbsent("claim-lease-lastUpdated", LEASE_EXPIRES_AT, LAST_UPDATED);
     }
 
     @Override
@@ -64,7 +83,24 @@ public class QueueMongo extends BaseMongo<MetadataNotification> implements Queue
     @Override
     protected Bson getKeyFilter(MetadataNotification event)
     {
-        return NotificationKeyFilter.getFilter(event);
+        //events already claimed by a consumer are in flight, a new notification for the same coordinates is queued separately
+        return event.getEventId() != null ? NotificationKeyFilter.getFilter(event) : Filters.and(NotificationKeyFilter.getFilter(event), Filters.exists(CLAIMED_BY, false));
+    }
+
+    private Bson getCoalescableFilter(MetadataNotification event)
+    {
+        //only events still waiting for their first attempt: never leased and no failed attempts counted
+        return Filters.and(NotificationKeyFilter.getFilter(event), Filters.exists(CLAIMED_BY, false), Filters.exists(LEASE_EXPIRES_AT, false), Filters.not(Filters.gt(RETRIES, 0)));
+    }
+
+    private Bson getClaimableFilter()
+    {
+        return Filters.and(Filters.exists(GROUP_ID), Filters.or(Filters.exists(LEASE_EXPIRES_AT, false), Filters.lt(LEASE_EXPIRES_AT, new Date())));
+    }
+
+    private Bson getClaimFilter(String eventId, String claimerId)
+    {
+        return Filters.and(Filters.eq(OBJECT_ID, new ObjectId(eventId)), Filters.eq(CLAIMED_BY, claimerId));
     }
 
     @Override
@@ -79,18 +115,57 @@ public class QueueMongo extends BaseMongo<MetadataNotification> implements Queue
         return getCollection().count();
     }
 
+    @Override
+    public Closeable watch(Runnable onNewEvents, long pollIntervalInMillis, boolean useChangeStreams)
+    {
+        return new QueueWatcher(getCollection(), onNewEvents, pollIntervalInMillis, useChangeStreams).start();
+    }
+
     public String push(MetadataNotification event)
     {
         event.setLastUpdated(new Date());
-        MetadataNotification result = createOrUpdate(event);
+        if (event.getEventId() != null)
+        {
+            return createOrUpdate(event).getEventId();
+        }
+        MetadataNotification result = coalesce(event);
         if (result.getEventId() == null)
         {
             result.setEventId(result.getId());
-            createOrUpdate(result);
+            getCollection().updateOne(Filters.eq(OBJECT_ID, new ObjectId(result.getId())), Updates.set(EVENT_ID, result.getEventId()));
         }
         return result.getEventId();
     }
 
+    private MetadataNotification coalesce(MetadataNotification event)
+    {
+        //a pending event for the same coordinates absorbs the new one: update flags are or-ed and other parents recorded,
+        //it keeps its place in the queue
+        Document onInsert = buildDocument(event);
+        onInsert.keySet().removeAll(Arrays.asList(ID, EVENT_ID, PROJECT_ID, GROUP_ID, ARTIFACT_ID, VERSION_ID, FULL_UPDATE, TRANSITIVE, COALESCED_PARENTS));
+
+        List<Bson> updates = new ArrayList<>(Arrays.asList(Updates.setOnInsert(onInsert), Updates.max(FULL_UPDATE, event.isFullUpdate()), Updates.max(TRANSITIVE, event.isTransitive())));
+        if (event.getParentEventId() != null)
+        {
+            updates.add(Updates.addToSet(COALESCED_PARENTS, event.getParentEventId()));
+        }
+        FindOneAndUpdateOptions options = new FindOneAndUpdateOptions().upsert(true).returnDocument(ReturnDocument.AFTER);
+        return convert((Document)getCollection().findOneAndUpdate(getCoalescableFilter(event), Updates.combine(updates), options), MetadataNotification.class);
+    }
+
+    @Override
+    public <T> T convert(Document document, Class<T> clazz)
+    {
+        T converted = super.convert(document, clazz);
+        if (converted instanceof MetadataNotification)
+        {
+            //parents are added to the set unconditionally when coalescing, the event's own parent needs no second record
+            MetadataNotification event = (MetadataNotification)converted;
+            event.getCoalescedParentEventIds().remove(event.getParentEventId());
+        }
+        return converted;
+    }
+
 
     public List<MetadataNotification> pullAll()
     {
@@ -109,13 +184,37 @@ public class QueueMongo extends BaseMongo<MetadataNotification> implements Queue
     @Override
     public Optional<MetadataNotification> getFirstInQueue()
     {
-        Document first = (Document)getCollection().findOneAndDelete(Filters.exists(GROUP_ID));
-        if (first != null)
-        {
-            return Optional.of(convert(first, MetadataNotification.class));
+        //removes the oldest unclaimed event, events claimed by a worker are left to their claimer
+        Document first = (Document)getCollection().findOneAndDelete(getClaimableFilter(), new FindOneAndDeleteOptions().sort(Sorts.ascending(LAST_UPDATED)));
+        return first != null ? Optional.of(convert(first, MetadataNotification.class)) : Optional.empty();
+    }
 
-        }
-        return Optional.empty();
+    @Override
+    public Optional<MetadataNotification> claimNext(String claimerId, long leaseInMillis)
+    {
+        Bson claim = Updates.combine(Updates.set(CLAIMED_BY, claimerId), Updates.set(LEASE_EXPIRES_AT, new Date(System.currentTimeMillis() + leaseInMillis)));
+        FindOneAndUpdateOptions options = new FindOneAndUpdateOptions().sort(Sorts.ascending(LAST_UPDATED)).returnDocument(ReturnDocument.AFTER);
+        Document claimed = (Document)getCollection().findOneAndUpdate(getClaimableFilter(), claim, options);
+        return claimed != null ? Optional.of(convert(claimed, MetadataNotification.class)) : Optional.empty();
+    }
+
+    @Override
+    public boolean renewLease(String eventId, String claimerId, long leaseInMillis)
+    {
+        return getCollection().updateOne(getClaimFilter(eventId, claimerId), Updates.set(LEASE_EXPIRES_AT, new Date(System.currentTimeMillis() + leaseInMillis))).getMatchedCount() > 0;
+    }
+
+    @Override
+    public boolean release(MetadataNotification event, String claimerId)
+    {
+        event.setLastUpdated(new Date());
+        return getCollection().replaceOne(getClaimFilter(event.getEventId(), claimerId), buildDocument(event)).getMatchedCount() > 0;
+    }
+
+    @Override
+    public boolean acknowledge(String eventId, String claimerId)
+    {
+        return getCollection().deleteOne(getClaimFilter(eventId, claimerId)).getDeletedCount() > 0;
     }
 
     @Override
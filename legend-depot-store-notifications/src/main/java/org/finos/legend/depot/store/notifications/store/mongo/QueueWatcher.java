@@ -0,0 +1,182 @@
+//  Copyright 2021 Goldman Sachs
+//
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//       http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+//
+
+package org.finos.legend.depot.store.notifications.store.mongo;
+
+import com.mongodb.MongoCommandException;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.MongoCursor;
+import com.mongodb.client.model.Aggregates;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.Projections;
+import com.mongodb.client.model.Sorts;
+import com.mongodb.client.model.changestream.ChangeStreamDocument;
+import org.bson.Document;
+import org.slf4j.Logger;
+
+import java.io.Closeable;
+import java.util.Collections;
+
+/**
+ * Calls back whenever new events are inserted in the queue. Uses a change stream when enabled and supported
+ * by the deployment (replica sets/sharded clusters), otherwise polls for newly pushed events.
+ */
+class QueueWatcher implements Closeable, Runnable
+{
+    private static final Logger LOGGER = org.slf4j.LoggerFactory.getLogger(QueueWatcher.class);
+    private static final String OPERATION_TYPE = "operationType";
+    private static final String INSERT = "insert";
+    private static final String LAST_UPDATED = "lastUpdated";
+    private static final String RETRIES = "retries";
+
+    private final MongoCollection<Document> collection;
+    private final Runnable onNewEvents;
+    private final long pollIntervalInMillis;
+    private final boolean useChangeStreams;
+    private volatile boolean running = true;
+    private long lastSeen;
+    private volatile MongoCursor<ChangeStreamDocument<Document>> changes;
+
+    QueueWatcher(MongoCollection<Document> collection, Runnable onNewEvents, long pollIntervalInMillis, boolean useChangeStreams)
+    {
+        this.collection = collection;
+        this.onNewEvents = onNewEvents;
+        this.pollIntervalInMillis = pollIntervalInMillis;
+        this.useChangeStreams = useChangeStreams;
+    }
+
+    QueueWatcher start()
+    {
+        lastSeen = newestPush(0L);
+        Thread thread = new Thread(this, "events-queue-watcher");
+        thread.setDaemon(true);
+        thread.start();
+        return this;
+    }
+
+    @Override
+    public void run()
+    {
+        if (!useChangeStreams)
+        {
+            poll();
+            return;
+        }
+        while (running)
+        {
+            try
+            {
+                watchChangeStream();
+            }
+            catch (MongoCommandException e)
+            {
+                LOGGER.info("change streams not available for {}, polling every {} ms instead: {}", collection.getNamespace(), pollIntervalInMillis, e.getErrorMessage());
+                poll();
+                return;
+            }
+            catch (RuntimeException e)
+            {
+                if (running)
+                {
+                    LOGGER.warn("queue change stream interrupted, reopening: {}", e.getMessage());
+                    pause();
+                }
+            }
+        }
+    }
+
+    private void watchChangeStream()
+    {
+        changes = collection.watch(Collections.singletonList(Aggregates.match(Filters.eq(OPERATION_TYPE, INSERT)))).iterator();
+        try
+        {
+            while (running)
+            {
+                changes.next();
+                notifyListener();
+            }
+        }
+        finally
+        {
+            changes.close();
+        }
+    }
+
+    private void poll()
+    {
+        while (running)
+        {
+            long newest = newestPush(lastSeen);
+            if (newest > lastSeen)
+            {
+                lastSeen = newest;
+                notifyListener();
+            }
+            pause();
+        }
+    }
+
+    private long newestPush(long after)
+    {
+        //released retries are left for the scheduled run, only fresh pushes wake consumers up
+        try
+        {
+            Document newest = collection.find(Filters.and(Filters.gt(LAST_UPDATED, after), Filters.eq(RETRIES, 0)))
+                    .sort(Sorts.descending(LAST_UPDATED)).projection(Projections.include(LAST_UPDATED)).first();
+            return newest != null ? ((Number)newest.get(LAST_UPDATED)).longValue() : after;
+        }
+        catch (RuntimeException e)
+        {
+            LOGGER.warn("error polling events queue: {}", e.getMessage());
+            return after;
+        }
+    }
+
+    private void notifyListener()
+    {
+        try
+        {
+            onNewEvents.run();
+        }
+        catch (RuntimeException e)
+        {
+            LOGGER.error("error waking up queue consumers", e);
+        }
+    }
+
+    private void pause()
+    {
+        try
+        {
+            Thread.sleep(pollIntervalInMillis);
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+            running = false;
+        }
+    }
+
+    @Override
+    public void close()
+    {
+        running = false;
+        MongoCursor<ChangeStreamDocument<Document>> cursor = changes;
+        if (cursor != null)
+        {
+            cursor.close();
+        }
+    }
+}
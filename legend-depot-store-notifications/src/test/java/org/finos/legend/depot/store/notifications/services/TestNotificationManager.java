@@ -35,9 +35,12 @@ import org.junit.Before;
 import org.junit.Test;
 import org.junit.Ignore;
 
+import java.io.Closeable;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
@@ -137,4 +140,51 @@ public class TestNotificationManager extends TestStoreMongo
         Assert.assertTrue(response.getStatus().equals(MetadataEventStatus.FAILED));
     }
 
+    @Test
+    public void workersDrainAllEventsInQueue()
+    {
+        for (int i = 0; i < 10; i++)
+        {
+            queue.push(new MetadataNotification(TEST_PROJECT_ID, TEST_GROUP_ID, "test", "1.0." + i));
+        }
+        when(notificationEventHandler.validateEvent(any())).thenReturn(Collections.emptyList());
+        when(notificationEventHandler.handleEvent(any())).thenReturn(new MetadataEventResponse());
+
+        Assert.assertEquals(10, eventsManager.handle());
+        Assert.assertTrue(queue.getAll().isEmpty());
+        Assert.assertEquals(10, eventsMongo.getAll().size());
+    }
+
+    @Test
+    public void newEventsWakeUpWatchingConsumers() throws Exception
+    {
+        when(notificationEventHandler.validateEvent(any())).thenReturn(Collections.emptyList());
+        when(notificationEventHandler.handleEvent(any())).thenReturn(new MetadataEventResponse());
+
+        try (Closeable watcher = eventsManager.watchQueue(50L, false))
+        {
+            queue.push(new MetadataNotification(TEST_PROJECT_ID, TEST_GROUP_ID, "test", VERSION_ID));
+            long deadline = System.currentTimeMillis() + 5000L;
+            while (eventsMongo.getAll().isEmpty() && System.currentTimeMillis() < deadline)
+            {
+                Thread.sleep(50L);
+            }
+        }
+        Assert.assertEquals(1, eventsMongo.getAll().size());
+        Assert.assertTrue(queue.getAll().isEmpty());
+    }
+
+    @Test
+    public void stoppedManagerLeavesEventsInQueue() throws Exception
+    {
+        when(notificationEventHandler.validateEvent(any())).thenReturn(Collections.emptyList());
+        when(notificationEventHandler.handleEvent(any())).thenReturn(new MetadataEventResponse());
+
+        eventsManager.stop();
+        queue.push(new MetadataNotification(TEST_PROJECT_ID, TEST_GROUP_ID, "test", VERSION_ID));
+
+        Assert.assertEquals(0, eventsManager.handle());
+        Assert.assertEquals(1, queue.getAll().size());
+        Assert.assertTrue(eventsMongo.getAll().isEmpty());
+    }
 }
@@ -22,9 +22,13 @@ import org.finos.legend.depot.store.notifications.domain.MetadataNotification;
 import org.junit.Assert;
 import org.junit.Test;
 
+import java.io.Closeable;
 import java.time.LocalDateTime;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 
 public class TestQueueMongo extends TestStoreMongo
 {
@@ -205,8 +209,115 @@ public class TestQueueMongo extends TestStoreMongo
         Assert.assertTrue(queue.getFirstInQueue().isPresent());
         Assert.assertTrue(queue.getFirstInQueue().isPresent());
         Assert.assertFalse(queue.getFirstInQueue().isPresent());
+        Assert.assertEquals(0, queue.size());
+    }
+
+    @Test
+    public void claimedEventsAreNotHandedOutTwice()
+    {
+        queue.push(new MetadataNotification(TESTPROJECT, TEST, TEST, VERSION));
+
+        Optional<MetadataNotification> claimed = queue.claimNext("worker-1", 60000L);
+        Assert.assertTrue(claimed.isPresent());
+        Assert.assertFalse(queue.claimNext("worker-2", 60000L).isPresent());
+        Assert.assertFalse(queue.getFirstInQueue().isPresent());
+        Assert.assertEquals(1, queue.size());
+
+        Assert.assertFalse(queue.acknowledge(claimed.get().getEventId(), "worker-2"));
+        Assert.assertTrue(queue.acknowledge(claimed.get().getEventId(), "worker-1"));
+        Assert.assertEquals(0, queue.size());
+    }
+
+    @Test
+    public void expiredLeasesCanBeReclaimed()
+    {
+        queue.push(new MetadataNotification(TESTPROJECT, TEST, TEST, VERSION));
+
+        MetadataNotification claimed = queue.claimNext("worker-1", -1000L).get();
+        MetadataNotification reclaimed = queue.claimNext("worker-2", 60000L).get();
+        Assert.assertEquals(claimed.getEventId(), reclaimed.getEventId());
+
+        Assert.assertFalse(queue.renewLease(claimed.getEventId(), "worker-1", 60000L));
+        Assert.assertTrue(queue.renewLease(claimed.getEventId(), "worker-2", 60000L));
+        Assert.assertFalse(queue.acknowledge(claimed.getEventId(), "worker-1"));
+    }
+
+    @Test
+    public void releasedEventsGoBackToTheQueue()
+    {
+        queue.push(new MetadataNotification(TESTPROJECT, TEST, TEST, VERSION));
+
+        MetadataNotification claimed = queue.claimNext("worker-1", 60000L).get();
+        Assert.assertTrue(queue.release(claimed.increaseRetries().addError("failed"), "worker-1"));
 
+        MetadataNotification reclaimed = queue.claimNext("worker-2", 60000L).get();
+        Assert.assertEquals(claimed.getEventId(), reclaimed.getEventId());
+        Assert.assertEquals(1, reclaimed.getRetries());
+        Assert.assertEquals(1, reclaimed.getErrors().size());
+    }
+
+    @Test
+    public void notificationsForClaimedEventsAreQueuedSeparately()
+    {
+        String eventId = queue.push(new MetadataNotification(TESTPROJECT, TEST, TEST, VERSION));
+        queue.claimNext("worker-1", 60000L);
+
+        String newEventId = queue.push(new MetadataNotification(TESTPROJECT, TEST, TEST, VERSION));
+        Assert.assertNotEquals(eventId, newEventId);
+        Assert.assertEquals(2, queue.size());
+        Assert.assertEquals(newEventId, queue.claimNext("worker-2", 60000L).get().getEventId());
+    }
+
+    @Test
+    public void watchersAreNotifiedOfNewEvents() throws Exception
+    {
+        queue.push(new MetadataNotification(TESTPROJECT, TEST, TEST, VERSION));
+        CountDownLatch inserted = new CountDownLatch(1);
+        try (Closeable watcher = queue.watch(inserted::countDown, 50L, false))
+        {
+            Thread.sleep(200L);
+            Assert.assertEquals(1, inserted.getCount());
 
+            queue.push(new MetadataNotification(TESTPROJECT_1, TEST, TEST, VERSION));
+            Assert.assertTrue(inserted.await(5, TimeUnit.SECONDS));
+        }
     }
 
-}
\ No newline at end of file
+    @Test
+    public void pendingEventsForSameCoordinatesAreCoalesced()
+    {
+        String eventId = queue.push(new MetadataNotification(TESTPROJECT, TEST, TEST, VERSION, false, true, "parent-1"));
+        queue.push(new MetadataNotification(TESTPROJECT_1, TEST, TEST, VERSION, false, false, "parent-1"));
+        Assert.assertEquals(eventId, queue.push(new MetadataNotification(TESTPROJECT, TEST, TEST, VERSION, true, false, "parent-2")));
+        Assert.assertEquals(eventId, queue.push(new MetadataNotification(TESTPROJECT, TEST, TEST, VERSION, false, false, "parent-3")));
+        Assert.assertEquals(eventId, queue.push(new MetadataNotification(TESTPROJECT, TEST, TEST, VERSION, false, false, "parent-1")));
+        Assert.assertEquals(2, queue.size());
+
+        MetadataNotification coalesced = queue.claimNext("worker-1", 60000L).get();
+        Assert.assertEquals(eventId, coalesced.getEventId());
+        Assert.assertTrue(coalesced.isFullUpdate());
+        Assert.assertTrue(coalesced.isTransitive());
+        Assert.assertEquals("parent-1", coalesced.getParentEventId());
+        Assert.assertEquals(Arrays.asList("parent-2", "parent-3"), coalesced.getCoalescedParentEventIds());
+
+        eventsMongo.complete(coalesced);
+        Assert.assertEquals(1, eventsMongo.find(null, null, null, "parent-3", null, null, null).size());
+        Assert.assertEquals(1, eventsMongo.find(null, null, null, "parent-1", null, null, null).size());
+    }
+
+    @Test
+    public void failedEventsDoNotAbsorbNewNotifications()
+    {
+        String eventId = queue.push(new MetadataNotification(TESTPROJECT, TEST, TEST, VERSION));
+        MetadataNotification claimed = queue.claimNext("worker-1", 60000L).get();
+        Assert.assertTrue(queue.release(claimed.increaseRetries().addError("failed"), "worker-1"));
+
+        String newEventId = queue.push(new MetadataNotification(TESTPROJECT, TEST, TEST, VERSION, false, false, "parent-1"));
+        Assert.assertNotEquals(eventId, newEventId);
+        Assert.assertEquals(2, queue.size());
+        Assert.assertEquals(1, queue.get(eventId).get().getRetries());
+        MetadataNotification pending = queue.get(newEventId).get();
+        Assert.assertEquals(0, pending.getRetries());
+        Assert.assertTrue(pending.getCoalescedParentEventIds().isEmpty());
+    }
+}
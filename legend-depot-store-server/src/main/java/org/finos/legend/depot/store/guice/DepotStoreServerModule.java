@@ -21,6 +21,7 @@ import org.finos.legend.depot.artifacts.repository.api.ArtifactRepositoryProvide
 import org.finos.legend.depot.artifacts.repository.api.VoidArtifactRepositoryProvider;
 import org.finos.legend.depot.core.http.guice.BaseModule;
 import org.finos.legend.depot.domain.project.IncludeProjectPropertiesConfiguration;
+import org.finos.legend.depot.services.configuration.DependenciesCacheConfiguration;
 import org.finos.legend.depot.store.notifications.domain.QueueManagerConfiguration;
 import org.finos.legend.depot.store.server.configuration.DepotStoreServerConfiguration;
 import org.slf4j.Logger;
@@ -38,6 +39,12 @@ public class DepotStoreServerModule extends BaseModule<DepotStoreServerConfigura
         binder.bind(ArtifactRepositoryProviderConfiguration.class).toProvider(this::getArtifactRepositoryConfiguration);
         binder.bind(IncludeProjectPropertiesConfiguration.class).toProvider(this::getIncludePropertiesConfiguration);
         binder.bind(QueueManagerConfiguration.class).toProvider(this::getQueueManagerConfiguration);
+        binder.bind(DependenciesCacheConfiguration.class).toProvider(this::getDependenciesCacheConfiguration);
+    }
+
+    private DependenciesCacheConfiguration getDependenciesCacheConfiguration()
+    {
+        return getConfiguration().getDependenciesCacheConfiguration() != null ? getConfiguration().getDependenciesCacheConfiguration() : new DependenciesCacheConfiguration();
     }
 
     private QueueManagerConfiguration getQueueManagerConfiguration()
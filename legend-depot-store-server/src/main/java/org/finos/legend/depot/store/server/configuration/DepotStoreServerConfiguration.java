@@ -20,6 +20,7 @@ import com.fasterxml.jackson.annotation.JsonProperty;
 import org.finos.legend.depot.artifacts.repository.api.ArtifactRepositoryProviderConfiguration;
 import org.finos.legend.depot.core.http.ServersConfiguration;
 import org.finos.legend.depot.domain.project.IncludeProjectPropertiesConfiguration;
+import org.finos.legend.depot.services.configuration.DependenciesCacheConfiguration;
 import org.finos.legend.depot.store.notifications.domain.QueueManagerConfiguration;
 
 import javax.validation.constraints.NotNull;
@@ -39,6 +40,9 @@ public class DepotStoreServerConfiguration extends ServersConfiguration
     @JsonProperty("includeProjectPropertiesConfiguration")
     private IncludeProjectPropertiesConfiguration includeProjectPropertiesConfiguration;
 
+    @JsonProperty("dependenciesCache")
+    private DependenciesCacheConfiguration dependenciesCacheConfiguration;
+
     public QueueManagerConfiguration getQueueManagerConfiguration()
     {
         return queueManagerConfiguration;
@@ -69,4 +73,14 @@ public class DepotStoreServerConfiguration extends ServersConfiguration
         this.includeProjectPropertiesConfiguration = includeProjectPropertiesConfiguration;
     }
 
+    public DependenciesCacheConfiguration getDependenciesCacheConfiguration()
+    {
+        return dependenciesCacheConfiguration;
+    }
+
+    public void setDependenciesCacheConfiguration(DependenciesCacheConfiguration dependenciesCacheConfiguration)
+    {
+        this.dependenciesCacheConfiguration = dependenciesCacheConfiguration;
+    }
+
 }